@@ -0,0 +1,82 @@
+package com.github.dockerjava.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.dockerjava.core.CompressArchiveUtil;
+
+/**
+ * Archiving a synthetic build context, into a temporary tar file and as a stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    @Param({ "100", "1000" })
+    public int files;
+
+    @Param({ "4096" })
+    public int fileSize;
+
+    private File base;
+
+    private List<File> tree;
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        base = new File(FileUtils.getTempDirectory(), "docker-java-benchmark-" + System.nanoTime());
+        tree = Fixtures.fileTree(base, files, fileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(base);
+    }
+
+    @Benchmark
+    public long archiveTARFiles() throws IOException {
+        File archive = CompressArchiveUtil.archiveTARFiles(base, tree, "benchmark-" + Thread.currentThread().getId());
+        long length = archive.length();
+        FileUtils.forceDelete(archive);
+        return length;
+    }
+
+    @Benchmark
+    public long streamTARFiles() throws IOException {
+        InputStream in = CompressArchiveUtil.streamTARFiles(base, tree);
+        try {
+            long length = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                length += n;
+            }
+            return length;
+        } finally {
+            in.close();
+        }
+    }
+}
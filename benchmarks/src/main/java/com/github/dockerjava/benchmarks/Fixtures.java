@@ -0,0 +1,140 @@
+package com.github.dockerjava.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+import com.github.dockerjava.api.model.StreamType;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+
+/**
+ * Synthetic, but realistically shaped, input for the benchmarks. Seeded, so that every run sees the same data.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static String containerId(Random random) {
+        StringBuilder id = new StringBuilder(64);
+        for (int i = 0; i < 64; i++) {
+            id.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return id.toString();
+    }
+
+    /**
+     * @return a <code>/containers/json</code> response listing <code>count</code> containers
+     */
+    static byte[] containerList(int count) {
+        Random random = new Random(count);
+        StringBuilder json = new StringBuilder(count * 400).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"Command\":\"nginx -g 'daemon off;'\",\"Created\":").append(1416495201 + i)
+                    .append(",\"Id\":\"").append(containerId(random))
+                    .append("\",\"Image\":\"nginx:1.7.7\",\"Names\":[\"/web-").append(i)
+                    .append("\"],\"Ports\":[{\"IP\":\"0.0.0.0\",\"PrivatePort\":80,\"PublicPort\":")
+                    .append(30000 + i).append(",\"Type\":\"tcp\"},{\"PrivatePort\":443,\"Type\":\"tcp\"}]")
+                    .append(",\"Status\":\"Up ").append(1 + random.nextInt(59)).append(" minutes\"}");
+        }
+        return json.append(']').toString().getBytes(Charsets.UTF_8);
+    }
+
+    /**
+     * Creates <code>count</code> files of <code>size</code> bytes in directories of 16 files each.
+     */
+    static List<File> fileTree(File base, int count, int size) throws IOException {
+        Random random = new Random(count);
+        List<File> files = new ArrayList<File>(count);
+        byte[] content = new byte[size];
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(content);
+            File file = new File(base, "dir" + i / 16 + "/file" + i + ".txt");
+            FileUtils.writeByteArrayToFile(file, content);
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * @return an <code>/events</code> stream of <code>count</code> container lifecycle events
+     */
+    static byte[] events(int count) {
+        String[] statuses = { "create", "start", "die", "stop", "destroy" };
+        Random random = new Random(count);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 150);
+        String id = containerId(random);
+        for (int i = 0; i < count; i++) {
+            if (i % statuses.length == 0) {
+                id = containerId(random);
+            }
+            String event = "{\"status\":\"" + statuses[i % statuses.length] + "\",\"id\":\"" + id
+                    + "\",\"from\":\"nginx:1.7.7\",\"time\":" + (1416495201 + i) + "}";
+            write(out, event);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return a multiplexed <code>/containers/{id}/logs</code> stream of <code>count</code> log lines, one frame each,
+     *         one in ten on stderr
+     */
+    static byte[] multiplexedLogs(int count) {
+        Random random = new Random(count);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 90);
+        for (int i = 0; i < count; i++) {
+            StreamType streamType = i % 10 == 9 ? StreamType.STDERR : StreamType.STDOUT;
+            String level = streamType == StreamType.STDERR ? "WARN" : "INFO";
+            byte[] line = ("2014-11-20T15:33:21." + (100000 + i % 900000) + "Z " + level + " GET /api/items/"
+                    + random.nextInt(100000) + " served in " + random.nextInt(250) + "ms\n").getBytes(Charsets.UTF_8);
+            out.write(streamType == StreamType.STDERR ? 2 : 1);
+            out.write(0);
+            out.write(0);
+            out.write(0);
+            out.write(line.length >>> 24);
+            out.write(line.length >>> 16);
+            out.write(line.length >>> 8);
+            out.write(line.length);
+            out.write(line, 0, line.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return an <code>/images/create</code> stream of <code>count</code> progress messages, pulling layers of 32 MB
+     *         in 100 steps each
+     */
+    static byte[] pullProgress(int count) {
+        Random random = new Random(count);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 180);
+        String layer = containerId(random).substring(0, 12);
+        long total = 32 * 1024 * 1024;
+        for (int i = 0; i < count; i++) {
+            int step = i % 100;
+            if (step == 0) {
+                layer = containerId(random).substring(0, 12);
+            }
+            long current = total * (step + 1) / 100;
+            String bar = "[" + Strings.repeat("=", step / 2) + ">" + Strings.repeat(" ", 50 - step / 2) + "]";
+            String message = "{\"status\":\"Downloading\",\"progressDetail\":{\"current\":" + current
+                    + ",\"total\":" + total + "},\"progress\":\"" + bar + " " + current / 1024 / 1024
+                    + " MB/32 MB\",\"id\":\"" + layer + "\"}\r\n";
+            write(out, message);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(Charsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.dockerjava.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.dockerjava.core.GoLangFileMatch;
+import com.github.dockerjava.core.GoLangFileMatcher;
+import com.github.dockerjava.core.NameParser;
+import com.github.dockerjava.core.NameParser.ReposTag;
+
+/**
+ * <code>.dockerignore</code> matching, which runs for every file of a build context, and repository name parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingBenchmark {
+
+    private static final List<String> PATTERNS = Arrays.asList(".git", "node_modules", "*.log", "build/*",
+            "**/*.tmp", "docs/[a-c]*.md", "target", "*/cache/*");
+
+    private static final String[] NAMES = { "src/main/java/com/example/App.java", "node_modules", ".git",
+            "build/classes", "docs/api.md", "server.log", "web/cache/index", "README.md" };
+
+    private static final String[] REPOSITORY_TAGS = { "busybox", "busybox:latest", "localhost:5000/app:1.0",
+            "registry.example.com/team/service", "docker-java/busybox:2014-12-01" };
+
+    private final GoLangFileMatcher matcher = GoLangFileMatcher.compile(PATTERNS);
+
+    @Benchmark
+    public void goLangFileMatch(Blackhole blackhole) {
+        for (String name : NAMES) {
+            blackhole.consume(GoLangFileMatch.match(PATTERNS, name));
+        }
+    }
+
+    @Benchmark
+    public void goLangFileMatcher(Blackhole blackhole) {
+        for (String name : NAMES) {
+            blackhole.consume(matcher.matches(name));
+        }
+    }
+
+    @Benchmark
+    public void parseRepositoryTag(Blackhole blackhole) {
+        for (String name : REPOSITORY_TAGS) {
+            ReposTag reposTag = NameParser.parseRepositoryTag(name);
+            blackhole.consume(reposTag);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.dockerjava.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+
+/**
+ * Deserializes <code>/containers/json</code> responses of fleet sized hosts and <code>/containers/{id}/json</code>
+ * responses, the way the client's Jackson provider does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+    private static final TypeReference<List<Container>> CONTAINER_LIST = new TypeReference<List<Container>>() {
+    };
+
+    @State(Scope.Benchmark)
+    public static class ContainerList {
+
+        @Param({ "10", "100", "1000" })
+        public int containers;
+
+        private byte[] json;
+
+        @Setup
+        public void setUp() {
+            json = Fixtures.containerList(containers);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] inspectContainer;
+
+    @Setup
+    public void setUp() throws IOException {
+        InputStream in = getClass().getResourceAsStream("/inspect-container.json");
+        try {
+            inspectContainer = IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Benchmark
+    public List<Container> readContainerList(ContainerList containerList) throws IOException {
+        return objectMapper.readValue(containerList.json, CONTAINER_LIST);
+    }
+
+    @Benchmark
+    public InspectContainerResponse readInspectContainerResponse() throws IOException {
+        return objectMapper.readValue(inspectContainer, InspectContainerResponse.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.dockerjava.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.ExposedPorts;
+import com.github.dockerjava.api.model.Ports;
+import com.github.dockerjava.api.model.Ports.Binding;
+
+/**
+ * The custom serializers of {@link Ports} and {@link ExposedPorts}, which run for every create and inspect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortsSerializationBenchmark {
+
+    private static final int PORTS = 8;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Ports ports;
+
+    private ExposedPorts exposedPorts;
+
+    private String portsJson;
+
+    private String exposedPortsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ports = new Ports();
+        ExposedPort[] exposed = new ExposedPort[PORTS];
+        for (int i = 0; i < PORTS; i++) {
+            exposed[i] = i % 2 == 0 ? ExposedPort.tcp(8000 + i) : ExposedPort.udp(8000 + i);
+            ports.bind(exposed[i], new Binding("0.0.0.0", 30000 + i));
+        }
+        exposedPorts = new ExposedPorts(exposed);
+        portsJson = objectMapper.writeValueAsString(ports);
+        exposedPortsJson = objectMapper.writeValueAsString(exposedPorts);
+    }
+
+    @Benchmark
+    public String writePorts() throws IOException {
+        return objectMapper.writeValueAsString(ports);
+    }
+
+    @Benchmark
+    public Ports readPorts() throws IOException {
+        return objectMapper.readValue(portsJson, Ports.class);
+    }
+
+    @Benchmark
+    public String writeExposedPorts() throws IOException {
+        return objectMapper.writeValueAsString(exposedPorts);
+    }
+
+    @Benchmark
+    public ExposedPorts readExposedPorts() throws IOException {
+        return objectMapper.readValue(exposedPortsJson, ExposedPorts.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.dockerjava.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.ProgressMessage;
+import com.github.dockerjava.api.model.StreamType;
+import com.github.dockerjava.core.FrameDecoder;
+import com.github.dockerjava.core.ProgressReader;
+import com.github.dockerjava.jaxrs.EventsCmdExec;
+
+/**
+ * Decodes recorded <code>/events</code>, multiplexed <code>/logs</code> and <code>/images/create</code> streams of
+ * {@value #RECORDS} records each. Every invocation counts as one operation per record, so the scores are records per
+ * second and <code>gc.alloc.rate.norm</code> is bytes allocated per record.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StreamingDecoderBenchmark.RECORDS)
+public class StreamingDecoderBenchmark {
+
+    static final int RECORDS = 1 << 20;
+
+    @State(Scope.Benchmark)
+    public static class Events {
+
+        private byte[] stream;
+
+        @Setup
+        public void setUp() {
+            stream = Fixtures.events(RECORDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Logs {
+
+        private byte[] stream;
+
+        @Setup
+        public void setUp() {
+            stream = Fixtures.multiplexedLogs(RECORDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Progress {
+
+        private byte[] stream;
+
+        @Setup
+        public void setUp() {
+            stream = Fixtures.pullProgress(RECORDS);
+        }
+    }
+
+    @Benchmark
+    public void readEvents(Events events, final Blackhole blackhole) throws IOException {
+        EventsCmdExec.readEvents(new ByteArrayInputStream(events.stream), new EventCallback() {
+            @Override
+            public void onEvent(Event event) {
+                blackhole.consume(event);
+            }
+
+            @Override
+            public void onException(Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+
+            @Override
+            public void onCompletion(int numEvents) {
+            }
+        });
+    }
+
+    @Benchmark
+    public void decodeFrames(Logs logs, final Blackhole blackhole) throws IOException {
+        FrameDecoder decoder = new FrameDecoder(new ByteArrayInputStream(logs.stream));
+        decoder.decode(new FrameDecoder.FrameCallback() {
+            @Override
+            public void onFrame(StreamType streamType, ByteBuffer payload) {
+                blackhole.consume(payload.get(payload.position()));
+            }
+        });
+        decoder.close();
+    }
+
+    @Benchmark
+    public void readProgress(Progress progress, Blackhole blackhole) throws IOException {
+        ProgressReader reader = new ProgressReader(new ByteArrayInputStream(progress.stream));
+        ProgressMessage message;
+        while ((message = reader.next()) != null) {
+            blackhole.consume(message);
+        }
+        reader.close();
+    }
+
+    @Benchmark
+    public void awaitProgressCompletion(Progress progress) {
+        new ProgressReader(new ByteArrayInputStream(progress.stream)).awaitCompletion();
+    }
+}
@@ -132,6 +132,13 @@ public interface DockerClient extends Closeable {
 
 	public EventsCmd eventsCmd(EventCallback eventCallback);
 
+	/**
+	 * Returns the {@link EventHub} of this client. All its subscribers share
+	 * a single <code>/events</code> stream, prefer it over
+	 * {@link #eventsCmd(EventCallback)} when several components watch events.
+	 */
+	public EventHub eventHub();
+
 	public void close() throws IOException;
 
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ private static final long serialVersionUID = 7667768099261650608L;
 
     public DockerException(String message, int httpStatus, Throwable cause) {
         super(message, cause);
+        this.httpStatus = httpStatus;
     }
     
     public int getHttpStatus() {
@@ -0,0 +1,63 @@
+package com.github.dockerjava.api;
+
+import java.io.Closeable;
+
+import com.github.dockerjava.api.command.EventCallback;
+
+/**
+ * Shares one <code>/events</code> stream of a {@link DockerClient} between any number of subscribers.
+ *
+ * Every subscriber has a bounded queue of its own and is called from a shared pool, one event at a time and in the
+ * order the daemon sent them. A subscriber sees
+ * <ul>
+ * <li>{@link EventCallback#onEvent} for every event,</li>
+ * <li>{@link EventCallback#onException} when the stream broke; the hub reconnects by itself and resumes after the last
+ * event it has seen,</li>
+ * <li>{@link EventCallback#onCompletion} with the number of events it got once its subscription or the hub is
+ * closed.</li>
+ * </ul>
+ */
+public interface EventHub extends Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * What happens to an event when a subscriber's queue is full.
+     */
+    public static enum OverflowPolicy {
+        /**
+         * The event is dropped for that subscriber only and counted in {@link Subscription#getDroppedEvents()}.
+         */
+        DROP,
+        /**
+         * The stream waits until the subscriber has caught up, holding back all other subscribers as well.
+         */
+        BLOCK
+    }
+
+    public static interface Subscription extends Closeable {
+
+        public EventCallback getEventCallback();
+
+        public long getDroppedEvents();
+
+        /**
+         * Stops delivery to the subscriber. Events already queued are discarded.
+         */
+        @Override
+        public void close();
+    }
+
+    /**
+     * Subscribes with a queue of {@link #DEFAULT_QUEUE_CAPACITY} events that drops events on overflow.
+     */
+    public Subscription subscribe(EventCallback eventCallback);
+
+    public Subscription subscribe(EventCallback eventCallback, int queueCapacity, OverflowPolicy overflowPolicy);
+
+    /**
+     * Closes all subscriptions and the event stream.
+     */
+    @Override
+    public void close();
+}
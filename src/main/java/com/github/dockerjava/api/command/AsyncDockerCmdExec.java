@@ -0,0 +1,16 @@
+package com.github.dockerjava.api.command;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link DockerCmdExec} that can also run commands in the background.
+ */
+public interface AsyncDockerCmdExec<CMD_T extends DockerCmd<RES_T>, RES_T> extends DockerCmdExec<CMD_T, RES_T> {
+
+	/**
+	 * Executes the command on the executor of this exec. The future fails with the same exceptions
+	 * {@link #exec(DockerCmd)} throws, e.g. a {@link com.github.dockerjava.api.NotFoundException}.
+	 */
+	public ListenableFuture<RES_T> execAsync(CMD_T command);
+
+}
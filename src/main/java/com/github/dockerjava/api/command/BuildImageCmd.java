@@ -2,6 +2,8 @@ package com.github.dockerjava.api.command;
 
 import java.io.InputStream;
 
+import com.github.dockerjava.core.BuildContextCache;
+
 /**
  * 
  * Build an image from Dockerfile.
@@ -25,6 +27,38 @@ public interface BuildImageCmd extends DockerCmd<InputStream>{
 	
 	public BuildImageCmd withTarInputStream(InputStream tarInputStream);
 
+	public boolean isStreamingContext();
+
+	/**
+	 * Only applies to a Docker context built from a folder: whether it is
+	 * tarred while it is uploaded (the default) or written to a temporary
+	 * tar file first.
+	 */
+	public BuildImageCmd withStreamingContext(boolean streamingContext);
+
+	public BuildContextCache getContextCache();
+
+	/**
+	 * Only applies to a streamed Docker context built from a folder: reuses
+	 * the tar entries of files that did not change since the last build.
+	 */
+	public BuildImageCmd withContextCache(BuildContextCache contextCache);
+
+	public Integer getCompressionLevel();
+
+	public int getCompressionBlockSize();
+
+	/**
+	 * Gzips the Docker context before it is sent, compressing blocks of
+	 * 128KB in parallel on all cores.
+	 *
+	 * @param level
+	 *            1 (fastest) to 9 (smallest)
+	 */
+	public BuildImageCmd withCompression(int level);
+
+	public BuildImageCmd withCompression(int level, int blockSize);
+
 	public BuildImageCmd withNoCache();
 
 	public BuildImageCmd withNoCache(boolean noCache);
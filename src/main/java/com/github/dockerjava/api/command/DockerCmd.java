@@ -1,7 +1,15 @@
 package com.github.dockerjava.api.command;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 public interface DockerCmd<RES_T> {
 
 	public RES_T exec();
 
+	/**
+	 * Executes the command without blocking the calling thread. Errors are reported through the future as the
+	 * exceptions {@link #exec()} would throw.
+	 */
+	public ListenableFuture<RES_T> execAsync();
+
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package com.github.dockerjava.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ErrorDetail {
+    @JsonProperty
+    private Integer code;
     @JsonProperty
     private String message;
 
+    public Integer getCode() {
+        return code;
+    }
+
     public String getMessage() {
         return message;
     }
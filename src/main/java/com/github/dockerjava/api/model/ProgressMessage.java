@@ -0,0 +1,105 @@
+package com.github.dockerjava.api.model;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A message of the progress streams returned by pull, push and build.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProgressMessage {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("stream")
+    private String stream;
+
+    @JsonProperty("progress")
+    private String progress;
+
+    @JsonProperty("progressDetail")
+    private ProgressDetail progressDetail;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("errorDetail")
+    private ErrorDetail errorDetail;
+
+    /**
+     * @return the layer the message is about, if any
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return build output
+     */
+    public String getStream() {
+        return stream;
+    }
+
+    /**
+     * @return the progress bar as rendered by Docker
+     */
+    public String getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return the bytes transferred so far, 0 if unknown
+     */
+    public long getCurrent() {
+        return progressDetail != null ? progressDetail.current : 0;
+    }
+
+    /**
+     * @return the bytes to transfer, 0 if unknown
+     */
+    public long getTotal() {
+        return progressDetail != null ? progressDetail.total : 0;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public ErrorDetail getErrorDetail() {
+        return errorDetail;
+    }
+
+    public boolean isError() {
+        return error != null || errorDetail != null;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ProgressDetail {
+
+        @JsonProperty("current")
+        private long current;
+
+        @JsonProperty("total")
+        private long total;
+
+        @Override
+        public String toString() {
+            return ToStringBuilder.reflectionToString(this);
+        }
+    }
+}
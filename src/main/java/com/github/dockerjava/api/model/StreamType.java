@@ -0,0 +1,38 @@
+package com.github.dockerjava.api.model;
+
+/**
+ * The stream a frame of an attach or logs response was written to.
+ *
+ * @see #RAW
+ */
+public enum StreamType {
+
+    STDIN,
+
+    STDOUT,
+
+    STDERR,
+
+    /**
+     * Output of a container with a TTY, which Docker does not split into frames.
+     */
+    RAW;
+
+    /**
+     * @param type
+     *            the first byte of a frame header
+     * @return the stream type, <code>null</code> if the byte does not denote one
+     */
+    public static StreamType forHeaderByte(int type) {
+        switch (type) {
+        case 0:
+            return STDIN;
+        case 1:
+            return STDOUT;
+        case 2:
+            return STDERR;
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,731 @@
+package com.github.dockerjava.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.zip.ZipEncoding;
+import org.apache.commons.compress.archivers.zip.ZipEncodingHelper;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Keeps the tar entries of build contexts between builds.
+ *
+ * For every context folder the cache holds a manifest (path, size, modification time, mode and SHA-1 of every file,
+ * and the segment file and offset of its tar entry) and segment files with tar entries. A rebuild only reads files
+ * whose size, modification time or mode changed and writes their entries to a new segment file, the entries of all
+ * others are sent straight from the segment files they are in and stay there. A segment file is deleted once the
+ * manifest no longer refers to it and no build is writing it. The archive is written while it is read, like
+ * {@link TarFilesInputStream}, and the cache is only updated once it was read to the end.
+ *
+ * A file changed within the modification time granularity of the file system around the last build may keep its
+ * size and modification time, so files modified that recently are hashed and only reused if their SHA-1 is unchanged.
+ * Older files are trusted on their metadata: a file replaced by one of the same size with its modification time
+ * restored, e.g. by <code>cp -p</code>, is not noticed.
+ */
+public class BuildContextCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildContextCache.class);
+
+    private static final int MANIFEST_VERSION = 3;
+
+    private static final String MANIFEST = "manifest";
+
+    private static final String SEGMENT_PREFIX = "segments-";
+
+    private static final String LOCK = "lock";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final int RECORD_SIZE = 512;
+
+    /**
+     * The coarsest modification time granularity of common file systems, that of FAT.
+     */
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    /**
+     * The encoding {@link TarArchiveEntry} and {@link org.apache.commons.compress.archivers.tar.TarArchiveOutputStream}
+     * use by default.
+     */
+    private static final ZipEncoding NAME_ENCODING = ZipEncodingHelper.getZipEncoding(null);
+
+    /**
+     * Serializes the manifest reads and updates of builds within the process, {@link #lockDirectory(File)} does so
+     * across processes.
+     */
+    private static final Object DIRECTORY_LOCK = new Object();
+
+    /**
+     * The segment files builds of this process are writing. Their file locks only tell other processes.
+     */
+    private static final Set<File> WRITTEN_SEGMENTS = Collections
+            .newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+    private final File directory;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    private final AtomicLong readBytes = new AtomicLong();
+
+    public BuildContextCache(File directory) {
+        Preconditions.checkNotNull(directory, "directory is null");
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Tars the files while the returned stream is read, reusing the entries of unchanged files.
+     */
+    public InputStream archiveTARFiles(File base, Iterable<File> files) throws IOException {
+        File canonicalBase = base.getCanonicalFile();
+        File contextDirectory = new File(directory, Hashing.sha1()
+                .hashString(canonicalBase.getPath(), Charsets.UTF_8).toString());
+        FileUtils.forceMkdir(contextDirectory);
+        return new CachingTarInputStream(contextDirectory, canonicalBase, files.iterator());
+    }
+
+    /**
+     * @return hits and misses of all archives read so far
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), cachedBytes.get(), readBytes.get());
+    }
+
+    /**
+     * Removes all cached contexts.
+     */
+    public void clear() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    /**
+     * @return the file whose lock is held until it is closed
+     */
+    // callers hold DIRECTORY_LOCK
+    private static RandomAccessFile lockDirectory(File contextDirectory) throws IOException {
+        RandomAccessFile lock = new RandomAccessFile(new File(contextDirectory, LOCK), "rw");
+        try {
+            lock.getChannel().lock();
+        } catch (IOException e) {
+            lock.close();
+            throw e;
+        }
+        return lock;
+    }
+
+    private static boolean isBeingWritten(File segmentFile) {
+        if (WRITTEN_SEGMENTS.contains(segmentFile)) {
+            return true;
+        }
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(segmentFile, "rw");
+            FileLock lock = randomAccessFile.getChannel().tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (IOException e) {
+            return true;
+        } finally {
+            IOUtils.closeQuietly(randomAccessFile);
+        }
+    }
+
+    public static class Statistics {
+
+        private final long hits;
+
+        private final long misses;
+
+        private final long cachedBytes;
+
+        private final long readBytes;
+
+        Statistics(long hits, long misses, long cachedBytes, long readBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.cachedBytes = cachedBytes;
+            this.readBytes = readBytes;
+        }
+
+        /**
+         * @return the number of entries copied from the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of entries created from their files
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the size of the entries copied from the cache
+         */
+        public long getCachedBytes() {
+            return cachedBytes;
+        }
+
+        /**
+         * @return the size of the entries created from their files
+         */
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", cachedBytes=" + cachedBytes + ", readBytes=" + readBytes;
+        }
+    }
+
+    private static class ManifestEntry {
+
+        private final String name;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final int mode;
+
+        /**
+         * The name of the segment file that holds the entry.
+         */
+        private String segment;
+
+        private long offset;
+
+        private long length;
+
+        private String hash;
+
+        ManifestEntry(String name, long size, long lastModified, int mode) {
+            this.name = name;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mode = mode;
+        }
+
+        boolean isUnchanged(ManifestEntry other) {
+            return other != null && size == other.size && lastModified == other.lastModified && mode == other.mode;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(name);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeInt(mode);
+            out.writeUTF(segment);
+            out.writeLong(offset);
+            out.writeLong(length);
+            out.writeUTF(hash);
+        }
+
+        static ManifestEntry read(DataInputStream in) throws IOException {
+            ManifestEntry entry = new ManifestEntry(in.readUTF(), in.readLong(), in.readLong(), in.readInt());
+            entry.segment = in.readUTF();
+            entry.offset = in.readLong();
+            entry.length = in.readLong();
+            entry.hash = in.readUTF();
+            return entry;
+        }
+    }
+
+    private class CachingTarInputStream extends InputStream {
+
+        private final File contextDirectory;
+
+        private final File base;
+
+        private final Iterator<File> files;
+
+        private final Map<String, ManifestEntry> previousEntries = new HashMap<String, ManifestEntry>();
+
+        /**
+         * The segment files of the previous entries, opened together with the manifest so that they stay readable if
+         * a concurrent build drops them.
+         */
+        private final Map<String, RandomAccessFile> previousSegments = new HashMap<String, RandomAccessFile>();
+
+        private long previousStartTime;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private final List<ManifestEntry> entries = new ArrayList<ManifestEntry>();
+
+        private final File segmentFile;
+
+        private final OutputStream segment;
+
+        private final Buffer buffer = new Buffer();
+
+        private final TeeOutputStream tee;
+
+        private final byte[] record = new byte[RECORD_SIZE];
+
+        private final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+
+        private final MessageDigest digest;
+
+        private ManifestEntry currentEntry;
+
+        private InputStream currentFile;
+
+        private long remainingFileBytes;
+
+        private RandomAccessFile currentSegment;
+
+        private long remainingCachedBytes;
+
+        private int position;
+
+        private boolean finished;
+
+        private boolean committed;
+
+        private boolean closed;
+
+        private long buildHits;
+
+        private long buildMisses;
+
+        CachingTarInputStream(File contextDirectory, File base, Iterator<File> files) throws IOException {
+            this.contextDirectory = contextDirectory;
+            this.base = base;
+            this.files = files;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+
+            this.segmentFile = new File(contextDirectory, SEGMENT_PREFIX + UUID.randomUUID());
+            FileOutputStream segmentOutput = new FileOutputStream(segmentFile);
+            try {
+                // tells the builds of other processes that the segment file is being written
+                segmentOutput.getChannel().lock();
+            } catch (IOException e) {
+                segmentOutput.close();
+                segmentFile.delete();
+                throw e;
+            }
+            WRITTEN_SEGMENTS.add(segmentFile);
+            this.segment = new BufferedOutputStream(segmentOutput, COPY_BUFFER_SIZE);
+            this.tee = new TeeOutputStream();
+
+            synchronized (DIRECTORY_LOCK) {
+                RandomAccessFile lock;
+                try {
+                    lock = lockDirectory(contextDirectory);
+                } catch (IOException e) {
+                    close();
+                    throw e;
+                }
+                try {
+                    readManifest();
+                } finally {
+                    IOUtils.closeQuietly(lock);
+                }
+            }
+        }
+
+        // callers hold the directory lock
+        private void readManifest() {
+            File manifest = new File(contextDirectory, MANIFEST);
+            if (!manifest.exists()) {
+                return;
+            }
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifest)));
+                if (in.readInt() != MANIFEST_VERSION) {
+                    return;
+                }
+                previousStartTime = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    ManifestEntry entry = ManifestEntry.read(in);
+                    previousEntries.put(entry.name, entry);
+                    if (!previousSegments.containsKey(entry.segment)) {
+                        previousSegments.put(entry.segment, new RandomAccessFile(new File(contextDirectory,
+                                entry.segment), "r"));
+                    }
+                }
+            } catch (FileNotFoundException e) {
+                LOGGER.debug("Segments of {} are gone, ignoring the manifest", contextDirectory);
+                forgetManifest();
+            } catch (IOException e) {
+                LOGGER.warn("Ignoring unreadable build context manifest " + manifest, e);
+                forgetManifest();
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+
+        private void forgetManifest() {
+            previousEntries.clear();
+            for (RandomAccessFile previousSegment : previousSegments.values()) {
+                IOUtils.closeQuietly(previousSegment);
+            }
+            previousSegments.clear();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (position == buffer.size()) {
+                buffer.reset();
+                position = 0;
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, buffer.size() - position);
+            System.arraycopy(buffer.bytes(), position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            if (remainingCachedBytes > 0) {
+                // straight to the reader, the entry stays where it is
+                int n = (int) Math.min(copyBuffer.length, remainingCachedBytes);
+                currentSegment.readFully(copyBuffer, 0, n);
+                buffer.write(copyBuffer, 0, n);
+                remainingCachedBytes -= n;
+                return true;
+            }
+            if (currentFile != null) {
+                int n = currentFile.read(copyBuffer, 0, (int) Math.min(copyBuffer.length, remainingFileBytes + 1));
+                if (n < 0) {
+                    if (remainingFileBytes > 0) {
+                        throw new IOException(currentEntry.name + " was truncated while it was archived");
+                    }
+                    currentFile.close();
+                    currentFile = null;
+                    pad(currentEntry.size);
+                    entryWritten(BaseEncoding.base16().lowerCase().encode(digest.digest()));
+                } else {
+                    if (n > remainingFileBytes) {
+                        throw new IOException(currentEntry.name + " grew while it was archived");
+                    }
+                    digest.update(copyBuffer, 0, n);
+                    tee.write(copyBuffer, 0, n);
+                    remainingFileBytes -= n;
+                }
+                return true;
+            }
+            if (files.hasNext()) {
+                nextEntry(files.next());
+                return true;
+            }
+            if (!finished) {
+                finished = true;
+                // end of archive, two empty records
+                buffer.write(new byte[2 * RECORD_SIZE], 0, 2 * RECORD_SIZE);
+                commit();
+                return true;
+            }
+            return false;
+        }
+
+        private void nextEntry(File file) throws IOException {
+            TarArchiveEntry tarEntry = CompressArchiveUtil.createTarEntry(base, file);
+            currentEntry = new ManifestEntry(tarEntry.getName(), tarEntry.getSize(), file.lastModified(),
+                    tarEntry.getMode());
+
+            ManifestEntry previous = previousEntries.get(currentEntry.name);
+            if (currentEntry.isUnchanged(previous)
+                    && (file.isDirectory() || !isRecentlyModified(previous) || hash(file).equals(previous.hash))) {
+                currentSegment = previousSegments.get(previous.segment);
+                currentSegment.seek(previous.offset);
+                remainingCachedBytes = previous.length;
+                currentEntry.segment = previous.segment;
+                currentEntry.offset = previous.offset;
+                currentEntry.length = previous.length;
+                currentEntry.hash = previous.hash;
+                entries.add(currentEntry);
+                buildHits++;
+                hits.incrementAndGet();
+                cachedBytes.addAndGet(previous.length);
+                return;
+            }
+
+            currentEntry.segment = segmentFile.getName();
+            currentEntry.offset = tee.getCount();
+            writeHeader(tarEntry);
+            if (file.isDirectory()) {
+                entryWritten("");
+            } else {
+                digest.reset();
+                currentFile = new FileInputStream(file);
+                remainingFileBytes = tarEntry.getSize();
+            }
+        }
+
+        /**
+         * @return whether the file may have changed in the same modification time tick as the last build read it
+         */
+        private boolean isRecentlyModified(ManifestEntry previous) {
+            return previous.lastModified + MODIFICATION_TIME_GRANULARITY >= previousStartTime;
+        }
+
+        private String hash(File file) throws IOException {
+            digest.reset();
+            InputStream in = new FileInputStream(file);
+            try {
+                int n;
+                while ((n = in.read(copyBuffer)) >= 0) {
+                    digest.update(copyBuffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+            return BaseEncoding.base16().lowerCase().encode(digest.digest());
+        }
+
+        /**
+         * Writes the header like {@link org.apache.commons.compress.archivers.tar.TarArchiveOutputStream} does with
+         * GNU long file names. Its records are only written through once the next one starts, which is no good for
+         * splitting the archive into entries.
+         */
+        private void writeHeader(TarArchiveEntry tarEntry) throws IOException {
+            ByteBuffer name = NAME_ENCODING.encode(tarEntry.getName());
+            int length = name.limit() - name.position();
+            if (length >= TarConstants.NAMELEN) {
+                TarArchiveEntry longName = new TarArchiveEntry(TarConstants.GNU_LONGLINK,
+                        TarConstants.LF_GNUTYPE_LONGNAME);
+                longName.setSize(length + 1);
+                writeRecord(longName);
+                tee.write(name.array(), name.arrayOffset() + name.position(), length);
+                tee.write(0);
+                pad(length + 1);
+            }
+            writeRecord(tarEntry);
+        }
+
+        private void writeRecord(TarArchiveEntry tarEntry) throws IOException {
+            Arrays.fill(record, (byte) 0);
+            tarEntry.writeEntryHeader(record, NAME_ENCODING, false);
+            tee.write(record, 0, RECORD_SIZE);
+        }
+
+        private void pad(long length) throws IOException {
+            int remainder = (int) (length % RECORD_SIZE);
+            if (remainder > 0) {
+                Arrays.fill(record, (byte) 0);
+                tee.write(record, 0, RECORD_SIZE - remainder);
+            }
+        }
+
+        private void entryWritten(String hash) {
+            currentEntry.length = tee.getCount() - currentEntry.offset;
+            currentEntry.hash = hash;
+            entries.add(currentEntry);
+            buildMisses++;
+            misses.incrementAndGet();
+            readBytes.addAndGet(currentEntry.length);
+        }
+
+        private void commit() throws IOException {
+            segment.flush();
+            synchronized (DIRECTORY_LOCK) {
+                RandomAccessFile lock = lockDirectory(contextDirectory);
+                try {
+                    Set<String> referenced = new HashSet<String>();
+                    for (ManifestEntry entry : entries) {
+                        referenced.add(entry.segment);
+                    }
+                    if (segmentsExist(referenced)) {
+                        writeManifest();
+                    } else {
+                        // the manifest there is is still whole, this one is not
+                        LOGGER.debug("Segments of {} were dropped by a concurrent build, keeping its manifest",
+                                contextDirectory);
+                        referenced = null;
+                    }
+                    committed = true;
+                    segment.close();
+                    WRITTEN_SEGMENTS.remove(segmentFile);
+                    if (referenced != null) {
+                        deleteUnreferencedSegments(referenced);
+                    } else {
+                        segmentFile.delete();
+                    }
+                } finally {
+                    IOUtils.closeQuietly(lock);
+                }
+            }
+            LOGGER.debug("Build context {}: {} entries cached, {} read", new Object[] { base, buildHits,
+                    buildMisses });
+        }
+
+        private boolean segmentsExist(Set<String> names) {
+            for (String name : names) {
+                if (!new File(contextDirectory, name).exists()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void writeManifest() throws IOException {
+            File manifestFile = new File(contextDirectory, MANIFEST + "-" + UUID.randomUUID());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(manifestFile)));
+            try {
+                out.writeInt(MANIFEST_VERSION);
+                out.writeLong(startTime);
+                out.writeInt(entries.size());
+                for (ManifestEntry entry : entries) {
+                    entry.write(out);
+                }
+            } finally {
+                out.close();
+            }
+            File manifest = new File(contextDirectory, MANIFEST);
+            if (!manifestFile.renameTo(manifest)) {
+                manifest.delete();
+                if (!manifestFile.renameTo(manifest)) {
+                    throw new IOException("Failed to replace " + manifest);
+                }
+            }
+        }
+
+        /**
+         * Deletes the segment files that no entry of the manifest refers to and that no build is writing, e.g. the
+         * one of this build if all entries were cached.
+         */
+        // callers hold the directory lock
+        private void deleteUnreferencedSegments(Set<String> referenced) {
+            File[] segmentFiles = contextDirectory.listFiles();
+            if (segmentFiles == null) {
+                return;
+            }
+            for (File file : segmentFiles) {
+                if (file.getName().startsWith(SEGMENT_PREFIX) && !referenced.contains(file.getName())
+                        && !isBeingWritten(file) && !file.delete()) {
+                    LOGGER.debug("Failed to delete unreferenced segment file {}", file);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            IOUtils.closeQuietly(currentFile);
+            forgetManifest();
+            if (!committed) {
+                // an incomplete archive leaves the cache alone
+                IOUtils.closeQuietly(segment);
+                segmentFile.delete();
+                WRITTEN_SEGMENTS.remove(segmentFile);
+            }
+        }
+
+        /**
+         * Sends the entries of files that were read to the reader and the new segment file.
+         */
+        private class TeeOutputStream extends OutputStream {
+
+            private long count;
+
+            long getCount() {
+                return count;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                buffer.write(b);
+                segment.write(b);
+                count++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                buffer.write(b, off, len);
+                segment.write(b, off, len);
+                count += len;
+            }
+
+            @Override
+            public void close() {
+                // the segment file is closed on commit
+            }
+        }
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(COPY_BUFFER_SIZE + 8192);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.dockerjava.core;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Lists the files of a build context, walking subdirectories in parallel.
+ *
+ * Every directory is listed once by a task of its own. Each entry is checked with a single
+ * {@link File#isDirectory()}, and the filter decides which files are taken and which directories are entered. The
+ * result is sorted by path, so the context tar comes out the same however the walk was scheduled.
+ */
+public class BuildContextScanner {
+
+    private static final Comparator<File> BY_PATH = new Comparator<File>() {
+        @Override
+        public int compare(File f1, File f2) {
+            return f1.getPath().compareTo(f2.getPath());
+        }
+    };
+
+    private static ExecutorService sharedExecutor;
+
+    private final ExecutorService executor;
+
+    /**
+     * Walks on a shared pool with a thread per processor.
+     */
+    public BuildContextScanner() {
+        this(getSharedExecutor());
+    }
+
+    public BuildContextScanner(ExecutorService executor) {
+        Preconditions.checkNotNull(executor, "executor is null");
+        this.executor = executor;
+    }
+
+    private static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("docker-java-scan-%d").build());
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * Lists all files below <code>directory</code> like
+     * {@link org.apache.commons.io.FileUtils#listFiles(File, org.apache.commons.io.filefilter.IOFileFilter, org.apache.commons.io.filefilter.IOFileFilter)}
+     * with <code>filter</code> as file and directory filter.
+     *
+     * @return the files sorted by path
+     */
+    public List<File> scan(File directory, FileFilter filter) throws IOException {
+        Preconditions.checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+        Walk walk = new Walk(filter);
+        walk.submit(directory);
+        List<File> files = walk.await();
+        Collections.sort(files, BY_PATH);
+        return files;
+    }
+
+    private class Walk {
+
+        private final FileFilter filter;
+
+        private final ConcurrentLinkedQueue<File> files = new ConcurrentLinkedQueue<File>();
+
+        private final AtomicInteger pendingDirectories = new AtomicInteger();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Walk(FileFilter filter) {
+            this.filter = filter;
+        }
+
+        void submit(final File directory) {
+            pendingDirectories.incrementAndGet();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (failure.get() == null) {
+                                list(directory);
+                            }
+                        } catch (Throwable t) {
+                            fail(t);
+                        } finally {
+                            directoryDone();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(e);
+                directoryDone();
+            }
+        }
+
+        private void list(File directory) throws IOException {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                throw new IOException("Failed to list " + directory);
+            }
+            for (File child : children) {
+                if (filter.accept(child)) {
+                    if (child.isDirectory()) {
+                        submit(child);
+                    } else {
+                        files.add(child);
+                    }
+                }
+            }
+        }
+
+        private void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+
+        private void directoryDone() {
+            if (pendingDirectories.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        List<File> await() throws IOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+                throw new InterruptedIOException("Interrupted while scanning the build context");
+            }
+            Throwable t = failure.get();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            } else if (t != null) {
+                throw new IOException(t);
+            }
+            return new ArrayList<File>(files);
+        }
+    }
+}
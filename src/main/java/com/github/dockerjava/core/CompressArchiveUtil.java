@@ -13,17 +13,9 @@ public class CompressArchiveUtil {
         TarArchiveOutputStream tos = new TarArchiveOutputStream(new FileOutputStream(tarFile));
         try {
             tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+            File canonicalBase = base.getCanonicalFile();
             for (File file : files) {
-                TarArchiveEntry tarEntry = new TarArchiveEntry(file);
-                tarEntry.setName(relativize(base.getCanonicalFile(), file.getCanonicalFile()));
-
-                if (!file.isDirectory()) {
-                    if (file.canExecute()) {
-                        tarEntry.setMode(tarEntry.getMode() | 0755);
-                    }
-                }
-
-                tos.putArchiveEntry(tarEntry);
+                tos.putArchiveEntry(createTarEntry(canonicalBase, file));
 
                 if (!file.isDirectory()) {
                     FileUtils.copyFile(file, tos);
@@ -37,6 +29,43 @@ public class CompressArchiveUtil {
         return tarFile;
     }
 
+    /**
+     * Tars the files while the returned stream is read, without a temporary file.
+     */
+    public static InputStream streamTARFiles(File base, Iterable<File> files) throws IOException {
+        return new TarFilesInputStream(base, files);
+    }
+
+    /**
+     * Tars the files while the returned stream is read, copying the entries of files unchanged since the last archive of
+     * <code>base</code> from the cache.
+     */
+    public static InputStream streamTARFiles(File base, Iterable<File> files, BuildContextCache cache)
+            throws IOException {
+        return cache.archiveTARFiles(base, files);
+    }
+
+    /**
+     * Gzips the stream while it is read, compressing blocks of <code>blockSize</code> bytes on all cores.
+     *
+     * @see ParallelGzipInputStream
+     */
+    public static InputStream gzip(InputStream in, int level, int blockSize) {
+        return new ParallelGzipInputStream(in, level, blockSize);
+    }
+
+    static TarArchiveEntry createTarEntry(File canonicalBase, File file) throws IOException {
+        TarArchiveEntry tarEntry = new TarArchiveEntry(file);
+        tarEntry.setName(relativize(canonicalBase, file.getCanonicalFile()));
+
+        if (!file.isDirectory()) {
+            if (file.canExecute()) {
+                tarEntry.setMode(tarEntry.getMode() | 0755);
+            }
+        }
+        return tarEntry;
+    }
+
     public static String relativize(File base, File absolute) {
         String relative = base.toURI().relativize(absolute.toURI()).getPath();
         return relative;
@@ -24,6 +24,10 @@ public class DockerClientConfig {
     private static final String DOCKER_IO_ENABLE_LOGGING_FILTER_PROPERTY = "docker.io.enableLoggingFilter";
     private static final String DOCKER_IO_DOCKER_CERT_PATH_PROPERTY = "docker.io.dockerCertPath";
     private static final String DOCKER_IO_DOCKER_CFG_PATH_PROPERTY = "docker.io.dockerCfgPath";
+    private static final String DOCKER_IO_MAX_TOTAL_CONNECTIONS_PROPERTY = "docker.io.maxTotalConnections";
+    private static final String DOCKER_IO_MAX_PER_ROUTE_CONNECTIONS_PROPERTY = "docker.io.maxPerRouteConnections";
+    private static final String DOCKER_IO_IDLE_CONNECTION_TIMEOUT_PROPERTY = "docker.io.idleConnectionTimeout";
+    private static final String DOCKER_IO_ENABLE_CONNECTION_VALIDATION_PROPERTY = "docker.io.enableConnectionValidation";
     /**
      * A map from the environment name to the interval name.
      */
@@ -38,14 +42,25 @@ public class DockerClientConfig {
             .put("DOCKER_LOGGING_FILTER_ENABLED", DOCKER_IO_ENABLE_LOGGING_FILTER_PROPERTY)
             .put(DOCKER_CERT_PATH_PROPERTY, DOCKER_IO_DOCKER_CERT_PATH_PROPERTY)
             .put("DOCKER_CFG_PATH", DOCKER_IO_DOCKER_CFG_PATH_PROPERTY)
+            .put("DOCKER_MAX_TOTAL_CONNECTIONS", DOCKER_IO_MAX_TOTAL_CONNECTIONS_PROPERTY)
+            .put("DOCKER_MAX_PER_ROUTE_CONNECTIONS", DOCKER_IO_MAX_PER_ROUTE_CONNECTIONS_PROPERTY)
+            .put("DOCKER_IDLE_CONNECTION_TIMEOUT", DOCKER_IO_IDLE_CONNECTION_TIMEOUT_PROPERTY)
+            .put("DOCKER_CONNECTION_VALIDATION_ENABLED", DOCKER_IO_ENABLE_CONNECTION_VALIDATION_PROPERTY)
             .build();
     private static final String DOCKER_IO_PROPERTIES_PROPERTY = "docker.io.properties";
     private final URI uri;
     private final String version, username, password, email, serverAddress, dockerCertPath, dockerCfgPath;
     private final Integer readTimeout;
     private final boolean loggingFilterEnabled;
+    private final Integer maxTotalConnections, maxPerRouteConnections, idleConnectionTimeout;
+    private final boolean connectionValidationEnabled;
 
     DockerClientConfig(URI uri, String version, String username, String password, String email, String serverAddress, String dockerCertPath, String dockerCfgPath, Integer readTimeout, boolean loggingFilterEnabled) {
+        this(uri, version, username, password, email, serverAddress, dockerCertPath, dockerCfgPath, readTimeout, loggingFilterEnabled, null, null, null, false);
+    }
+
+    DockerClientConfig(URI uri, String version, String username, String password, String email, String serverAddress, String dockerCertPath, String dockerCfgPath, Integer readTimeout, boolean loggingFilterEnabled,
+                       Integer maxTotalConnections, Integer maxPerRouteConnections, Integer idleConnectionTimeout, boolean connectionValidationEnabled) {
         this.uri = uri;
         this.version = version;
         this.username = username;
@@ -56,6 +71,10 @@ public class DockerClientConfig {
         this.dockerCfgPath = dockerCfgPath;
         this.readTimeout = readTimeout;
         this.loggingFilterEnabled = loggingFilterEnabled;
+        this.maxTotalConnections = maxTotalConnections;
+        this.maxPerRouteConnections = maxPerRouteConnections;
+        this.idleConnectionTimeout = idleConnectionTimeout;
+        this.connectionValidationEnabled = connectionValidationEnabled;
     }
 
     private static Properties loadIncludedDockerProperties(Properties systemProperties) {
@@ -157,6 +176,10 @@ public class DockerClientConfig {
                 DOCKER_IO_ENABLE_LOGGING_FILTER_PROPERTY,
                 DOCKER_IO_DOCKER_CERT_PATH_PROPERTY,
                 DOCKER_IO_DOCKER_CFG_PATH_PROPERTY,
+                DOCKER_IO_MAX_TOTAL_CONNECTIONS_PROPERTY,
+                DOCKER_IO_MAX_PER_ROUTE_CONNECTIONS_PROPERTY,
+                DOCKER_IO_IDLE_CONNECTION_TIMEOUT_PROPERTY,
+                DOCKER_IO_ENABLE_CONNECTION_VALIDATION_PROPERTY,
         }) {
             if (systemProperties.containsKey(key)) {
                 overriddenProperties.setProperty(key, systemProperties.getProperty(key));
@@ -220,6 +243,35 @@ public class DockerClientConfig {
         return dockerCfgPath;
     }
 
+    /**
+     * @return the maximum number of connections to the daemon, <code>null</code> for the default
+     */
+    public Integer getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    /**
+     * @return the maximum number of connections per route (host and port), <code>null</code> for the default
+     */
+    public Integer getMaxPerRouteConnections() {
+        return maxPerRouteConnections;
+    }
+
+    /**
+     * @return milliseconds after which idle pooled connections are closed, <code>null</code> for the default, zero or
+     *         less to keep them open
+     */
+    public Integer getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    /**
+     * @return whether pooled connections are checked for being closed by the daemon before they are reused
+     */
+    public boolean isConnectionValidationEnabled() {
+        return connectionValidationEnabled;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -228,6 +280,7 @@ public class DockerClientConfig {
         DockerClientConfig that = (DockerClientConfig) o;
 
         if (loggingFilterEnabled != that.loggingFilterEnabled) return false;
+        if (connectionValidationEnabled != that.connectionValidationEnabled) return false;
         if (dockerCertPath != null ? !dockerCertPath.equals(that.dockerCertPath) : that.dockerCertPath != null)
             return false;
         if (dockerCfgPath != null ? !dockerCfgPath.equals(that.dockerCfgPath) : that.dockerCfgPath != null)
@@ -240,6 +293,12 @@ public class DockerClientConfig {
         if (uri != null ? !uri.equals(that.uri) : that.uri != null) return false;
         if (username != null ? !username.equals(that.username) : that.username != null) return false;
         if (version != null ? !version.equals(that.version) : that.version != null) return false;
+        if (maxTotalConnections != null ? !maxTotalConnections.equals(that.maxTotalConnections) : that.maxTotalConnections != null)
+            return false;
+        if (maxPerRouteConnections != null ? !maxPerRouteConnections.equals(that.maxPerRouteConnections) : that.maxPerRouteConnections != null)
+            return false;
+        if (idleConnectionTimeout != null ? !idleConnectionTimeout.equals(that.idleConnectionTimeout) : that.idleConnectionTimeout != null)
+            return false;
 
         return true;
     }
@@ -256,6 +315,10 @@ public class DockerClientConfig {
         result = 31 * result + (dockerCfgPath != null ? dockerCfgPath.hashCode() : 0);
         result = 31 * result + (readTimeout != null ? readTimeout.hashCode() : 0);
         result = 31 * result + (loggingFilterEnabled ? 1 : 0);
+        result = 31 * result + (maxTotalConnections != null ? maxTotalConnections.hashCode() : 0);
+        result = 31 * result + (maxPerRouteConnections != null ? maxPerRouteConnections.hashCode() : 0);
+        result = 31 * result + (idleConnectionTimeout != null ? idleConnectionTimeout.hashCode() : 0);
+        result = 31 * result + (connectionValidationEnabled ? 1 : 0);
         return result;
     }
 
@@ -272,6 +335,10 @@ public class DockerClientConfig {
                 ", dockerCfgPath='" + dockerCfgPath + '\'' +
                 ", readTimeout=" + readTimeout +
                 ", loggingFilterEnabled=" + loggingFilterEnabled +
+                ", maxTotalConnections=" + maxTotalConnections +
+                ", maxPerRouteConnections=" + maxPerRouteConnections +
+                ", idleConnectionTimeout=" + idleConnectionTimeout +
+                ", connectionValidationEnabled=" + connectionValidationEnabled +
                 '}';
     }
 
@@ -280,12 +347,16 @@ public class DockerClientConfig {
         private String version, username, password, email, serverAddress, dockerCertPath, dockerCfgPath;
         private Integer readTimeout;
         private boolean loggingFilterEnabled;
+        private Integer maxTotalConnections, maxPerRouteConnections, idleConnectionTimeout;
+        private boolean connectionValidationEnabled;
 
         /**
          * This will set all fields in the builder to those contained in the Properties object. The Properties object
          * should contain the following docker.io.* keys: url, version, username, password, email, dockerCertPath, and
          * dockerCfgPath. If docker.io.readTimeout or docker.io.enableLoggingFilter are not contained, they will be set
-         *  to 1000 and true, respectively.
+         *  to 1000 and true, respectively. The connection pool keys docker.io.maxTotalConnections,
+         *  docker.io.maxPerRouteConnections, docker.io.idleConnectionTimeout and docker.io.enableConnectionValidation
+         *  are optional.
          */
         public DockerClientConfigBuilder withProperties(Properties p) {
             return withUri(p.getProperty(DOCKER_IO_URL_PROPERTY))
@@ -297,7 +368,16 @@ public class DockerClientConfig {
                     .withReadTimeout(Integer.valueOf(p.getProperty(DOCKER_IO_READ_TIMEOUT_PROPERTY, "0")))
                     .withLoggingFilter(Boolean.valueOf(p.getProperty(DOCKER_IO_ENABLE_LOGGING_FILTER_PROPERTY, "true")))
                     .withDockerCertPath(p.getProperty(DOCKER_IO_DOCKER_CERT_PATH_PROPERTY))
-                    .withDockerCfgPath(p.getProperty(DOCKER_IO_DOCKER_CFG_PATH_PROPERTY));
+                    .withDockerCfgPath(p.getProperty(DOCKER_IO_DOCKER_CFG_PATH_PROPERTY))
+                    .withMaxTotalConnections(integerProperty(p, DOCKER_IO_MAX_TOTAL_CONNECTIONS_PROPERTY))
+                    .withMaxPerRouteConnections(integerProperty(p, DOCKER_IO_MAX_PER_ROUTE_CONNECTIONS_PROPERTY))
+                    .withIdleConnectionTimeout(integerProperty(p, DOCKER_IO_IDLE_CONNECTION_TIMEOUT_PROPERTY))
+                    .withConnectionValidation(Boolean.valueOf(p.getProperty(DOCKER_IO_ENABLE_CONNECTION_VALIDATION_PROPERTY, "false")));
+        }
+
+        private static Integer integerProperty(Properties p, String key) {
+            String value = p.getProperty(key);
+            return value == null ? null : Integer.valueOf(value);
         }
 
         public final DockerClientConfigBuilder withUri(String uri) {
@@ -351,6 +431,26 @@ public class DockerClientConfig {
             return this;
         }
 
+        public final DockerClientConfigBuilder withMaxTotalConnections(Integer maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        public final DockerClientConfigBuilder withMaxPerRouteConnections(Integer maxPerRouteConnections) {
+            this.maxPerRouteConnections = maxPerRouteConnections;
+            return this;
+        }
+
+        public final DockerClientConfigBuilder withIdleConnectionTimeout(Integer idleConnectionTimeout) {
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+
+        public final DockerClientConfigBuilder withConnectionValidation(boolean connectionValidationEnabled) {
+            this.connectionValidationEnabled = connectionValidationEnabled;
+            return this;
+        }
+
 
         public DockerClientConfig build() {
             return new DockerClientConfig(
@@ -363,7 +463,11 @@ public class DockerClientConfig {
                     dockerCertPath,
                     dockerCfgPath,
                     readTimeout,
-                    loggingFilterEnabled
+                    loggingFilterEnabled,
+                    maxTotalConnections,
+                    maxPerRouteConnections,
+                    idleConnectionTimeout,
+                    connectionValidationEnabled
             );
         }
     }
@@ -9,6 +9,7 @@ import java.io.InputStream;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.DockerClientException;
+import com.github.dockerjava.api.EventHub;
 import com.github.dockerjava.api.command.*;
 import com.github.dockerjava.api.model.AuthConfig;
 import com.github.dockerjava.core.NameParser.HostnameReposName;
@@ -27,6 +28,8 @@ public class DockerClientImpl implements Closeable, DockerClient {
 
     private DockerCmdExecFactory dockerCmdExecFactory;
 
+    private EventHub eventHub;
+
 	private DockerClientImpl() {
 		this(DockerClientConfig.createDefaultConfigBuilder().build());
 	}
@@ -278,8 +281,22 @@ public class DockerClientImpl implements Closeable, DockerClient {
         return new EventsCmdImpl(getDockerCmdExecFactory().createEventsCmdExec(), eventCallback);
     }
 
+    @Override
+    public synchronized EventHub eventHub() {
+        if (eventHub == null) {
+            eventHub = new EventHubImpl(this);
+        }
+        return eventHub;
+    }
+
     @Override
     public void close() throws IOException {
+        synchronized (this) {
+            if (eventHub != null) {
+                eventHub.close();
+                eventHub = null;
+            }
+        }
         getDockerCmdExecFactory().close();
     }
 
@@ -0,0 +1,439 @@
+package com.github.dockerjava.core;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.EventHub;
+import com.github.dockerjava.api.command.DockerCmdExecFactory;
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.command.EventsCmd;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.command.EventsCmdImpl;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * {@link EventHub} on top of {@link DockerClient#eventsCmd(EventCallback)}.
+ *
+ * The stream is opened with the first subscription and closed again when the last one goes away. After a broken
+ * stream it reconnects with exponential backoff, passing the time of the last event as <code>since</code>. The daemon
+ * resends all events of that second, those already delivered are skipped.
+ */
+public class EventHubImpl implements EventHub {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventHubImpl.class);
+
+    static final long INITIAL_RECONNECT_DELAY = 100;
+
+    static final long MAX_RECONNECT_DELAY = 30000;
+
+    private final DockerClient dockerClient;
+
+    private final DockerCmdExecFactory dockerCmdExecFactory;
+
+    private final ExecutorService deliveryExecutor;
+
+    private final boolean ownsDeliveryExecutor;
+
+    private final ScheduledExecutorService reconnectScheduler;
+
+    private final List<SubscriptionImpl> subscriptions = new CopyOnWriteArrayList<SubscriptionImpl>();
+
+    // guarded by this
+    private ExecutorService stream;
+
+    private ScheduledFuture<?> pendingReconnect;
+
+    private boolean closed;
+
+    private long since;
+
+    /**
+     * Skips the events already published, replaced when the stream is opened for a first subscription.
+     */
+    private EventFilter eventFilter;
+
+    // written under the monitor, read by stream threads without it
+    private volatile int generation;
+
+    private volatile int failures;
+
+    /**
+     * Creates a hub that calls subscribers from a cached thread pool of its own.
+     */
+    public EventHubImpl(DockerClient dockerClient) {
+        this(Preconditions.checkNotNull(dockerClient, "dockerClient was not specified"), null,
+                newDeliveryExecutor(), true);
+    }
+
+    /**
+     * Creates a hub that calls subscribers from the given executor. The executor is not shut down by {@link #close()}.
+     */
+    public EventHubImpl(DockerClient dockerClient, ExecutorService deliveryExecutor) {
+        this(Preconditions.checkNotNull(dockerClient, "dockerClient was not specified"), null, deliveryExecutor,
+                false);
+    }
+
+    /**
+     * Creates a hub that opens the stream with the execs of an initialized factory rather than a client, for
+     * components that sit below {@link DockerClient}. Subscribers are called from a cached thread pool of its own.
+     */
+    public EventHubImpl(DockerCmdExecFactory dockerCmdExecFactory) {
+        this(null, Preconditions.checkNotNull(dockerCmdExecFactory, "dockerCmdExecFactory was not specified"),
+                newDeliveryExecutor(), true);
+    }
+
+    private EventHubImpl(DockerClient dockerClient, DockerCmdExecFactory dockerCmdExecFactory,
+            ExecutorService deliveryExecutor, boolean ownsDeliveryExecutor) {
+        Preconditions.checkNotNull(deliveryExecutor, "deliveryExecutor was not specified");
+        this.dockerClient = dockerClient;
+        this.dockerCmdExecFactory = dockerCmdExecFactory;
+        this.deliveryExecutor = deliveryExecutor;
+        this.ownsDeliveryExecutor = ownsDeliveryExecutor;
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("docker-java-events-reconnect-%d").build());
+    }
+
+    /**
+     * Opens the stream at a time in the past rather than now, to catch up with the events since then, e.g. after a
+     * restart. The daemon keeps a limited number of past events only. Applies whenever the stream is opened for a
+     * first subscription.
+     *
+     * @param since
+     *            seconds since the epoch, as {@link Event#getTime()}
+     */
+    public synchronized EventHubImpl withSince(long since) {
+        Preconditions.checkArgument(since >= 0, "since must not be negative");
+        this.since = since;
+        return this;
+    }
+
+    private static ExecutorService newDeliveryExecutor() {
+        return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("docker-java-events-%d").build());
+    }
+
+    @Override
+    public Subscription subscribe(EventCallback eventCallback) {
+        return subscribe(eventCallback, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP);
+    }
+
+    @Override
+    public Subscription subscribe(EventCallback eventCallback, int queueCapacity, OverflowPolicy overflowPolicy) {
+        Preconditions.checkNotNull(eventCallback, "eventCallback was not specified");
+        Preconditions.checkNotNull(overflowPolicy, "overflowPolicy was not specified");
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive");
+
+        SubscriptionImpl subscription = new SubscriptionImpl(eventCallback, queueCapacity, overflowPolicy);
+        synchronized (this) {
+            Preconditions.checkState(!closed, "event hub is closed");
+            subscriptions.add(subscription);
+            if (stream == null && pendingReconnect == null) {
+                eventFilter = new EventFilter(since);
+                connect();
+            }
+        }
+        return subscription;
+    }
+
+    /**
+     * @return the number of active subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            disconnect();
+        }
+        for (SubscriptionImpl subscription : subscriptions) {
+            subscription.close();
+        }
+        reconnectScheduler.shutdownNow();
+        if (ownsDeliveryExecutor) {
+            // let pending onCompletion calls run
+            deliveryExecutor.shutdown();
+        }
+    }
+
+    // callers hold the monitor
+    private void connect() {
+        pendingReconnect = null;
+        int streamGeneration = ++generation;
+        try {
+            StreamCallback callback = new StreamCallback(streamGeneration, eventFilter);
+            EventsCmd eventsCmd = dockerClient != null ? dockerClient.eventsCmd(callback) : new EventsCmdImpl(
+                    dockerCmdExecFactory.createEventsCmdExec(), callback);
+            long lastTime = eventFilter.getLastTime();
+            if (lastTime > 0) {
+                eventsCmd.withSince(String.valueOf(lastTime));
+            }
+            LOGGER.debug("Opening event stream since {}", lastTime);
+            stream = eventsCmd.exec();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to open event stream", e);
+            stream = null;
+            publish(e);
+            scheduleReconnect(streamGeneration);
+        }
+    }
+
+    // callers hold the monitor
+    private void disconnect() {
+        generation++;
+        if (pendingReconnect != null) {
+            pendingReconnect.cancel(false);
+            pendingReconnect = null;
+        }
+        if (stream != null) {
+            stream.shutdownNow();
+            stream = null;
+        }
+    }
+
+    private synchronized void scheduleReconnect(int streamGeneration) {
+        if (closed || streamGeneration != generation || subscriptions.isEmpty()) {
+            return;
+        }
+        stream = null;
+        long delay = Math.min(MAX_RECONNECT_DELAY, INITIAL_RECONNECT_DELAY << Math.min(failures, 16));
+        failures++;
+        LOGGER.debug("Reconnecting event stream in {} ms", delay);
+        pendingReconnect = reconnectScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (EventHubImpl.this) {
+                    if (!closed && pendingReconnect != null && !subscriptions.isEmpty()) {
+                        connect();
+                    }
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isCurrent(int streamGeneration) {
+        return streamGeneration == generation;
+    }
+
+    private synchronized void unsubscribed(SubscriptionImpl subscription) {
+        if (subscriptions.remove(subscription) && subscriptions.isEmpty() && !closed) {
+            disconnect();
+        }
+    }
+
+    private void publish(Object item) {
+        for (SubscriptionImpl subscription : subscriptions) {
+            subscription.offer(item);
+        }
+    }
+
+    /**
+     * The time of the last event published and the events published at that time. Takes no other lock.
+     */
+    private static class EventFilter {
+
+        private volatile long lastTime;
+
+        // guarded by this
+        private final Set<String> eventsAtLastTime = new HashSet<String>();
+
+        EventFilter(long since) {
+            this.lastTime = since;
+        }
+
+        long getLastTime() {
+            return lastTime;
+        }
+
+        synchronized boolean isDuplicate(Event event) {
+            String key = event.getStatus() + '\u0000' + event.getId() + '\u0000' + event.getFrom();
+            if (event.getTime() < lastTime) {
+                return true;
+            }
+            if (event.getTime() > lastTime) {
+                lastTime = event.getTime();
+                eventsAtLastTime.clear();
+            }
+            return !eventsAtLastTime.add(key);
+        }
+    }
+
+    /**
+     * Receives the events of one stream, on the stream's thread. It holds no lock while publishing, a subscriber with
+     * {@link OverflowPolicy#BLOCK} may keep it waiting.
+     */
+    private class StreamCallback implements EventCallback {
+
+        private final int streamGeneration;
+
+        private final EventFilter eventFilter;
+
+        private boolean receivedEvents;
+
+        StreamCallback(int streamGeneration, EventFilter eventFilter) {
+            this.streamGeneration = streamGeneration;
+            this.eventFilter = eventFilter;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            if (!isCurrent(streamGeneration) || eventFilter.isDuplicate(event)) {
+                return;
+            }
+            if (!receivedEvents) {
+                receivedEvents = true;
+                failures = 0;
+            }
+            publish(event);
+        }
+
+        @Override
+        public void onException(Throwable throwable) {
+            if (isCurrent(streamGeneration)) {
+                LOGGER.warn("Event stream failed", throwable);
+                publish(throwable);
+            }
+        }
+
+        @Override
+        public void onCompletion(int numEvents) {
+            LOGGER.debug("Event stream ended after {} events", numEvents);
+            scheduleReconnect(streamGeneration);
+        }
+    }
+
+    private class SubscriptionImpl implements Subscription, Runnable {
+
+        private final EventCallback eventCallback;
+
+        private final BlockingQueue<Object> queue;
+
+        private final OverflowPolicy overflowPolicy;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private final AtomicLong droppedEvents = new AtomicLong();
+
+        private volatile boolean closed;
+
+        // only touched by the delivering thread
+        private int deliveredEvents;
+
+        SubscriptionImpl(EventCallback eventCallback, int queueCapacity, OverflowPolicy overflowPolicy) {
+            this.eventCallback = eventCallback;
+            this.queue = new ArrayBlockingQueue<Object>(queueCapacity);
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        @Override
+        public EventCallback getEventCallback() {
+            return eventCallback;
+        }
+
+        @Override
+        public long getDroppedEvents() {
+            return droppedEvents.get();
+        }
+
+        void offer(Object item) {
+            if (closed) {
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                try {
+                    while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        if (closed) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } else if (!queue.offer(item)) {
+                droppedEvents.incrementAndGet();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    LOGGER.warn("Dropping events for {}, the delivery executor is shut down", eventCallback);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object item;
+                while (!closed && (item = queue.poll()) != null) {
+                    deliver(item);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            if (closed) {
+                if (completed.compareAndSet(false, true)) {
+                    eventCallback.onCompletion(deliveredEvents);
+                }
+            } else if (!queue.isEmpty()) {
+                // offered while we were on our way out
+                schedule();
+            }
+        }
+
+        private void deliver(Object item) {
+            try {
+                if (item instanceof Event) {
+                    eventCallback.onEvent((Event) item);
+                    deliveredEvents++;
+                } else {
+                    eventCallback.onException((Throwable) item);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Event callback " + eventCallback + " failed", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            unsubscribed(this);
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.dockerjava.core;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.github.dockerjava.api.model.StreamType;
+import com.google.common.base.Preconditions;
+
+/**
+ * Splits the output of attach and logs into the frames Docker multiplexes stdout and stderr with: an 8 byte header
+ * with the stream type in the first byte and the big-endian payload size in the last four, followed by the payload.
+ *
+ * The stream is read into a single buffer that is reused for all frames, and the callback gets a view of the payload
+ * within that buffer, so decoding does not allocate. Frames larger than the buffer are delivered in several parts of
+ * the same stream type.
+ *
+ * Containers with a TTY are not multiplexed. That is detected from the first bytes of the stream, and such output is
+ * delivered as it is read, as {@link StreamType#RAW}.
+ */
+public class FrameDecoder implements Closeable {
+
+    public static final int HEADER_SIZE = 8;
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    // type, three zero bytes
+    private static final int HEADER_PREFIX_SIZE = 4;
+
+    public static interface FrameCallback {
+
+        /**
+         * @param payload
+         *            the payload, only valid until the method returns
+         */
+        void onFrame(StreamType streamType, ByteBuffer payload) throws IOException;
+    }
+
+    private final InputStream in;
+
+    private final byte[] buffer;
+
+    private final ByteBuffer payload;
+
+    private int position;
+
+    private int limit;
+
+    private Boolean multiplexed;
+
+    private StreamType frameType;
+
+    private long frameRemaining;
+
+    public FrameDecoder(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public FrameDecoder(InputStream in, int bufferSize) {
+        Preconditions.checkNotNull(in, "in is null");
+        Preconditions.checkArgument(bufferSize >= HEADER_SIZE, "bufferSize must be at least %s", HEADER_SIZE);
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        this.payload = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * A callback that writes stdout and TTY output to <code>stdout</code> and stderr to <code>stderr</code>, straight
+     * from the decoder's buffer. Either may be <code>null</code> to discard that stream.
+     */
+    public static FrameCallback copyTo(final OutputStream stdout, final OutputStream stderr) {
+        return new FrameCallback() {
+            @Override
+            public void onFrame(StreamType streamType, ByteBuffer payload) throws IOException {
+                OutputStream out = streamType == StreamType.STDERR ? stderr : stdout;
+                if (out != null && streamType != StreamType.STDIN) {
+                    out.write(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+                }
+            }
+        };
+    }
+
+    /**
+     * Delivers frames to <code>callback</code> until the end of the stream.
+     */
+    public void decode(FrameCallback callback) throws IOException {
+        while (next(callback)) {
+            // all done in next()
+        }
+    }
+
+    /**
+     * Delivers the next frame, or the next part of it, to <code>callback</code>. Blocks until there is one.
+     *
+     * @return <code>false</code> at the end of the stream
+     * @throws EOFException
+     *             if the stream ends within a frame
+     */
+    public boolean next(FrameCallback callback) throws IOException {
+        if (!isMultiplexed()) {
+            if (position == limit && !readMore()) {
+                return false;
+            }
+            deliver(callback, StreamType.RAW, limit - position);
+            return true;
+        }
+
+        while (frameRemaining == 0) {
+            if (!fill(HEADER_SIZE)) {
+                if (position == limit) {
+                    return false;
+                }
+                throw new EOFException("Stream ended within a frame header");
+            }
+            frameType = StreamType.forHeaderByte(buffer[position] & 0xff);
+            if (frameType == null) {
+                throw new IOException(String.format("Invalid stream type %d in frame header", buffer[position]));
+            }
+            frameRemaining = ((buffer[position + 4] & 0xffL) << 24) | ((buffer[position + 5] & 0xff) << 16)
+                    | ((buffer[position + 6] & 0xff) << 8) | (buffer[position + 7] & 0xff);
+            position += HEADER_SIZE;
+        }
+
+        if (position == limit && !readMore()) {
+            throw new EOFException("Stream ended within a frame");
+        }
+        int length = (int) Math.min(frameRemaining, limit - position);
+        frameRemaining -= length;
+        deliver(callback, frameType, length);
+        return true;
+    }
+
+    /**
+     * Tells multiplexed from TTY output. Reads up to the first four bytes of the stream if not yet done.
+     */
+    public boolean isMultiplexed() throws IOException {
+        if (multiplexed == null) {
+            multiplexed = detectMultiplexed();
+        }
+        return multiplexed;
+    }
+
+    private boolean detectMultiplexed() throws IOException {
+        // read no more than needed, a TTY may well print less than a header and wait for input
+        while (true) {
+            int available = limit - position;
+            for (int i = 0; i < Math.min(available, HEADER_PREFIX_SIZE); i++) {
+                int b = buffer[position + i] & 0xff;
+                if (i == 0 ? StreamType.forHeaderByte(b) == null : b != 0) {
+                    return false;
+                }
+            }
+            if (available >= HEADER_PREFIX_SIZE) {
+                return true;
+            }
+            if (!readMore()) {
+                return false;
+            }
+        }
+    }
+
+    private void deliver(FrameCallback callback, StreamType streamType, int length) throws IOException {
+        payload.clear();
+        payload.limit(position + length);
+        payload.position(position);
+        position += length;
+        callback.onFrame(streamType, payload);
+    }
+
+    /**
+     * Reads until at least <code>count</code> bytes are buffered.
+     *
+     * @return <code>false</code> if the stream ended before
+     */
+    private boolean fill(int count) throws IOException {
+        while (limit - position < count) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads whatever the stream has at the end of the buffer, compacting it first if it is full.
+     */
+    private boolean readMore() throws IOException {
+        if (position == limit) {
+            position = 0;
+            limit = 0;
+        } else if (limit == buffer.length) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
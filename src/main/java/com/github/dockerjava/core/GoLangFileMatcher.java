@@ -0,0 +1,345 @@
+package com.github.dockerjava.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A list of {@link GoLangFileMatch} patterns compiled into a single matcher, e.g. the lines of a
+ * <code>.dockerignore</code> file.
+ *
+ * The patterns are parsed once. Patterns starting with literal characters are kept in a prefix trie, so a name is only
+ * matched against the patterns whose literal prefix it starts with. Matching works on character indexes and allocates
+ * nothing. Unlike {@link GoLangFileMatch#match(String, String)}, which only fails when it gets to the malformed part of
+ * a pattern, {@link #compile(List)} rejects malformed patterns right away.
+ */
+public class GoLangFileMatcher {
+
+    private static final GoLangFileMatcher NONE = new GoLangFileMatcher(new Node());
+
+    private final Node root;
+
+    private GoLangFileMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @throws GoLangFileMatchException
+     *             if a pattern is malformed
+     */
+    public static GoLangFileMatcher compile(String pattern) {
+        return compile(Collections.singletonList(pattern));
+    }
+
+    /**
+     * @throws GoLangFileMatchException
+     *             if a pattern is malformed
+     */
+    public static GoLangFileMatcher compile(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            return NONE;
+        }
+        TrieBuilder builder = new TrieBuilder();
+        for (String pattern : patterns) {
+            CompiledPattern compiled = CompiledPattern.parse(pattern);
+            builder.add(compiled.literalPrefix(), compiled);
+        }
+        return new GoLangFileMatcher(builder.build());
+    }
+
+    /**
+     * @return whether any of the patterns matches all of <code>name</code>
+     */
+    public boolean matches(String name) {
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            for (CompiledPattern pattern : node.patterns) {
+                if (pattern.matches(name)) {
+                    return true;
+                }
+            }
+            if (i == name.length()) {
+                break;
+            }
+            node = node.child(name.charAt(i++));
+        }
+        return false;
+    }
+
+    private static class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private CompiledPattern[] patterns = new CompiledPattern[0];
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static class TrieBuilder {
+
+        private final Map<Character, TrieBuilder> children = new TreeMap<Character, TrieBuilder>();
+
+        private final List<CompiledPattern> patterns = new ArrayList<CompiledPattern>();
+
+        void add(String prefix, CompiledPattern pattern) {
+            TrieBuilder builder = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                TrieBuilder child = builder.children.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new TrieBuilder();
+                    builder.children.put(prefix.charAt(i), child);
+                }
+                builder = child;
+            }
+            builder.patterns.add(pattern);
+        }
+
+        Node build() {
+            Node node = new Node();
+            node.patterns = patterns.toArray(new CompiledPattern[patterns.size()]);
+            node.keys = new char[children.size()];
+            node.children = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, TrieBuilder> child : children.entrySet()) {
+                node.keys[i] = child.getKey();
+                node.children[i] = child.getValue().build();
+                i++;
+            }
+            return node;
+        }
+    }
+
+    /**
+     * A pattern split into chunks like {@link GoLangFileMatch} does, each an optional leading star and a sequence of
+     * terms.
+     */
+    private static class CompiledPattern {
+
+        private final Chunk[] chunks;
+
+        private CompiledPattern(Chunk[] chunks) {
+            this.chunks = chunks;
+        }
+
+        static CompiledPattern parse(String pattern) {
+            List<Chunk> chunks = new ArrayList<Chunk>();
+            int i = 0;
+            while (i < pattern.length()) {
+                boolean star = false;
+                if (pattern.charAt(i) == '*') {
+                    star = true;
+                    i++;
+                }
+                List<Term> terms = new ArrayList<Term>();
+                while (i < pattern.length() && pattern.charAt(i) != '*') {
+                    char c = pattern.charAt(i);
+                    if (c == '[') {
+                        i = parseClass(pattern, i + 1, terms);
+                    } else if (c == '?') {
+                        terms.add(Term.ANY_TERM);
+                        i++;
+                    } else if (c == '\\' && !GoLangFileMatch.IS_WINDOWS) {
+                        if (i + 1 == pattern.length()) {
+                            throw new GoLangFileMatchException();
+                        }
+                        terms.add(Term.literal(pattern.charAt(i + 1)));
+                        i += 2;
+                    } else {
+                        terms.add(Term.literal(c));
+                        i++;
+                    }
+                }
+                chunks.add(new Chunk(star, terms.toArray(new Term[terms.size()])));
+            }
+            return new CompiledPattern(chunks.toArray(new Chunk[chunks.size()]));
+        }
+
+        /**
+         * @return the index after the closing bracket
+         */
+        private static int parseClass(String pattern, int i, List<Term> terms) {
+            int length = pattern.length();
+            if (i == length) {
+                throw new GoLangFileMatchException();
+            }
+            boolean negated = pattern.charAt(i) == '^';
+            if (negated) {
+                i++;
+            }
+            StringBuilder ranges = new StringBuilder();
+            while (true) {
+                if (i < length && pattern.charAt(i) == ']' && ranges.length() > 0) {
+                    terms.add(Term.range(negated, ranges.toString().toCharArray()));
+                    return i + 1;
+                }
+                i = parseRangeChar(pattern, i, ranges);
+                if (pattern.charAt(i) == '-') {
+                    i = parseRangeChar(pattern, i + 1, ranges);
+                } else {
+                    ranges.append(ranges.charAt(ranges.length() - 1));
+                }
+            }
+        }
+
+        /**
+         * Appends a (possibly escaped) character of a range, which must not be the last character of the pattern.
+         */
+        private static int parseRangeChar(String pattern, int i, StringBuilder ranges) {
+            int length = pattern.length();
+            if (i == length) {
+                throw new GoLangFileMatchException();
+            }
+            char c = pattern.charAt(i);
+            if (c == '-' || c == ']') {
+                throw new GoLangFileMatchException();
+            }
+            if (c == '\\' && !GoLangFileMatch.IS_WINDOWS) {
+                i++;
+                if (i == length) {
+                    throw new GoLangFileMatchException();
+                }
+            }
+            ranges.append(pattern.charAt(i));
+            i++;
+            if (i == length) {
+                throw new GoLangFileMatchException();
+            }
+            return i;
+        }
+
+        String literalPrefix() {
+            if (chunks.length == 0 || chunks[0].star) {
+                return "";
+            }
+            StringBuilder prefix = new StringBuilder();
+            for (Term term : chunks[0].terms) {
+                if (term.kind != Term.LITERAL) {
+                    break;
+                }
+                prefix.append(term.ranges[0]);
+            }
+            return prefix.toString();
+        }
+
+        /**
+         * Same algorithm as {@link GoLangFileMatch#match(String, String)}, on indexes instead of substrings.
+         */
+        boolean matches(String name) {
+            int end = name.length();
+            int position = 0;
+            Chunks: for (int c = 0; c < chunks.length; c++) {
+                Chunk chunk = chunks[c];
+                boolean last = c == chunks.length - 1;
+                if (chunk.star && chunk.terms.length == 0) {
+                    // Trailing * matches rest of string unless it has a /.
+                    return name.indexOf(File.separatorChar, position) < 0;
+                }
+                int matched = chunk.match(name, position, end);
+                if (matched >= 0 && (matched == end || !last)) {
+                    position = matched;
+                    continue;
+                }
+                if (chunk.star) {
+                    for (int i = position; i < end && name.charAt(i) != File.separatorChar; i++) {
+                        matched = chunk.match(name, i + 1, end);
+                        if (matched >= 0) {
+                            if (last && matched != end) {
+                                continue;
+                            }
+                            position = matched;
+                            continue Chunks;
+                        }
+                    }
+                }
+                return false;
+            }
+            return position == end;
+        }
+    }
+
+    private static class Chunk {
+
+        private final boolean star;
+
+        private final Term[] terms;
+
+        Chunk(boolean star, Term[] terms) {
+            this.star = star;
+            this.terms = terms;
+        }
+
+        /**
+         * @return the index after the match at <code>start</code>, or -1
+         */
+        int match(String s, int start, int end) {
+            int position = start;
+            for (Term term : terms) {
+                if (position == end || !term.matches(s.charAt(position))) {
+                    return -1;
+                }
+                position++;
+            }
+            return position;
+        }
+    }
+
+    private static class Term {
+
+        static final int LITERAL = 0;
+
+        static final int ANY = 1;
+
+        static final int RANGE = 2;
+
+        static final Term ANY_TERM = new Term(ANY, false, new char[0]);
+
+        private final int kind;
+
+        private final boolean negated;
+
+        // a literal's character, or pairs of lowest and highest character of a range
+        private final char[] ranges;
+
+        private Term(int kind, boolean negated, char[] ranges) {
+            this.kind = kind;
+            this.negated = negated;
+            this.ranges = ranges;
+        }
+
+        static Term literal(char c) {
+            return new Term(LITERAL, false, new char[] { c });
+        }
+
+        static Term range(boolean negated, char[] ranges) {
+            return new Term(RANGE, negated, ranges);
+        }
+
+        boolean matches(char c) {
+            switch (kind) {
+            case LITERAL:
+                return c == ranges[0];
+            case ANY:
+                return c != File.separatorChar;
+            default:
+                boolean match = false;
+                for (int i = 0; i < ranges.length; i += 2) {
+                    if (ranges[i] <= c && c <= ranges[i + 1]) {
+                        match = true;
+                        break;
+                    }
+                }
+                return match != negated;
+            }
+        }
+    }
+}
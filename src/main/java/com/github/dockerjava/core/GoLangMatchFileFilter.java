@@ -3,32 +3,38 @@
  */
 package com.github.dockerjava.core;
 
-import static org.apache.commons.lang.StringUtils.stripStart;
-
 import java.io.File;
 import java.util.List;
 
 import org.apache.commons.io.filefilter.AbstractFileFilter;
 
+/**
+ * Accepts the files whose path relative to <code>base</code> matches none of the patterns. Used as directory filter it
+ * prunes excluded directories, their content is not even listed.
+ */
 public class GoLangMatchFileFilter extends AbstractFileFilter {
 
-	private final File base;
+	private final String basePath;
 	
-    private final List<String> patterns;
+    private final GoLangFileMatcher matcher;
 
 
     public GoLangMatchFileFilter(File base, List<String> patterns) {
+        this(base, GoLangFileMatcher.compile(patterns));
+    }
+
+    public GoLangMatchFileFilter(File base, GoLangFileMatcher matcher) {
         super();
-        this.base = base;
-        this.patterns = patterns;
+        this.basePath = base.getAbsolutePath() + File.separatorChar;
+        this.matcher = matcher;
     }
 
     @Override
     public boolean accept(File file) {
-        String basePath = base.getAbsolutePath() + File.separatorChar;
-        String relativePath = stripStart(file.getAbsolutePath(), basePath);
-        
-        boolean match = GoLangFileMatch.match(patterns, relativePath);
+        String path = file.getAbsolutePath();
+        String relativePath = path.startsWith(basePath) ? path.substring(basePath.length()) : path;
+
+        boolean match = matcher.matches(relativePath);
         return !match;
     }
 
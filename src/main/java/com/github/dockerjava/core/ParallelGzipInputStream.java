@@ -0,0 +1,205 @@
+package com.github.dockerjava.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Gzip compresses a stream on several cores, the way pigz does.
+ *
+ * The source is cut into blocks that are compressed in parallel, each into a gzip member of its own. Concatenated
+ * members are a valid gzip stream, the Docker daemon (like <code>gunzip</code>) decompresses them as a whole. Blocks
+ * are compressed without the preceding block as dictionary, which costs a little compression for small blocks.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private static ExecutorService sharedExecutor;
+
+    private final InputStream source;
+
+    private final int level;
+
+    private final int blockSize;
+
+    private final ExecutorService executor;
+
+    private final int maxPendingBlocks;
+
+    private final Queue<Future<byte[]>> pendingBlocks = new LinkedList<Future<byte[]>>();
+
+    private boolean sourceExhausted;
+
+    private int blocks;
+
+    private byte[] current;
+
+    private int position;
+
+    /**
+     * Compresses on a shared pool with a thread per processor.
+     */
+    public ParallelGzipInputStream(InputStream source, int level, int blockSize) {
+        this(source, level, blockSize, getSharedExecutor(), PROCESSORS);
+    }
+
+    /**
+     * @param parallelism
+     *            the number of blocks compressed at the same time, at most twice that many are held in memory
+     */
+    public ParallelGzipInputStream(InputStream source, int level, int blockSize, ExecutorService executor,
+            int parallelism) {
+        Preconditions.checkNotNull(source, "source is null");
+        Preconditions.checkNotNull(executor, "executor is null");
+        Preconditions.checkArgument(level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+                "level must be between 0 and 9");
+        Preconditions.checkArgument(blockSize > 0, "blockSize must be positive");
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+        this.source = source;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.executor = executor;
+        this.maxPendingBlocks = 2 * parallelism;
+    }
+
+    private static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newFixedThreadPool(PROCESSORS, new ThreadFactoryBuilder().setDaemon(true)
+                    .setNameFormat("docker-java-gzip-%d").build());
+        }
+        return sharedExecutor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || position == current.length) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    private boolean nextBlock() throws IOException {
+        submitBlocks();
+        Future<byte[]> next = pendingBlocks.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            current = next.get();
+            position = 0;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        }
+    }
+
+    private void submitBlocks() throws IOException {
+        while (!sourceExhausted && pendingBlocks.size() < maxPendingBlocks) {
+            byte[] block = new byte[blockSize];
+            int length = IOUtils.read(source, block);
+            if (length == 0 && blocks > 0) {
+                sourceExhausted = true;
+                break;
+            }
+            // an empty source still needs a member
+            sourceExhausted = length < blockSize;
+            blocks++;
+            pendingBlocks.add(executor.submit(new CompressBlock(block, length, level)));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> pending : pendingBlocks) {
+            pending.cancel(false);
+        }
+        pendingBlocks.clear();
+        current = null;
+        sourceExhausted = true;
+        source.close();
+    }
+
+    private static class CompressBlock implements Callable<byte[]> {
+
+        private final byte[] block;
+
+        private final int length;
+
+        private final int level;
+
+        CompressBlock(byte[] block, int length, int level) {
+            this.block = block;
+            this.length = length;
+            this.level = level;
+        }
+
+        @Override
+        public byte[] call() {
+            ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + 64);
+            member.write(HEADER, 0, HEADER.length);
+
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(block, 0, length);
+                deflater.finish();
+                byte[] buffer = new byte[Math.max(512, Math.min(length, 64 * 1024))];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    member.write(buffer, 0, n);
+                }
+            } finally {
+                deflater.end();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(block, 0, length);
+            writeIntLE(member, (int) crc.getValue());
+            writeIntLE(member, length);
+            return member.toByteArray();
+        }
+
+        private static void writeIntLE(ByteArrayOutputStream out, int value) {
+            out.write(value);
+            out.write(value >>> 8);
+            out.write(value >>> 16);
+            out.write(value >>> 24);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.dockerjava.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClientException;
+import com.github.dockerjava.api.DockerException;
+import com.github.dockerjava.api.model.ErrorDetail;
+import com.github.dockerjava.api.model.ProgressMessage;
+import com.google.common.base.Preconditions;
+
+/**
+ * Reads the progress messages of pull, push and build responses as they arrive.
+ *
+ * Docker reports failures of these commands within the stream, after the response status. The reader turns them into
+ * {@link DockerException}s.
+ *
+ * <pre>
+ * new ProgressReader(dockerClient.pullImageCmd(&quot;busybox&quot;).exec()).awaitCompletion();
+ * </pre>
+ */
+public class ProgressReader implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final InputStream in;
+
+    private final JsonParser parser;
+
+    public ProgressReader(InputStream in) {
+        Preconditions.checkNotNull(in, "in is null");
+        this.in = in;
+        try {
+            this.parser = JSON_FACTORY.createParser(in);
+        } catch (IOException e) {
+            throw new DockerClientException("Failed to read progress", e);
+        }
+    }
+
+    /**
+     * Blocks until the next message arrives.
+     *
+     * @return the message, <code>null</code> at the end of the stream
+     * @throws DockerException
+     *             if the message reports an error
+     */
+    public ProgressMessage next() {
+        try {
+            if (!nextObject()) {
+                return null;
+            }
+            ProgressMessage message = OBJECT_MAPPER.readValue(parser, ProgressMessage.class);
+            if (message.isError()) {
+                throw toException(message.getError(), message.getErrorDetail());
+            }
+            return message;
+        } catch (IOException e) {
+            throw new DockerClientException("Failed to read progress", e);
+        }
+    }
+
+    /**
+     * Reads the rest of the stream and closes it. Only errors are mapped, all other messages are skipped token by token.
+     *
+     * @throws DockerException
+     *             if a message reports an error
+     */
+    public void awaitCompletion() {
+        try {
+            while (nextObject()) {
+                String error = null;
+                ErrorDetail errorDetail = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("errorDetail".equals(field)) {
+                        errorDetail = OBJECT_MAPPER.readValue(parser, ErrorDetail.class);
+                    } else if ("error".equals(field)) {
+                        error = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (error != null || errorDetail != null) {
+                    throw toException(error, errorDetail);
+                }
+            }
+        } catch (IOException e) {
+            throw new DockerClientException("Failed to read progress", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private boolean nextObject() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new DockerClientException("Unexpected " + token + " in progress stream");
+        }
+        return true;
+    }
+
+    private static DockerException toException(String error, ErrorDetail errorDetail) {
+        String message = errorDetail != null && errorDetail.getMessage() != null ? errorDetail.getMessage() : error;
+        int code = errorDetail != null && errorDetail.getCode() != null ? errorDetail.getCode() : 0;
+        return new DockerException(message, code);
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // nothing left to read
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            in.close();
+        }
+    }
+}
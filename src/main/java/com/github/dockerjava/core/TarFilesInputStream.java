@@ -0,0 +1,133 @@
+package com.github.dockerjava.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Tar archive of a list of files that is written while it is read.
+ *
+ * Nothing is written ahead: every read produces the next piece of the archive, at most one copy buffer of file content,
+ * so uploading can start with the first entry and no more than a few kilobytes are held in memory.
+ */
+public class TarFilesInputStream extends InputStream {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final File base;
+
+    private final Iterator<File> files;
+
+    private final Buffer buffer = new Buffer();
+
+    private final TarArchiveOutputStream tarOutputStream;
+
+    private final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+
+    private InputStream currentFile;
+
+    private int position;
+
+    private boolean finished;
+
+    private boolean closed;
+
+    public TarFilesInputStream(File base, Iterable<File> files) throws IOException {
+        this.base = base.getCanonicalFile();
+        this.files = files.iterator();
+        this.tarOutputStream = new TarArchiveOutputStream(buffer);
+        this.tarOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (position == buffer.size()) {
+            buffer.reset();
+            position = 0;
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, buffer.size() - position);
+        System.arraycopy(buffer.bytes(), position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.size() - position;
+    }
+
+    /**
+     * Writes the next piece of the archive to the buffer. The tar stream writes whole records only, so this may well
+     * write nothing.
+     *
+     * @return <code>false</code> at the end of the archive
+     */
+    private boolean fill() throws IOException {
+        if (currentFile != null) {
+            int n = currentFile.read(copyBuffer);
+            if (n < 0) {
+                currentFile.close();
+                currentFile = null;
+                tarOutputStream.closeArchiveEntry();
+            } else {
+                tarOutputStream.write(copyBuffer, 0, n);
+            }
+            return true;
+        }
+        if (files.hasNext()) {
+            File file = files.next();
+            tarOutputStream.putArchiveEntry(CompressArchiveUtil.createTarEntry(base, file));
+            if (file.isDirectory()) {
+                tarOutputStream.closeArchiveEntry();
+            } else {
+                currentFile = new FileInputStream(file);
+            }
+            return true;
+        }
+        if (!finished) {
+            finished = true;
+            tarOutputStream.close();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOUtils.closeQuietly(currentFile);
+        currentFile = null;
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(COPY_BUFFER_SIZE + 8192);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
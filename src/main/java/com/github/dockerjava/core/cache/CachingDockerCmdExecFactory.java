@@ -0,0 +1,591 @@
+package com.github.dockerjava.core.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.EventHub;
+import com.github.dockerjava.api.command.*;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.EventHubImpl;
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A {@link DockerCmdExecFactory} that answers {@link InspectContainerCmd} and {@link InspectImageCmd} from a cache and
+ * hands all other commands to the factory it wraps:
+ *
+ * <pre>
+ * DockerClient docker = DockerClientBuilder.getInstance(config)
+ *         .withDockerCmdExecFactory(new CachingDockerCmdExecFactory(new DockerCmdExecFactoryImpl())).build();
+ * </pre>
+ *
+ * Each cache holds up to {@link #withMaximumSize(long) a number of} responses, least recently used first out, for
+ * {@link #withTtl(long, TimeUnit) a while}. A {@link com.github.dockerjava.api.NotFoundException} is cached too, for
+ * {@link #withNotFoundTtl(long, TimeUnit) a shorter while}.
+ * <p>
+ * Entries are invalidated by the <code>/events</code> of the daemon, which the factory follows from
+ * {@link #init(DockerClientConfig)} on: an event of a container drops the responses for that container, whatever id
+ * or name they were requested with, and a <code>create</code> drops the cached "not found"s. The same goes for images
+ * with <code>untag</code>, <code>delete</code>, <code>tag</code>, <code>pull</code> and <code>import</code>. Commands
+ * of this factory that change a container or image invalidate it right away as well, so a client sees its own
+ * changes. Everything is dropped when the event stream breaks; the TTL bounds how stale an entry can get in the
+ * moment before the stream is up.
+ * <p>
+ * Cached responses are shared between callers and must not be modified. Answers from the cache do not reach the
+ * wrapped factory, so its metrics and traces only count misses; {@link #getContainerStats()} and
+ * {@link #getImageStats()} count both.
+ */
+public class CachingDockerCmdExecFactory implements DockerCmdExecFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDockerCmdExecFactory.class);
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    public static final long DEFAULT_NOT_FOUND_TTL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final Set<String> IMAGE_EVENTS = new HashSet<String>(Arrays.asList("untag", "delete", "tag",
+            "pull", "push", "import"));
+
+    private final DockerCmdExecFactory delegate;
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    private long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MILLIS);
+
+    private long notFoundTtlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_NOT_FOUND_TTL_MILLIS);
+
+    private Ticker ticker = Ticker.systemTicker();
+
+    private InspectCache<InspectContainerResponse> containers;
+
+    private InspectCache<InspectImageResponse> images;
+
+    private PersistentImageCache persistentImages;
+
+    private EventHub eventHub;
+
+    public CachingDockerCmdExecFactory(DockerCmdExecFactory delegate) {
+        Preconditions.checkNotNull(delegate, "delegate was not specified");
+        this.delegate = delegate;
+    }
+
+    /**
+     * Sets how many responses and how many "not found"s each of the caches holds at most.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public CachingDockerCmdExecFactory withMaximumSize(long maximumSize) {
+        Preconditions.checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * Sets how long a response is cached at most.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public CachingDockerCmdExecFactory withTtl(long duration, TimeUnit unit) {
+        Preconditions.checkArgument(duration > 0, "duration must be positive");
+        this.ttlNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Sets how long a {@link com.github.dockerjava.api.NotFoundException} is cached at most.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public CachingDockerCmdExecFactory withNotFoundTtl(long duration, TimeUnit unit) {
+        Preconditions.checkArgument(duration > 0, "duration must be positive");
+        this.notFoundTtlNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Sets the time source of the TTLs.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public CachingDockerCmdExecFactory withTicker(Ticker ticker) {
+        Preconditions.checkNotNull(ticker, "ticker was not specified");
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * Keeps the {@link InspectImageResponse}s in <code>persistentImageCache</code> as well, so that inspecting an image
+     * by its full id does not reach the daemon even after a restart. Entries are removed on <code>delete</code>
+     * events only, as an image id names immutable content. The cache is not closed by {@link #close()}.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public CachingDockerCmdExecFactory withPersistentImageCache(PersistentImageCache persistentImageCache) {
+        Preconditions.checkNotNull(persistentImageCache, "persistentImageCache was not specified");
+        this.persistentImages = persistentImageCache;
+        return this;
+    }
+
+    @Override
+    public void init(DockerClientConfig dockerClientConfig) {
+        delegate.init(dockerClientConfig);
+        containers = new InspectCache<InspectContainerResponse>(maximumSize, ttlNanos, notFoundTtlNanos, ticker,
+                new Function<InspectContainerResponse, String>() {
+                    @Override
+                    public String apply(InspectContainerResponse response) {
+                        return response.getId();
+                    }
+                });
+        images = new InspectCache<InspectImageResponse>(maximumSize, ttlNanos, notFoundTtlNanos, ticker,
+                new Function<InspectImageResponse, String>() {
+                    @Override
+                    public String apply(InspectImageResponse response) {
+                        return response.getId();
+                    }
+                });
+        eventHub = new EventHubImpl(delegate);
+        // blocking rather than dropping, a lost event would leave a stale entry
+        eventHub.subscribe(new Invalidator(), EventHub.DEFAULT_QUEUE_CAPACITY, EventHub.OverflowPolicy.BLOCK);
+    }
+
+    private InspectCache<InspectContainerResponse> getContainers() {
+        Preconditions.checkNotNull(containers, "Factory not initialized. You probably forgot to call init()!");
+        return containers;
+    }
+
+    private InspectCache<InspectImageResponse> getImages() {
+        Preconditions.checkNotNull(images, "Factory not initialized. You probably forgot to call init()!");
+        return images;
+    }
+
+    /**
+     * @return the hits and misses of {@link InspectContainerCmd}s
+     */
+    public CacheStats getContainerStats() {
+        return getContainers().stats();
+    }
+
+    /**
+     * @return the hits and misses of {@link InspectImageCmd}s
+     */
+    public CacheStats getImageStats() {
+        return getImages().stats();
+    }
+
+    /**
+     * @return the number of cached container responses and "not found"s
+     */
+    public long getContainerCount() {
+        return getContainers().size();
+    }
+
+    /**
+     * @return the number of cached image responses and "not found"s
+     */
+    public long getImageCount() {
+        return getImages().size();
+    }
+
+    /**
+     * Drops everything cached, e.g. after the daemon was restarted.
+     */
+    public void invalidateAll() {
+        getContainers().invalidateAll();
+        getImages().invalidateAll();
+    }
+
+    private void invalidateImageName(String name) {
+        getImages().invalidate(name);
+        if (name.endsWith(":latest")) {
+            getImages().invalidate(name.substring(0, name.length() - ":latest".length()));
+        }
+        getImages().invalidateNotFound();
+    }
+
+    /**
+     * @return the factory that executes the commands not answered from the cache
+     */
+    public DockerCmdExecFactory getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public AuthCmd.Exec createAuthCmdExec() {
+        return delegate.createAuthCmdExec();
+    }
+
+    @Override
+    public InfoCmd.Exec createInfoCmdExec() {
+        return delegate.createInfoCmdExec();
+    }
+
+    @Override
+    public PingCmd.Exec createPingCmdExec() {
+        return delegate.createPingCmdExec();
+    }
+
+    @Override
+    public VersionCmd.Exec createVersionCmdExec() {
+        return delegate.createVersionCmdExec();
+    }
+
+    @Override
+    public PullImageCmd.Exec createPullImageCmdExec() {
+        return delegate.createPullImageCmdExec();
+    }
+
+    @Override
+    public PushImageCmd.Exec createPushImageCmdExec() {
+        return delegate.createPushImageCmdExec();
+    }
+
+    @Override
+    public CreateImageCmd.Exec createCreateImageCmdExec() {
+        return delegate.createCreateImageCmdExec();
+    }
+
+    @Override
+    public SearchImagesCmd.Exec createSearchImagesCmdExec() {
+        return delegate.createSearchImagesCmdExec();
+    }
+
+    @Override
+    public RemoveImageCmd.Exec createRemoveImageCmdExec() {
+        return new RemoveImageExec(delegate.createRemoveImageCmdExec());
+    }
+
+    @Override
+    public ListImagesCmd.Exec createListImagesCmdExec() {
+        return delegate.createListImagesCmdExec();
+    }
+
+    @Override
+    public InspectImageCmd.Exec createInspectImageCmdExec() {
+        return new InspectImageExec(delegate.createInspectImageCmdExec(), getImages());
+    }
+
+    @Override
+    public ListContainersCmd.Exec createListContainersCmdExec() {
+        return delegate.createListContainersCmdExec();
+    }
+
+    @Override
+    public CreateContainerCmd.Exec createCreateContainerCmdExec() {
+        return new CreateContainerExec(delegate.createCreateContainerCmdExec());
+    }
+
+    @Override
+    public StartContainerCmd.Exec createStartContainerCmdExec() {
+        return new StartContainerExec(delegate.createStartContainerCmdExec());
+    }
+
+    @Override
+    public InspectContainerCmd.Exec createInspectContainerCmdExec() {
+        return new InspectContainerExec(delegate.createInspectContainerCmdExec(), getContainers());
+    }
+
+    @Override
+    public RemoveContainerCmd.Exec createRemoveContainerCmdExec() {
+        return new RemoveContainerExec(delegate.createRemoveContainerCmdExec());
+    }
+
+    @Override
+    public WaitContainerCmd.Exec createWaitContainerCmdExec() {
+        return delegate.createWaitContainerCmdExec();
+    }
+
+    @Override
+    public AttachContainerCmd.Exec createAttachContainerCmdExec() {
+        return delegate.createAttachContainerCmdExec();
+    }
+
+    @Override
+    public LogContainerCmd.Exec createLogContainerCmdExec() {
+        return delegate.createLogContainerCmdExec();
+    }
+
+    @Override
+    public CopyFileFromContainerCmd.Exec createCopyFileFromContainerCmdExec() {
+        return delegate.createCopyFileFromContainerCmdExec();
+    }
+
+    @Override
+    public StopContainerCmd.Exec createStopContainerCmdExec() {
+        return new StopContainerExec(delegate.createStopContainerCmdExec());
+    }
+
+    @Override
+    public ContainerDiffCmd.Exec createContainerDiffCmdExec() {
+        return delegate.createContainerDiffCmdExec();
+    }
+
+    @Override
+    public KillContainerCmd.Exec createKillContainerCmdExec() {
+        return new KillContainerExec(delegate.createKillContainerCmdExec());
+    }
+
+    @Override
+    public RestartContainerCmd.Exec createRestartContainerCmdExec() {
+        return new RestartContainerExec(delegate.createRestartContainerCmdExec());
+    }
+
+    @Override
+    public CommitCmd.Exec createCommitCmdExec() {
+        return delegate.createCommitCmdExec();
+    }
+
+    @Override
+    public BuildImageCmd.Exec createBuildImageCmdExec() {
+        return delegate.createBuildImageCmdExec();
+    }
+
+    @Override
+    public TopContainerCmd.Exec createTopContainerCmdExec() {
+        return delegate.createTopContainerCmdExec();
+    }
+
+    @Override
+    public TagImageCmd.Exec createTagImageCmdExec() {
+        return new TagImageExec(delegate.createTagImageCmdExec());
+    }
+
+    @Override
+    public PauseContainerCmd.Exec createPauseContainerCmdExec() {
+        return new PauseContainerExec(delegate.createPauseContainerCmdExec());
+    }
+
+    @Override
+    public UnpauseContainerCmd.Exec createUnpauseContainerCmdExec() {
+        return new UnpauseContainerExec(delegate.createUnpauseContainerCmdExec());
+    }
+
+    @Override
+    public EventsCmd.Exec createEventsCmdExec() {
+        return delegate.createEventsCmdExec();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (eventHub != null) {
+                eventHub.close();
+            }
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private class Invalidator implements EventCallback {
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.getId() == null) {
+                return;
+            }
+            if (IMAGE_EVENTS.contains(event.getStatus())) {
+                // untag and delete name the image by id, the others by the name it got
+                images.invalidateId(event.getId());
+                invalidateImageName(event.getId());
+                if (persistentImages != null && "delete".equals(event.getStatus())) {
+                    persistentImages.remove(event.getId());
+                }
+            } else {
+                containers.invalidateId(event.getId());
+                if ("create".equals(event.getStatus())) {
+                    containers.invalidateNotFound();
+                }
+            }
+        }
+
+        @Override
+        public void onException(Throwable throwable) {
+            LOGGER.debug("Event stream broke, dropping cached inspect responses");
+            invalidateAll();
+        }
+
+        @Override
+        public void onCompletion(int numEvents) {
+        }
+    }
+
+    private static class InspectContainerExec extends
+            CachingInspectExec<InspectContainerCmd, InspectContainerResponse> implements InspectContainerCmd.Exec {
+
+        InspectContainerExec(InspectContainerCmd.Exec delegate, InspectCache<InspectContainerResponse> cache) {
+            super(delegate, cache);
+        }
+
+        @Override
+        protected String getKey(InspectContainerCmd command) {
+            return command.getContainerId();
+        }
+    }
+
+    private class InspectImageExec extends CachingInspectExec<InspectImageCmd, InspectImageResponse> implements
+            InspectImageCmd.Exec {
+
+        InspectImageExec(InspectImageCmd.Exec delegate, InspectCache<InspectImageResponse> cache) {
+            super(delegate, cache);
+        }
+
+        @Override
+        protected String getKey(InspectImageCmd command) {
+            return command.getImageId();
+        }
+
+        @Override
+        protected InspectImageResponse getStored(String key) {
+            return persistentImages != null ? persistentImages.get(key) : null;
+        }
+
+        @Override
+        protected void store(InspectImageResponse response) {
+            if (persistentImages != null) {
+                persistentImages.put(response);
+            }
+        }
+    }
+
+    private class CreateContainerExec extends InvalidatingExec<CreateContainerCmd, CreateContainerResponse>
+            implements CreateContainerCmd.Exec {
+
+        CreateContainerExec(CreateContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(CreateContainerCmd command) {
+            getContainers().invalidateNotFound();
+        }
+    }
+
+    private class StartContainerExec extends InvalidatingExec<StartContainerCmd, Void> implements
+            StartContainerCmd.Exec {
+
+        StartContainerExec(StartContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(StartContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class StopContainerExec extends InvalidatingExec<StopContainerCmd, Void> implements StopContainerCmd.Exec {
+
+        StopContainerExec(StopContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(StopContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class KillContainerExec extends InvalidatingExec<KillContainerCmd, Void> implements KillContainerCmd.Exec {
+
+        KillContainerExec(KillContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(KillContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class RestartContainerExec extends InvalidatingExec<RestartContainerCmd, Void> implements
+            RestartContainerCmd.Exec {
+
+        RestartContainerExec(RestartContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(RestartContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class PauseContainerExec extends InvalidatingExec<PauseContainerCmd, Void> implements
+            PauseContainerCmd.Exec {
+
+        PauseContainerExec(PauseContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(PauseContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class UnpauseContainerExec extends InvalidatingExec<UnpauseContainerCmd, Void> implements
+            UnpauseContainerCmd.Exec {
+
+        UnpauseContainerExec(UnpauseContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(UnpauseContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class RemoveContainerExec extends InvalidatingExec<RemoveContainerCmd, Void> implements
+            RemoveContainerCmd.Exec {
+
+        RemoveContainerExec(RemoveContainerCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(RemoveContainerCmd command) {
+            getContainers().invalidate(command.getContainerId());
+        }
+    }
+
+    private class RemoveImageExec extends InvalidatingExec<RemoveImageCmd, Void> implements RemoveImageCmd.Exec {
+
+        RemoveImageExec(RemoveImageCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(RemoveImageCmd command) {
+            getImages().invalidate(command.getImageId());
+            if (persistentImages != null) {
+                persistentImages.remove(command.getImageId());
+            }
+        }
+    }
+
+    private class TagImageExec extends InvalidatingExec<TagImageCmd, Void> implements TagImageCmd.Exec {
+
+        TagImageExec(TagImageCmd.Exec delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void invalidate(TagImageCmd command) {
+            // the image has another name now, and the name may have belonged to another image
+            getImages().invalidate(command.getImageId());
+            invalidateImageName(command.getTag() == null ? command.getRepository() : command.getRepository() + ":"
+                    + command.getTag());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.dockerjava.core.cache;
+
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.command.AsyncDockerCmdExec;
+import com.github.dockerjava.api.command.DockerCmd;
+import com.github.dockerjava.api.command.DockerCmdExec;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Answers inspect commands from an {@link InspectCache} and executes the others with the delegate, caching their
+ * response or {@link NotFoundException}.
+ */
+abstract class CachingInspectExec<CMD_T extends DockerCmd<RES_T>, RES_T> implements AsyncDockerCmdExec<CMD_T, RES_T> {
+
+    private final DockerCmdExec<CMD_T, RES_T> delegate;
+
+    private final InspectCache<RES_T> cache;
+
+    CachingInspectExec(DockerCmdExec<CMD_T, RES_T> delegate, InspectCache<RES_T> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    protected abstract String getKey(CMD_T command);
+
+    /**
+     * @return a response kept elsewhere than in the cache, <code>null</code> if there is none
+     */
+    protected RES_T getStored(String key) {
+        return null;
+    }
+
+    /**
+     * Called with each response fetched from the daemon.
+     */
+    protected void store(RES_T response) {
+    }
+
+    @Override
+    public RES_T exec(CMD_T command) {
+        String key = getKey(command);
+        RES_T cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.getGeneration();
+        RES_T stored = getStored(key, generation);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            RES_T response = delegate.exec(command);
+            cache.put(key, response, generation);
+            store(response);
+            return response;
+        } catch (NotFoundException e) {
+            cache.putNotFound(key, e.getMessage(), generation);
+            throw e;
+        }
+    }
+
+    @Override
+    public ListenableFuture<RES_T> execAsync(CMD_T command) {
+        final String key = getKey(command);
+        RES_T cached;
+        try {
+            cached = getCached(key);
+        } catch (NotFoundException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+        if (cached != null) {
+            return Futures.immediateFuture(cached);
+        }
+        final long generation = cache.getGeneration();
+        RES_T stored = getStored(key, generation);
+        if (stored != null) {
+            return Futures.immediateFuture(stored);
+        }
+        ListenableFuture<RES_T> response = InvalidatingExec.execAsync(delegate, command);
+        Futures.addCallback(response, new FutureCallback<RES_T>() {
+            @Override
+            public void onSuccess(RES_T result) {
+                cache.put(key, result, generation);
+                store(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof NotFoundException) {
+                    cache.putNotFound(key, t.getMessage(), generation);
+                }
+            }
+        });
+        return response;
+    }
+
+    private RES_T getStored(String key, long generation) {
+        RES_T stored = getStored(key);
+        if (stored != null) {
+            cache.recordHit();
+            cache.put(key, stored, generation);
+        } else {
+            cache.recordMiss();
+        }
+        return stored;
+    }
+
+    /**
+     * @return the cached response, <code>null</code> on a miss
+     * @throws NotFoundException
+     *             if that is cached
+     */
+    private RES_T getCached(String key) {
+        RES_T cached = cache.getIfPresent(key);
+        if (cached != null) {
+            cache.recordHit();
+            return cached;
+        }
+        String notFound = cache.getNotFound(key);
+        if (notFound != null) {
+            cache.recordHit();
+            throw new NotFoundException(notFound);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.dockerjava.core.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * Inspect responses by the id or name they were requested with, and the requests that found nothing. Every key of a
+ * response is remembered under the full id of the response, so that invalidating the id drops the entries of its
+ * names and short ids as well.
+ * <p>
+ * A response fetched while an invalidation happened is not stored, it may predate the change. The check covers all
+ * keys, which keeps it simple at the cost of some misses under a steady stream of changes.
+ */
+class InspectCache<V> {
+
+    private final Function<V, String> idOf;
+
+    private final Cache<String, V> values;
+
+    private final Cache<String, String> notFound;
+
+    private final AbstractCache.SimpleStatsCounter stats = new AbstractCache.SimpleStatsCounter();
+
+    // guarded by this
+    private final SetMultimap<String, String> keysById = HashMultimap.create();
+
+    private long generation;
+
+    InspectCache(long maximumSize, long ttlNanos, long notFoundTtlNanos, Ticker ticker, Function<V, String> idOf) {
+        this.idOf = idOf;
+        this.values = CacheBuilder.newBuilder().maximumSize(maximumSize)
+                .expireAfterWrite(ttlNanos, TimeUnit.NANOSECONDS).ticker(ticker)
+                .removalListener(new RemovalListener<String, V>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, V> notification) {
+                        // a replacement is indexed by put itself
+                        if (notification.getCause() != RemovalCause.REPLACED && notification.getValue() != null) {
+                            unindex(notification.getKey(), notification.getValue());
+                        }
+                    }
+                }).build();
+        this.notFound = CacheBuilder.newBuilder().maximumSize(maximumSize)
+                .expireAfterWrite(notFoundTtlNanos, TimeUnit.NANOSECONDS).ticker(ticker).build();
+    }
+
+    V getIfPresent(String key) {
+        return values.getIfPresent(key);
+    }
+
+    /**
+     * @return the message of the {@link com.github.dockerjava.api.NotFoundException} the key was answered with, if
+     *         that is cached
+     */
+    String getNotFound(String key) {
+        return notFound.getIfPresent(key);
+    }
+
+    void recordHit() {
+        stats.recordHits(1);
+    }
+
+    void recordMiss() {
+        stats.recordMisses(1);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put} with the response fetched afterwards
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    synchronized void put(String key, V value, long generation) {
+        if (generation == this.generation) {
+            values.put(key, value);
+            keysById.put(idOf.apply(value), key);
+        }
+    }
+
+    synchronized void putNotFound(String key, String message, long generation) {
+        if (generation == this.generation) {
+            notFound.put(key, message);
+        }
+    }
+
+    private synchronized void unindex(String key, V value) {
+        keysById.remove(idOf.apply(value), key);
+    }
+
+    /**
+     * Drops the responses with the given full id, whatever they were requested with.
+     */
+    synchronized void invalidateId(String id) {
+        generation++;
+        values.invalidate(id);
+        values.invalidateAll(keysById.removeAll(id));
+    }
+
+    /**
+     * Drops what is cached for the given id or name, and the other keys of the response cached for it.
+     */
+    synchronized void invalidate(String key) {
+        generation++;
+        V value = values.getIfPresent(key);
+        if (value != null) {
+            invalidateId(idOf.apply(value));
+        }
+        invalidateId(key);
+        notFound.invalidate(key);
+    }
+
+    /**
+     * Drops all cached {@link com.github.dockerjava.api.NotFoundException}s, e.g. once something was created.
+     */
+    synchronized void invalidateNotFound() {
+        generation++;
+        notFound.invalidateAll();
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        values.invalidateAll();
+        notFound.invalidateAll();
+        keysById.clear();
+    }
+
+    long size() {
+        return values.size() + notFound.size();
+    }
+
+    CacheStats stats() {
+        return stats.snapshot();
+    }
+}
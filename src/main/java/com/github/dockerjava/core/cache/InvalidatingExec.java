@@ -0,0 +1,60 @@
+package com.github.dockerjava.core.cache;
+
+import com.github.dockerjava.api.command.AsyncDockerCmdExec;
+import com.github.dockerjava.api.command.DockerCmd;
+import com.github.dockerjava.api.command.DockerCmdExec;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Executes a command that changes what inspect returns and invalidates the cached responses it affects once it is
+ * done, successful or not, so that the client reads its own writes without waiting for the event.
+ */
+abstract class InvalidatingExec<CMD_T extends DockerCmd<RES_T>, RES_T> implements AsyncDockerCmdExec<CMD_T, RES_T> {
+
+    private final DockerCmdExec<CMD_T, RES_T> delegate;
+
+    InvalidatingExec(DockerCmdExec<CMD_T, RES_T> delegate) {
+        this.delegate = delegate;
+    }
+
+    protected abstract void invalidate(CMD_T command);
+
+    @Override
+    public RES_T exec(CMD_T command) {
+        try {
+            return delegate.exec(command);
+        } finally {
+            invalidate(command);
+        }
+    }
+
+    @Override
+    public ListenableFuture<RES_T> execAsync(final CMD_T command) {
+        ListenableFuture<RES_T> response = execAsync(delegate, command);
+        response.addListener(new Runnable() {
+            @Override
+            public void run() {
+                invalidate(command);
+            }
+        }, MoreExecutors.directExecutor());
+        return response;
+    }
+
+    /**
+     * Runs the command on the executor of <code>exec</code> if it has one, otherwise on the calling thread.
+     */
+    @SuppressWarnings("unchecked")
+    static <CMD_T extends DockerCmd<RES_T>, RES_T> ListenableFuture<RES_T> execAsync(
+            DockerCmdExec<CMD_T, RES_T> exec, CMD_T command) {
+        if (exec instanceof AsyncDockerCmdExec) {
+            return ((AsyncDockerCmdExec<CMD_T, RES_T>) exec).execAsync(command);
+        }
+        try {
+            return Futures.immediateFuture(exec.exec(command));
+        } catch (RuntimeException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+}
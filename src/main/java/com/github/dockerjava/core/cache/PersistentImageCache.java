@@ -0,0 +1,405 @@
+package com.github.dockerjava.core.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.core.internal.BinaryJsonCodec;
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link InspectImageResponse}s by full image id in a memory-mapped file, so that they survive restarts. An image id
+ * names its content, so a response never goes stale; it is only removed once the image is deleted.
+ * <p>
+ * The file is a header followed by records of a 32 byte id, the length of the response in the encoding of
+ * {@link BinaryJsonCodec} (-1 for a removal), a CRC32 and the response itself. Records are appended and only the
+ * offsets of the live ones are held in memory; a lookup decodes straight from the mapping. The file does not grow
+ * beyond its maximum size: once full, the space of removed responses is reclaimed by rewriting the file, and if
+ * there is none new responses are not stored. A record torn by a crash is dropped with everything after it on the
+ * next {@link #open}.
+ * <p>
+ * Thread safe. Only one instance may have a file open at a time.
+ */
+public class PersistentImageCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentImageCache.class);
+
+    public static final long DEFAULT_MAXIMUM_BYTES = 64 * 1024 * 1024;
+
+    private static final int MAGIC = 0x444a4943; // "DJIC"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final int END_OFFSET = 8;
+
+    private static final int ID_LENGTH = 32;
+
+    private static final int RECORD_HEADER_LENGTH = ID_LENGTH + 8;
+
+    private static final int REMOVED = -1;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final File file;
+
+    private final long maximumBytes;
+
+    // replaced by compaction, guarded by this
+    private volatile Segment segment;
+
+    private boolean closed;
+
+    private PersistentImageCache(File file, long maximumBytes, Segment segment) {
+        this.file = file;
+        this.maximumBytes = maximumBytes;
+        this.segment = segment;
+    }
+
+    public static PersistentImageCache open(File file) throws IOException {
+        return open(file, DEFAULT_MAXIMUM_BYTES);
+    }
+
+    /**
+     * Opens the cache in <code>file</code>, creating it if it does not exist.
+     *
+     * @param maximumBytes
+     *            the size the file may grow to
+     */
+    public static PersistentImageCache open(File file, long maximumBytes) throws IOException {
+        Preconditions.checkNotNull(file, "file was not specified");
+        Preconditions.checkArgument(maximumBytes > HEADER_LENGTH && maximumBytes <= Integer.MAX_VALUE,
+                "maximumBytes must be between %s and %s", HEADER_LENGTH, Integer.MAX_VALUE);
+        Segment segment = Segment.open(file, (int) maximumBytes);
+        PersistentImageCache cache = new PersistentImageCache(file, maximumBytes, segment);
+        if (segment.garbage > 0) {
+            synchronized (cache) {
+                try {
+                    cache.compact();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to compact {}, keeping it as it is", file, e);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return the response stored for the full id, <code>null</code> if there is none
+     */
+    public InspectImageResponse get(String imageId) {
+        Segment current = segment;
+        Integer offset = current.offsets.get(imageId);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer record = current.buffer.duplicate();
+        record.position(offset + RECORD_HEADER_LENGTH);
+        try {
+            return OBJECT_MAPPER.treeToValue(BinaryJsonCodec.decode(record), InspectImageResponse.class);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to decode cached image {}", imageId, e);
+            return null;
+        } catch (BufferUnderflowException e) {
+            LOGGER.warn("Failed to decode cached image {}", imageId, e);
+            return null;
+        }
+    }
+
+    public boolean contains(String imageId) {
+        return segment.offsets.containsKey(imageId);
+    }
+
+    /**
+     * Stores the response under its id unless there is one already.
+     *
+     * @return <code>false</code> if the response was not stored because its id is not a full id or the file is full
+     */
+    public synchronized boolean put(InspectImageResponse response) {
+        Preconditions.checkState(!closed, "cache is closed");
+        String imageId = response.getId();
+        if (imageId == null || !BinaryJsonCodec.isHexId(imageId)) {
+            return false;
+        }
+        if (segment.offsets.containsKey(imageId)) {
+            return true;
+        }
+        byte[] encoded = BinaryJsonCodec.encode(OBJECT_MAPPER.valueToTree(response));
+        // leaves room for a removal record, so that a removal never finds the file full without garbage to reclaim
+        if (!hasRoom(RECORD_HEADER_LENGTH + encoded.length + RECORD_HEADER_LENGTH)) {
+            LOGGER.debug("Not caching image {}, {} is full", imageId, file);
+            return false;
+        }
+        segment.append(imageId, encoded);
+        return true;
+    }
+
+    /**
+     * Removes the response of an image that was deleted.
+     *
+     * @return whether there was one
+     */
+    public synchronized boolean remove(String imageId) {
+        Preconditions.checkState(!closed, "cache is closed");
+        if (!segment.offsets.containsKey(imageId)) {
+            return false;
+        }
+        if (!hasRoom(RECORD_HEADER_LENGTH)) {
+            // no room for a removal record, e.g. in a file written without the room put() leaves: the response is
+            // left out of a compacted file instead
+            int offset = segment.offsets.remove(imageId);
+            segment.garbage += RECORD_HEADER_LENGTH + segment.buffer.getInt(offset + ID_LENGTH);
+            try {
+                compact();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to compact {}, image {} is back after a restart", file, imageId, e);
+            }
+            return true;
+        }
+        segment.append(imageId, null);
+        return true;
+    }
+
+    // callers hold the monitor
+    private boolean hasRoom(int recordLength) {
+        if (segment.end + recordLength <= segment.buffer.capacity()) {
+            return true;
+        }
+        if (segment.garbage == 0) {
+            return false;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to compact {}", file, e);
+            return false;
+        }
+        return segment.end + recordLength <= segment.buffer.capacity();
+    }
+
+    /**
+     * Rewrites the file with the live records only. The old mapping is left alone, lookups that still read from it
+     * are not disturbed. If the file cannot be replaced, e.g. on Windows while it is mapped, it stays in use as it is.
+     */
+    // callers hold the monitor
+    private void compact() throws IOException {
+        File compacted = new File(file.getPath() + ".compact");
+        Segment old = segment;
+        Segment target = Segment.create(compacted, (int) maximumBytes);
+        try {
+            for (Map.Entry<String, Integer> entry : old.offsets.entrySet()) {
+                int offset = entry.getValue();
+                int length = old.buffer.getInt(offset + ID_LENGTH);
+                byte[] encoded = new byte[length];
+                ByteBuffer source = old.buffer.duplicate();
+                source.position(offset + RECORD_HEADER_LENGTH);
+                source.get(encoded);
+                target.append(entry.getKey(), encoded);
+            }
+            target.force();
+        } finally {
+            target.close();
+        }
+        // renaming over the file replaces it in one step where the platform allows it
+        if (!compacted.renameTo(file) && !(file.delete() && compacted.renameTo(file))) {
+            if (!compacted.delete()) {
+                LOGGER.debug("Failed to delete {}", compacted);
+            }
+            throw new IOException("Failed to replace " + file + " with " + compacted);
+        }
+        segment = Segment.open(file, (int) maximumBytes);
+        old.close();
+        LOGGER.debug("Compacted {} from {} to {} bytes", file, old.end, segment.end);
+    }
+
+    /**
+     * @return the number of stored responses
+     */
+    public int size() {
+        return segment.offsets.size();
+    }
+
+    /**
+     * @return the bytes in use in the file, removed responses included
+     */
+    public long getUsedBytes() {
+        return segment.end;
+    }
+
+    /**
+     * Writes the mapping back to the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segment.force();
+        segment.close();
+    }
+
+    /**
+     * A mapped file and the offsets of its live records.
+     */
+    private static class Segment {
+
+        private final RandomAccessFile randomAccessFile;
+
+        private final MappedByteBuffer buffer;
+
+        private final Map<String, Integer> offsets = new ConcurrentHashMap<String, Integer>();
+
+        // guarded by the monitor of the cache
+        private int end = HEADER_LENGTH;
+
+        private int garbage;
+
+        private Segment(RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+            this.randomAccessFile = randomAccessFile;
+            this.buffer = buffer;
+        }
+
+        static Segment create(File file, int capacity) throws IOException {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Failed to delete " + file);
+            }
+            return open(file, capacity);
+        }
+
+        static Segment open(File file, int capacity) throws IOException {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                boolean created = randomAccessFile.length() == 0;
+                // a smaller maximum than the file has keeps the records, the file is not truncated
+                int size = (int) Math.max(capacity, randomAccessFile.length());
+                MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                Segment segment = new Segment(randomAccessFile, buffer);
+                if (created) {
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, VERSION);
+                    buffer.putInt(END_OFFSET, HEADER_LENGTH);
+                } else {
+                    segment.load(file);
+                }
+                return segment;
+            } catch (IOException e) {
+                randomAccessFile.close();
+                throw e;
+            } catch (RuntimeException e) {
+                randomAccessFile.close();
+                throw e;
+            }
+        }
+
+        private void load(File file) throws IOException {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not an image cache");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(String.format("%s has unsupported version %d", file, buffer.getInt(4)));
+            }
+            int recordedEnd = Math.min(buffer.getInt(END_OFFSET), buffer.capacity());
+            int offset = HEADER_LENGTH;
+            while (offset + RECORD_HEADER_LENGTH <= recordedEnd) {
+                int length = buffer.getInt(offset + ID_LENGTH);
+                int recordLength = RECORD_HEADER_LENGTH + Math.max(length, 0);
+                // the length is checked before the CRC reads that many bytes, it may be damaged as well
+                if (length < REMOVED || length > recordedEnd - offset - RECORD_HEADER_LENGTH
+                        || buffer.getInt(offset + ID_LENGTH + 4) != checksum(offset, length)) {
+                    LOGGER.warn("Dropping the records of {} from offset {} on, they are damaged", file, offset);
+                    break;
+                }
+                String imageId = readId(offset);
+                Integer previous = length == REMOVED ? offsets.remove(imageId) : offsets.put(imageId, offset);
+                if (previous != null) {
+                    garbage += RECORD_HEADER_LENGTH + buffer.getInt(previous + ID_LENGTH);
+                }
+                if (length == REMOVED) {
+                    garbage += RECORD_HEADER_LENGTH;
+                }
+                offset += recordLength;
+            }
+            end = offset;
+            buffer.putInt(END_OFFSET, end);
+        }
+
+        /**
+         * Appends a record, <code>null</code> removes the image. The caller makes sure that it fits.
+         */
+        void append(String imageId, byte[] encoded) {
+            int offset = end;
+            for (int i = 0; i < ID_LENGTH; i++) {
+                buffer.put(offset + i, (byte) (Character.digit(imageId.charAt(2 * i), 16) << 4 | Character.digit(
+                        imageId.charAt(2 * i + 1), 16)));
+            }
+            int length = encoded == null ? REMOVED : encoded.length;
+            buffer.putInt(offset + ID_LENGTH, length);
+            if (encoded != null) {
+                ByteBuffer target = buffer.duplicate();
+                target.position(offset + RECORD_HEADER_LENGTH);
+                target.put(encoded);
+            }
+            buffer.putInt(offset + ID_LENGTH + 4, checksum(offset, length));
+            end = offset + RECORD_HEADER_LENGTH + Math.max(length, 0);
+            // the record is complete before the header points past it
+            buffer.putInt(END_OFFSET, end);
+            if (encoded == null) {
+                Integer previous = offsets.remove(imageId);
+                garbage += RECORD_HEADER_LENGTH;
+                if (previous != null) {
+                    garbage += RECORD_HEADER_LENGTH + buffer.getInt(previous + ID_LENGTH);
+                }
+            } else {
+                offsets.put(imageId, offset);
+            }
+        }
+
+        private int checksum(int offset, int length) {
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < ID_LENGTH + 4; i++) {
+                crc.update(buffer.get(offset + i));
+            }
+            for (int i = 0; i < length; i++) {
+                crc.update(buffer.get(offset + RECORD_HEADER_LENGTH + i));
+            }
+            return (int) crc.getValue();
+        }
+
+        private String readId(int offset) {
+            char[] hex = new char[2 * ID_LENGTH];
+            for (int i = 0; i < ID_LENGTH; i++) {
+                int b = buffer.get(offset + i) & 0xff;
+                hex[2 * i] = Character.forDigit(b >> 4, 16);
+                hex[2 * i + 1] = Character.forDigit(b & 0xf, 16);
+            }
+            return new String(hex);
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close image cache file", e);
+            }
+        }
+    }
+}
@@ -4,9 +4,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.dockerjava.api.DockerException;
+import com.github.dockerjava.api.command.AsyncDockerCmdExec;
 import com.github.dockerjava.api.command.DockerCmd;
 import com.github.dockerjava.api.command.DockerCmdExec;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public abstract class AbstrDockerCmd<CMD_T extends DockerCmd<RES_T>, RES_T> implements DockerCmd<RES_T> {
     
@@ -25,4 +28,21 @@ public abstract class AbstrDockerCmd<CMD_T extends DockerCmd<RES_T>, RES_T> impl
 		LOGGER.debug("Cmd: {}", this);
 		return execution.exec((CMD_T)this);
 	}
+
+    /**
+     * Runs on the executor of the exec if it supports asynchronous execution, otherwise on the calling thread.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+	public ListenableFuture<RES_T> execAsync() {
+		if (execution instanceof AsyncDockerCmdExec) {
+			LOGGER.debug("Cmd (async): {}", this);
+			return ((AsyncDockerCmdExec<CMD_T, RES_T>) execution).execAsync((CMD_T) this);
+		}
+		try {
+			return Futures.immediateFuture(exec());
+		} catch (RuntimeException e) {
+			return Futures.immediateFailedFuture(e);
+		}
+	}
 }
\ No newline at end of file
@@ -1,29 +1,33 @@
 package com.github.dockerjava.core.command;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
 
 import com.github.dockerjava.api.DockerClientException;
 import com.github.dockerjava.api.command.BuildImageCmd;
+import com.github.dockerjava.core.BuildContextCache;
+import com.github.dockerjava.core.BuildContextScanner;
 import com.github.dockerjava.core.CompressArchiveUtil;
-import com.github.dockerjava.core.GoLangFileMatch;
 import com.github.dockerjava.core.GoLangFileMatchException;
+import com.github.dockerjava.core.GoLangFileMatcher;
 import com.github.dockerjava.core.GoLangMatchFileFilter;
+import com.github.dockerjava.core.ParallelGzipInputStream;
+import com.github.dockerjava.core.dockerfile.Dockerfile;
+import com.github.dockerjava.core.dockerfile.DockerfileInstruction;
+import com.github.dockerjava.core.dockerfile.VariableTemplate;
 import com.google.common.base.Preconditions;
 
 /**
@@ -33,13 +37,15 @@ import com.google.common.base.Preconditions;
  */
 public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream> implements BuildImageCmd {
 
-	private static final Pattern ADD_OR_COPY_PATTERN = Pattern
-			.compile("^(ADD|COPY)\\s+(.*)\\s+(.*)$");
-
-	private static final Pattern ENV_PATTERN = Pattern
-			.compile("^ENV\\s+(.*)\\s+(.*)$");
+	private static final BuildContextScanner CONTEXT_SCANNER = new BuildContextScanner();
 
 	private InputStream tarInputStream = null;
+	private File dockerFolder;
+	private List<File> dockerFolderFiles;
+	private boolean streamingContext = true;
+	private BuildContextCache contextCache;
+	private Integer compressionLevel;
+	private int compressionBlockSize = ParallelGzipInputStream.DEFAULT_BLOCK_SIZE;
 	private String tag;
 	private boolean noCache;
 	private boolean remove = true;
@@ -48,7 +54,8 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 	public BuildImageCmdImpl(BuildImageCmd.Exec exec, File dockerFolder) {
 		super(exec);
 		Preconditions.checkNotNull(dockerFolder, "dockerFolder is null");
-		withTarInputStream(buildDockerFolderTar(dockerFolder));
+		this.dockerFolder = dockerFolder;
+		this.dockerFolderFiles = listDockerFolderFiles(dockerFolder);
 	}
 
 	public BuildImageCmdImpl(BuildImageCmd.Exec exec, InputStream tarInputStream) {
@@ -59,6 +66,10 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 	
 	@Override
 	public InputStream getTarInputStream() {
+		if (tarInputStream == null && dockerFolder != null) {
+			tarInputStream = streamingContext ? streamDockerFolderTar()
+					: buildDockerFolderTar(dockerFolder);
+		}
 		return tarInputStream;
 	}
 
@@ -68,7 +79,54 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 		this.tarInputStream = tarInputStream;
 		return this;
 	}
+
+	@Override
+	public boolean isStreamingContext() {
+		return streamingContext;
+	}
+
+	@Override
+	public BuildImageCmdImpl withStreamingContext(boolean streamingContext) {
+		this.streamingContext = streamingContext;
+		return this;
+	}
 	
+	@Override
+	public BuildContextCache getContextCache() {
+		return contextCache;
+	}
+
+	@Override
+	public BuildImageCmdImpl withContextCache(BuildContextCache contextCache) {
+		Preconditions.checkNotNull(contextCache, "contextCache is null");
+		this.contextCache = contextCache;
+		return this;
+	}
+
+	@Override
+	public Integer getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	@Override
+	public int getCompressionBlockSize() {
+		return compressionBlockSize;
+	}
+
+	@Override
+	public BuildImageCmdImpl withCompression(int level) {
+		return withCompression(level, ParallelGzipInputStream.DEFAULT_BLOCK_SIZE);
+	}
+
+	@Override
+	public BuildImageCmdImpl withCompression(int level, int blockSize) {
+		Preconditions.checkArgument(level >= 0 && level <= 9, "level must be between 0 and 9");
+		Preconditions.checkArgument(blockSize > 0, "blockSize must be positive");
+		this.compressionLevel = level;
+		this.compressionBlockSize = blockSize;
+		return this;
+	}
+
 	@Override
 	public BuildImageCmdImpl withTag(String tag) {
 		Preconditions.checkNotNull(tag, "Tag is null");
@@ -139,7 +197,57 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 				.toString();
 	}
 
+	/**
+	 * Writes the Docker context to a temporary tar file, which is deleted
+	 * when the returned stream is closed. Used instead of streaming the
+	 * context if {@link #withStreamingContext(boolean)} turned that off.
+	 */
 	protected InputStream buildDockerFolderTar(File dockerFolder) {
+		List<File> files = dockerFolder.equals(this.dockerFolder) ? dockerFolderFiles
+				: listDockerFolderFiles(dockerFolder);
+		return archiveDockerFolderTar(dockerFolder, files);
+	}
+
+	private InputStream streamDockerFolderTar() {
+		try {
+			if (contextCache != null) {
+				return CompressArchiveUtil.streamTARFiles(dockerFolder, dockerFolderFiles, contextCache);
+			}
+			return CompressArchiveUtil.streamTARFiles(dockerFolder, dockerFolderFiles);
+		} catch (IOException ex) {
+			throw new DockerClientException(
+					"Error occurred while preparing Docker context folder.", ex);
+		}
+	}
+
+	private static InputStream archiveDockerFolderTar(File dockerFolder, List<File> filesToAdd) {
+		// ARCHIVE TAR
+		String archiveNameWithOutExtension = UUID.randomUUID().toString();
+
+		File dockerFolderTar = null;
+
+		try {
+			dockerFolderTar = CompressArchiveUtil.archiveTARFiles(dockerFolder,
+					filesToAdd, archiveNameWithOutExtension);
+			final File tarFile = dockerFolderTar;
+			return new FileInputStream(tarFile) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						FileUtils.deleteQuietly(tarFile);
+					}
+				}
+			};
+		} catch (IOException ex) {
+			FileUtils.deleteQuietly(dockerFolderTar);
+			throw new DockerClientException(
+					"Error occurred while preparing Docker context folder.", ex);
+		}
+	}
+
+	private List<File> listDockerFolderFiles(File dockerFolder) {
 		Preconditions.checkArgument(dockerFolder.exists(),
 				"Path %s doesn't exist", dockerFolder);
 		Preconditions.checkArgument(dockerFolder.isDirectory(),
@@ -147,16 +255,11 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 		Preconditions.checkState(new File(dockerFolder, "Dockerfile").exists(),
 				"Dockerfile doesn't exist in " + dockerFolder);
 
-		// ARCHIVE TAR
-		String archiveNameWithOutExtension = UUID.randomUUID().toString();
-
-		File dockerFolderTar = null;
-
 		try {
 			File dockerFile = new File(dockerFolder, "Dockerfile");
-			List<String> dockerFileContent = FileUtils.readLines(dockerFile);
+			Dockerfile dockerfile = Dockerfile.parse(dockerFile);
 
-			if (dockerFileContent.size() <= 0) {
+			if (dockerfile.isEmpty()) {
 				throw new DockerClientException(String.format(
 						"Dockerfile %s is empty", dockerFile));
 			}
@@ -175,7 +278,7 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 					pattern = FilenameUtils.normalize(pattern);
 					try {
 						// validate pattern and make sure we aren't excluding Dockerfile
-						if (GoLangFileMatch.match(pattern, "Dockerfile")) {
+						if (GoLangFileMatcher.compile(pattern).matches("Dockerfile")) {
 							throw new DockerClientException(
 									String.format("Dockerfile is excluded by pattern '%s' on line %s in .dockerignore file", pattern, lineNumber));
 						}
@@ -185,112 +288,69 @@ public class BuildImageCmdImpl extends AbstrDockerCmd<BuildImageCmd, InputStream
 					}
 				}
 			}
+			GoLangFileMatcher ignoreMatcher = GoLangFileMatcher.compile(ignores);
 			List<File> filesToAdd = new ArrayList<File>();
 			filesToAdd.add(dockerFile);
 
 			Map<String, String> environmentMap = new HashMap<String, String>();
 
-			int lineNumber = 0;
-
-			for (String cmd : dockerFileContent) {
-
-				lineNumber++;
-
-				if (cmd.trim().isEmpty() || cmd.startsWith("#"))
-					continue; // skip emtpy and commend lines
-
-				final Matcher envMatcher = ENV_PATTERN.matcher(cmd.trim());
-
-				if (envMatcher.find()) {
-					if (envMatcher.groupCount() != 2)
-						throw new DockerClientException(String.format(
-								"Wrong ENV format on line [%d]", lineNumber));
-
-					String variable = envMatcher.group(1).trim();
-
-					String value = envMatcher.group(2).trim();
+			for (DockerfileInstruction instruction : dockerfile.getInstructions()) {
 
-					environmentMap.put(variable, value);
-				}
-
-				final Matcher matcher = ADD_OR_COPY_PATTERN.matcher(cmd.trim());
-				if (matcher.find()) {
-					if (matcher.groupCount() != 3) {
+				if (instruction.is("ENV")) {
+					for (Map.Entry<String, VariableTemplate> variable : instruction
+							.getEnvironmentVariables().entrySet()) {
+						environmentMap.put(variable.getKey(), variable.getValue()
+								.expand(environmentMap));
+					}
+				} else if (instruction.is("ADD") || instruction.is("COPY")) {
+					List<VariableTemplate> arguments = instruction.getArguments();
+					if (arguments.size() < 2) {
 						throw new DockerClientException(String.format(
 								"Wrong ADD or COPY format on line [%d]",
-								lineNumber));
+								instruction.getLineNumber()));
 					}
 
-					String extractedResource = matcher.group(2);
-
-					String resource = filterForEnvironmentVars(
-							extractedResource, environmentMap).trim();
-
-					if (isFileResource(resource)) {
-						File src = new File(resource);
-						if (!src.isAbsolute()) {
-							src = new File(dockerFolder, resource)
-									.getCanonicalFile();
-						} else {
-							throw new DockerClientException(String.format(
-									"Source file %s must be relative to %s",
-									src, dockerFolder));
-						}
-
-						if (!src.exists()) {
-							throw new DockerClientException(String.format(
-									"Source file %s doesn't exist", src));
-						}
-						if (src.isDirectory()) {
-							Collection<File> files = FileUtils.listFiles(src,
-									new GoLangMatchFileFilter(src, ignores), TrueFileFilter.INSTANCE);
-							filesToAdd.addAll(files);
-						} else if (!GoLangFileMatch.match(ignores, CompressArchiveUtil.relativize(dockerFolder, src))){
-							filesToAdd.add(src);
-						} else {
-							throw new DockerClientException(String.format(
-									"Source file %s is excluded by .dockerignore file", src));
+					// all but the last argument are sources
+					for (VariableTemplate source : arguments.subList(0, arguments.size() - 1)) {
+						String resource = source.expand(environmentMap).trim();
+						if (isFileResource(resource)) {
+							filesToAdd.addAll(listSourceFiles(dockerFolder, resource, ignoreMatcher));
 						}
 					}
 				}
 			}
 
-			dockerFolderTar = CompressArchiveUtil.archiveTARFiles(dockerFolder,
-					filesToAdd, archiveNameWithOutExtension);
-			return FileUtils.openInputStream(dockerFolderTar);
+			return filesToAdd;
 		} catch (IOException ex) {
-			FileUtils.deleteQuietly(dockerFolderTar);
 			throw new DockerClientException(
 					"Error occurred while preparing Docker context folder.", ex);
 		}
 	}
 
-	private String filterForEnvironmentVars(String extractedResource,
-			Map<String, String> environmentMap) {
-
-		if (environmentMap.size() > 0) {
-
-			String currentResourceContent = extractedResource;
-
-			for (Map.Entry<String, String> entry : environmentMap.entrySet()) {
-
-				String variable = entry.getKey();
-
-				String replacementValue = entry.getValue();
-
-				// handle: $VARIABLE case
-				currentResourceContent = currentResourceContent.replaceAll(
-						"\\$" + variable, replacementValue);
-
-				// handle ${VARIABLE} case
-				currentResourceContent = currentResourceContent.replaceAll(
-						"\\$\\{" + variable + "\\}", replacementValue);
-
-			}
+	private List<File> listSourceFiles(File dockerFolder, String resource,
+			GoLangFileMatcher ignoreMatcher) throws IOException {
+		File src = new File(resource);
+		if (!src.isAbsolute()) {
+			src = new File(dockerFolder, resource).getCanonicalFile();
+		} else {
+			throw new DockerClientException(String.format(
+					"Source file %s must be relative to %s", src, dockerFolder));
+		}
 
-			return currentResourceContent;
-		} else
-			return extractedResource;
+		if (!src.exists()) {
+			throw new DockerClientException(String.format(
+					"Source file %s doesn't exist", src));
+		}
+		if (src.isDirectory()) {
+			GoLangMatchFileFilter filter = new GoLangMatchFileFilter(src, ignoreMatcher);
+			// the filter also prunes excluded directories
+			return CONTEXT_SCANNER.scan(src, filter);
+		} else if (!ignoreMatcher.matches(CompressArchiveUtil.relativize(dockerFolder, src))) {
+			return Collections.singletonList(src);
+		} else {
+			throw new DockerClientException(String.format(
+					"Source file %s is excluded by .dockerignore file", src));
+		}
 	}
 
 	private static boolean isFileResource(String resource) {
@@ -0,0 +1,119 @@
+package com.github.dockerjava.core.dockerfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A Dockerfile split into its instructions in a single pass over the text.
+ *
+ * Lines ending with a backslash are continued on the next line, comment and empty lines are skipped, also within a
+ * continued instruction. Parsed files are cached by content, so building the same context again does not parse its
+ * Dockerfile again.
+ */
+public class Dockerfile {
+
+    private static final int MAX_CACHED_DOCKERFILES = 64;
+
+    private static final Cache<HashCode, Dockerfile> PARSED = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_DOCKERFILES).build();
+
+    private final List<DockerfileInstruction> instructions;
+
+    private Dockerfile(List<DockerfileInstruction> instructions) {
+        this.instructions = Collections.unmodifiableList(instructions);
+    }
+
+    public static Dockerfile parse(File dockerfile) throws IOException {
+        return parse(FileUtils.readFileToString(dockerfile, "UTF-8"));
+    }
+
+    /**
+     * @return the parsed Dockerfile, the same instance for the same content as long as it stays cached
+     */
+    public static Dockerfile parse(final String content) {
+        HashCode key = Hashing.sha256().hashString(content, Charsets.UTF_8);
+        try {
+            return PARSED.get(key, new Callable<Dockerfile>() {
+                @Override
+                public Dockerfile call() {
+                    return new Dockerfile(tokenize(content));
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private static List<DockerfileInstruction> tokenize(String content) {
+        List<DockerfileInstruction> instructions = new ArrayList<DockerfileInstruction>();
+        StringBuilder instruction = new StringBuilder();
+        int firstLine = 0;
+        int lineNumber = 0;
+        int length = content.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            lineNumber++;
+            String line = content.substring(lineStart, lineEnd).trim();
+            lineStart = lineEnd + 1;
+
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            if (instruction.length() == 0) {
+                firstLine = lineNumber;
+            }
+            if (line.endsWith("\\")) {
+                instruction.append(line, 0, line.length() - 1).append(' ');
+                continue;
+            }
+            instruction.append(line);
+            addInstruction(instructions, instruction, firstLine);
+        }
+        // a continuation on the last line ends the instruction
+        addInstruction(instructions, instruction, firstLine);
+        return instructions;
+    }
+
+    private static void addInstruction(List<DockerfileInstruction> instructions, StringBuilder instruction,
+            int lineNumber) {
+        String text = instruction.toString().trim();
+        instruction.setLength(0);
+        if (text.isEmpty()) {
+            return;
+        }
+        int keywordEnd = 0;
+        while (keywordEnd < text.length() && !Character.isWhitespace(text.charAt(keywordEnd))) {
+            keywordEnd++;
+        }
+        instructions.add(new DockerfileInstruction(text.substring(0, keywordEnd).toUpperCase(), text.substring(
+                keywordEnd).trim(), lineNumber));
+    }
+
+    public List<DockerfileInstruction> getInstructions() {
+        return instructions;
+    }
+
+    public boolean isEmpty() {
+        return instructions.isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.dockerjava.core.dockerfile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClientException;
+
+/**
+ * A single instruction of a {@link Dockerfile}, with continuation lines joined.
+ */
+public class DockerfileInstruction {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String keyword;
+
+    private final String rawArguments;
+
+    private final int lineNumber;
+
+    private final List<VariableTemplate> arguments;
+
+    DockerfileInstruction(String keyword, String rawArguments, int lineNumber) {
+        this.keyword = keyword;
+        this.rawArguments = rawArguments;
+        this.lineNumber = lineNumber;
+        List<VariableTemplate> arguments = new ArrayList<VariableTemplate>();
+        for (String argument : splitArguments(rawArguments)) {
+            arguments.add(VariableTemplate.compile(argument));
+        }
+        this.arguments = Collections.unmodifiableList(arguments);
+    }
+
+    /**
+     * Arguments in JSON form (<code>["a", "b"]</code>) are taken from the array, all others are split at whitespace.
+     */
+    private static List<String> splitArguments(String rawArguments) {
+        if (rawArguments.startsWith("[")) {
+            try {
+                String[] array = OBJECT_MAPPER.readValue(rawArguments, String[].class);
+                List<String> arguments = new ArrayList<String>();
+                Collections.addAll(arguments, array);
+                return arguments;
+            } catch (IOException e) {
+                // not JSON after all, like Docker take it as it is
+            }
+        }
+        List<String> arguments = new ArrayList<String>();
+        int length = rawArguments.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(rawArguments.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(rawArguments.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                arguments.add(rawArguments.substring(start, i));
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * @return the instruction in upper case, e.g. <code>ADD</code>
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public boolean is(String keyword) {
+        return this.keyword.equals(keyword);
+    }
+
+    /**
+     * @return everything after the keyword, continuation lines joined
+     */
+    public String getRawArguments() {
+        return rawArguments;
+    }
+
+    /**
+     * @return the line the instruction starts on, counting from 1
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public List<VariableTemplate> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * The variables set by an <code>ENV</code> instruction, either a single <code>ENV name value</code> (the value may
+     * contain whitespace) or any number of <code>name=value</code> pairs (values may be double quoted).
+     *
+     * @return the variables in the order they are set, values not yet expanded
+     */
+    public Map<String, VariableTemplate> getEnvironmentVariables() {
+        Map<String, VariableTemplate> variables = new LinkedHashMap<String, VariableTemplate>();
+        if (arguments.isEmpty()) {
+            throw new DockerClientException(String.format("Wrong ENV format on line [%d]", lineNumber));
+        }
+        String first = arguments.get(0).getSource();
+        if (first.indexOf('=') <= 0) {
+            int valueStart = first.length();
+            String value = rawArguments.substring(rawArguments.indexOf(first) + valueStart).trim();
+            if (value.isEmpty()) {
+                throw new DockerClientException(String.format("Wrong ENV format on line [%d]", lineNumber));
+            }
+            variables.put(first, VariableTemplate.compile(value));
+            return variables;
+        }
+        for (VariableTemplate argument : splitPairs(rawArguments)) {
+            String pair = argument.getSource();
+            int equals = pair.indexOf('=');
+            if (equals <= 0) {
+                throw new DockerClientException(String.format("Wrong ENV format on line [%d]", lineNumber));
+            }
+            variables.put(pair.substring(0, equals), VariableTemplate.compile(pair.substring(equals + 1)));
+        }
+        return variables;
+    }
+
+    /**
+     * Splits <code>name=value</code> pairs at whitespace outside of double quotes and drops the quotes.
+     */
+    private static List<VariableTemplate> splitPairs(String rawArguments) {
+        List<VariableTemplate> pairs = new ArrayList<VariableTemplate>();
+        StringBuilder pair = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < rawArguments.length(); i++) {
+            char c = rawArguments.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\\' && quoted && i + 1 < rawArguments.length() && rawArguments.charAt(i + 1) == '"') {
+                pair.append('"');
+                i++;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (pair.length() > 0) {
+                    pairs.add(VariableTemplate.compile(pair.toString()));
+                    pair.setLength(0);
+                }
+            } else {
+                pair.append(c);
+            }
+        }
+        if (pair.length() > 0) {
+            pairs.add(VariableTemplate.compile(pair.toString()));
+        }
+        return pairs;
+    }
+
+    @Override
+    public String toString() {
+        return keyword + " " + rawArguments;
+    }
+}
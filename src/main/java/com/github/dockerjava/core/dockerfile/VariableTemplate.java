@@ -0,0 +1,106 @@
+package com.github.dockerjava.core.dockerfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Dockerfile argument with its <code>$VARIABLE</code> and <code>${VARIABLE}</code> references resolved at parse
+ * time, so that expanding it is a single pass over its parts.
+ *
+ * Variable names are letters, digits and underscores. References to unknown variables are kept as they are and
+ * <code>\$</code> stands for a literal dollar sign.
+ */
+public class VariableTemplate {
+
+    private final String source;
+
+    // literals at even, variable names at odd indexes
+    private final String[] parts;
+
+    // the references as written, at the indexes of their variable names
+    private final String[] references;
+
+    private VariableTemplate(String source, String[] parts, String[] references) {
+        this.source = source;
+        this.parts = parts;
+        this.references = references;
+    }
+
+    public static VariableTemplate compile(String source) {
+        List<String> parts = new ArrayList<String>();
+        List<String> references = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\' && i + 1 < length && source.charAt(i + 1) == '$') {
+                literal.append('$');
+                i += 2;
+                continue;
+            }
+            if (c == '$' && i + 1 < length) {
+                boolean braced = source.charAt(i + 1) == '{';
+                int start = braced ? i + 2 : i + 1;
+                int end = start;
+                while (end < length && isNameChar(source.charAt(end))) {
+                    end++;
+                }
+                boolean closed = !braced || (end < length && source.charAt(end) == '}');
+                if (end > start && closed) {
+                    int referenceEnd = braced ? end + 1 : end;
+                    parts.add(literal.toString());
+                    references.add(null);
+                    literal.setLength(0);
+                    parts.add(source.substring(start, end));
+                    references.add(source.substring(i, referenceEnd));
+                    i = referenceEnd;
+                    continue;
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        parts.add(literal.toString());
+        references.add(null);
+        return new VariableTemplate(source, parts.toArray(new String[parts.size()]),
+                references.toArray(new String[references.size()]));
+    }
+
+    private static boolean isNameChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * @return the argument as written in the Dockerfile
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public boolean hasVariables() {
+        return parts.length > 1;
+    }
+
+    public String expand(Map<String, String> environment) {
+        if (!hasVariables()) {
+            return parts[0];
+        }
+        StringBuilder expanded = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < parts.length; i++) {
+            if (i % 2 == 0) {
+                expanded.append(parts[i]);
+            } else {
+                String value = environment.get(parts[i]);
+                expanded.append(value != null ? value : references[i]);
+            }
+        }
+        return expanded.toString();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,264 @@
+package com.github.dockerjava.core.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A compact binary form of JSON trees: a tag byte per value, integers as zig-zag varints, the field names of inspect
+ * responses as indexes into a fixed table, other field names written once per record and referenced by index
+ * afterwards, and 64 character hex ids packed into 32 bytes.
+ * <p>
+ * The format of the files the client keeps across restarts, changes to it must keep reading what was written before.
+ * <p>
+ * Internal to docker-java, shared by the image cache, the container inventory and the event journal. Not part of the
+ * API, it may change or go away in any release.
+ */
+public final class BinaryJsonCodec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int NULL = 0;
+
+    private static final int FALSE = 1;
+
+    private static final int TRUE = 2;
+
+    private static final int INTEGER = 3;
+
+    private static final int DOUBLE = 4;
+
+    private static final int STRING = 5;
+
+    private static final int HEX_ID = 6;
+
+    private static final int ARRAY = 7;
+
+    private static final int OBJECT = 8;
+
+    private static final int HEX_ID_LENGTH = 64;
+
+    /**
+     * Field names of inspect responses, referenced without being written. Part of the format: names may be added at
+     * the end only.
+     */
+    private static final List<String> KNOWN_NAMES = Collections.unmodifiableList(Arrays.asList("Id", "Parent",
+            "Created", "Container", "ContainerConfig", "Config", "DockerVersion", "Architecture", "Author", "Comment",
+            "Os", "Size", "VirtualSize", "AttachStderr", "AttachStdin", "AttachStdout", "Cmd", "CpuShares", "Cpuset",
+            "Domainname", "Entrypoint", "Env", "ExposedPorts", "Hostname", "Image", "Memory", "MemorySwap",
+            "NetworkDisabled", "OnBuild", "OpenStdin", "PortSpecs", "StdinOnce", "Tty", "User", "Volumes",
+            "WorkingDir", "Name", "Path", "Args", "State", "Running", "Paused", "Pid", "ExitCode", "StartedAt",
+            "FinishedAt", "NetworkSettings", "IPAddress", "IPPrefixLen", "Gateway", "Bridge", "PortMapping", "Ports",
+            "ResolvConfPath", "HostnamePath", "HostsPath", "Driver", "ExecDriver", "MountLabel", "ProcessLabel",
+            "VolumesRW", "HostConfig", "Binds", "ContainerIDFile", "LxcConf", "Privileged", "PortBindings", "Links",
+            "PublishAllPorts", "Dns", "DnsSearch", "VolumesFrom", "NetworkMode", "Devices", "RestartPolicy",
+            "CapAdd", "CapDrop", "Names", "Command", "Status", "RepoTags"));
+
+    private static final Map<String, Integer> KNOWN_INDEXES = new HashMap<String, Integer>();
+
+    static {
+        for (String name : KNOWN_NAMES) {
+            KNOWN_INDEXES.put(name, KNOWN_INDEXES.size() + 1);
+        }
+    }
+
+    private BinaryJsonCodec() {
+    }
+
+    public static byte[] encode(JsonNode node) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        encode(node, out, new HashMap<String, Integer>(KNOWN_INDEXES));
+        return out.toByteArray();
+    }
+
+    private static void encode(JsonNode node, ByteArrayOutputStream out, Map<String, Integer> names) {
+        if (node == null || node.isNull()) {
+            out.write(NULL);
+        } else if (node.isBoolean()) {
+            out.write(node.booleanValue() ? TRUE : FALSE);
+        } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+            out.write(INTEGER);
+            long value = node.longValue();
+            writeVarLong(out, (value << 1) ^ (value >> 63));
+        } else if (node.isNumber()) {
+            out.write(DOUBLE);
+            long bits = Double.doubleToLongBits(node.doubleValue());
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+        } else if (node.isTextual()) {
+            String text = node.textValue();
+            if (isHexId(text)) {
+                out.write(HEX_ID);
+                writeHexId(out, text);
+            } else {
+                out.write(STRING);
+                writeString(out, text);
+            }
+        } else if (node.isArray()) {
+            out.write(ARRAY);
+            writeVarLong(out, node.size());
+            for (JsonNode element : node) {
+                encode(element, out, names);
+            }
+        } else if (node.isObject()) {
+            out.write(OBJECT);
+            writeVarLong(out, node.size());
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                Integer index = names.get(field.getKey());
+                if (index == null) {
+                    writeVarLong(out, 0);
+                    writeString(out, field.getKey());
+                    names.put(field.getKey(), names.size() + 1);
+                } else {
+                    writeVarLong(out, index);
+                }
+                encode(field.getValue(), out, names);
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot encode " + node);
+        }
+    }
+
+    /**
+     * Decodes the record at the position of <code>buffer</code>, which it advances.
+     */
+    public static JsonNode decode(ByteBuffer buffer) throws IOException {
+        return decode(buffer, new ArrayList<String>(KNOWN_NAMES));
+    }
+
+    private static JsonNode decode(ByteBuffer buffer, List<String> names) throws IOException {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        int tag = buffer.get();
+        switch (tag) {
+        case NULL:
+            return factory.nullNode();
+        case FALSE:
+            return factory.booleanNode(false);
+        case TRUE:
+            return factory.booleanNode(true);
+        case INTEGER:
+            long zigZag = readVarLong(buffer);
+            long value = (zigZag >>> 1) ^ -(zigZag & 1);
+            return value == (int) value ? factory.numberNode((int) value) : factory.numberNode(value);
+        case DOUBLE:
+            return factory.numberNode(buffer.getDouble());
+        case STRING:
+            return factory.textNode(readString(buffer));
+        case HEX_ID:
+            return factory.textNode(readHexId(buffer));
+        case ARRAY:
+            int length = (int) readVarLong(buffer);
+            ArrayNode array = factory.arrayNode();
+            for (int i = 0; i < length; i++) {
+                array.add(decode(buffer, names));
+            }
+            return array;
+        case OBJECT:
+            int size = (int) readVarLong(buffer);
+            ObjectNode object = factory.objectNode();
+            for (int i = 0; i < size; i++) {
+                int index = (int) readVarLong(buffer);
+                String name;
+                if (index == 0) {
+                    name = readString(buffer);
+                    names.add(name);
+                } else if (index <= names.size()) {
+                    name = names.get(index - 1);
+                } else {
+                    throw new IOException("Invalid field name reference " + index);
+                }
+                object.put(name, decode(buffer, names));
+            }
+            return object;
+        default:
+            throw new IOException("Invalid tag " + tag);
+        }
+    }
+
+    /**
+     * @return whether <code>text</code> is a full id in lower case hex, as image and container ids are
+     */
+    public static boolean isHexId(String text) {
+        if (text.length() != HEX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HEX_ID_LENGTH; i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes an id that {@link #isHexId(String) is a hex id} as 32 bytes.
+     */
+    public static void writeHexId(ByteArrayOutputStream out, String id) {
+        for (int i = 0; i < HEX_ID_LENGTH; i += 2) {
+            out.write(Character.digit(id.charAt(i), 16) << 4 | Character.digit(id.charAt(i + 1), 16));
+        }
+    }
+
+    public static String readHexId(ByteBuffer buffer) {
+        char[] hex = new char[HEX_ID_LENGTH];
+        for (int i = 0; i < HEX_ID_LENGTH; i += 2) {
+            int b = buffer.get() & 0xff;
+            hex[i] = Character.forDigit(b >> 4, 16);
+            hex[i + 1] = Character.forDigit(b & 0xf, 16);
+        }
+        return new String(hex);
+    }
+
+    public static void writeString(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    public static String readString(ByteBuffer buffer) throws IOException {
+        int length = (int) readVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    public static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+}
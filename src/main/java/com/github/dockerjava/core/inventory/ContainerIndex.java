@@ -0,0 +1,269 @@
+package com.github.dockerjava.core.inventory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.dockerjava.api.model.Container;
+import com.google.common.base.Preconditions;
+
+/**
+ * Indexes of the containers of a {@link ContainerInventory} by name, image, {@link ContainerStatus status} and
+ * creation time, kept up to date with every change of the inventory:
+ *
+ * <pre>
+ * ContainerIndex index = new ContainerIndex(inventory);
+ * Collection&lt;Container&gt; running = index.getByImage(&quot;nginx:1.7&quot;, ContainerStatus.RUNNING);
+ * Collection&lt;Container&gt; old = index.getByStatus(ContainerStatus.EXITED, createdBefore);
+ * </pre>
+ *
+ * Lookups by name, image and status take constant time, by creation time logarithmic time. Queries return
+ * unmodifiable live views instead of copies: they follow later changes and never throw
+ * {@link java.util.ConcurrentModificationException}, but iterating one while the inventory changes may see some of
+ * the changes. {@link ContainerInventory#getSnapshot()} is the consistent alternative. The views of
+ * {@link #getByImage} follow the image as long as it has containers, an image without containers gets an empty view
+ * that stays empty. Containers are ordered by creation time in the views of {@link #getByStatus} and
+ * {@link #getCreatedBefore}.
+ */
+public class ContainerIndex implements ContainerInventory.Listener {
+
+    private final ConcurrentMap<String, Container> byName = new ConcurrentHashMap<String, Container>();
+
+    private final ConcurrentMap<String, ByStatus> byImage = new ConcurrentHashMap<String, ByStatus>();
+
+    private final ByStatus all = new ByStatus();
+
+    /**
+     * Indexes the containers of the inventory and follows its changes.
+     */
+    public ContainerIndex(ContainerInventory inventory) {
+        Preconditions.checkNotNull(inventory, "inventory was not specified");
+        inventory.addListener(this);
+    }
+
+    @Override
+    public void onChange(Container previous, Container current) {
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (current != null) {
+            index(current);
+        }
+    }
+
+    private void index(Container container) {
+        if (container.getNames() != null) {
+            for (String name : container.getNames()) {
+                byName.put(name, container);
+            }
+        }
+        String image = Containers.normalizeImage(container.getImage());
+        if (image != null) {
+            ByStatus ofImage = byImage.get(image);
+            if (ofImage == null) {
+                ByStatus created = new ByStatus();
+                ofImage = byImage.putIfAbsent(image, created);
+                if (ofImage == null) {
+                    ofImage = created;
+                }
+            }
+            ofImage.add(container);
+        }
+        all.add(container);
+    }
+
+    private void unindex(Container container) {
+        if (container.getNames() != null) {
+            for (String name : container.getNames()) {
+                byName.remove(name, container);
+            }
+        }
+        String image = Containers.normalizeImage(container.getImage());
+        if (image != null) {
+            ByStatus ofImage = byImage.get(image);
+            if (ofImage != null) {
+                ofImage.remove(container);
+                // changes come one at a time, nothing is added to the map in between
+                if (ofImage.isEmpty()) {
+                    byImage.remove(image, ofImage);
+                }
+            }
+        }
+        all.remove(container);
+    }
+
+    /**
+     * @param name
+     *            the name of a container, with or without the leading <code>/</code>
+     * @return the container of that name, <code>null</code> if there is none
+     */
+    public Container getByName(String name) {
+        Preconditions.checkNotNull(name, "name was not specified");
+        return byName.get(name.startsWith("/") ? name : "/" + name);
+    }
+
+    /**
+     * @param image
+     *            the image as the containers were created from it, a missing tag means <code>latest</code>
+     * @return the containers created from the image
+     */
+    public Collection<Container> getByImage(String image) {
+        return getByImage(image, null);
+    }
+
+    /**
+     * @return the containers created from the image that have the status, all of them if <code>status</code> is
+     *         <code>null</code>
+     */
+    public Collection<Container> getByImage(String image, ContainerStatus status) {
+        Preconditions.checkNotNull(image, "image was not specified");
+        ByStatus ofImage = byImage.get(Containers.normalizeImage(image));
+        if (ofImage == null) {
+            return Collections.emptyList();
+        }
+        return ofImage.get(status);
+    }
+
+    /**
+     * @return the containers with the status
+     */
+    public Collection<Container> getByStatus(ContainerStatus status) {
+        Preconditions.checkNotNull(status, "status was not specified");
+        return all.get(status);
+    }
+
+    /**
+     * @param createdBefore
+     *            seconds since the epoch, as {@link Container#getCreated()}
+     * @return the containers with the status that were created before the time, e.g. exited containers older than a
+     *         day
+     */
+    public Collection<Container> getByStatus(ContainerStatus status, long createdBefore) {
+        Preconditions.checkNotNull(status, "status was not specified");
+        return all.get(status, createdBefore);
+    }
+
+    /**
+     * @param createdBefore
+     *            seconds since the epoch, as {@link Container#getCreated()}
+     * @return the containers created before the time
+     */
+    public Collection<Container> getCreatedBefore(long createdBefore) {
+        return all.get(null, createdBefore);
+    }
+
+    /**
+     * @return the number of containers of each status
+     */
+    public Map<ContainerStatus, Integer> getStatusCounts() {
+        Map<ContainerStatus, Integer> counts = new EnumMap<ContainerStatus, Integer>(ContainerStatus.class);
+        for (ContainerStatus status : ContainerStatus.values()) {
+            counts.put(status, all.counts.get(status).get());
+        }
+        return counts;
+    }
+
+    /**
+     * Containers by creation time, all of them and per status.
+     */
+    private static class ByStatus {
+
+        private final ConcurrentNavigableMap<CreatedKey, Container> all = new ConcurrentSkipListMap<CreatedKey, Container>();
+
+        private final Map<ContainerStatus, ConcurrentNavigableMap<CreatedKey, Container>> byStatus = new EnumMap<ContainerStatus, ConcurrentNavigableMap<CreatedKey, Container>>(
+                ContainerStatus.class);
+
+        /**
+         * The sizes of the maps of {@link #byStatus}, whose <code>size()</code> counts their entries.
+         */
+        private final Map<ContainerStatus, AtomicInteger> counts = new EnumMap<ContainerStatus, AtomicInteger>(
+                ContainerStatus.class);
+
+        ByStatus() {
+            // never modified afterwards, safe to read from any thread
+            for (ContainerStatus status : ContainerStatus.values()) {
+                byStatus.put(status, new ConcurrentSkipListMap<CreatedKey, Container>());
+                counts.put(status, new AtomicInteger());
+            }
+        }
+
+        void add(Container container) {
+            CreatedKey key = new CreatedKey(container);
+            ContainerStatus status = ContainerStatus.of(container);
+            all.put(key, container);
+            if (byStatus.get(status).put(key, container) == null) {
+                counts.get(status).incrementAndGet();
+            }
+        }
+
+        void remove(Container container) {
+            CreatedKey key = new CreatedKey(container);
+            ContainerStatus status = ContainerStatus.of(container);
+            all.remove(key, container);
+            if (byStatus.get(status).remove(key, container)) {
+                counts.get(status).decrementAndGet();
+            }
+        }
+
+        boolean isEmpty() {
+            return all.isEmpty();
+        }
+
+        Collection<Container> get(ContainerStatus status) {
+            return Collections.unmodifiableCollection((status == null ? all : byStatus.get(status)).values());
+        }
+
+        Collection<Container> get(ContainerStatus status, long createdBefore) {
+            ConcurrentNavigableMap<CreatedKey, Container> containers = status == null ? all : byStatus.get(status);
+            return Collections.unmodifiableCollection(containers.headMap(new CreatedKey(createdBefore, ""))
+                    .values());
+        }
+    }
+
+    /**
+     * Orders containers by creation time, then by id.
+     */
+    private static class CreatedKey implements Comparable<CreatedKey> {
+
+        private final long created;
+
+        private final String id;
+
+        CreatedKey(Container container) {
+            this(container.getCreated(), container.getId());
+        }
+
+        CreatedKey(long created, String id) {
+            this.created = created;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(CreatedKey other) {
+            if (created != other.created) {
+                return created < other.created ? -1 : 1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CreatedKey)) {
+                return false;
+            }
+            CreatedKey other = (CreatedKey) obj;
+            return created == other.created && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (created ^ (created >>> 32)) + id.hashCode();
+        }
+    }
+}
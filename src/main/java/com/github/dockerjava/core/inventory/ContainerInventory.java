@@ -0,0 +1,540 @@
+package com.github.dockerjava.core.inventory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.EventHub;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.EventHubImpl;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * All containers of a daemon, running or not, mirrored in memory so that they need not be listed over and over.
+ * <p>
+ * {@link #start()} lists the containers once and then follows the {@link DockerClient#eventHub() events}: a
+ * <code>destroy</code> removes a container, any other container event inspects it and updates it. Containers that
+ * come from events have a status without the time that passed, e.g. <code>Up</code> or <code>Exited (1)</code>. Every
+ * change increments the {@link #getVersion() version}. The containers are listed again now and then, and whenever the
+ * event stream broke, to correct what events missed; a container that differs in no more than the time in its status
+ * is not a change.
+ * <p>
+ * {@link #getSnapshot()} returns an immutable view of one version, shared by all callers until the next change.
+ * {@link Listener}s are told about every change as it happens.
+ * <p>
+ * With a {@link #withSnapshot(File) snapshot file} the inventory is saved after every periodic list and on
+ * {@link #close()}, together with the time of the last event it reflects. A restarted inventory loads a recent enough
+ * snapshot and replays the events since then instead of listing all containers; the daemon keeps a limited number of
+ * past events only, what they miss is corrected by the next periodic list.
+ * <p>
+ * The inspects should reach the daemon, a client whose inspects are answered from a
+ * {@link com.github.dockerjava.core.cache.CachingDockerCmdExecFactory} may get an answer that predates the event.
+ */
+public class ContainerInventory implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContainerInventory.class);
+
+    public static final long DEFAULT_RESYNC_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Set<String> CHANGES = new HashSet<String>(Arrays.asList("create", "start", "restart",
+            "die", "kill", "stop", "pause", "unpause", "oom"));
+
+    private static final String DESTROY = "destroy";
+
+    public static final long DEFAULT_SNAPSHOT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Told about each change to the inventory, in order and while no other change can happen.
+     */
+    public static interface Listener {
+
+        /**
+         * @param previous
+         *            the container before the change, <code>null</code> if it was added
+         * @param current
+         *            the container after the change, <code>null</code> if it was removed
+         */
+        public void onChange(Container previous, Container current);
+    }
+
+    /**
+     * The containers of one version of the inventory.
+     */
+    public static class Snapshot {
+
+        private final long version;
+
+        private final ImmutableMap<String, Container> containers;
+
+        Snapshot(long version, ImmutableMap<String, Container> containers) {
+            this.version = version;
+            this.containers = containers;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Collection<Container> getContainers() {
+            return containers.values();
+        }
+
+        /**
+         * @return the container with the full id, <code>null</code> if there is none
+         */
+        public Container get(String id) {
+            return containers.get(id);
+        }
+
+        public int size() {
+            return containers.size();
+        }
+    }
+
+    private final DockerClient dockerClient;
+
+    private long resyncIntervalMillis = DEFAULT_RESYNC_INTERVAL_MILLIS;
+
+    private File snapshotFile;
+
+    private long snapshotMaxAgeMillis = DEFAULT_SNAPSHOT_MAX_AGE_MILLIS;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("docker-java-inventory-%d").build());
+
+    // guarded by this
+    private final Map<String, Container> containers = new HashMap<String, Container>();
+
+    private long version;
+
+    private Snapshot snapshot = new Snapshot(0, ImmutableMap.<String, Container> of());
+
+    /**
+     * The ids of the containers that changed while a list was on its way, <code>null</code> while there is none.
+     */
+    private Set<String> changedWhileListing;
+
+    /**
+     * The containers with inspects on their way, an inspect whose result is older than what was applied since it
+     * started is discarded.
+     */
+    private final Map<String, Inspects> inspects = new HashMap<String, Inspects>();
+
+    /**
+     * Numbers the inspects and destroys in the order they start.
+     */
+    private long changeSequence;
+
+    /**
+     * Seconds since the epoch of the last event handled or of the start of the last list, whichever is later.
+     */
+    private long lastEventTime;
+
+    private EventHub.Subscription subscription;
+
+    /**
+     * The hub of its own that replays the events since a loaded snapshot, <code>null</code> if there is none.
+     */
+    private EventHub replayingEventHub;
+
+    private boolean started;
+
+    private boolean closed;
+
+    public ContainerInventory(DockerClient dockerClient) {
+        Preconditions.checkNotNull(dockerClient, "dockerClient was not specified");
+        this.dockerClient = dockerClient;
+    }
+
+    /**
+     * Sets how often the containers are listed again. Must be called before {@link #start()}.
+     */
+    public ContainerInventory withResyncInterval(long interval, TimeUnit unit) {
+        Preconditions.checkArgument(interval > 0, "interval must be positive");
+        this.resyncIntervalMillis = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Keeps the inventory in the file across restarts, using a snapshot of up to
+     * {@link #DEFAULT_SNAPSHOT_MAX_AGE_MILLIS} ago. Must be called before {@link #start()}.
+     */
+    public ContainerInventory withSnapshot(File file) {
+        return withSnapshot(file, DEFAULT_SNAPSHOT_MAX_AGE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Keeps the inventory in the file across restarts, using a snapshot only if its last event is no older than
+     * <code>maxAge</code>. Must be called before {@link #start()}.
+     */
+    public ContainerInventory withSnapshot(File file, long maxAge, TimeUnit unit) {
+        Preconditions.checkNotNull(file, "file was not specified");
+        Preconditions.checkArgument(maxAge >= 0, "maxAge must not be negative");
+        this.snapshotFile = file;
+        this.snapshotMaxAgeMillis = unit.toMillis(maxAge);
+        return this;
+    }
+
+    /**
+     * Adds a listener that is told about every later change. It is first told about the containers already in the
+     * inventory, as additions, so that it starts out with what the inventory has.
+     */
+    public synchronized void addListener(Listener listener) {
+        Preconditions.checkNotNull(listener, "listener was not specified");
+        listeners.add(listener);
+        for (Container container : containers.values()) {
+            listener.onChange(null, container);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Subscribes to the events and lists the containers, it returns once the inventory is complete. With a recent
+     * enough snapshot it loads the snapshot and subscribes to the events since then instead, the inventory catches up
+     * with them shortly after.
+     *
+     * @throws com.github.dockerjava.api.DockerException
+     *             if the containers could not be listed
+     */
+    public void start() {
+        SnapshotFile loaded = snapshotFile != null ? loadSnapshot() : null;
+        synchronized (this) {
+            Preconditions.checkState(!started, "inventory was started already");
+            Preconditions.checkState(!closed, "inventory is closed");
+            started = true;
+            if (loaded != null) {
+                for (Container container : loaded.getContainers()) {
+                    put(container);
+                }
+                lastEventTime = loaded.getLastEventTime();
+                replayingEventHub = new EventHubImpl(dockerClient).withSince(loaded.getLastEventTime());
+                subscription = replayingEventHub.subscribe(new EventListener(), EventHub.DEFAULT_QUEUE_CAPACITY,
+                        EventHub.OverflowPolicy.BLOCK);
+            } else {
+                // subscribed before listing, so that no change falls between the two
+                subscription = dockerClient.eventHub().subscribe(new EventListener(),
+                        EventHub.DEFAULT_QUEUE_CAPACITY, EventHub.OverflowPolicy.BLOCK);
+            }
+        }
+        if (loaded == null) {
+            resync();
+        }
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    resync();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Failed to list containers, keeping the inventory as it is", e);
+                    return;
+                }
+                if (snapshotFile != null) {
+                    saveSnapshot();
+                }
+            }
+        }, resyncIntervalMillis, resyncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the snapshot if it is there, readable and recent enough, <code>null</code> otherwise
+     */
+    private SnapshotFile loadSnapshot() {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        SnapshotFile loaded;
+        try {
+            loaded = SnapshotFile.read(snapshotFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read inventory snapshot {}, listing all containers", snapshotFile, e);
+            return null;
+        }
+        long ageMillis = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(loaded.getLastEventTime());
+        if (ageMillis > snapshotMaxAgeMillis) {
+            LOGGER.debug("Inventory snapshot {} is {} ms old, listing all containers", snapshotFile, ageMillis);
+            return null;
+        }
+        LOGGER.debug("Loaded {} containers from {}, replaying events since {}", loaded.getContainers().size(),
+                snapshotFile, loaded.getLastEventTime());
+        return loaded;
+    }
+
+    /**
+     * Writes the inventory to the {@link #withSnapshot(File) snapshot file}, replacing what was there. Failures are
+     * logged, a restart without a snapshot lists all containers.
+     */
+    public void saveSnapshot() {
+        Preconditions.checkState(snapshotFile != null, "no snapshot file");
+        List<Container> saved;
+        long time;
+        synchronized (this) {
+            saved = new ArrayList<Container>(containers.values());
+            time = lastEventTime;
+        }
+        try {
+            SnapshotFile.write(snapshotFile, time, saved);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write inventory snapshot {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Lists the containers and replaces the inventory with them. Containers that changed while the list was on its
+     * way are inspected again, the list may predate their change.
+     */
+    public void resync() {
+        // the daemon's clock, as far as it agrees with ours
+        long listTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        synchronized (this) {
+            changedWhileListing = new HashSet<String>();
+        }
+        List<Container> listed;
+        try {
+            listed = dockerClient.listContainersCmd().withShowAll(true).exec();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedWhileListing = null;
+            }
+            throw e;
+        }
+        Set<String> changed;
+        synchronized (this) {
+            Map<String, Container> byId = new HashMap<String, Container>();
+            for (Container container : listed) {
+                byId.put(container.getId(), container);
+            }
+            for (String id : new ArrayList<String>(containers.keySet())) {
+                if (!byId.containsKey(id)) {
+                    remove(id);
+                }
+            }
+            for (Container container : byId.values()) {
+                put(container);
+            }
+            changed = changedWhileListing;
+            changedWhileListing = null;
+            lastEventTime = Math.max(lastEventTime, listTime);
+            LOGGER.debug("Listed {} containers, inventory at version {}", listed.size(), version);
+        }
+        for (String id : changed) {
+            refresh(id);
+        }
+    }
+
+    /**
+     * @return the number of changes so far
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the containers of the current version
+     */
+    public synchronized Snapshot getSnapshot() {
+        if (snapshot.getVersion() != version) {
+            snapshot = new Snapshot(version, ImmutableMap.copyOf(containers));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the container with the full id as it is now, <code>null</code> if there is none
+     */
+    public synchronized Container get(String id) {
+        return containers.get(id);
+    }
+
+    private void refresh(String id) {
+        long change;
+        synchronized (this) {
+            Inspects pending = inspects.get(id);
+            if (pending == null) {
+                pending = new Inspects();
+                inspects.put(id, pending);
+            }
+            pending.count++;
+            change = ++changeSequence;
+        }
+        Container container = null;
+        boolean inspected = false;
+        try {
+            container = Containers.fromInspect(dockerClient.inspectContainerCmd(id).exec());
+            inspected = true;
+        } catch (NotFoundException e) {
+            inspected = true;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to inspect container {}, leaving it to the next list", id, e);
+        } finally {
+            synchronized (this) {
+                Inspects pending = inspects.get(id);
+                if (--pending.count == 0) {
+                    inspects.remove(id);
+                }
+                if (inspected) {
+                    if (changedWhileListing != null) {
+                        changedWhileListing.add(id);
+                    }
+                    if (pending.lastApplied > change) {
+                        LOGGER.debug("Discarding inspect of container {} that predates a later change", id);
+                    } else {
+                        pending.lastApplied = change;
+                        if (container == null) {
+                            remove(id);
+                        } else {
+                            put(container);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void destroyed(String id) {
+        if (changedWhileListing != null) {
+            changedWhileListing.add(id);
+        }
+        Inspects pending = inspects.get(id);
+        if (pending != null) {
+            // an inspect on its way may have been answered before the destroy
+            pending.lastApplied = ++changeSequence;
+        }
+        remove(id);
+    }
+
+    // callers hold the monitor
+    private void put(Container container) {
+        Container previous = containers.get(container.getId());
+        if (previous != null && Containers.isSame(previous, container)) {
+            return;
+        }
+        containers.put(container.getId(), container);
+        changed(previous, container);
+    }
+
+    // callers hold the monitor
+    private void remove(String id) {
+        Container previous = containers.remove(id);
+        if (previous != null) {
+            changed(previous, null);
+        }
+    }
+
+    // callers hold the monitor
+    private void changed(Container previous, Container current) {
+        version++;
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(previous, current);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Inventory listener " + listener + " failed", e);
+            }
+        }
+    }
+
+    private synchronized void handled(Event event) {
+        lastEventTime = Math.max(lastEventTime, event.getTime());
+    }
+
+    /**
+     * Stops following the events and, with a snapshot file, saves the inventory.
+     */
+    @Override
+    public void close() {
+        EventHub.Subscription toClose;
+        EventHub hubToClose;
+        boolean save;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = subscription;
+            hubToClose = replayingEventHub;
+            save = started && snapshotFile != null;
+        }
+        if (toClose != null) {
+            toClose.close();
+        }
+        if (hubToClose != null) {
+            hubToClose.close();
+        }
+        scheduler.shutdownNow();
+        if (save) {
+            saveSnapshot();
+        }
+    }
+
+    private static class Inspects {
+
+        private int count;
+
+        private long lastApplied;
+    }
+
+    private class EventListener implements EventCallback {
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.getId() == null) {
+                return;
+            }
+            if (DESTROY.equals(event.getStatus())) {
+                destroyed(event.getId());
+            } else if (CHANGES.contains(event.getStatus())) {
+                refresh(event.getId());
+            }
+            handled(event);
+        }
+
+        @Override
+        public void onException(Throwable throwable) {
+            // events may have been missed until the stream is back
+            try {
+                scheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            resync();
+                        } catch (RuntimeException e) {
+                            LOGGER.warn("Failed to list containers, keeping the inventory as it is", e);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // closed
+            }
+        }
+
+        @Override
+        public void onCompletion(int numEvents) {
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.dockerjava.core.inventory;
+
+import com.github.dockerjava.api.model.Container;
+
+/**
+ * The state of a container as told by {@link Container#getStatus()}, e.g. <code>Up 2 minutes (Paused)</code>.
+ */
+public enum ContainerStatus {
+
+    /**
+     * Created but never started, the status is empty.
+     */
+    CREATED,
+
+    RUNNING,
+
+    PAUSED,
+
+    RESTARTING,
+
+    EXITED;
+
+    public static ContainerStatus of(Container container) {
+        return of(container.getStatus());
+    }
+
+    public static ContainerStatus of(String status) {
+        if (status == null || status.isEmpty()) {
+            return CREATED;
+        } else if (status.startsWith("Up")) {
+            return status.endsWith("(Paused)") ? PAUSED : RUNNING;
+        } else if (status.startsWith("Restarting")) {
+            return RESTARTING;
+        }
+        return EXITED;
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.dockerjava.core.inventory;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.Ports;
+import com.google.common.base.Objects;
+
+/**
+ * Conversion of inspect responses to the {@link Container}s that list returns, and comparison of those.
+ */
+final class Containers {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Containers() {
+    }
+
+    /**
+     * @return the container as list would return it, with the status without the time that passed, e.g.
+     *         <code>Up</code> or <code>Exited (1)</code>
+     */
+    static Container fromInspect(InspectContainerResponse response) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        node.put("Id", response.getId());
+        StringBuilder command = new StringBuilder(response.getPath() != null ? response.getPath() : "");
+        if (response.getArgs() != null) {
+            for (String arg : response.getArgs()) {
+                command.append(' ').append(arg);
+            }
+        }
+        node.put("Command", command.toString().trim());
+        node.put("Created", parseSeconds(response.getCreated()));
+        node.put("Image", response.getConfig() != null ? response.getConfig().getImage() : null);
+        ArrayNode names = node.putArray("Names");
+        if (response.getName() != null) {
+            names.add(response.getName().startsWith("/") ? response.getName() : "/" + response.getName());
+        }
+        ArrayNode ports = node.putArray("Ports");
+        if (response.getNetworkSettings() != null && response.getNetworkSettings().getPorts() != null) {
+            for (Map.Entry<ExposedPort, Ports.Binding[]> binding : response.getNetworkSettings().getPorts()
+                    .getBindings().entrySet()) {
+                ExposedPort exposedPort = binding.getKey();
+                if (binding.getValue() == null || binding.getValue().length == 0) {
+                    ports.addObject().put("PrivatePort", exposedPort.getPort())
+                            .put("Type", exposedPort.getProtocol().toString());
+                    continue;
+                }
+                for (Ports.Binding hostBinding : binding.getValue()) {
+                    ObjectNode port = ports.addObject();
+                    port.put("IP", hostBinding.getHostIp());
+                    port.put("PrivatePort", exposedPort.getPort());
+                    port.put("PublicPort", hostBinding.getHostPort());
+                    port.put("Type", exposedPort.getProtocol().toString());
+                }
+            }
+        }
+        node.put("Status", status(response.getState()));
+        return OBJECT_MAPPER.convertValue(node, Container.class);
+    }
+
+    private static String status(InspectContainerResponse.ContainerState state) {
+        if (state == null) {
+            return "";
+        }
+        if (state.isRunning()) {
+            return state.isPaused() ? "Up (Paused)" : "Up";
+        }
+        if (state.getStartedAt() == null || state.getStartedAt().startsWith("0001-")) {
+            return "";
+        }
+        return "Exited (" + state.getExitCode() + ")";
+    }
+
+    /**
+     * @return the seconds since the epoch of a time like <code>2014-10-01T20:46:08.914288461Z</code>, 0 if there is
+     *         none
+     */
+    static long parseSeconds(String time) {
+        if (time == null || time.length() < 19) {
+            return 0;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return TimeUnit.MILLISECONDS.toSeconds(format.parse(time.substring(0, 19)).getTime());
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return whether the containers differ in no more than the time in their status and an implicit
+     *         <code>:latest</code> of their image
+     */
+    static boolean isSame(Container a, Container b) {
+        return Objects.equal(a.getId(), b.getId()) && ContainerStatus.of(a) == ContainerStatus.of(b)
+                && Objects.equal(exitCode(a), exitCode(b)) && Arrays.equals(a.getNames(), b.getNames())
+                && Objects.equal(normalizeImage(a.getImage()), normalizeImage(b.getImage()))
+                && Objects.equal(a.getCommand(), b.getCommand()) && a.getCreated() == b.getCreated()
+                && samePorts(a.getPorts(), b.getPorts());
+    }
+
+    private static String exitCode(Container container) {
+        String status = container.getStatus();
+        if (status == null || !status.startsWith("Exited (")) {
+            return null;
+        }
+        int end = status.indexOf(')');
+        return end < 0 ? null : status.substring("Exited (".length(), end);
+    }
+
+    static String normalizeImage(String image) {
+        if (image == null) {
+            return null;
+        }
+        int slash = image.lastIndexOf('/');
+        return image.indexOf(':', slash + 1) < 0 ? image + ":latest" : image;
+    }
+
+    private static boolean samePorts(Container.Port[] a, Container.Port[] b) {
+        int lengthA = a == null ? 0 : a.length;
+        int lengthB = b == null ? 0 : b.length;
+        if (lengthA != lengthB) {
+            return false;
+        }
+        for (int i = 0; i < lengthA; i++) {
+            if (!Objects.equal(a[i].getIp(), b[i].getIp())
+                    || !Objects.equal(a[i].getPrivatePort(), b[i].getPrivatePort())
+                    || !Objects.equal(a[i].getPublicPort(), b[i].getPublicPort())
+                    || !Objects.equal(a[i].getType(), b[i].getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
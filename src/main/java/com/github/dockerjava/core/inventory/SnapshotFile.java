@@ -0,0 +1,143 @@
+package com.github.dockerjava.core.inventory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.core.internal.BinaryJsonCodec;
+
+/**
+ * The containers of an inventory together with the time of the last event they reflect, written to and read from a
+ * memory-mapped file.
+ * <p>
+ * The file starts with the magic <code>DJIS</code>, the format version, the time of the last event, the number of
+ * containers and the CRC32 of what follows: per container the length of its {@link BinaryJsonCodec} encoding and the
+ * encoding. A snapshot replaces the previous one by renaming, readers never see half of one.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x444a4953;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 24;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final long lastEventTime;
+
+    private final List<Container> containers;
+
+    private SnapshotFile(long lastEventTime, List<Container> containers) {
+        this.lastEventTime = lastEventTime;
+        this.containers = containers;
+    }
+
+    /**
+     * @return seconds since the epoch, as {@link com.github.dockerjava.api.model.Event#getTime()}
+     */
+    long getLastEventTime() {
+        return lastEventTime;
+    }
+
+    List<Container> getContainers() {
+        return containers;
+    }
+
+    static SnapshotFile read(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            if (randomAccessFile.length() < HEADER_LENGTH || randomAccessFile.length() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not an inventory snapshot");
+            }
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    randomAccessFile.length());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not an inventory snapshot");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(String.format("%s has unsupported version %d", file, buffer.getInt(4)));
+            }
+            long lastEventTime = buffer.getLong(8);
+            int count = buffer.getInt(16);
+            int crc = buffer.getInt(20);
+
+            ByteBuffer records = buffer.duplicate();
+            records.position(HEADER_LENGTH);
+            CRC32 actual = new CRC32();
+            byte[] bytes = new byte[records.remaining()];
+            records.get(bytes);
+            actual.update(bytes);
+            if ((int) actual.getValue() != crc) {
+                throw new IOException(file + " is corrupt");
+            }
+
+            records.position(HEADER_LENGTH);
+            List<Container> containers = new ArrayList<Container>(count);
+            for (int i = 0; i < count; i++) {
+                int length = records.getInt();
+                ByteBuffer record = records.slice();
+                record.limit(length);
+                containers.add(OBJECT_MAPPER.treeToValue(BinaryJsonCodec.decode(record), Container.class));
+                records.position(records.position() + length);
+            }
+            return new SnapshotFile(lastEventTime, Collections.unmodifiableList(containers));
+        } catch (RuntimeException e) {
+            // short or inconsistent records
+            throw new IOException(file + " is corrupt", e);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    static void write(File file, long lastEventTime, Collection<Container> containers) throws IOException {
+        List<byte[]> encoded = new ArrayList<byte[]>(containers.size());
+        long size = HEADER_LENGTH;
+        for (Container container : containers) {
+            byte[] record = BinaryJsonCodec.encode(OBJECT_MAPPER.valueToTree(container));
+            encoded.add(record);
+            size += 4 + record.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + containers.size() + " containers is too large");
+        }
+
+        File written = new File(file.getPath() + ".new");
+        RandomAccessFile randomAccessFile = new RandomAccessFile(written, "rw");
+        try {
+            randomAccessFile.setLength(size);
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(lastEventTime);
+            buffer.putInt(encoded.size());
+            buffer.putInt(0);
+            CRC32 crc = new CRC32();
+            for (byte[] record : encoded) {
+                ByteBuffer length = ByteBuffer.allocate(4).putInt(0, record.length);
+                crc.update(length.array());
+                crc.update(record);
+                buffer.putInt(record.length);
+                buffer.put(record);
+            }
+            buffer.putInt(20, (int) crc.getValue());
+            buffer.force();
+        } finally {
+            randomAccessFile.close();
+        }
+        // renaming over the file replaces it in one step where the platform allows it
+        if (!written.renameTo(file) && !(file.delete() && written.renameTo(file))) {
+            throw new IOException("Failed to replace " + file + " with " + written);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.dockerjava.core.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.internal.BinaryJsonCodec;
+
+/**
+ * The records of one journal segment. A record is the varint length of its payload, the payload and the CRC32 of the
+ * payload. The payload holds
+ * <ul>
+ * <li>the offset as a varint difference to the previous record's, or to the segment's base offset,</li>
+ * <li>the status as a string code,</li>
+ * <li>a flags byte telling whether there is an id, whether it is a 64 character hex id packed into 32 bytes, and
+ * whether there is a <code>from</code>,</li>
+ * <li>the id, if not packed as its varint length and UTF-8 bytes, and the <code>from</code> as a string code,</li>
+ * <li>the time as a zig-zag varint difference to the previous record's.</li>
+ * </ul>
+ * A string code is the index of a string seen before in the segment, the statuses Docker sends known from the start,
+ * or 0 followed by a new string. Segments do not depend on each other, a codec decodes one from its start and can then
+ * encode what follows.
+ */
+final class EventCodec {
+
+    /**
+     * Strings known from the start of every segment. Part of the format: strings may be added at the end only.
+     */
+    private static final List<String> KNOWN_STRINGS = Collections.unmodifiableList(Arrays.asList("create",
+            "destroy", "die", "export", "kill", "oom", "pause", "restart", "start", "stop", "unpause", "untag",
+            "delete", "tag", "pull", "push", "import"));
+
+    private static final int HAS_ID = 1;
+
+    private static final int HEX_ID = 2;
+
+    private static final int HAS_FROM = 4;
+
+    private static final int CRC_LENGTH = 4;
+
+    private final List<String> strings = new ArrayList<String>(KNOWN_STRINGS);
+
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+    private long previousOffset;
+
+    private long previousTime;
+
+    EventCodec(long baseOffset) {
+        for (String string : KNOWN_STRINGS) {
+            codes.put(string, codes.size() + 1);
+        }
+        this.previousOffset = baseOffset;
+    }
+
+    /**
+     * @return the record of the event, the offsets of a segment's events must grow
+     */
+    byte[] encode(long offset, Event event) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        BinaryJsonCodec.writeVarLong(payload, offset - previousOffset);
+        writeCode(payload, event.getStatus() != null ? event.getStatus() : "");
+        String id = event.getId();
+        int flags = (id != null ? HAS_ID : 0) | (id != null && BinaryJsonCodec.isHexId(id) ? HEX_ID : 0)
+                | (event.getFrom() != null ? HAS_FROM : 0);
+        payload.write(flags);
+        if ((flags & HEX_ID) != 0) {
+            BinaryJsonCodec.writeHexId(payload, id);
+        } else if (id != null) {
+            BinaryJsonCodec.writeString(payload, id);
+        }
+        if (event.getFrom() != null) {
+            writeCode(payload, event.getFrom());
+        }
+        long timeDelta = event.getTime() - previousTime;
+        BinaryJsonCodec.writeVarLong(payload, (timeDelta << 1) ^ (timeDelta >> 63));
+        previousOffset = offset;
+        previousTime = event.getTime();
+
+        byte[] bytes = payload.toByteArray();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 8);
+        BinaryJsonCodec.writeVarLong(record, bytes.length);
+        record.write(bytes, 0, bytes.length);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        int value = (int) crc.getValue();
+        record.write(value >>> 24);
+        record.write(value >>> 16);
+        record.write(value >>> 8);
+        record.write(value);
+        return record.toByteArray();
+    }
+
+    private void writeCode(ByteArrayOutputStream out, String string) {
+        Integer code = codes.get(string);
+        if (code != null) {
+            BinaryJsonCodec.writeVarLong(out, code);
+        } else {
+            BinaryJsonCodec.writeVarLong(out, 0);
+            BinaryJsonCodec.writeString(out, string);
+            strings.add(string);
+            codes.put(string, strings.size());
+        }
+    }
+
+    /**
+     * Decodes the record at the buffer's position and advances the position past it.
+     *
+     * @return the entry, <code>null</code> if the buffer ends within the record, e.g. while it is being written
+     * @throws IOException
+     *             if the record is corrupt
+     */
+    EventJournal.Entry decode(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        long length = 0;
+        for (int shift = 0;; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                buffer.position(start);
+                return null;
+            }
+            if (shift > 28) {
+                throw new IOException("Invalid record length at " + start);
+            }
+            int b = buffer.get();
+            length |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length > buffer.remaining() - CRC_LENGTH) {
+            buffer.position(start);
+            return null;
+        }
+        ByteBuffer payload = buffer.slice();
+        payload.limit((int) length);
+        byte[] bytes = new byte[(int) length];
+        payload.duplicate().get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        buffer.position(buffer.position() + (int) length);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            throw new IOException("Corrupt record at " + start);
+        }
+
+        try {
+            long offset = previousOffset + BinaryJsonCodec.readVarLong(payload);
+            String status = readCode(payload);
+            int flags = payload.get();
+            String id = null;
+            if ((flags & HEX_ID) != 0) {
+                id = BinaryJsonCodec.readHexId(payload);
+            } else if ((flags & HAS_ID) != 0) {
+                id = BinaryJsonCodec.readString(payload);
+            }
+            String from = (flags & HAS_FROM) != 0 ? readCode(payload) : null;
+            long zigzag = BinaryJsonCodec.readVarLong(payload);
+            long time = previousTime + ((zigzag >>> 1) ^ -(zigzag & 1));
+            previousOffset = offset;
+            previousTime = time;
+            return new EventJournal.Entry(offset, new Event(status.length() > 0 ? status : null, id, from, time));
+        } catch (RuntimeException e) {
+            // a record that passed the CRC but was not written by this codec
+            throw new IOException("Invalid record at " + start, e);
+        }
+    }
+
+    private String readCode(ByteBuffer payload) throws IOException {
+        long code = BinaryJsonCodec.readVarLong(payload);
+        if (code == 0) {
+            String string = BinaryJsonCodec.readString(payload);
+            // a codec that decoded a segment can append to it
+            strings.add(string);
+            codes.put(string, strings.size());
+            return string;
+        }
+        if (code > strings.size()) {
+            throw new IOException("Unknown string code " + code);
+        }
+        return strings.get((int) code - 1);
+    }
+}
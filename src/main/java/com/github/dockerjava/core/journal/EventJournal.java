@@ -0,0 +1,568 @@
+package com.github.dockerjava.core.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.model.Event;
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps the {@link Event}s of a daemon in segment files of a directory, so that they can be replayed after they were
+ * received, e.g. by components that start late or after a crash:
+ *
+ * <pre>
+ * EventJournal journal = EventJournal.open(directory);
+ * DockerClient docker = DockerClientBuilder.getInstance(config)
+ *         .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withEventJournal(journal)).build();
+ * ...
+ * EventJournal.Cursor cursor = journal.replay(offset);
+ * while (cursor.hasNext()) {
+ *     Event event = cursor.next().getEvent();
+ * }
+ * </pre>
+ *
+ * Every event gets the next offset, starting at 0. Events are kept in the order of their time: an event older than
+ * the last one appended, or one that was appended already, as when several streams of the same daemon are open or a
+ * stream resumes where it broke, is skipped.
+ * <p>
+ * A segment is named after the offset of its first event and holds events in the binary form of {@link EventCodec},
+ * about 45 bytes for an event of a container. Once the segment that events are appended to reaches the segment size a
+ * new one is started. {@link #compact()} rewrites the segments before that one with the latest event of each id only.
+ * Events are written to the file system as they are appended, but not synced to disk; a journal reopened after a
+ * crash drops a partially written last event.
+ */
+public class EventJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+
+    public static final long DEFAULT_SEGMENT_BYTES = 8L << 20;
+
+    private static final int MAGIC = 0x444a454a;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{19})\\.events");
+
+    /**
+     * An event and its offset in the journal.
+     */
+    public static class Entry {
+
+        private final long offset;
+
+        private final Event event;
+
+        Entry(long offset, Event event) {
+            this.offset = offset;
+            this.event = event;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+    }
+
+    private final File directory;
+
+    private final long segmentBytes;
+
+    private final Object compactionLock = new Object();
+
+    // guarded by this
+    private RandomAccessFile segment;
+
+    private long segmentBase;
+
+    private long segmentLength;
+
+    private EventCodec codec;
+
+    /**
+     * Whether the next event starts a new segment, after a failed write left the current one in doubt.
+     */
+    private boolean rollPending;
+
+    private long nextOffset;
+
+    private long lastTime;
+
+    private final Set<String> eventsAtLastTime = new HashSet<String>();
+
+    private boolean closed;
+
+    private EventJournal(File directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the journal in the directory, creating both if necessary, with segments of
+     * {@link #DEFAULT_SEGMENT_BYTES}.
+     */
+    public static EventJournal open(File directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static EventJournal open(File directory, long segmentBytes) throws IOException {
+        Preconditions.checkNotNull(directory, "directory was not specified");
+        Preconditions.checkArgument(segmentBytes > HEADER_LENGTH, "segmentBytes must be larger than %s",
+                HEADER_LENGTH);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        EventJournal journal = new EventJournal(directory, segmentBytes);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Continues the last segment after its last complete event, or starts the first one.
+     */
+    private synchronized void recover() throws IOException {
+        for (File file : directory.listFiles()) {
+            if (!file.getName().endsWith(".compact")) {
+                continue;
+            }
+            File segmentFile = new File(file.getPath().substring(0, file.getPath().length() - ".compact".length()));
+            if (segmentFile.exists()) {
+                // compaction did not finish, the segment is still whole
+                if (!file.delete()) {
+                    throw new IOException("Failed to delete " + file);
+                }
+            } else if (!file.renameTo(segmentFile)) {
+                // written and synced, the segment was deleted before it could be replaced
+                throw new IOException("Failed to replace " + segmentFile + " with " + file);
+            }
+        }
+        TreeMap<Long, File> segments = segments(directory);
+        while (!segments.isEmpty()) {
+            Map.Entry<Long, File> last = segments.lastEntry();
+            SegmentReader reader;
+            try {
+                reader = SegmentReader.open(last.getValue());
+            } catch (IOException e) {
+                if (last.getValue().length() >= HEADER_LENGTH) {
+                    throw e;
+                }
+                // created, but the header was never written
+                LOGGER.warn("Deleting incomplete journal segment {}", last.getValue());
+                if (!last.getValue().delete()) {
+                    throw new IOException("Failed to delete " + last.getValue());
+                }
+                segments.remove(last.getKey());
+                continue;
+            }
+            nextOffset = last.getKey();
+            try {
+                Entry entry;
+                while ((entry = reader.next()) != null) {
+                    nextOffset = entry.getOffset() + 1;
+                    remember(entry.getEvent());
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Dropping the end of journal segment {}", last.getValue(), e);
+            }
+            segment = new RandomAccessFile(last.getValue(), "rw");
+            segmentBase = last.getKey();
+            segmentLength = reader.position();
+            codec = reader.codec;
+            if (segment.length() > segmentLength) {
+                segment.setLength(segmentLength);
+            }
+            segment.seek(segmentLength);
+            return;
+        }
+        startSegment();
+    }
+
+    /**
+     * Appends the event unless it is older than the last one or was appended already.
+     *
+     * @return the offset of the event, -1 if it was skipped
+     * @throws IOException
+     *             if the event could not be written, the next one starts a new segment
+     */
+    public synchronized long append(Event event) throws IOException {
+        Preconditions.checkNotNull(event, "event was not specified");
+        Preconditions.checkState(!closed, "journal is closed");
+        if (event.getTime() < lastTime || event.getTime() == lastTime && eventsAtLastTime.contains(key(event))) {
+            return -1;
+        }
+        if (rollPending || segmentLength >= segmentBytes) {
+            segment.close();
+            startSegment();
+        }
+        long offset = nextOffset;
+        byte[] record = codec.encode(offset, event);
+        try {
+            segment.write(record);
+        } catch (IOException e) {
+            rollPending = true;
+            try {
+                segment.setLength(segmentLength);
+            } catch (IOException truncateFailure) {
+                LOGGER.warn("Failed to truncate journal segment after a failed write", truncateFailure);
+            }
+            throw e;
+        }
+        segmentLength += record.length;
+        nextOffset++;
+        remember(event);
+        return offset;
+    }
+
+    // callers hold the monitor
+    private void startSegment() throws IOException {
+        File file = new File(directory, String.format("%019d.events", nextOffset));
+        RandomAccessFile created = new RandomAccessFile(file, "rw");
+        try {
+            created.setLength(0);
+            created.write(header(nextOffset));
+        } catch (IOException e) {
+            created.close();
+            throw e;
+        }
+        segment = created;
+        segmentBase = nextOffset;
+        segmentLength = HEADER_LENGTH;
+        codec = new EventCodec(nextOffset);
+        rollPending = false;
+    }
+
+    private static byte[] header(long base) {
+        return ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putInt(VERSION).putLong(base).array();
+    }
+
+    private static String key(Event event) {
+        return event.getStatus() + '\u0000' + event.getId() + '\u0000' + event.getFrom();
+    }
+
+    // callers hold the monitor
+    private void remember(Event event) {
+        if (event.getTime() > lastTime) {
+            lastTime = event.getTime();
+            eventsAtLastTime.clear();
+        }
+        eventsAtLastTime.add(key(event));
+    }
+
+    /**
+     * @return the offset the next event will get
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public int getSegmentCount() {
+        return segments(directory).size();
+    }
+
+    /**
+     * Returns the events from the offset on, the first one available if events from there on were removed by
+     * {@link #compact()}. The cursor reads what has been appended when {@link Cursor#hasNext()} is called, once that
+     * returned <code>false</code> later calls return events appended since.
+     */
+    public Cursor replay(long offset) {
+        Preconditions.checkArgument(offset >= 0, "offset must not be negative");
+        return new Cursor(offset);
+    }
+
+    /**
+     * Rewrites the segments before the one events are appended to, keeping only the latest event of each id in the
+     * journal and the events without an id. Offsets do not change, segments left empty are deleted.
+     *
+     * @return the number of events removed
+     */
+    public long compact() throws IOException {
+        synchronized (compactionLock) {
+            TreeMap<Long, File> segments;
+            long activeBase;
+            synchronized (this) {
+                Preconditions.checkState(!closed, "journal is closed");
+                segments = segments(directory);
+                activeBase = segmentBase;
+            }
+            Map<String, Long> latest = new HashMap<String, Long>();
+            for (File file : segments.values()) {
+                SegmentReader reader = SegmentReader.open(file);
+                Entry entry;
+                while ((entry = reader.next()) != null) {
+                    if (entry.getEvent().getId() != null) {
+                        latest.put(entry.getEvent().getId(), entry.getOffset());
+                    }
+                }
+            }
+            long removed = 0;
+            for (Map.Entry<Long, File> closedSegment : segments.headMap(activeBase).entrySet()) {
+                removed += compact(closedSegment.getKey(), closedSegment.getValue(), latest);
+            }
+            LOGGER.debug("Compacted {}, removed {} events", directory, removed);
+            return removed;
+        }
+    }
+
+    private static long compact(long base, File file, Map<String, Long> latest) throws IOException {
+        SegmentReader reader = SegmentReader.open(file);
+        List<Entry> kept = new ArrayList<Entry>();
+        long total = 0;
+        Entry entry;
+        while ((entry = reader.next()) != null) {
+            total++;
+            String id = entry.getEvent().getId();
+            if (id == null || latest.get(id) == entry.getOffset()) {
+                kept.add(entry);
+            }
+        }
+        if (kept.size() == total) {
+            return 0;
+        }
+        if (kept.isEmpty()) {
+            if (!file.delete()) {
+                throw new IOException("Failed to delete " + file);
+            }
+            return total;
+        }
+        File compacted = new File(file.getPath() + ".compact");
+        FileOutputStream fileOutputStream = new FileOutputStream(compacted);
+        try {
+            OutputStream out = new BufferedOutputStream(fileOutputStream);
+            out.write(header(base));
+            EventCodec codec = new EventCodec(base);
+            for (Entry keptEntry : kept) {
+                out.write(codec.encode(keptEntry.getOffset(), keptEntry.getEvent()));
+            }
+            out.flush();
+            fileOutputStream.getFD().sync();
+        } finally {
+            fileOutputStream.close();
+        }
+        // renaming over the segment replaces it in one step where the platform allows it, recover() finishes the
+        // delete and rename if it does not
+        if (!compacted.renameTo(file) && !(file.delete() && compacted.renameTo(file))) {
+            throw new IOException("Failed to replace " + file + " with " + compacted);
+        }
+        return total - kept.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segment.close();
+    }
+
+    private static TreeMap<Long, File> segments(File directory) {
+        TreeMap<Long, File> segments = new TreeMap<Long, File>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Reads the events of a journal from an offset on.
+     */
+    public class Cursor implements Iterator<Entry>, Closeable {
+
+        private long nextOffset;
+
+        private long segmentBase = -1;
+
+        private File segmentFile;
+
+        private SegmentReader reader;
+
+        private Entry next;
+
+        private boolean closed;
+
+        private Cursor(long offset) {
+            this.nextOffset = offset;
+        }
+
+        /**
+         * @return the offset after the last event returned, where a later replay would continue
+         */
+        public synchronized long getOffset() {
+            return nextOffset;
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            if (next == null && !closed) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public synchronized Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry entry = next;
+            next = null;
+            nextOffset = entry.getOffset() + 1;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("journal is append-only");
+        }
+
+        private Entry advance() {
+            while (true) {
+                try {
+                    if (reader == null) {
+                        TreeMap<Long, File> segments = segments(directory);
+                        Map.Entry<Long, File> segment;
+                        if (segmentBase < 0) {
+                            segment = segments.floorEntry(nextOffset);
+                            if (segment == null) {
+                                segment = segments.firstEntry();
+                            }
+                        } else {
+                            segment = segments.higherEntry(segmentBase);
+                        }
+                        if (segment == null) {
+                            return null;
+                        }
+                        segmentBase = segment.getKey();
+                        segmentFile = segment.getValue();
+                        reader = SegmentReader.open(segmentFile);
+                    }
+                    Entry entry = reader.next();
+                    if (entry != null) {
+                        if (entry.getOffset() >= nextOffset) {
+                            return entry;
+                        }
+                        continue;
+                    }
+                    if (reader.remap(segmentFile)) {
+                        continue;
+                    }
+                    if (segments(directory).higherKey(segmentBase) == null) {
+                        // caught up with the journal
+                        return null;
+                    }
+                    // written to before the next segment was started
+                    if (reader.remap(segmentFile)) {
+                        continue;
+                    }
+                    reader = null;
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping the rest of journal segment {}", segmentFile, e);
+                    reader = null;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            reader = null;
+            next = null;
+        }
+    }
+
+    /**
+     * Decodes the events of a segment from a mapping of the file.
+     */
+    private static class SegmentReader {
+
+        private final EventCodec codec;
+
+        private ByteBuffer buffer;
+
+        private SegmentReader(EventCodec codec, ByteBuffer buffer) {
+            this.codec = codec;
+            this.buffer = buffer;
+        }
+
+        static SegmentReader open(File file) throws IOException {
+            ByteBuffer buffer = map(file);
+            if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a journal segment");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(String.format("%s has unsupported version %d", file, buffer.getInt(4)));
+            }
+            buffer.position(HEADER_LENGTH);
+            return new SegmentReader(new EventCodec(buffer.getLong(8)), buffer);
+        }
+
+        private static ByteBuffer map(File file) throws IOException {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+
+        /**
+         * @return the next event, <code>null</code> at the end of the mapped part of the file
+         */
+        Entry next() throws IOException {
+            return codec.decode(buffer);
+        }
+
+        int position() {
+            return buffer.position();
+        }
+
+        /**
+         * Maps the file again if it grew.
+         *
+         * @return whether it grew
+         */
+        boolean remap(File file) throws IOException {
+            if (file.length() <= buffer.limit()) {
+                return false;
+            }
+            int position = buffer.position();
+            buffer = map(file);
+            buffer.position(position);
+            return true;
+        }
+    }
+}
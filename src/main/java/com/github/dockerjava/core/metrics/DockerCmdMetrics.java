@@ -0,0 +1,32 @@
+package com.github.dockerjava.core.metrics;
+
+/**
+ * Receives measurements of every command a client executes. Commands are named after their interface, e.g.
+ * <code>InspectContainerCmd</code>.
+ *
+ * Implementations are called on the threads executing the commands and should not block.
+ *
+ * @see MetricsRegistry
+ */
+public interface DockerCmdMetrics {
+
+    void commandStarted(String command);
+
+    /**
+     * @param durationNanos
+     *            the time until the response arrived, for streaming commands the time until the stream was returned
+     * @param error
+     *            what the command failed with, <code>null</code> if it succeeded
+     */
+    void commandCompleted(String command, long durationNanos, Throwable error);
+
+    /**
+     * Called as the request entity of a streaming command, e.g. a build context, is sent.
+     */
+    void requestBytes(String command, long bytes);
+
+    /**
+     * Called as the response stream of a streaming command, e.g. a pull or logs, is read.
+     */
+    void responseBytes(String command, long bytes);
+}
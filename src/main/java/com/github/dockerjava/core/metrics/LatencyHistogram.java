@@ -0,0 +1,95 @@
+package com.github.dockerjava.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of nanosecond latencies in the manner of HdrHistogram: every power of two is split into
+ * {@value #SUB_BUCKETS} linear buckets, so values are kept with a relative error below 1/{@value #SUB_BUCKETS} over
+ * the whole range of <code>long</code>.
+ *
+ * Recording is a few bit operations and an atomic increment, it neither allocates nor locks. Reads are not atomic
+ * with respect to concurrent recording.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // the highest bits of the value select the sub bucket within its power of two
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the largest value counted in the bucket at <code>index</code>
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * @return the number of recorded values up to <code>nanos</code>, exact up to the resolution of the histogram
+     */
+    public long getCountAtOrBelow(long nanos) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT && highestValueAt(i) <= nanos; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     * @return the value below which <code>percentile</code> percent of the recorded values fall, 0 if there are none
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+            if (count >= rank) {
+                return highestValueAt(i);
+            }
+        }
+        return highestValueAt(BUCKET_COUNT - 1);
+    }
+}
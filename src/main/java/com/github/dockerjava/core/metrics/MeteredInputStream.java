@@ -0,0 +1,72 @@
+package com.github.dockerjava.core.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the bytes read from a request entity or response stream to {@link DockerCmdMetrics} as they are read.
+ */
+public class MeteredInputStream extends FilterInputStream {
+
+    private final DockerCmdMetrics metrics;
+
+    private final String command;
+
+    private final boolean request;
+
+    private MeteredInputStream(InputStream in, DockerCmdMetrics metrics, String command, boolean request) {
+        super(in);
+        this.metrics = metrics;
+        this.command = command;
+        this.request = request;
+    }
+
+    public static InputStream request(InputStream in, DockerCmdMetrics metrics, String command) {
+        return new MeteredInputStream(in, metrics, command, true);
+    }
+
+    public static InputStream response(InputStream in, DockerCmdMetrics metrics, String command) {
+        return new MeteredInputStream(in, metrics, command, false);
+    }
+
+    private void count(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        if (request) {
+            metrics.requestBytes(command, bytes);
+        } else {
+            metrics.responseBytes(command, bytes);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        count(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        // a reset would count bytes twice
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.dockerjava.core.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps {@link DockerCmdMetrics} in memory: per command a {@link LatencyHistogram}, the number of executions in
+ * flight, error counts per exception type and the bytes sent and received by streaming commands.
+ *
+ * <pre>
+ * MetricsRegistry metrics = new MetricsRegistry();
+ * DockerClient dockerClient = DockerClientBuilder.getInstance(config)
+ *         .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withMetrics(metrics)).build();
+ * </pre>
+ *
+ * @see PrometheusExporter
+ */
+public class MetricsRegistry implements DockerCmdMetrics {
+
+    private final ConcurrentMap<String, CommandStats> commands = new ConcurrentHashMap<String, CommandStats>();
+
+    private CommandStats stats(String command) {
+        CommandStats stats = commands.get(command);
+        if (stats == null) {
+            CommandStats created = new CommandStats();
+            stats = commands.putIfAbsent(command, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void commandStarted(String command) {
+        stats(command).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void commandCompleted(String command, long durationNanos, Throwable error) {
+        CommandStats stats = stats(command);
+        stats.inFlight.decrementAndGet();
+        stats.latency.record(durationNanos);
+        if (error != null) {
+            stats.error(error.getClass());
+        }
+    }
+
+    @Override
+    public void requestBytes(String command, long bytes) {
+        stats(command).requestBytes.addAndGet(bytes);
+    }
+
+    @Override
+    public void responseBytes(String command, long bytes) {
+        stats(command).responseBytes.addAndGet(bytes);
+    }
+
+    /**
+     * @return the statistics of every command executed so far, sorted by command name
+     */
+    public SortedMap<String, CommandStats> getCommandStats() {
+        return new TreeMap<String, CommandStats>(commands);
+    }
+
+    /**
+     * @return the statistics of <code>command</code>, <code>null</code> if it was not executed yet
+     */
+    public CommandStats getCommandStats(String command) {
+        return commands.get(command);
+    }
+
+    public static class CommandStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final AtomicLong inFlight = new AtomicLong();
+
+        private final ConcurrentMap<Class<?>, AtomicLong> errors = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+        private final AtomicLong requestBytes = new AtomicLong();
+
+        private final AtomicLong responseBytes = new AtomicLong();
+
+        private void error(Class<?> type) {
+            AtomicLong count = errors.get(type);
+            if (count == null) {
+                AtomicLong created = new AtomicLong();
+                count = errors.putIfAbsent(type, created);
+                if (count == null) {
+                    count = created;
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * @return the number of failures by simple name of the exception thrown, e.g. <code>NotFoundException</code>
+         */
+        public SortedMap<String, Long> getErrorCounts() {
+            SortedMap<String, Long> counts = new TreeMap<String, Long>();
+            for (Map.Entry<Class<?>, AtomicLong> error : errors.entrySet()) {
+                String name = error.getKey().getSimpleName();
+                Long count = counts.get(name);
+                counts.put(name, (count != null ? count : 0) + error.getValue().get());
+            }
+            return counts;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+    }
+}
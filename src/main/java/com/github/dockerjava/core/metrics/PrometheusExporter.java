@@ -0,0 +1,142 @@
+package com.github.dockerjava.core.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import com.github.dockerjava.core.metrics.MetricsRegistry.CommandStats;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Writes a {@link MetricsRegistry} in the Prometheus text exposition format, and serves it for scraping.
+ *
+ * <pre>
+ * HttpServer server = new PrometheusExporter(metrics).serve(new InetSocketAddress(9400));
+ * ...
+ * server.stop(0);
+ * </pre>
+ */
+public class PrometheusExporter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public static final String PATH = "/metrics";
+
+    /**
+     * The upper bounds of the exported latency buckets, in seconds.
+     */
+    private static final double[] BUCKETS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5,
+            10, 30, 60 };
+
+    private final MetricsRegistry registry;
+
+    public PrometheusExporter(MetricsRegistry registry) {
+        Preconditions.checkNotNull(registry, "registry is null");
+        this.registry = registry;
+    }
+
+    public String scrape() {
+        StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    public void write(Writer writer) throws IOException {
+        Map<String, CommandStats> commands = registry.getCommandStats();
+
+        header(writer, "docker_command_duration_seconds", "histogram", "Time until Docker responded to a command.");
+        for (Map.Entry<String, CommandStats> command : commands.entrySet()) {
+            LatencyHistogram latency = command.getValue().getLatency();
+            String labels = "command=\"" + command.getKey() + "\"";
+            for (double bucket : BUCKETS) {
+                sample(writer, "docker_command_duration_seconds_bucket", labels + ",le=\"" + bucket + "\"",
+                        latency.getCountAtOrBelow((long) (bucket * 1e9)));
+            }
+            sample(writer, "docker_command_duration_seconds_bucket", labels + ",le=\"+Inf\"", latency.getCount());
+            sample(writer, "docker_command_duration_seconds_sum", labels, latency.getTotalNanos() / 1e9);
+            sample(writer, "docker_command_duration_seconds_count", labels, latency.getCount());
+        }
+
+        header(writer, "docker_commands_in_flight", "gauge", "Commands waiting for a response.");
+        for (Map.Entry<String, CommandStats> command : commands.entrySet()) {
+            sample(writer, "docker_commands_in_flight", "command=\"" + command.getKey() + "\"", command.getValue()
+                    .getInFlight());
+        }
+
+        header(writer, "docker_command_errors_total", "counter", "Failed commands by exception.");
+        for (Map.Entry<String, CommandStats> command : commands.entrySet()) {
+            for (Map.Entry<String, Long> error : command.getValue().getErrorCounts().entrySet()) {
+                sample(writer, "docker_command_errors_total", "command=\"" + command.getKey() + "\",exception=\""
+                        + error.getKey() + "\"", error.getValue());
+            }
+        }
+
+        header(writer, "docker_command_request_bytes_total", "counter", "Bytes streamed to Docker.");
+        for (Map.Entry<String, CommandStats> command : commands.entrySet()) {
+            if (command.getValue().getRequestBytes() > 0) {
+                sample(writer, "docker_command_request_bytes_total", "command=\"" + command.getKey() + "\"", command
+                        .getValue().getRequestBytes());
+            }
+        }
+
+        header(writer, "docker_command_response_bytes_total", "counter", "Bytes streamed from Docker.");
+        for (Map.Entry<String, CommandStats> command : commands.entrySet()) {
+            if (command.getValue().getResponseBytes() > 0) {
+                sample(writer, "docker_command_response_bytes_total", "command=\"" + command.getKey() + "\"", command
+                        .getValue().getResponseBytes());
+            }
+        }
+        writer.flush();
+    }
+
+    private static void header(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void sample(Writer writer, String name, String labels, long value) throws IOException {
+        writer.write(name + "{" + labels + "} " + value + "\n");
+    }
+
+    private static void sample(Writer writer, String name, String labels, double value) throws IOException {
+        writer.write(name + "{" + labels + "} " + value + "\n");
+    }
+
+    /**
+     * Serves the metrics at {@value #PATH}. Scrapes are answered on the server's own dispatcher thread, stopping the
+     * server leaves no thread behind. The caller stops the server.
+     */
+    public HttpServer serve(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext(PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    byte[] body = scrape().getBytes(Charsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        // the default executor, an executor of our own would outlive stop()
+        server.setExecutor(null);
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.dockerjava.core.trace;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A command executed by a client.
+ */
+public class CommandEvent {
+
+    private final String command;
+
+    private final String target;
+
+    private final int status;
+
+    private final long startNanos;
+
+    private final long durationNanos;
+
+    private final Throwable error;
+
+    public CommandEvent(String command, String target, int status, long startNanos, long durationNanos,
+            Throwable error) {
+        this.command = command;
+        this.target = target;
+        this.status = status;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    /**
+     * @return the command interface, e.g. <code>InspectContainerCmd</code>
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the id or name of the container or image the command is about, <code>null</code> if there is none
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the HTTP status of the response, 0 if there was none
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return when the command started, in terms of {@link System#nanoTime()}
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return the time until the response arrived, for streaming commands the time until the stream was returned
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return what the command failed with, <code>null</code> if it succeeded
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.dockerjava.core.trace;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Optional;
+
+/**
+ * Finds the container or image a command is about, for tracing.
+ */
+public class CommandTargets {
+
+    private static final String[] GETTERS = { "getContainerId", "getImageId", "getId", "getRepository", "getImage" };
+
+    private static final ConcurrentMap<Class<?>, Optional<Method>> GETTER_BY_CLASS = new ConcurrentHashMap<Class<?>, Optional<Method>>();
+
+    private CommandTargets() {
+    }
+
+    /**
+     * @return the container id, image id or repository of the command, <code>null</code> if it has none
+     */
+    public static String of(Object command) {
+        Class<?> type = command.getClass();
+        Optional<Method> getter = GETTER_BY_CLASS.get(type);
+        if (getter == null) {
+            getter = findGetter(type);
+            GETTER_BY_CLASS.putIfAbsent(type, getter);
+        }
+        if (!getter.isPresent()) {
+            return null;
+        }
+        try {
+            Object target = getter.get().invoke(command);
+            return target != null ? target.toString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Optional<Method> findGetter(Class<?> type) {
+        for (String name : GETTERS) {
+            try {
+                Method getter = type.getMethod(name);
+                if (getter.getReturnType() == String.class) {
+                    return Optional.of(getter);
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next one
+            }
+        }
+        return Optional.absent();
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.dockerjava.core.trace;
+
+/**
+ * Receives an event for every command a client executes and for the streams it opens, e.g. to line up Docker
+ * latency with GC and thread activity in a profiler timeline.
+ *
+ * Without a tracer set on the factory no events are created. Implementations are called on the threads executing the
+ * commands and reading the streams, and should not block.
+ *
+ * @see LoggingDockerCmdTracer
+ */
+public interface DockerCmdTracer {
+
+    void commandCompleted(CommandEvent event);
+
+    /**
+     * A command returned a stream, e.g. of logs or events.
+     */
+    void streamOpened(StreamEvent event);
+
+    /**
+     * A single read of a stream blocked for longer than the stall threshold of the tracer.
+     */
+    void streamStalled(StreamEvent event, long stalledNanos);
+
+    void streamClosed(StreamEvent event);
+
+    /**
+     * @return how long a read may block before {@link #streamStalled(StreamEvent, long)} is called
+     */
+    long getStallThresholdNanos();
+}
@@ -0,0 +1,61 @@
+package com.github.dockerjava.core.trace;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs commands and streams at debug level and stalled streams at info level.
+ */
+public class LoggingDockerCmdTracer implements DockerCmdTracer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingDockerCmdTracer.class);
+
+    public static final long DEFAULT_STALL_THRESHOLD_MILLIS = 1000;
+
+    private final long stallThresholdNanos;
+
+    public LoggingDockerCmdTracer() {
+        this(DEFAULT_STALL_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public LoggingDockerCmdTracer(long stallThreshold, TimeUnit unit) {
+        this.stallThresholdNanos = unit.toNanos(stallThreshold);
+    }
+
+    @Override
+    public void commandCompleted(CommandEvent event) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} {} returned {} after {} ms{}", new Object[] { event.getCommand(), event.getTarget(),
+                    event.getStatus(), TimeUnit.NANOSECONDS.toMillis(event.getDurationNanos()),
+                    event.getError() != null ? ": " + event.getError() : "" });
+        }
+    }
+
+    @Override
+    public void streamOpened(StreamEvent event) {
+        LOGGER.debug("{} {} stream opened", event.getCommand(), event.getTarget());
+    }
+
+    @Override
+    public void streamStalled(StreamEvent event, long stalledNanos) {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("{} {} stream stalled for {} ms after {} bytes", new Object[] { event.getCommand(),
+                    event.getTarget(), TimeUnit.NANOSECONDS.toMillis(stalledNanos), event.getBytes() });
+        }
+    }
+
+    @Override
+    public void streamClosed(StreamEvent event) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} {} stream closed after {} bytes and {} ms", new Object[] { event.getCommand(),
+                    event.getTarget(), event.getBytes(), TimeUnit.NANOSECONDS.toMillis(event.getDurationNanos()) });
+        }
+    }
+
+    @Override
+    public long getStallThresholdNanos() {
+        return stallThresholdNanos;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.dockerjava.core.trace;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A stream returned by a command. The same instance is passed to all calls of the tracer for a stream, its counters
+ * are updated as the stream is read.
+ */
+public class StreamEvent {
+
+    private final String command;
+
+    private final String target;
+
+    private final long openedNanos;
+
+    private volatile long bytes;
+
+    private volatile long closedNanos;
+
+    public StreamEvent(String command, String target, long openedNanos) {
+        this.command = command;
+        this.target = target;
+        this.openedNanos = openedNanos;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return when the stream was opened, in terms of {@link System#nanoTime()}
+     */
+    public long getOpenedNanos() {
+        return openedNanos;
+    }
+
+    /**
+     * @return the bytes read so far
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    void addBytes(long count) {
+        bytes += count;
+    }
+
+    /**
+     * @return the time from opening to closing the stream, 0 while it is open
+     */
+    public long getDurationNanos() {
+        return closedNanos == 0 ? 0 : closedNanos - openedNanos;
+    }
+
+    void closed(long nanos) {
+        closedNanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.dockerjava.core.trace;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the life of a response stream to a {@link DockerCmdTracer}: when it is opened and closed, how many bytes
+ * were read, and reads that block for longer than the tracer's stall threshold.
+ */
+public class TracedInputStream extends FilterInputStream {
+
+    private final DockerCmdTracer tracer;
+
+    private final StreamEvent event;
+
+    private final long stallThresholdNanos;
+
+    private boolean closed;
+
+    public TracedInputStream(InputStream in, DockerCmdTracer tracer, String command, String target) {
+        super(in);
+        this.tracer = tracer;
+        this.event = new StreamEvent(command, target, System.nanoTime());
+        this.stallThresholdNanos = tracer.getStallThresholdNanos();
+        tracer.streamOpened(event);
+    }
+
+    private void read(long startNanos, long bytes) {
+        long blockedNanos = System.nanoTime() - startNanos;
+        if (bytes > 0) {
+            event.addBytes(bytes);
+        }
+        if (blockedNanos > stallThresholdNanos) {
+            tracer.streamStalled(event, blockedNanos);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = super.read();
+        read(start, b >= 0 ? 1 : 0);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        int n = super.read(b, off, len);
+        read(start, n);
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            super.close();
+        } finally {
+            event.closed(System.nanoTime());
+            tracer.streamClosed(event);
+        }
+    }
+}
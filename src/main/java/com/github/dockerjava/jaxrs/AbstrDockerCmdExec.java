@@ -1,6 +1,8 @@
 package com.github.dockerjava.jaxrs;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.WebTarget;
@@ -10,14 +12,41 @@ import org.apache.commons.codec.binary.Base64;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.github.dockerjava.api.DockerException;
+import com.github.dockerjava.api.command.AsyncDockerCmdExec;
 import com.github.dockerjava.api.command.DockerCmd;
-import com.github.dockerjava.api.command.DockerCmdExec;
 import com.github.dockerjava.api.model.AuthConfig;
+import com.github.dockerjava.core.metrics.DockerCmdMetrics;
+import com.github.dockerjava.core.metrics.MeteredInputStream;
+import com.github.dockerjava.core.trace.CommandEvent;
+import com.github.dockerjava.core.trace.CommandTargets;
+import com.github.dockerjava.core.trace.DockerCmdTracer;
+import com.github.dockerjava.core.trace.TracedInputStream;
+import com.github.dockerjava.jaxrs.util.ResponseStatusRecorder;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public abstract class AbstrDockerCmdExec<CMD_T extends DockerCmd<RES_T>, RES_T>
-		implements DockerCmdExec<CMD_T, RES_T> {
+		implements AsyncDockerCmdExec<CMD_T, RES_T> {
+
+	/**
+	 * Client property holding the {@link ListeningExecutorService} that asynchronous commands run on.
+	 */
+	public static final String EXECUTOR_SERVICE_PROPERTY = "com.github.dockerjava.executorService";
+
+	/**
+	 * Client property holding the {@link DockerCmdMetrics} that commands report to.
+	 */
+	public static final String METRICS_PROPERTY = "com.github.dockerjava.metrics";
+
+	/**
+	 * Client property holding the {@link DockerCmdTracer} that commands and their streams report to.
+	 */
+	public static final String TRACER_PROPERTY = "com.github.dockerjava.tracer";
+
+	private static final ListeningExecutorService SAME_THREAD_EXECUTOR = MoreExecutors.newDirectExecutorService();
 
 	private WebTarget baseResource;
 
@@ -41,6 +70,68 @@ public abstract class AbstrDockerCmdExec<CMD_T extends DockerCmd<RES_T>, RES_T>
 	}
 	
 	public RES_T exec(CMD_T command) {
+		DockerCmdMetrics metrics = getMetrics();
+		DockerCmdTracer tracer = getTracer();
+		if (metrics == null && tracer == null) {
+			return execUnmetered(command);
+		}
+
+		String commandName = getCommandName();
+		if (metrics != null) {
+			metrics.commandStarted(commandName);
+		}
+		if (tracer != null) {
+			ResponseStatusRecorder.reset();
+		}
+		long start = System.nanoTime();
+		RES_T result;
+		try {
+			result = execUnmetered(command);
+		} catch (RuntimeException e) {
+			completed(command, commandName, start, e, metrics, tracer);
+			throw e;
+		} catch (Error e) {
+			completed(command, commandName, start, e, metrics, tracer);
+			throw e;
+		}
+		completed(command, commandName, start, null, metrics, tracer);
+		return instrumentResponse(command, commandName, result, metrics, tracer);
+	}
+
+	private void completed(CMD_T command, String commandName, long start, Throwable error,
+			DockerCmdMetrics metrics, DockerCmdTracer tracer) {
+		long duration = System.nanoTime() - start;
+		if (metrics != null) {
+			metrics.commandCompleted(commandName, duration, error);
+		}
+		if (tracer != null) {
+			int status = ResponseStatusRecorder.getLastStatus();
+			if (error instanceof DockerException) {
+				status = ((DockerException) error).getHttpStatus();
+			}
+			tracer.commandCompleted(new CommandEvent(commandName, CommandTargets.of(command), status, start,
+					duration, error));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private RES_T instrumentResponse(CMD_T command, String commandName, RES_T result, DockerCmdMetrics metrics,
+			DockerCmdTracer tracer) {
+		if (!(result instanceof InputStream)) {
+			return result;
+		}
+		// only commands declaring InputStream as result return one
+		InputStream stream = (InputStream) result;
+		if (metrics != null) {
+			stream = MeteredInputStream.response(stream, metrics, commandName);
+		}
+		if (tracer != null) {
+			stream = new TracedInputStream(stream, tracer, commandName, CommandTargets.of(command));
+		}
+		return (RES_T) stream;
+	}
+
+	private RES_T execUnmetered(CMD_T command) {
 		// this hack works because of ResponseStatusExceptionFilter
 		RES_T result;
 		try {
@@ -55,5 +146,60 @@ public abstract class AbstrDockerCmdExec<CMD_T extends DockerCmd<RES_T>, RES_T>
 		return result;
 	}
 
+	@Override
+	public ListenableFuture<RES_T> execAsync(final CMD_T command) {
+		return getExecutorService().submit(new Callable<RES_T>() {
+			@Override
+			public RES_T call() {
+				return exec(command);
+			}
+		});
+	}
+
+	/**
+	 * Counts the bytes read from a request entity, e.g. a build context, if the client has metrics configured.
+	 */
+	protected InputStream meterRequest(InputStream entity) {
+		DockerCmdMetrics metrics = getMetrics();
+		return metrics != null ? MeteredInputStream.request(entity, metrics, getCommandName()) : entity;
+	}
+
+	/**
+	 * @return the metrics configured for the client, <code>null</code> if there are none
+	 */
+	protected DockerCmdMetrics getMetrics() {
+		Object metrics = baseResource.getConfiguration().getProperty(METRICS_PROPERTY);
+		return metrics instanceof DockerCmdMetrics ? (DockerCmdMetrics) metrics : null;
+	}
+
+	/**
+	 * @return the tracer configured for the client, <code>null</code> if there is none
+	 */
+	protected DockerCmdTracer getTracer() {
+		Object tracer = baseResource.getConfiguration().getProperty(TRACER_PROPERTY);
+		return tracer instanceof DockerCmdTracer ? (DockerCmdTracer) tracer : null;
+	}
+
+	/**
+	 * @return the name of the command interface, e.g. <code>InspectContainerCmd</code> for the
+	 *         <code>InspectContainerCmdExec</code>
+	 */
+	protected String getCommandName() {
+		String name = getClass().getSimpleName();
+		if (name.isEmpty()) {
+			name = getClass().getName();
+		}
+		return name.endsWith("Exec") ? name.substring(0, name.length() - 4) : name;
+	}
+
+	/**
+	 * @return the executor configured for the client, or one running on the calling thread if there is none
+	 */
+	protected ListeningExecutorService getExecutorService() {
+		Object executorService = baseResource.getConfiguration().getProperty(EXECUTOR_SERVICE_PROPERTY);
+		return executorService instanceof ListeningExecutorService ? (ListeningExecutorService) executorService
+				: SAME_THREAD_EXECUTOR;
+	}
+
 	protected abstract RES_T execute(CMD_T command);
 }
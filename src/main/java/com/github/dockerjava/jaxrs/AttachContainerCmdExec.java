@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.dockerjava.api.command.AttachContainerCmd;
+import com.github.dockerjava.jaxrs.util.WrappedResponseInputStream;
 
 public class AttachContainerCmdExec extends AbstrDockerCmdExec<AttachContainerCmd, InputStream> implements AttachContainerCmd.Exec {
 	
@@ -34,8 +35,8 @@ public class AttachContainerCmdExec extends AbstrDockerCmdExec<AttachContainerCm
 
 		LOGGER.trace("POST: {}", webResource);
 		
-		return webResource.request().accept(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-				.post(entity(null, MediaType.APPLICATION_JSON), Response.class).readEntity(InputStream.class);
+		return new WrappedResponseInputStream(webResource.request().accept(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+				.post(entity(null, MediaType.APPLICATION_JSON), Response.class));
 	}
 
 }
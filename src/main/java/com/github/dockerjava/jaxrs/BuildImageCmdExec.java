@@ -8,10 +8,13 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.dockerjava.api.command.BuildImageCmd;
+import com.github.dockerjava.core.CompressArchiveUtil;
+import com.github.dockerjava.jaxrs.util.WrappedResponseInputStream;
 
 public class BuildImageCmdExec extends AbstrDockerCmdExec<BuildImageCmd, InputStream> implements BuildImageCmd.Exec {
 	
@@ -40,11 +43,21 @@ public class BuildImageCmdExec extends AbstrDockerCmdExec<BuildImageCmd, InputSt
         }
 		
 		LOGGER.debug("POST: {}", webResource);
-		return webResource
-                .request()
-				.accept(MediaType.TEXT_PLAIN)
-				.post(entity(command.getTarInputStream(), "application/tar"), Response.class).readEntity(InputStream.class);
-		
+		InputStream tarInputStream = command.getTarInputStream();
+		if (command.getCompressionLevel() != null) {
+			// the daemon recognizes gzip by its magic number
+			tarInputStream = CompressArchiveUtil.gzip(tarInputStream,
+					command.getCompressionLevel(), command.getCompressionBlockSize());
+		}
+		try {
+			return new WrappedResponseInputStream(webResource
+					.request()
+					.accept(MediaType.TEXT_PLAIN)
+					.post(entity(meterRequest(tarInputStream), "application/tar"), Response.class));
+		} finally {
+			// the context has been sent, also removes a temporary tar file
+			IOUtils.closeQuietly(tarInputStream);
+		}
 	}
 
 }
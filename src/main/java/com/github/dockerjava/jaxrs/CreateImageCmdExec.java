@@ -30,6 +30,6 @@ public class CreateImageCmdExec extends AbstrDockerCmdExec<CreateImageCmd, Creat
 		
 		LOGGER.trace("POST: {}", webResource);
 		return webResource.request().accept(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-				.post(entity(command.getImageStream(), MediaType.APPLICATION_OCTET_STREAM), CreateImageResponse.class);
+				.post(entity(meterRequest(command.getImageStream()), MediaType.APPLICATION_OCTET_STREAM), CreateImageResponse.class);
 	}
 }
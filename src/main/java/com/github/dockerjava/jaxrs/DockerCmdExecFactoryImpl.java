@@ -1,35 +1,119 @@
 package com.github.dockerjava.jaxrs;
 
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
-import com.github.dockerjava.api.DockerClientException;
 import com.github.dockerjava.api.command.*;
-import com.github.dockerjava.core.CertificateUtils;
 import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.journal.EventJournal;
+import com.github.dockerjava.core.metrics.DockerCmdMetrics;
+import com.github.dockerjava.core.trace.DockerCmdTracer;
+import com.github.dockerjava.jaxrs.connector.ApacheConnectorProvider;
+import com.github.dockerjava.jaxrs.connector.ConnectionPool;
 import com.github.dockerjava.jaxrs.util.JsonClientFilter;
 import com.github.dockerjava.jaxrs.util.ResponseStatusExceptionFilter;
+import com.github.dockerjava.jaxrs.util.ResponseStatusRecorder;
 import com.github.dockerjava.jaxrs.util.SelectiveLoggingFilter;
 import com.google.common.base.Preconditions;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.glassfish.jersey.CommonProperties;
-import org.glassfish.jersey.SslConfigurator;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
 
-import javax.net.ssl.SSLContext;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import java.io.IOException;
-import java.security.KeyStore;
-import java.security.Security;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public class DockerCmdExecFactoryImpl implements DockerCmdExecFactory {
 
     private static final Logger LOGGER = Logger.getLogger(DockerCmdExecFactoryImpl.class.getName());
+
+    private final ConnectionPool sharedConnectionPool;
+
+    private ExecutorService sharedExecutorService;
+
+    private DockerCmdMetrics metrics;
+
+    private DockerCmdTracer tracer;
+
+    private EventJournal eventJournal;
+
+    private ConnectionPool connectionPool;
+    private ListeningExecutorService executorService;
     private Client client;
     private WebTarget baseResource;
 
+    /**
+     * Creates a factory with a connection pool of its own, configured by the {@link DockerClientConfig} passed to
+     * {@link #init(DockerClientConfig)}.
+     */
+    public DockerCmdExecFactoryImpl() {
+        this(null);
+    }
+
+    /**
+     * Creates a factory that uses the given pool, e.g. to share it with other clients talking to the same daemon. The
+     * pool is not closed by {@link #close()}.
+     */
+    public DockerCmdExecFactoryImpl(ConnectionPool connectionPool) {
+        this.sharedConnectionPool = connectionPool;
+    }
+
+    /**
+     * Sets the executor that {@link DockerCmd#execAsync()} runs commands on. It is not shut down by {@link #close()}.
+     * Without one each factory uses a pool of its own with as many threads as the connection pool has connections,
+     * calls beyond that wait in its queue rather than for a connection.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public DockerCmdExecFactoryImpl withExecutorService(ExecutorService executorService) {
+        Preconditions.checkNotNull(executorService, "executorService was not specified");
+        this.sharedExecutorService = executorService;
+        return this;
+    }
+
+    /**
+     * Sets the metrics that every command reports its latency, errors and streamed bytes to, e.g. a
+     * {@link com.github.dockerjava.core.metrics.MetricsRegistry}.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public DockerCmdExecFactoryImpl withMetrics(DockerCmdMetrics metrics) {
+        Preconditions.checkNotNull(metrics, "metrics was not specified");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Sets the tracer that receives an event for every command and for the streams commands return.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public DockerCmdExecFactoryImpl withTracer(DockerCmdTracer tracer) {
+        Preconditions.checkNotNull(tracer, "tracer was not specified");
+        this.tracer = tracer;
+        return this;
+    }
+
+    /**
+     * Appends every event that {@link EventsCmd} receives to the journal. The journal is not closed by
+     * {@link #close()}, it must stay open while events are streamed.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public DockerCmdExecFactoryImpl withEventJournal(EventJournal eventJournal) {
+        Preconditions.checkNotNull(eventJournal, "eventJournal was not specified");
+        this.eventJournal = eventJournal;
+        return this;
+    }
+
     @Override
     public void init(DockerClientConfig dockerClientConfig) {
         Preconditions.checkNotNull(dockerClientConfig, "config was not specified");
@@ -50,48 +134,39 @@ public class DockerCmdExecFactoryImpl implements DockerCmdExecFactory {
             clientConfig.property(ClientProperties.READ_TIMEOUT, readTimeout);
         }
 
-        ClientBuilder clientBuilder = ClientBuilder.newBuilder().withConfig(clientConfig);
-
-        String dockerCertPath = dockerClientConfig.getDockerCertPath();
-
-        if (dockerCertPath != null) {
-            boolean certificatesExist = CertificateUtils.verifyCertificatesExist(dockerCertPath);
-
-            if (certificatesExist) {
-
-                try {
-
-                    Security.addProvider(new BouncyCastleProvider());
-
-                    KeyStore keyStore = CertificateUtils.createKeyStore(dockerCertPath);
-                    KeyStore trustStore = CertificateUtils.createTrustStore(dockerCertPath);
-
-                    // properties acrobatics not needed for java > 1.6
-                    String httpProtocols = System.getProperty("https.protocols");
-                    System.setProperty("https.protocols", "TLSv1");
-                    SslConfigurator sslConfig = SslConfigurator.newInstance(true);
-                    if (httpProtocols != null) System.setProperty("https.protocols", httpProtocols);
-
-                    sslConfig.keyStore(keyStore);
-                    sslConfig.keyStorePassword("docker");
-                    sslConfig.trustStore(trustStore);
-
-                    SSLContext sslContext = sslConfig.createSSLContext();
-
-
-                    clientBuilder.sslContext(sslContext);
-
-                } catch (Exception e) {
-                    throw new DockerClientException(e.getMessage(), e);
-                }
-
-            }
+        if (sharedConnectionPool != null) {
+            Preconditions.checkArgument(sharedConnectionPool.getUri().equals(dockerClientConfig.getUri()),
+                    "connection pool for %s can't be used for %s", sharedConnectionPool.getUri(),
+                    dockerClientConfig.getUri());
+            connectionPool = sharedConnectionPool;
+        } else {
+            connectionPool = ConnectionPool.create(dockerClientConfig);
+        }
+        clientConfig.connectorProvider(createConnectorProvider(connectionPool, clientConfig));
 
+        if (sharedExecutorService != null) {
+            executorService = MoreExecutors.listeningDecorator(sharedExecutorService);
+        } else {
+            // more threads would only wait for a connection
+            int threads = connectionPool.getMaxTotalConnections();
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("docker-java-async-%d").build());
+            threadPool.allowCoreThreadTimeOut(true);
+            executorService = MoreExecutors.listeningDecorator(threadPool);
+        }
+        clientConfig.property(AbstrDockerCmdExec.EXECUTOR_SERVICE_PROPERTY, executorService);
+        if (metrics != null) {
+            clientConfig.property(AbstrDockerCmdExec.METRICS_PROPERTY, metrics);
+        }
+        if (tracer != null) {
+            clientConfig.property(AbstrDockerCmdExec.TRACER_PROPERTY, tracer);
+            clientConfig.register(ResponseStatusRecorder.class);
         }
 
-        client = clientBuilder.build();
+        client = ClientBuilder.newClient(clientConfig);
 
-        WebTarget webResource = client.target(dockerClientConfig.getUri());
+        WebTarget webResource = client.target(connectionPool.getBaseUri());
 
         if (dockerClientConfig.getVersion() == null || dockerClientConfig.getVersion().isEmpty()) {
             baseResource = webResource;
@@ -101,6 +176,15 @@ public class DockerCmdExecFactoryImpl implements DockerCmdExecFactory {
 
     }
 
+    /**
+     * Creates the provider of the connector that sends the requests, by default over <code>connectionPool</code>.
+     * Subclasses may decorate or replace it, and register providers it relies on with <code>clientConfig</code>.
+     */
+    protected ConnectorProvider createConnectorProvider(ConnectionPool connectionPool, ClientConfig clientConfig) {
+        return new ApacheConnectorProvider(connectionPool.getConnectionManager(), false,
+                connectionPool.isConnectionValidationEnabled());
+    }
+
     protected WebTarget getBaseResource() {
         Preconditions.checkNotNull(baseResource, "Factory not initialized. You probably forgot to call init()!");
         return baseResource;
@@ -258,13 +342,19 @@ public class DockerCmdExecFactoryImpl implements DockerCmdExecFactory {
 
     @Override
     public EventsCmd.Exec createEventsCmdExec() {
-        return new EventsCmdExec(getBaseResource());
+        return new EventsCmdExec(getBaseResource(), eventJournal);
     }
 
     @Override
     public void close() throws IOException {
         Preconditions.checkNotNull(client, "Factory not initialized. You probably forgot to call init()!");
         client.close();
+        if (connectionPool != sharedConnectionPool) {
+            connectionPool.close();
+        }
+        if (sharedExecutorService == null) {
+            executorService.shutdown();
+        }
     }
 
 }
@@ -1,6 +1,8 @@
 package com.github.dockerjava.jaxrs;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -12,8 +14,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.dockerjava.api.command.EventCallback;
 import com.github.dockerjava.api.command.EventsCmd;
 import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.journal.EventJournal;
+import com.github.dockerjava.core.trace.DockerCmdTracer;
+import com.github.dockerjava.core.trace.TracedInputStream;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ForwardingExecutorService;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,9 +29,22 @@ import javax.ws.rs.core.Response;
 
 public class EventsCmdExec extends AbstrDockerCmdExec<EventsCmd, ExecutorService> implements EventsCmd.Exec {
     private static final Logger LOGGER = LoggerFactory.getLogger(EventsCmdExec.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     
+    private final EventJournal eventJournal;
+
     public EventsCmdExec(WebTarget baseResource) {
+        this(baseResource, null);
+    }
+
+    /**
+     * @param eventJournal
+     *            the journal that every event received is appended to, may be <code>null</code>
+     */
+    public EventsCmdExec(WebTarget baseResource, EventJournal eventJournal) {
         super(baseResource);
+        this.eventJournal = eventJournal;
     }
 
     @Override
@@ -36,51 +56,142 @@ public class EventsCmdExec extends AbstrDockerCmdExec<EventsCmd, ExecutorService
                 .queryParam("until", command.getUntil());
 
         LOGGER.trace("GET: {}", webResource);
-        EventNotifier eventNotifier = EventNotifier.create(command.getEventCallback(), webResource);
+        EventNotifier eventNotifier = EventNotifier.create(command.getEventCallback(), webResource, getTracer(),
+                getCommandName(), eventJournal);
         executorService.submit(eventNotifier);
-        return executorService;
+        return new StoppableExecutorService(executorService, eventNotifier);
+    }
+
+    /**
+     * Closes the event stream on {@link #shutdownNow()}, interrupting the notifier alone would not stop a blocked read.
+     */
+    private static class StoppableExecutorService extends ForwardingExecutorService {
+        private final ExecutorService delegate;
+        private final EventNotifier eventNotifier;
+
+        private StoppableExecutorService(ExecutorService delegate, EventNotifier eventNotifier) {
+            this.delegate = delegate;
+            this.eventNotifier = eventNotifier;
+        }
+
+        @Override
+        protected ExecutorService delegate() {
+            return delegate;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            eventNotifier.stop();
+            return super.shutdownNow();
+        }
     }
     
+    /**
+     * Passes the events of an <code>/events</code> response to <code>eventCallback</code> until the stream ends. This
+     * is the decoding path of {@link EventsCmd}, public so that it can be benchmarked without a daemon.
+     */
+    public static void readEvents(InputStream inputStream, EventCallback eventCallback) throws IOException {
+        JsonParser jp = JSON_FACTORY.createParser(inputStream);
+        while (jp.nextToken() != JsonToken.END_OBJECT && !jp.isClosed()) {
+            eventCallback.onEvent(OBJECT_MAPPER.readValue(jp, Event.class));
+        }
+    }
+
     private static class EventNotifier implements Callable<Void> {
-        private static final JsonFactory JSON_FACTORY = new JsonFactory();
-        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
         private final EventCallback eventCallback;
         private final WebTarget webTarget;
+        private final DockerCmdTracer tracer;
+        private final String commandName;
+        private final EventJournal eventJournal;
+        private volatile Response response;
+        private volatile boolean stopped;
 
-        private EventNotifier(EventCallback eventCallback, WebTarget webTarget) {
+        private EventNotifier(EventCallback eventCallback, WebTarget webTarget, DockerCmdTracer tracer,
+                String commandName, EventJournal eventJournal) {
             this.eventCallback = eventCallback;
             this.webTarget = webTarget;
+            this.tracer = tracer;
+            this.commandName = commandName;
+            this.eventJournal = eventJournal;
         }
 
-        public static EventNotifier create(EventCallback eventCallback, WebTarget webTarget) {
+        /**
+         * @param tracer
+         *            traces the event stream, may be <code>null</code>
+         * @param eventJournal
+         *            journals the events, may be <code>null</code>
+         */
+        public static EventNotifier create(EventCallback eventCallback, WebTarget webTarget, DockerCmdTracer tracer,
+                String commandName, EventJournal eventJournal) {
             Preconditions.checkNotNull(eventCallback, "An EventCallback must be provided");
             Preconditions.checkNotNull(webTarget, "An WebTarget must be provided");
-            return new EventNotifier(eventCallback, webTarget);
+            return new EventNotifier(eventCallback, webTarget, tracer, commandName, eventJournal);
+        }
+
+        private void stop() {
+            stopped = true;
+            Response current = response;
+            if (current != null) {
+                current.close();
+            }
         }
 
         @Override
         public Void call() throws Exception {
-            int numEvents=0;
-            Response response = null;
+            // counts the events passed on before the stream broke or was stopped, too
+            final int[] numEvents = new int[1];
+            InputStream inputStream = null;
             try {
                 response = webTarget.request().get(Response.class);
-                InputStream inputStream = response.readEntity(InputStream.class);
-                JsonParser jp = JSON_FACTORY.createParser(inputStream);
-                while (jp.nextToken() != JsonToken.END_OBJECT && !jp.isClosed()) {
-                    eventCallback.onEvent(OBJECT_MAPPER.readValue(jp, Event.class));
-                    numEvents++;
+                if (stopped) {
+                    // stop() may have missed the response
+                    response.close();
+                }
+                inputStream = response.readEntity(InputStream.class);
+                if (tracer != null) {
+                    inputStream = new TracedInputStream(inputStream, tracer, commandName, null);
                 }
+                readEvents(inputStream, new EventCallback() {
+                    @Override
+                    public void onEvent(Event event) {
+                        if (eventJournal != null) {
+                            try {
+                                eventJournal.append(event);
+                            } catch (IOException e) {
+                                LOGGER.warn("Failed to journal {}", event, e);
+                            }
+                        }
+                        eventCallback.onEvent(event);
+                        numEvents[0]++;
+                    }
+
+                    @Override
+                    public void onException(Throwable throwable) {
+                        eventCallback.onException(throwable);
+                    }
+
+                    @Override
+                    public void onCompletion(int count) {
+                        eventCallback.onCompletion(count);
+                    }
+                });
             }
             catch(Exception e) {
-                eventCallback.onException(e);
+                if (!stopped) {
+                    eventCallback.onException(e);
+                }
             }
             finally {
+                if (inputStream instanceof TracedInputStream) {
+                    // reports the stream closed
+                    IOUtils.closeQuietly(inputStream);
+                }
                 if (response != null) {
                     response.close();
                 }
             }
-            eventCallback.onCompletion(numEvents);
+            eventCallback.onCompletion(numEvents[0]);
             return null;
         }
     }
@@ -25,9 +25,10 @@ public class PauseContainerCmdExec extends AbstrDockerCmdExec<PauseContainerCmd,
 				.resolveTemplate("id", command.getContainerId());
 		
 		LOGGER.trace("POST: {}", webResource);
-		webResource.request()
+		Response response = webResource.request()
 				.accept(MediaType.APPLICATION_JSON)
 				.post(entity(null, MediaType.APPLICATION_JSON), Response.class);
+		response.close();
 
 		return null;
 	}
@@ -21,7 +21,8 @@ public class PingCmdExec extends AbstrDockerCmdExec<PingCmd, Void> implements Pi
 		WebTarget webResource = getBaseResource().path("/_ping");
 	       
         LOGGER.trace("GET: {}", webResource);
-        webResource.request().get(Response.class);
+        Response response = webResource.request().get(Response.class);
+        response.close();
         
         return null;
 	}
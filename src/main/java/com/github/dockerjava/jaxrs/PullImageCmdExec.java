@@ -2,6 +2,7 @@ package com.github.dockerjava.jaxrs;
 
 import com.github.dockerjava.api.command.PullImageCmd;
 import com.github.dockerjava.api.model.AuthConfig;
+import com.github.dockerjava.jaxrs.util.WrappedResponseInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,9 +30,9 @@ public class PullImageCmdExec extends AbstrDockerCmdExec<PullImageCmd, InputStre
                 .queryParam("registry", command.getRegistry());
 
 		LOGGER.trace("POST: {}", webResource);
-        return resourceWithOptionalAuthConfig(command, webResource.request())
+        return new WrappedResponseInputStream(resourceWithOptionalAuthConfig(command, webResource.request())
 				.accept(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-				.post(entity(Response.class, MediaType.APPLICATION_JSON)).readEntity(InputStream.class);
+				.post(entity(Response.class, MediaType.APPLICATION_JSON)));
 	}
 
     private Invocation.Builder resourceWithOptionalAuthConfig(PullImageCmd command, Invocation.Builder request) {
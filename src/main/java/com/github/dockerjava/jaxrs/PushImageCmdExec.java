@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import com.github.dockerjava.api.command.PushImageCmd;
 import com.github.dockerjava.api.model.AuthConfig;
+import com.github.dockerjava.jaxrs.util.WrappedResponseInputStream;
 
 public class PushImageCmdExec extends AbstrDockerCmdExec<PushImageCmd, InputStream> implements PushImageCmd.Exec {
 	
@@ -29,11 +30,11 @@ public class PushImageCmdExec extends AbstrDockerCmdExec<PushImageCmd, InputStre
 
 		final String registryAuth = registryAuth(command.getAuthConfig());
 		LOGGER.trace("POST: {}", webResource);
-		return webResource
+		return new WrappedResponseInputStream(webResource
                 .request()
 				.header("X-Registry-Auth", registryAuth)
 				.accept(MediaType.APPLICATION_JSON)
-				.post(entity(Response.class, MediaType.APPLICATION_JSON)).readEntity(InputStream.class);
+				.post(entity(Response.class, MediaType.APPLICATION_JSON)));
 	}
 	
 	private String name(PushImageCmd command) {
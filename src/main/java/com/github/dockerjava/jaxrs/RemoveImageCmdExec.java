@@ -23,7 +23,8 @@ public class RemoveImageCmdExec extends AbstrDockerCmdExec<RemoveImageCmd, Void>
 				.queryParam("noprune", command.hasNoPruneEnabled() ? "1" : "0");
 
 		LOGGER.trace("DELETE: {}", webResource);
-		webResource.request().delete(Response.class);
+		Response response = webResource.request().delete(Response.class);
+		response.close();
 		
 		return null;
 	}
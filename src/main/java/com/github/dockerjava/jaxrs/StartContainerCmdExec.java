@@ -4,6 +4,7 @@ import static javax.ws.rs.client.Entity.entity;
 
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,7 +25,8 @@ public class StartContainerCmdExec extends AbstrDockerCmdExec<StartContainerCmd,
 				.resolveTemplate("id", command.getContainerId());
 
 		LOGGER.trace("POST: {}", webResource);
-		webResource.request().accept(MediaType.APPLICATION_JSON).post(entity(command, MediaType.APPLICATION_JSON));
+		Response response = webResource.request().accept(MediaType.APPLICATION_JSON).post(entity(command, MediaType.APPLICATION_JSON));
+		response.close();
 
 		return null;
 	}
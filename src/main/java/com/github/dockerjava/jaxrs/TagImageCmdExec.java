@@ -28,7 +28,8 @@ public class TagImageCmdExec extends AbstrDockerCmdExec<TagImageCmd, Void> imple
                 .queryParam("force", command.hasForceEnabled() ? "1" : "0");
 
 		LOGGER.trace("POST: {}", webResource);
-		webResource.request().post(entity(null, MediaType.APPLICATION_JSON), Response.class);
+		Response response = webResource.request().post(entity(null, MediaType.APPLICATION_JSON), Response.class);
+		response.close();
 		return null;
 	}
 	
@@ -24,8 +24,9 @@ public class UnpauseContainerCmdExec extends AbstrDockerCmdExec<UnpauseContainer
 				.resolveTemplate("id", command.getContainerId());
 		
 		LOGGER.trace("POST: {}", webResource);
-		webResource.request().accept(MediaType.APPLICATION_JSON)
+		Response response = webResource.request().accept(MediaType.APPLICATION_JSON)
 				.post(Entity.entity(Response.class, MediaType.APPLICATION_JSON));
+		response.close();
 
 		return null;
 	}
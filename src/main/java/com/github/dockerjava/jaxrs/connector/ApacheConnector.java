@@ -0,0 +1,311 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
+import org.glassfish.jersey.message.internal.Statuses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Jersey {@link Connector} backed by Apache HttpClient.
+ *
+ * In contrast to the default <code>HttpURLConnection</code> based connector it works with any
+ * {@link ClientConnectionManager}, which gives us keep-alive connections, unix domain sockets and control over the
+ * connection pool.
+ *
+ * Request entities that are {@link InputStream}s (build contexts, image tarballs) are streamed with chunked transfer
+ * encoding, all other entities are buffered so that they are sent with a <code>Content-Length</code>. Response
+ * entities are always streamed; a connection goes back to the pool once its response stream has been read to the end
+ * and closed. Closing a chunked response stream early aborts the connection instead of draining it, so that closing an
+ * endless stream such as <code>/events</code> returns immediately.
+ */
+public class ApacheConnector implements Connector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApacheConnector.class);
+
+    private final DefaultHttpClient client;
+
+    private final ClientConnectionManager connectionManager;
+
+    private final boolean ownsConnectionManager;
+
+    ApacheConnector(ClientConnectionManager connectionManager, boolean ownsConnectionManager,
+            boolean staleCheckingEnabled, Configuration configuration) {
+        this.connectionManager = connectionManager;
+        this.ownsConnectionManager = ownsConnectionManager;
+
+        HttpParams params = new BasicHttpParams();
+        DefaultHttpClient.setDefaultHttpParams(params);
+        HttpConnectionParams.setStaleCheckingEnabled(params, staleCheckingEnabled);
+        HttpConnectionParams.setConnectionTimeout(params,
+                ClientProperties.getValue(configuration.getProperties(), ClientProperties.CONNECT_TIMEOUT, 0));
+        HttpConnectionParams.setSoTimeout(params,
+                ClientProperties.getValue(configuration.getProperties(), ClientProperties.READ_TIMEOUT, 0));
+        HttpClientParams.setRedirecting(params,
+                ClientProperties.getValue(configuration.getProperties(), ClientProperties.FOLLOW_REDIRECTS, true));
+
+        this.client = new DefaultHttpClient(connectionManager, params);
+    }
+
+    public ClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest clientRequest) throws ProcessingException {
+        HttpRequestBase request = createRequest(clientRequest);
+        try {
+            HttpResponse response = client.execute(request);
+
+            StatusLine statusLine = response.getStatusLine();
+            Response.StatusType status = statusLine.getReasonPhrase() == null ? Statuses.from(statusLine
+                    .getStatusCode()) : Statuses.from(statusLine.getStatusCode(), statusLine.getReasonPhrase());
+
+            ClientResponse responseContext = new ClientResponse(status, clientRequest);
+            for (Header header : response.getAllHeaders()) {
+                responseContext.getHeaders().add(header.getName(), header.getValue());
+            }
+            responseContext.setEntityStream(getEntityStream(request, response));
+            return responseContext;
+        } catch (IOException e) {
+            request.abort();
+            throw new ProcessingException(e);
+        } catch (RuntimeException e) {
+            request.abort();
+            throw e;
+        }
+    }
+
+    @Override
+    public Future<?> apply(final ClientRequest clientRequest, final AsyncConnectorCallback callback) {
+        return MoreExecutors.newDirectExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.response(apply(clientRequest));
+                } catch (Throwable t) {
+                    callback.failure(t);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "Apache HttpClient";
+    }
+
+    @Override
+    public void close() {
+        if (ownsConnectionManager) {
+            connectionManager.shutdown();
+        }
+    }
+
+    private HttpRequestBase createRequest(ClientRequest clientRequest) {
+        final String method = clientRequest.getMethod();
+        URI uri = clientRequest.getUri();
+
+        HttpRequestBase request;
+        if (clientRequest.hasEntity()) {
+            HttpEntityEnclosingRequestBase entityRequest = new HttpEntityEnclosingRequestBase() {
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+            };
+            // must happen before the headers are copied, serializing the entity may still add some
+            entityRequest.setEntity(createEntity(clientRequest));
+            request = entityRequest;
+        } else {
+            request = new HttpRequestBase() {
+                @Override
+                public String getMethod() {
+                    return method;
+                }
+            };
+        }
+        request.setURI(uri);
+
+        Integer readTimeout = clientRequest.resolveProperty(ClientProperties.READ_TIMEOUT, Integer.class);
+        if (readTimeout != null) {
+            HttpConnectionParams.setSoTimeout(request.getParams(), readTimeout);
+        }
+
+        for (Map.Entry<String, List<String>> header : clientRequest.getStringHeaders().entrySet()) {
+            String name = header.getKey();
+            // computed by HttpClient from the entity
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                request.addHeader(name, value);
+            }
+        }
+        return request;
+    }
+
+    private HttpEntity createEntity(final ClientRequest clientRequest) {
+        if (clientRequest.getEntity() instanceof InputStream) {
+            AbstractHttpEntity entity = new AbstractHttpEntity() {
+                @Override
+                public boolean isRepeatable() {
+                    return false;
+                }
+
+                @Override
+                public long getContentLength() {
+                    return -1;
+                }
+
+                @Override
+                public InputStream getContent() throws IOException {
+                    throw new UnsupportedOperationException("streamed entity can only be written");
+                }
+
+                @Override
+                public void writeTo(final OutputStream outputStream) throws IOException {
+                    clientRequest.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+                        @Override
+                        public OutputStream getOutputStream(int contentLength) throws IOException {
+                            return outputStream;
+                        }
+                    });
+                    clientRequest.writeEntity();
+                }
+
+                @Override
+                public boolean isStreaming() {
+                    return false;
+                }
+            };
+            entity.setChunked(true);
+            return entity;
+        }
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        clientRequest.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+            @Override
+            public OutputStream getOutputStream(int contentLength) throws IOException {
+                return buffer;
+            }
+        });
+        try {
+            clientRequest.writeEntity();
+        } catch (IOException e) {
+            throw new ProcessingException("Failed to serialize request entity", e);
+        }
+        return new ByteArrayEntity(buffer.toByteArray());
+    }
+
+    private static InputStream getEntityStream(HttpRequestBase request, HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (entity.getContentLength() == 0) {
+            // release the connection right away, nobody is going to read an empty body
+            EntityUtils.consume(entity);
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return new ReleasingInputStream(request, entity);
+    }
+
+    /**
+     * Hands the connection back to the pool if the response was consumed completely and aborts it otherwise. Short
+     * bodies of a known length are drained on close, e.g. the <code>OK</code> of a ping that nobody reads.
+     */
+    private static class ReleasingInputStream extends FilterInputStream {
+
+        private static final long DRAIN_LIMIT = 8 * 1024;
+
+        private final HttpRequestBase request;
+
+        private final boolean drainable;
+
+        private boolean eof;
+
+        private boolean closed;
+
+        ReleasingInputStream(HttpRequestBase request, HttpEntity entity) throws IOException {
+            super(entity.getContent());
+            this.request = request;
+            this.drainable = !entity.isChunked() && entity.getContentLength() >= 0
+                    && entity.getContentLength() <= DRAIN_LIMIT;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                eof = true;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                eof = true;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (eof || drainable) {
+                // closing the stream of a managed entity reads the remaining content and releases the connection
+                super.close();
+            } else {
+                request.abort();
+                try {
+                    super.close();
+                } catch (IOException e) {
+                    LOGGER.trace("Ignoring exception while closing aborted response stream", e);
+                }
+            }
+        }
+    }
+}
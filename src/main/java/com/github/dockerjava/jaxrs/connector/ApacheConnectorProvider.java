@@ -0,0 +1,43 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Configuration;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Provides {@link ApacheConnector}s that share the given {@link ClientConnectionManager}.
+ */
+public class ApacheConnectorProvider implements ConnectorProvider {
+
+    private final ClientConnectionManager connectionManager;
+
+    private final boolean ownsConnectionManager;
+
+    private final boolean staleCheckingEnabled;
+
+    /**
+     * @param connectionManager
+     *            the connection manager used by the connector
+     * @param ownsConnectionManager
+     *            whether closing the connector shuts down the connection manager
+     * @param staleCheckingEnabled
+     *            whether pooled connections are checked for staleness before they are reused
+     */
+    public ApacheConnectorProvider(ClientConnectionManager connectionManager, boolean ownsConnectionManager,
+            boolean staleCheckingEnabled) {
+        Preconditions.checkNotNull(connectionManager, "connectionManager was not specified");
+        this.connectionManager = connectionManager;
+        this.ownsConnectionManager = ownsConnectionManager;
+        this.staleCheckingEnabled = staleCheckingEnabled;
+    }
+
+    @Override
+    public Connector getConnector(Client client, Configuration runtimeConfig) {
+        return new ApacheConnector(connectionManager, ownsConnectionManager, staleCheckingEnabled, runtimeConfig);
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.Closeable;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.security.KeyStore;
+import java.security.Security;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.glassfish.jersey.SslConfigurator;
+
+import com.github.dockerjava.api.DockerClientException;
+import com.github.dockerjava.core.CertificateUtils;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Pool of keep-alive connections to one Docker daemon.
+ *
+ * By default every {@link com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl} creates its own pool. To share one
+ * between several clients talking to the same daemon, create it up front and hand it to each factory:
+ *
+ * <pre>
+ * ConnectionPool pool = ConnectionPool.create(config);
+ * DockerClient client = DockerClientBuilder.getInstance(config)
+ *         .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl(pool)).build();
+ * ...
+ * pool.close();
+ * </pre>
+ *
+ * Clients don't close a pool they were given, that is up to whoever created it.
+ */
+public class ConnectionPool implements Closeable {
+
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 100;
+
+    /**
+     * All requests to a daemon share a single route, so by default it may use the whole pool.
+     */
+    public static final int DEFAULT_MAX_PER_ROUTE_CONNECTIONS = DEFAULT_MAX_TOTAL_CONNECTIONS;
+
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT = 30000;
+
+    private static final long MIN_EVICTION_INTERVAL = 1000;
+
+    /**
+     * One thread evicts idle connections of all pools.
+     */
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("docker-java-connection-evictor-%d").build());
+
+    private final URI uri;
+
+    private final URI baseUri;
+
+    private final PoolingClientConnectionManager connectionManager;
+
+    private final boolean connectionValidationEnabled;
+
+    private final ScheduledFuture<?> eviction;
+
+    private ConnectionPool(URI uri, URI baseUri, PoolingClientConnectionManager connectionManager,
+            boolean connectionValidationEnabled, int idleConnectionTimeout) {
+        this.uri = uri;
+        this.baseUri = baseUri;
+        this.connectionManager = connectionManager;
+        this.connectionValidationEnabled = connectionValidationEnabled;
+
+        if (idleConnectionTimeout > 0) {
+            long interval = Math.max(MIN_EVICTION_INTERVAL, idleConnectionTimeout / 2);
+            eviction = new IdleConnectionEviction(connectionManager, idleConnectionTimeout).schedule(interval);
+        } else {
+            eviction = null;
+        }
+    }
+
+    /**
+     * Creates a pool for the daemon and the pool settings of the given configuration.
+     */
+    public static ConnectionPool create(DockerClientConfig dockerClientConfig) {
+        Preconditions.checkNotNull(dockerClientConfig, "config was not specified");
+        URI uri = dockerClientConfig.getUri();
+        Preconditions.checkNotNull(uri, "uri was not specified");
+
+        SchemeRegistry schemeRegistry = new SchemeRegistry();
+        URI baseUri = uri;
+        if (UnixSocketFactory.SCHEME.equals(uri.getScheme())) {
+            schemeRegistry.register(new Scheme(UnixSocketFactory.SCHEME, UnixSocketFactory.DEFAULT_PORT,
+                    new UnixSocketFactory(new File(uri.getPath()))));
+            // the socket path is part of the connection, requests only need a well-formed authority
+            baseUri = URI.create(UnixSocketFactory.SCHEME + "://localhost:" + UnixSocketFactory.DEFAULT_PORT);
+        } else {
+            schemeRegistry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
+            SSLContext sslContext = createSSLContext(dockerClientConfig.getDockerCertPath());
+            schemeRegistry.register(new Scheme("https", 443, sslContext != null ? new SSLSocketFactory(sslContext)
+                    : SSLSocketFactory.getSocketFactory()));
+        }
+
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+        connectionManager.setMaxTotal(valueOrDefault(dockerClientConfig.getMaxTotalConnections(),
+                DEFAULT_MAX_TOTAL_CONNECTIONS));
+        connectionManager.setDefaultMaxPerRoute(valueOrDefault(dockerClientConfig.getMaxPerRouteConnections(),
+                DEFAULT_MAX_PER_ROUTE_CONNECTIONS));
+
+        return new ConnectionPool(uri, baseUri, connectionManager, dockerClientConfig.isConnectionValidationEnabled(),
+                valueOrDefault(dockerClientConfig.getIdleConnectionTimeout(), DEFAULT_IDLE_CONNECTION_TIMEOUT));
+    }
+
+    /**
+     * @return the daemon URI the pool was created for
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the URI requests are sent to. It differs from {@link #getUri()} for unix sockets, whose path is not part
+     *         of the request.
+     */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public ClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    public boolean isConnectionValidationEnabled() {
+        return connectionValidationEnabled;
+    }
+
+    /**
+     * @return the number of connections the pool opens at most
+     */
+    public int getMaxTotalConnections() {
+        return connectionManager.getMaxTotal();
+    }
+
+    /**
+     * @return the number of connections currently handed out
+     */
+    public int getLeasedConnections() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    /**
+     * @return the number of idle connections waiting to be reused
+     */
+    public int getAvailableConnections() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    /**
+     * Closes all connections, including those still in use.
+     */
+    @Override
+    public void close() {
+        if (eviction != null) {
+            eviction.cancel(false);
+        }
+        connectionManager.shutdown();
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static SSLContext createSSLContext(String dockerCertPath) {
+        if (dockerCertPath == null || !CertificateUtils.verifyCertificatesExist(dockerCertPath)) {
+            return null;
+        }
+        try {
+            Security.addProvider(new BouncyCastleProvider());
+
+            KeyStore keyStore = CertificateUtils.createKeyStore(dockerCertPath);
+            KeyStore trustStore = CertificateUtils.createTrustStore(dockerCertPath);
+
+            // properties acrobatics not needed for java > 1.6
+            String httpProtocols = System.getProperty("https.protocols");
+            System.setProperty("https.protocols", "TLSv1");
+            SslConfigurator sslConfig = SslConfigurator.newInstance(true);
+            if (httpProtocols != null) System.setProperty("https.protocols", httpProtocols);
+
+            sslConfig.keyStore(keyStore);
+            sslConfig.keyStorePassword("docker");
+            sslConfig.trustStore(trustStore);
+
+            return sslConfig.createSSLContext();
+        } catch (Exception e) {
+            throw new DockerClientException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Only weakly references the connection manager so that a pool nobody closed can still be garbage collected.
+     */
+    private static class IdleConnectionEviction implements Runnable {
+
+        private final WeakReference<ClientConnectionManager> connectionManagerRef;
+
+        private final long idleConnectionTimeout;
+
+        private volatile ScheduledFuture<?> future;
+
+        IdleConnectionEviction(ClientConnectionManager connectionManager, long idleConnectionTimeout) {
+            this.connectionManagerRef = new WeakReference<ClientConnectionManager>(connectionManager);
+            this.idleConnectionTimeout = idleConnectionTimeout;
+        }
+
+        ScheduledFuture<?> schedule(long interval) {
+            future = EVICTOR.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public void run() {
+            ClientConnectionManager connectionManager = connectionManagerRef.get();
+            if (connectionManager == null) {
+                future.cancel(false);
+                return;
+            }
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jnr.ffi.LibraryLoader;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+/**
+ * Adapts a jnr {@link UnixSocketChannel} to the {@link Socket} API so that it can be handed to the Apache HttpClient
+ * connection operator.
+ *
+ * Socket options that have no meaning for a unix domain socket (TCP no-delay, linger, buffer sizes) are accepted and
+ * ignored. Read timeouts set with {@link #setSoTimeout(int)} are honoured by polling the channel before each read, which
+ * is also what HttpClient's stale connection check relies on.
+ */
+public class UnixSocket extends Socket {
+
+    private static final short POLLIN = 0x0001;
+
+    private static final int POLLFD_SIZE = 8;
+
+    private static final int EINTR = 4;
+
+    /**
+     * Just the one function we need, the jnr-enxio bindings are not public.
+     */
+    public interface LibC {
+        int poll(ByteBuffer fds, int nfds, int timeout);
+    }
+
+    private static final LibC LIBC = LibraryLoader.create(LibC.class).load("c");
+
+    private final File socketFile;
+
+    private UnixSocketChannel channel;
+
+    private InputStream inputStream;
+
+    private OutputStream outputStream;
+
+    private volatile int soTimeout;
+
+    private volatile boolean closed;
+
+    private boolean inputShutdown;
+
+    private boolean outputShutdown;
+
+    public UnixSocket(File socketFile) {
+        this.socketFile = socketFile;
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint) throws IOException {
+        connect(endpoint, 0);
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint, int timeout) throws IOException {
+        if (closed) {
+            throw new SocketException("Socket is closed");
+        }
+        if (channel != null) {
+            throw new SocketException("Already connected");
+        }
+        UnixSocketAddress address = endpoint instanceof UnixSocketAddress ? (UnixSocketAddress) endpoint
+                : new UnixSocketAddress(socketFile);
+        channel = UnixSocketChannel.open(address);
+        inputStream = new UnixSocketInputStream();
+        outputStream = new UnixSocketOutputStream();
+    }
+
+    @Override
+    public void bind(SocketAddress bindpoint) throws IOException {
+        // client side unix sockets are never bound explicitly
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+        return null;
+    }
+
+    @Override
+    public InetAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public int getPort() {
+        return 0;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return -1;
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return channel != null ? channel.getRemoteSocketAddress() : null;
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return null;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        checkUsable();
+        if (inputShutdown) {
+            throw new SocketException("Socket input is shutdown");
+        }
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        checkUsable();
+        if (outputShutdown) {
+            throw new SocketException("Socket output is shutdown");
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void setTcpNoDelay(boolean on) throws SocketException {
+    }
+
+    @Override
+    public boolean getTcpNoDelay() throws SocketException {
+        return true;
+    }
+
+    @Override
+    public void setSoLinger(boolean on, int linger) throws SocketException {
+    }
+
+    @Override
+    public int getSoLinger() throws SocketException {
+        return -1;
+    }
+
+    @Override
+    public synchronized void setSoTimeout(int timeout) throws SocketException {
+        this.soTimeout = timeout;
+    }
+
+    @Override
+    public synchronized int getSoTimeout() throws SocketException {
+        return soTimeout;
+    }
+
+    @Override
+    public synchronized void setSendBufferSize(int size) throws SocketException {
+    }
+
+    @Override
+    public synchronized int getSendBufferSize() throws SocketException {
+        return 8192;
+    }
+
+    @Override
+    public synchronized void setReceiveBufferSize(int size) throws SocketException {
+    }
+
+    @Override
+    public synchronized int getReceiveBufferSize() throws SocketException {
+        return 8192;
+    }
+
+    @Override
+    public void setKeepAlive(boolean on) throws SocketException {
+    }
+
+    @Override
+    public boolean getKeepAlive() throws SocketException {
+        return true;
+    }
+
+    @Override
+    public void setReuseAddress(boolean on) throws SocketException {
+    }
+
+    @Override
+    public boolean getReuseAddress() throws SocketException {
+        return false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        checkUsable();
+        channel.shutdownInput();
+        inputShutdown = true;
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        checkUsable();
+        channel.shutdownOutput();
+        outputShutdown = true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel != null && channel.isConnected();
+    }
+
+    @Override
+    public boolean isBound() {
+        return channel != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+        return inputShutdown;
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+        return outputShutdown;
+    }
+
+    @Override
+    public String toString() {
+        return "UnixSocket[" + socketFile + "]";
+    }
+
+    private void checkUsable() throws SocketException {
+        if (closed) {
+            throw new SocketException("Socket is closed");
+        }
+        if (channel == null) {
+            throw new SocketException("Socket is not connected");
+        }
+    }
+
+    private void awaitReadable(int timeout) throws IOException {
+        ByteBuffer pollfd = ByteBuffer.allocateDirect(POLLFD_SIZE).order(ByteOrder.nativeOrder());
+        pollfd.putInt(0, channel.getFD());
+        pollfd.putShort(4, POLLIN);
+        int n;
+        do {
+            n = LIBC.poll(pollfd, 1, timeout);
+        } while (n < 0 && jnr.ffi.Runtime.getSystemRuntime().getLastError() == EINTR);
+        if (n < 0) {
+            throw new SocketException("poll failed with errno " + jnr.ffi.Runtime.getSystemRuntime().getLastError());
+        }
+        if (n == 0) {
+            throw new SocketTimeoutException("Read timed out");
+        }
+        // readable, hung up or in error: the following read returns data, end of stream or throws
+    }
+
+    /**
+     * Reads straight from the channel. {@link java.nio.channels.Channels#newInputStream} is not used on purpose: it
+     * serializes reads and writes on the channel's blocking lock, which would stall a writer while a reader waits for
+     * data (e.g. attach with stdin).
+     */
+    private class UnixSocketInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n <= 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (closed || inputShutdown) {
+                return -1;
+            }
+            int timeout = soTimeout;
+            if (timeout > 0) {
+                awaitReadable(timeout);
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, len));
+            // the native channel maps EAGAIN to 0, which a blocking channel should never see; treat it as end of stream
+            return n <= 0 ? -1 : n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixSocket.this.close();
+        }
+    }
+
+    private class UnixSocketOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed || outputShutdown) {
+                throw new SocketException("Socket output is closed");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixSocket.this.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import jnr.unixsocket.UnixSocketAddress;
+
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link SchemeSocketFactory} that ignores the requested host and port and always connects to a unix domain socket.
+ *
+ * Register it under {@link #SCHEME} so that URIs like <code>unix://localhost:80/info</code> end up on the socket file.
+ */
+public class UnixSocketFactory implements SchemeSocketFactory {
+
+    public static final String SCHEME = "unix";
+
+    /**
+     * The port placed in request URIs. It is never used to open a connection but is required to build a route.
+     */
+    public static final int DEFAULT_PORT = 80;
+
+    private final File socketFile;
+
+    public UnixSocketFactory(File socketFile) {
+        Preconditions.checkNotNull(socketFile, "socketFile was not specified");
+        this.socketFile = socketFile;
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    @Override
+    public Socket createSocket(HttpParams params) throws IOException {
+        return new UnixSocket(socketFile);
+    }
+
+    @Override
+    public Socket connectSocket(Socket socket, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+            HttpParams params) throws IOException {
+        Socket sock = socket != null ? socket : createSocket(params);
+        sock.connect(new UnixSocketAddress(socketFile), HttpConnectionParams.getConnectionTimeout(params));
+        return sock;
+    }
+
+    @Override
+    public boolean isSecure(Socket sock) {
+        return false;
+    }
+}
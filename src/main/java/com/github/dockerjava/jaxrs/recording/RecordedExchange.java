@@ -0,0 +1,193 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to the daemon and its response as recorded by {@link RecordingDockerCmdExecFactory}. Times are in
+ * nanoseconds: the start relative to the start of the recording, everything else relative to the start of the
+ * exchange.
+ */
+public class RecordedExchange {
+
+    private final long startNanos;
+
+    private final String method;
+
+    private final String path;
+
+    private final byte[] requestBody;
+
+    private final long requestBodyLength;
+
+    private final long responseNanos;
+
+    private final int status;
+
+    private final Map<String, List<String>> headers;
+
+    private final List<Chunk> chunks;
+
+    RecordedExchange(long startNanos, String method, String path, byte[] requestBody, long requestBodyLength,
+            long responseNanos, int status, Map<String, List<String>> headers, List<Chunk> chunks) {
+        this.startNanos = startNanos;
+        this.method = method;
+        this.path = path;
+        this.requestBody = requestBody;
+        this.requestBodyLength = requestBodyLength;
+        this.responseNanos = responseNanos;
+        this.status = status;
+        this.headers = headers;
+        this.chunks = chunks;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the request path including the query string, e.g. <code>/v1.15/containers/json?all=1</code>
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the request body, only its first bytes if it was longer than the recording limit
+     */
+    public byte[] getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * @return the length of the whole request body
+     */
+    public long getRequestBodyLength() {
+        return requestBodyLength;
+    }
+
+    /**
+     * @return the time until the response headers arrived
+     */
+    public long getResponseNanos() {
+        return responseNanos;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the response body, in the parts it was read in
+     */
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    public long getResponseBodyLength() {
+        long length = 0;
+        for (Chunk chunk : chunks) {
+            length += chunk.getData().length;
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path + " " + status;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(startNanos);
+        out.writeUTF(method);
+        out.writeUTF(path);
+        out.writeLong(requestBodyLength);
+        out.writeInt(requestBody.length);
+        out.write(requestBody);
+        out.writeLong(responseNanos);
+        out.writeShort(status);
+        out.writeShort(headers.size());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            out.writeUTF(header.getKey());
+            out.writeShort(header.getValue().size());
+            for (String value : header.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+        out.writeInt(chunks.size());
+        for (Chunk chunk : chunks) {
+            out.writeLong(chunk.getOffsetNanos());
+            out.writeInt(chunk.getData().length);
+            out.write(chunk.getData());
+        }
+    }
+
+    static RecordedExchange readFrom(DataInput in) throws IOException {
+        long startNanos = in.readLong();
+        String method = in.readUTF();
+        String path = in.readUTF();
+        long requestBodyLength = in.readLong();
+        byte[] requestBody = new byte[in.readInt()];
+        in.readFully(requestBody);
+        long responseNanos = in.readLong();
+        int status = in.readUnsignedShort();
+        int headerCount = in.readUnsignedShort();
+        Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = in.readUTF();
+            int valueCount = in.readUnsignedShort();
+            List<String> values = new ArrayList<String>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(in.readUTF());
+            }
+            headers.put(name, Collections.unmodifiableList(values));
+        }
+        int chunkCount = in.readInt();
+        List<Chunk> chunks = new ArrayList<Chunk>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            long offsetNanos = in.readLong();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            chunks.add(new Chunk(offsetNanos, data));
+        }
+        return new RecordedExchange(startNanos, method, path, requestBody, requestBodyLength, responseNanos, status,
+                Collections.unmodifiableMap(headers), Collections.unmodifiableList(chunks));
+    }
+
+    /**
+     * A part of a response body and the time it was read at.
+     */
+    public static class Chunk {
+
+        private final long offsetNanos;
+
+        private final byte[] data;
+
+        Chunk(long offsetNanos, byte[] data) {
+            this.offsetNanos = offsetNanos;
+            this.data = data;
+        }
+
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+}
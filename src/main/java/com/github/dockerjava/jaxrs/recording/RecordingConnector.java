@@ -0,0 +1,297 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Sends requests with another connector and records each exchange once its response has been read completely or
+ * closed. Exchanges that are still open when the connector is closed, e.g. an endless event stream, are recorded
+ * with the part of the response read so far.
+ */
+class RecordingConnector implements Connector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordingConnector.class);
+
+    private static final String CAPTURE_PROPERTY = RecordingConnector.class.getName() + ".capture";
+
+    /**
+     * Reads of the response body that follow each other this closely are recorded as one chunk.
+     */
+    private static final long COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Connector delegate;
+
+    private final RecordingFile.Writer writer;
+
+    private final long recordingStartNanos;
+
+    private final int requestBodyLimit;
+
+    private final Set<Capture> open = new LinkedHashSet<Capture>();
+
+    RecordingConnector(Connector delegate, RecordingFile.Writer writer, long recordingStartNanos,
+            int requestBodyLimit) {
+        this.delegate = delegate;
+        this.writer = writer;
+        this.recordingStartNanos = recordingStartNanos;
+        this.requestBodyLimit = requestBodyLimit;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        Capture capture = new Capture(request);
+        request.setProperty(CAPTURE_PROPERTY, capture);
+        ClientResponse response;
+        try {
+            response = delegate.apply(request);
+        } finally {
+            request.removeProperty(CAPTURE_PROPERTY);
+        }
+        capture.responded(response);
+        synchronized (open) {
+            open.add(capture);
+        }
+        response.setEntityStream(new RecordingInputStream(response.getEntityStream(), capture));
+        return response;
+    }
+
+    @Override
+    public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+        return MoreExecutors.newDirectExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.response(apply(request));
+                } catch (Throwable t) {
+                    callback.failure(t);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "Recording " + delegate.getName();
+    }
+
+    @Override
+    public void close() {
+        List<Capture> unfinished;
+        synchronized (open) {
+            unfinished = new ArrayList<Capture>(open);
+        }
+        for (Capture capture : unfinished) {
+            capture.finish();
+        }
+        delegate.close();
+    }
+
+    /**
+     * Copies the serialized request entity into the capture of the exchange, if it is being recorded.
+     */
+    static class RequestBodyInterceptor implements WriterInterceptor {
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+            Object capture = context.getProperty(CAPTURE_PROPERTY);
+            if (capture instanceof Capture) {
+                context.setOutputStream(((Capture) capture).teeRequestBody(context.getOutputStream()));
+            }
+            context.proceed();
+        }
+    }
+
+    private class Capture {
+
+        private final long startNanos = System.nanoTime();
+
+        private final String method;
+
+        private final String path;
+
+        private final ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+
+        private long requestBodyLength;
+
+        private long responseNanos;
+
+        private int status;
+
+        private Map<String, List<String>> headers;
+
+        private final List<RecordedExchange.Chunk> chunks = new ArrayList<RecordedExchange.Chunk>();
+
+        private ByteArrayOutputStream chunk;
+
+        private long chunkOffsetNanos;
+
+        private long lastReadNanos;
+
+        private boolean finished;
+
+        Capture(ClientRequest request) {
+            method = request.getMethod();
+            URI uri = request.getUri();
+            path = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        }
+
+        OutputStream teeRequestBody(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    captureRequestBody(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    captureRequestBody(b, off, len);
+                }
+            };
+        }
+
+        private synchronized void captureRequestBody(byte[] b, int off, int len) {
+            requestBodyLength += len;
+            int room = requestBodyLimit - requestBody.size();
+            if (room > 0) {
+                requestBody.write(b, off, Math.min(room, len));
+            }
+        }
+
+        synchronized void responded(ClientResponse response) {
+            responseNanos = System.nanoTime() - startNanos;
+            status = response.getStatus();
+            headers = new LinkedHashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                headers.put(header.getKey(), Collections.unmodifiableList(new ArrayList<String>(header.getValue())));
+            }
+        }
+
+        synchronized void read(byte[] b, int off, int len) {
+            if (finished) {
+                return;
+            }
+            long now = System.nanoTime() - startNanos;
+            if (chunk == null || now - lastReadNanos > COALESCE_NANOS) {
+                flushChunk();
+                chunk = new ByteArrayOutputStream();
+                chunkOffsetNanos = now;
+            }
+            chunk.write(b, off, len);
+            lastReadNanos = now;
+        }
+
+        private void flushChunk() {
+            if (chunk != null) {
+                chunks.add(new RecordedExchange.Chunk(chunkOffsetNanos, chunk.toByteArray()));
+                chunk = null;
+            }
+        }
+
+        void finish() {
+            RecordedExchange exchange;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                flushChunk();
+                exchange = new RecordedExchange(startNanos - recordingStartNanos, method, path,
+                        requestBody.toByteArray(), requestBodyLength, responseNanos, status,
+                        Collections.unmodifiableMap(headers), Collections.unmodifiableList(chunks));
+            }
+            synchronized (open) {
+                open.remove(this);
+            }
+            try {
+                writer.write(exchange);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to record {}", exchange, e);
+            } catch (IllegalStateException e) {
+                LOGGER.warn("Failed to record {}", exchange, e);
+            }
+        }
+    }
+
+    private static class RecordingInputStream extends FilterInputStream {
+
+        private final Capture capture;
+
+        RecordingInputStream(InputStream in, Capture capture) {
+            super(in);
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                capture.finish();
+            } else {
+                capture.read(new byte[] { (byte) b }, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                capture.finish();
+            } else if (n > 0) {
+                capture.read(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes are read, so that they are recorded
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                capture.finish();
+            }
+        }
+    }
+}
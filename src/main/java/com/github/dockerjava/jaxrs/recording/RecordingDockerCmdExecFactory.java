@@ -0,0 +1,95 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Configuration;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.github.dockerjava.jaxrs.connector.ConnectionPool;
+import com.google.common.base.Preconditions;
+
+/**
+ * Executes commands against the daemon like {@link DockerCmdExecFactoryImpl} and records every request and response
+ * to a file, including the timing of streamed responses, for {@link ReplayDockerCmdExecFactory} to play back. The
+ * recording is complete once the factory is closed.
+ */
+public class RecordingDockerCmdExecFactory extends DockerCmdExecFactoryImpl {
+
+    /**
+     * Request bodies are recorded up to this many bytes by default, e.g. only the start of a build context.
+     */
+    public static final int DEFAULT_REQUEST_BODY_LIMIT = 64 * 1024;
+
+    private final File file;
+
+    private int requestBodyLimit = DEFAULT_REQUEST_BODY_LIMIT;
+
+    private RecordingFile.Writer writer;
+
+    public RecordingDockerCmdExecFactory(File file) {
+        Preconditions.checkNotNull(file, "file was not specified");
+        this.file = file;
+    }
+
+    public RecordingDockerCmdExecFactory(File file, ConnectionPool connectionPool) {
+        super(connectionPool);
+        Preconditions.checkNotNull(file, "file was not specified");
+        this.file = file;
+    }
+
+    /**
+     * Sets how many bytes of each request body are recorded.
+     *
+     * Must be called before {@link #init(DockerClientConfig)}.
+     */
+    public RecordingDockerCmdExecFactory withRequestBodyLimit(int requestBodyLimit) {
+        Preconditions.checkArgument(requestBodyLimit >= 0, "requestBodyLimit must not be negative");
+        this.requestBodyLimit = requestBodyLimit;
+        return this;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void init(DockerClientConfig dockerClientConfig) {
+        try {
+            writer = new RecordingFile.Writer(file);
+        } catch (IOException e) {
+            throw new ProcessingException("Failed to create recording " + file, e);
+        }
+        super.init(dockerClientConfig);
+    }
+
+    @Override
+    protected ConnectorProvider createConnectorProvider(ConnectionPool connectionPool, ClientConfig clientConfig) {
+        final ConnectorProvider delegate = super.createConnectorProvider(connectionPool, clientConfig);
+        final long recordingStartNanos = System.nanoTime();
+        clientConfig.register(new RecordingConnector.RequestBodyInterceptor());
+        return new ConnectorProvider() {
+            @Override
+            public Connector getConnector(Client client, Configuration runtimeConfig) {
+                return new RecordingConnector(delegate.getConnector(client, runtimeConfig), writer,
+                        recordingStartNanos, requestBodyLimit);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            writer.close();
+        }
+    }
+}
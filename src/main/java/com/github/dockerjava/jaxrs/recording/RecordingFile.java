@@ -0,0 +1,101 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The on-disk format of a recording: a gzipped sequence of {@link RecordedExchange}s in binary form, in the order
+ * the exchanges completed.
+ */
+public final class RecordingFile {
+
+    private static final int MAGIC = 0x444a5243; // "DJRC"
+
+    private static final int VERSION = 1;
+
+    private RecordingFile() {
+    }
+
+    /**
+     * @return the exchanges of the recording, in the order they were started
+     */
+    public static List<RecordedExchange> read(File file) throws IOException {
+        Preconditions.checkNotNull(file, "file is null");
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(
+                file))));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a recording");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("%s has unsupported version %d", file, version));
+            }
+            List<RecordedExchange> exchanges = new ArrayList<RecordedExchange>();
+            while (in.readBoolean()) {
+                exchanges.add(RecordedExchange.readFrom(in));
+            }
+            sortByStart(exchanges);
+            return exchanges;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void sortByStart(List<RecordedExchange> exchanges) {
+        Collections.sort(exchanges, new Comparator<RecordedExchange>() {
+            @Override
+            public int compare(RecordedExchange a, RecordedExchange b) {
+                return a.getStartNanos() < b.getStartNanos() ? -1 : a.getStartNanos() > b.getStartNanos() ? 1 : 0;
+            }
+        });
+    }
+
+    /**
+     * Appends exchanges to a new recording. Thread safe.
+     */
+    public static class Writer implements Closeable {
+
+        private final DataOutputStream out;
+
+        private boolean closed;
+
+        public Writer(File file) throws IOException {
+            Preconditions.checkNotNull(file, "file is null");
+            out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public synchronized void write(RecordedExchange exchange) throws IOException {
+            Preconditions.checkState(!closed, "recording is closed");
+            out.writeBoolean(true);
+            exchange.writeTo(out);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            out.writeBoolean(false);
+            out.close();
+        }
+    }
+}
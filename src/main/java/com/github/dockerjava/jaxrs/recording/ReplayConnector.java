@@ -0,0 +1,225 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ProcessingException;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
+import org.glassfish.jersey.message.internal.Statuses;
+
+import com.github.dockerjava.jaxrs.recording.ReplayDockerCmdExecFactory.Timing;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Answers requests with the recorded responses of the same method and path, in the order they were recorded. Once
+ * they are used up the last one is repeated.
+ */
+class ReplayConnector implements Connector {
+
+    private final Map<String, Responses> responses = new HashMap<String, Responses>();
+
+    private final Timing timing;
+
+    ReplayConnector(List<RecordedExchange> exchanges, Timing timing) {
+        this.timing = timing;
+        for (RecordedExchange exchange : exchanges) {
+            String key = key(exchange.getMethod(), exchange.getPath());
+            Responses recorded = responses.get(key);
+            if (recorded == null) {
+                recorded = new Responses();
+                responses.put(key, recorded);
+            }
+            recorded.exchanges.add(exchange);
+        }
+    }
+
+    private static String key(String method, String path) {
+        return method + " " + path;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        long startNanos = System.nanoTime();
+        URI uri = request.getUri();
+        String path = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        Responses recorded = responses.get(key(request.getMethod(), path));
+        if (recorded == null) {
+            throw new ProcessingException(String.format("No response recorded for %s %s", request.getMethod(), path));
+        }
+        RecordedExchange exchange = recorded.next();
+
+        if (request.hasEntity()) {
+            // serialized as if it was sent, so that the client does the same work as against a daemon
+            request.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+                @Override
+                public OutputStream getOutputStream(int contentLength) throws IOException {
+                    return NullOutputStream.NULL_OUTPUT_STREAM;
+                }
+            });
+            try {
+                request.writeEntity();
+            } catch (IOException e) {
+                throw new ProcessingException("Failed to serialize request entity", e);
+            }
+        }
+
+        if (timing == Timing.ORIGINAL) {
+            try {
+                sleepUntil(startNanos + exchange.getResponseNanos());
+            } catch (InterruptedIOException e) {
+                throw new ProcessingException(e);
+            }
+        }
+        ClientResponse response = new ClientResponse(Statuses.from(exchange.getStatus()), request);
+        for (Map.Entry<String, List<String>> header : exchange.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                response.getHeaders().add(header.getKey(), value);
+            }
+        }
+        response.setEntityStream(new ReplayInputStream(exchange.getChunks(), timing == Timing.ORIGINAL ? startNanos
+                : -1));
+        return response;
+    }
+
+    @Override
+    public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+        return MoreExecutors.newDirectExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.response(apply(request));
+                } catch (Throwable t) {
+                    callback.failure(t);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "Replay";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedIOException {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while replaying");
+        }
+    }
+
+    private static class Responses {
+
+        private final List<RecordedExchange> exchanges = new ArrayList<RecordedExchange>();
+
+        private int next;
+
+        synchronized RecordedExchange next() {
+            RecordedExchange exchange = exchanges.get(next);
+            if (next < exchanges.size() - 1) {
+                next++;
+            }
+            return exchange;
+        }
+    }
+
+    /**
+     * Serves the recorded chunks of a response body, each not before its recorded offset unless no start time is
+     * given.
+     */
+    private static class ReplayInputStream extends InputStream {
+
+        private final List<RecordedExchange.Chunk> chunks;
+
+        private final long startNanos;
+
+        private int chunk;
+
+        private int position;
+
+        private boolean closed;
+
+        ReplayInputStream(List<RecordedExchange.Chunk> chunks, long startNanos) {
+            this.chunks = chunks;
+            this.startNanos = startNanos;
+        }
+
+        private byte[] current() throws IOException {
+            if (closed) {
+                throw new IOException("stream is closed");
+            }
+            while (chunk < chunks.size() && position == chunks.get(chunk).getData().length) {
+                chunk++;
+                position = 0;
+            }
+            if (chunk == chunks.size()) {
+                return null;
+            }
+            if (position == 0 && startNanos != -1) {
+                sleepUntil(startNanos + chunks.get(chunk).getOffsetNanos());
+            }
+            return chunks.get(chunk).getData();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] data = current();
+            if (data == null) {
+                return -1;
+            }
+            return data[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            byte[] data = current();
+            if (data == null) {
+                return -1;
+            }
+            int n = Math.min(len, data.length - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed || chunk == chunks.size()) {
+                return 0;
+            }
+            return chunks.get(chunk).getData().length - position;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Configuration;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.github.dockerjava.jaxrs.connector.ConnectionPool;
+import com.google.common.base.Preconditions;
+
+/**
+ * Answers commands with the responses recorded by {@link RecordingDockerCmdExecFactory} instead of sending them to a
+ * daemon, so that the client side of a workload can be measured without the noise of a real daemon.
+ * <p>
+ * A request is answered with the recorded responses to the same method and path, query included, in the order they
+ * were recorded; once they are used up the last one is repeated. The paths include the API version, so the
+ * {@link DockerClientConfig} must have the version the recording was made with. A request that was never recorded
+ * fails with a {@link javax.ws.rs.ProcessingException}.
+ */
+public class ReplayDockerCmdExecFactory extends DockerCmdExecFactoryImpl {
+
+    public enum Timing {
+        /**
+         * Each response and each part of a streamed response arrives as late after the request as it did when it
+         * was recorded.
+         */
+        ORIGINAL,
+
+        /**
+         * Responses are served as fast as the client reads them.
+         */
+        AS_FAST_AS_POSSIBLE
+    }
+
+    private final List<RecordedExchange> exchanges;
+
+    private final Timing timing;
+
+    public ReplayDockerCmdExecFactory(File file, Timing timing) throws IOException {
+        this(RecordingFile.read(file), timing);
+    }
+
+    public ReplayDockerCmdExecFactory(List<RecordedExchange> exchanges, Timing timing) {
+        Preconditions.checkNotNull(exchanges, "exchanges were not specified");
+        Preconditions.checkNotNull(timing, "timing was not specified");
+        this.exchanges = exchanges;
+        this.timing = timing;
+    }
+
+    public Timing getTiming() {
+        return timing;
+    }
+
+    @Override
+    protected ConnectorProvider createConnectorProvider(ConnectionPool connectionPool, ClientConfig clientConfig) {
+        return new ConnectorProvider() {
+            @Override
+            public Connector getConnector(Client client, Configuration runtimeConfig) {
+                return new ReplayConnector(exchanges, timing);
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.github.dockerjava.jaxrs.util;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import javax.ws.rs.client.ClientRequestContext;
@@ -58,6 +59,19 @@ public class ResponseStatusExceptionFilter implements ClientResponseFilter {
 
 	public String getBodyAsMessage(ClientResponseContext responseContext)
 			throws IOException {
+	    InputStream entityStream = responseContext.getEntityStream();
+	    try {
+	        return readBodyAsMessage(responseContext);
+	    } finally {
+	        // nobody reads the entity of a failed request, release the connection
+	        if (entityStream != null) {
+	            entityStream.close();
+	        }
+	    }
+	}
+
+	private String readBodyAsMessage(ClientResponseContext responseContext)
+			throws IOException {
 	    if (responseContext.hasEntity()) {
 	        int contentLength = responseContext.getLength();
 	        if (contentLength != -1) {
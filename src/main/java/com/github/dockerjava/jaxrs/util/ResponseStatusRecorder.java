@@ -0,0 +1,37 @@
+package com.github.dockerjava.jaxrs.util;
+
+import java.io.IOException;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Remembers the status of the last response received on the current thread, so that it can be traced along with
+ * the command. Synchronous requests run their filters on the calling thread.
+ */
+public class ResponseStatusRecorder implements ClientResponseFilter {
+
+    private static final ThreadLocal<int[]> LAST_STATUS = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        LAST_STATUS.get()[0] = responseContext.getStatus();
+    }
+
+    public static void reset() {
+        LAST_STATUS.get()[0] = 0;
+    }
+
+    /**
+     * @return the status of the last response since {@link #reset()}, 0 if there was none
+     */
+    public static int getLastStatus() {
+        return LAST_STATUS.get()[0];
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.dockerjava.jaxrs.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * The entity stream of a {@link Response} that closes the response when it is closed.
+ *
+ * Jersey hands out <code>readEntity(InputStream.class)</code> wrapped in a stream that ignores {@link #close()}, so
+ * without this the underlying connection would stay open until the response is garbage collected.
+ */
+public class WrappedResponseInputStream extends FilterInputStream {
+
+    private final Response response;
+
+    private boolean closed;
+
+    public WrappedResponseInputStream(Response response) {
+        super(response.readEntity(InputStream.class));
+        this.response = response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        response.close();
+    }
+}
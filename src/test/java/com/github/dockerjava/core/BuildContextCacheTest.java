@@ -0,0 +1,196 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BuildContextCacheTest {
+
+    private File baseDir;
+
+    private File cacheDir;
+
+    private List<File> files;
+
+    private BuildContextCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        File tempDir = new File(FileUtils.getTempDirectory(), "docker-java-" + System.nanoTime());
+        baseDir = new File(tempDir, "context");
+        cacheDir = new File(tempDir, "cache");
+        files = new ArrayList<File>();
+        files.add(write("Dockerfile", "FROM busybox\nADD . /app\n"));
+        File subDir = new File(baseDir, "src");
+        subDir.mkdirs();
+        files.add(subDir);
+        files.add(write("src/a.txt", "first"));
+        files.add(write("src/b.txt", "second"));
+        cache = new BuildContextCache(cacheDir);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(baseDir.getParentFile());
+    }
+
+    @Test
+    public void reusesUnchangedEntries() throws Exception {
+        byte[] first = archive();
+        assertThat(cache.getStatistics().getHits(), equalTo(0L));
+        assertThat(cache.getStatistics().getMisses(), equalTo(4L));
+
+        byte[] second = archive();
+        assertThat(cache.getStatistics().getHits(), equalTo(4L));
+        assertThat(cache.getStatistics().getMisses(), equalTo(4L));
+        assertThat(second, equalTo(first));
+        assertThat(entries(second).get("src/b.txt"), equalTo("second"));
+    }
+
+    @Test
+    public void rereadsChangedFiles() throws Exception {
+        archive();
+        File changed = write("src/b.txt", "changed");
+        changed.setLastModified(changed.lastModified() - 10000);
+
+        Map<String, String> entries = entries(archive());
+        assertThat(cache.getStatistics().getHits(), equalTo(3L));
+        assertThat(cache.getStatistics().getMisses(), equalTo(5L));
+        assertThat(entries.get("src/a.txt"), equalTo("first"));
+        assertThat(entries.get("src/b.txt"), equalTo("changed"));
+        assertThat(new ArrayList<String>(entries.keySet()), equalTo(Arrays.asList("Dockerfile", "src/",
+                "src/a.txt", "src/b.txt")));
+    }
+
+    @Test
+    public void rereadsRecentlyChangedFilesWithSameMetadata() throws Exception {
+        File file = new File(baseDir, "src/b.txt");
+        long lastModified = file.lastModified();
+        archive();
+        write("src/b.txt", "SECOND").setLastModified(lastModified);
+
+        Map<String, String> entries = entries(archive());
+        assertThat(cache.getStatistics().getHits(), equalTo(3L));
+        assertThat(cache.getStatistics().getMisses(), equalTo(5L));
+        assertThat(entries.get("src/b.txt"), equalTo("SECOND"));
+    }
+
+    @Test
+    public void matchesUncachedArchive() throws Exception {
+        String longName = "src/" + StringUtils.repeat("long", 40) + ".txt";
+        files.add(write(longName, "long name"));
+        archive();
+        Collections.reverse(files);
+        Map<String, String> cached = entries(archive());
+
+        InputStream uncached = CompressArchiveUtil.streamTARFiles(baseDir, files);
+        assertThat(cached, equalTo(entries(IOUtils.toByteArray(uncached))));
+        assertThat(cached.keySet().iterator().next(), equalTo(longName));
+        assertThat(cached.get(longName), equalTo("long name"));
+    }
+
+    @Test
+    public void incompleteArchiveLeavesCacheAlone() throws Exception {
+        archive();
+        File contextDir = cacheDir.listFiles()[0];
+        File manifest = new File(contextDir, "manifest");
+        byte[] manifestContent = FileUtils.readFileToByteArray(manifest);
+
+        write("src/a.txt", "changed").setLastModified(System.currentTimeMillis() + 10000);
+        InputStream aborted = CompressArchiveUtil.streamTARFiles(baseDir, files, cache);
+        aborted.read(new byte[100]);
+        aborted.close();
+
+        assertThat(FileUtils.readFileToByteArray(manifest), equalTo(manifestContent));
+        assertThat(segments(contextDir).size(), equalTo(1));
+    }
+
+    @Test
+    public void writesOnlyReadEntriesToNewSegments() throws Exception {
+        archive();
+        File contextDir = cacheDir.listFiles()[0];
+        List<String> first = segments(contextDir);
+        assertThat(first.size(), equalTo(1));
+
+        // all cached, no new segment
+        archive();
+        assertThat(segments(contextDir), equalTo(first));
+
+        File changed = write("src/b.txt", "changed");
+        changed.setLastModified(changed.lastModified() - 10000);
+        Map<String, String> entries = entries(archive());
+        assertThat(entries.get("src/a.txt"), equalTo("first"));
+        assertThat(entries.get("src/b.txt"), equalTo("changed"));
+        List<String> second = segments(contextDir);
+        assertThat(second.size(), equalTo(2));
+        assertThat(second.containsAll(first), equalTo(true));
+        second.removeAll(first);
+        // the header and one record of content of the only entry that was read
+        assertThat(new File(contextDir, second.get(0)).length(), equalTo(1024L));
+
+        // nothing refers to the first segment once every entry in it changed
+        long lastModified = System.currentTimeMillis() - 20000;
+        write("Dockerfile", "FROM scratch\n").setLastModified(lastModified);
+        new File(baseDir, "src").setLastModified(lastModified);
+        write("src/a.txt", "changed").setLastModified(lastModified);
+        assertThat(entries(archive()).get("Dockerfile"), equalTo("FROM scratch\n"));
+        assertThat(segments(contextDir).contains(first.get(0)), equalTo(false));
+        assertThat(segments(contextDir).size(), equalTo(2));
+    }
+
+    private byte[] archive() throws IOException {
+        InputStream in = CompressArchiveUtil.streamTARFiles(baseDir, files, cache);
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static List<String> segments(File contextDir) {
+        List<String> segments = new ArrayList<String>();
+        for (String name : contextDir.list()) {
+            if (name.startsWith("segments-")) {
+                segments.add(name);
+            }
+        }
+        return segments;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(baseDir, name);
+        FileUtils.writeStringToFile(file, content);
+        return file;
+    }
+
+    private static Map<String, String> entries(byte[] archive) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<String, String>();
+        TarArchiveInputStream in = new TarArchiveInputStream(new ByteArrayInputStream(archive));
+        TarArchiveEntry entry;
+        while ((entry = in.getNextTarEntry()) != null) {
+            entries.put(entry.getName(), IOUtils.toString(in, "UTF-8"));
+        }
+        in.close();
+        return entries;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BuildContextScannerTest {
+
+    private File base;
+
+    private ExecutorService executor;
+
+    private BuildContextScanner scanner;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        base = new File(FileUtils.getTempDirectory(), "docker-java-" + System.nanoTime());
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                FileUtils.writeStringToFile(new File(base, "d" + i + "/e" + j + "/file.txt"), "");
+            }
+            FileUtils.writeStringToFile(new File(base, "d" + i + "/file.txt"), "");
+        }
+        FileUtils.writeStringToFile(new File(base, "node_modules/lib/index.js"), "");
+        new File(base, "empty").mkdirs();
+        executor = Executors.newFixedThreadPool(2);
+        scanner = new BuildContextScanner(executor);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(base);
+    }
+
+    @Test
+    public void listsSameFilesAsFileUtils() throws Exception {
+        List<File> expected = new ArrayList<File>(FileUtils.listFiles(base, TrueFileFilter.INSTANCE,
+                TrueFileFilter.INSTANCE));
+        Collections.sort(expected);
+
+        List<File> files = scanner.scan(base, TrueFileFilter.INSTANCE);
+        assertThat(files.size(), equalTo(31));
+        assertThat(files, equalTo(expected));
+    }
+
+    @Test
+    public void prunesFilteredDirectories() throws Exception {
+        GoLangMatchFileFilter filter = new GoLangMatchFileFilter(base, Arrays.asList("node_modules", "d[1-4]"));
+        List<String> names = new ArrayList<String>();
+        for (File file : scanner.scan(base, filter)) {
+            names.add(CompressArchiveUtil.relativize(base, file));
+        }
+
+        assertThat(names, equalTo(Arrays.asList("d0/e0/file.txt", "d0/e1/file.txt", "d0/e2/file.txt",
+                "d0/e3/file.txt", "d0/e4/file.txt", "d0/file.txt")));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsFile() throws Exception {
+        scanner.scan(new File(base, "d0/file.txt"), TrueFileFilter.INSTANCE);
+    }
+}
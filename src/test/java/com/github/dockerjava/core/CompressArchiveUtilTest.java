@@ -6,14 +6,23 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class CompressArchiveUtilTest {
@@ -27,6 +36,74 @@ public class CompressArchiveUtilTest {
     assertThat("should be executable", expectedFile.canExecute());
   }
 
+  @Test
+  public void testStreamedArchiveMatchesArchiveFile() throws Exception {
+    File baseDir = new File(CompressArchiveUtilTest.class.getResource("/testAddFolder").getFile());
+    List<File> files = new ArrayList<File>(FileUtils.listFiles(baseDir, null, true));
+    File archive = CompressArchiveUtil.archiveTARFiles(baseDir, files, "archive");
+    try {
+      InputStream streamed = CompressArchiveUtil.streamTARFiles(baseDir, files);
+      try {
+        assertThat(IOUtils.toByteArray(streamed), equalTo(FileUtils.readFileToByteArray(archive)));
+      } finally {
+        streamed.close();
+      }
+    } finally {
+      archive.delete();
+    }
+  }
+
+  @Test
+  public void testStreamedArchiveOfLargeFile() throws Exception {
+    File baseDir = new File(FileUtils.getTempDirectoryPath(), "streamedArchive");
+    FileUtils.deleteQuietly(baseDir);
+    baseDir.mkdirs();
+    byte[] content = new byte[300 * 1024 + 17];
+    new Random(42).nextBytes(content);
+    File largeFile = new File(baseDir, "large.bin");
+    FileUtils.writeByteArrayToFile(largeFile, content);
+    try {
+      TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(
+          CompressArchiveUtil.streamTARFiles(baseDir, asList(largeFile)));
+      TarArchiveEntry entry = tarArchiveInputStream.getNextTarEntry();
+      assertThat(entry.getName(), equalTo("large.bin"));
+      assertThat(IOUtils.toByteArray(tarArchiveInputStream), equalTo(content));
+      assertThat(tarArchiveInputStream.getNextTarEntry(), is(nullValue()));
+      tarArchiveInputStream.close();
+    } finally {
+      FileUtils.deleteQuietly(baseDir);
+    }
+  }
+
+  @Test
+  public void testParallelGzipRoundTrip() throws Exception {
+    byte[] content = new byte[1000 * 1000];
+    Random random = new Random(42);
+    for (int i = 0; i < content.length; i++) {
+      // compressible, but not trivially
+      content[i] = (byte) ('a' + random.nextInt(8));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      InputStream gzipped = new ParallelGzipInputStream(new ByteArrayInputStream(content), 6, 64 * 1024, executor, 3);
+      byte[] compressed = IOUtils.toByteArray(gzipped);
+      gzipped.close();
+
+      assertThat(compressed.length < content.length / 2, is(true));
+      assertThat(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))), equalTo(content));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testParallelGzipOfEmptyStream() throws Exception {
+    InputStream gzipped = CompressArchiveUtil.gzip(new ByteArrayInputStream(new byte[0]), 1, 1024);
+    byte[] compressed = IOUtils.toByteArray(gzipped);
+
+    assertThat(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))).length, equalTo(0));
+  }
+
   private File createExecutableFile() throws IOException {
     File baseDir = new File(FileUtils.getTempDirectoryPath());
     File executableFile = new File(baseDir, "executableFile.sh");
@@ -16,12 +16,12 @@ public class DockerClientConfigTest {
     public static final DockerClientConfig EXAMPLE_CONFIG = newExampleConfig();
 
     private static DockerClientConfig newExampleConfig() {
-        return new DockerClientConfig(URI.create("http://foo"), "bar", "baz", "qux", "blam", "wham", "flim", "flam", 877, false);
+        return new DockerClientConfig(URI.create("http://foo"), "bar", "baz", "qux", "blam", "wham", "flim", "flam", 877, false, 20, 10, 5000, true);
     }
 
     @Test
     public void string() throws Exception {
-        assertEquals("DockerClientConfig{uri=http://foo, version='bar', username='baz', password='qux', email='blam', serverAddress='wham', dockerCertPath='flim', dockerCfgPath='flam', readTimeout=877, loggingFilterEnabled=false}",
+        assertEquals("DockerClientConfig{uri=http://foo, version='bar', username='baz', password='qux', email='blam', serverAddress='wham', dockerCertPath='flim', dockerCfgPath='flam', readTimeout=877, loggingFilterEnabled=false, maxTotalConnections=20, maxPerRouteConnections=10, idleConnectionTimeout=5000, connectionValidationEnabled=true}",
                 EXAMPLE_CONFIG.toString());
     }
 
@@ -75,6 +75,10 @@ public class DockerClientConfigTest {
         env.put("DOCKER_CFG_PATH", "flam");
         env.put("DOCKER_READ_TIMEOUT", "877");
         env.put("DOCKER_LOGGING_FILTER_ENABLED", "false");
+        env.put("DOCKER_MAX_TOTAL_CONNECTIONS", "20");
+        env.put("DOCKER_MAX_PER_ROUTE_CONNECTIONS", "10");
+        env.put("DOCKER_IDLE_CONNECTION_TIMEOUT", "5000");
+        env.put("DOCKER_CONNECTION_VALIDATION_ENABLED", "true");
 
         // when you build a config
         DockerClientConfig config = buildConfig(env, new Properties());
@@ -106,6 +110,10 @@ public class DockerClientConfigTest {
         assertEquals(config.isLoggingFilterEnabled(), true);
         assertEquals(config.getDockerCertPath(), "someHomeDir/.docker");
         assertEquals(config.getDockerCfgPath(), "someHomeDir/.dockercfg");
+        assertEquals(config.getMaxTotalConnections(), null);
+        assertEquals(config.getMaxPerRouteConnections(), null);
+        assertEquals(config.getIdleConnectionTimeout(), null);
+        assertEquals(config.isConnectionValidationEnabled(), false);
     }
 
     @Test
@@ -123,6 +131,10 @@ public class DockerClientConfigTest {
         systemProperties.setProperty("docker.io.dockerCfgPath", "flam");
         systemProperties.setProperty("docker.io.readTimeout", "877");
         systemProperties.setProperty("docker.io.enableLoggingFilter", "false");
+        systemProperties.setProperty("docker.io.maxTotalConnections", "20");
+        systemProperties.setProperty("docker.io.maxPerRouteConnections", "10");
+        systemProperties.setProperty("docker.io.idleConnectionTimeout", "5000");
+        systemProperties.setProperty("docker.io.enableConnectionValidation", "true");
 
         // when you build new config
         DockerClientConfig config = buildConfig(Collections.<String, String>emptyMap(), systemProperties);
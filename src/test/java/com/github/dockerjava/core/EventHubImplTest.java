@@ -0,0 +1,236 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.EventHub;
+import com.github.dockerjava.api.EventHub.OverflowPolicy;
+import com.github.dockerjava.api.EventHub.Subscription;
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer;
+
+public class EventHubImplTest {
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    private DockerClient dockerClient;
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    // events sent by the n-th /events request, the stream is kept open after the last request's events
+    private volatile String[][] streams;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        requests.clear();
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                if (!request.getPath().startsWith("/events")) {
+                    response.status(404).body("text/plain", "not found");
+                    return;
+                }
+                requests.add(request.getPath());
+                int index = Math.min(requests.size(), streams.length) - 1;
+                for (String event : streams[index]) {
+                    response.chunk("application/json", event.getBytes("UTF-8"));
+                }
+                if (index == streams.length - 1) {
+                    try {
+                        Thread.sleep(60000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        DockerClientConfig config = new DockerClientConfig.DockerClientConfigBuilder()
+                .withUri("unix://" + socketFile.getAbsolutePath()).withLoggingFilter(false).build();
+        dockerClient = DockerClientBuilder.getInstance(config).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        server.close();
+    }
+
+    @Test
+    public void sharesOneStream() throws Exception {
+        streams = new String[][] { { event("create", "a", 100), event("start", "a", 100), event("die", "a", 101) } };
+
+        EventHub eventHub = dockerClient.eventHub();
+        CollectingCallback first = new CollectingCallback(3);
+        CollectingCallback second = new CollectingCallback(3);
+        eventHub.subscribe(first);
+        eventHub.subscribe(second);
+
+        first.awaitEvents();
+        second.awaitEvents();
+        assertThat(first.statuses, contains("create", "start", "die"));
+        assertThat(second.statuses, contains("create", "start", "die"));
+        assertThat(requests.size(), equalTo(1));
+        assertThat(server.getConnectionCount(), equalTo(1));
+    }
+
+    @Test
+    public void resumesAfterBrokenStream() throws Exception {
+        streams = new String[][] { { event("create", "a", 100), event("start", "a", 101) },
+                { event("start", "a", 101), event("die", "a", 102) } };
+
+        CollectingCallback callback = new CollectingCallback(3);
+        dockerClient.eventHub().subscribe(callback);
+
+        callback.awaitEvents();
+        assertThat(callback.statuses, contains("create", "start", "die"));
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(0), not(containsString("since")));
+        assertThat(requests.get(1), containsString("since=101"));
+    }
+
+    @Test
+    public void dropsEventsForSlowSubscriberOnly() throws Exception {
+        streams = new String[][] { { event("a", "1", 100), event("b", "1", 101), event("c", "1", 102),
+                event("d", "1", 103), event("e", "1", 104) } };
+
+        final CountDownLatch release = new CountDownLatch(1);
+        CollectingCallback slow = new CollectingCallback(1) {
+            @Override
+            public void onEvent(Event event) {
+                super.onEvent(event);
+                await(release);
+            }
+        };
+        CollectingCallback fast = new CollectingCallback(5);
+        EventHub eventHub = dockerClient.eventHub();
+        Subscription slowSubscription = eventHub.subscribe(slow, 1, OverflowPolicy.DROP);
+        Subscription fastSubscription = eventHub.subscribe(fast);
+
+        fast.awaitEvents();
+        slow.awaitEvents();
+        release.countDown();
+        // the slow subscriber's queue holds one event, whether "b" made it depends on timing
+        long deadline = System.currentTimeMillis() + 5000;
+        while (slow.statuses.size() + slowSubscription.getDroppedEvents() < 5
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(fast.statuses, contains("a", "b", "c", "d", "e"));
+        assertThat(fastSubscription.getDroppedEvents(), equalTo(0L));
+        assertThat(slow.statuses.get(0), equalTo("a"));
+        assertThat(slow.statuses.size() + slowSubscription.getDroppedEvents(), equalTo(5L));
+        assertThat(slowSubscription.getDroppedEvents(), greaterThanOrEqualTo(3L));
+    }
+
+    @Test
+    public void completesClosedSubscriptions() throws Exception {
+        streams = new String[][] { { event("create", "a", 100) } };
+
+        EventHubImpl eventHub = (EventHubImpl) dockerClient.eventHub();
+        CollectingCallback callback = new CollectingCallback(1);
+        Subscription subscription = eventHub.subscribe(callback);
+        callback.awaitEvents();
+
+        subscription.close();
+        assertThat(callback.completed.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(callback.completedEvents, equalTo(1));
+        assertThat(eventHub.getSubscriptionCount(), equalTo(0));
+    }
+
+    @Test(timeOut = 30000)
+    public void resubscribesWhileEventsFlow() throws Exception {
+        String[] flood = new String[2000];
+        for (int i = 0; i < flood.length; i++) {
+            flood[i] = event("start", String.valueOf(i), 100 + i);
+        }
+        streams = new String[][] { flood };
+
+        final EventHubImpl eventHub = (EventHubImpl) dockerClient.eventHub();
+        for (int i = 0; i < 20; i++) {
+            // a blocking subscriber that touches the hub while the stream waits for it
+            CollectingCallback callback = new CollectingCallback(3) {
+                @Override
+                public void onEvent(Event event) {
+                    eventHub.getSubscriptionCount();
+                    super.onEvent(event);
+                }
+            };
+            Subscription subscription = eventHub.subscribe(callback, 1, OverflowPolicy.BLOCK);
+            callback.awaitEvents();
+            subscription.close();
+        }
+        assertThat(eventHub.getSubscriptionCount(), equalTo(0));
+        assertThat(requests.size(), greaterThanOrEqualTo(20));
+    }
+
+    private static String event(String status, String id, long time) {
+        return "{\"status\":\"" + status + "\",\"id\":\"" + id + "\",\"from\":\"busybox:latest\",\"time\":" + time
+                + "}";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CollectingCallback implements EventCallback {
+
+        final List<String> statuses = new CopyOnWriteArrayList<String>();
+
+        final CountDownLatch events;
+
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        volatile int completedEvents = -1;
+
+        CollectingCallback(int expectedEvents) {
+            events = new CountDownLatch(expectedEvents);
+        }
+
+        void awaitEvents() throws InterruptedException {
+            assertThat("timed out waiting for events, got " + statuses, events.await(5, TimeUnit.SECONDS),
+                    equalTo(true));
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            statuses.add(event.getStatus());
+            events.countDown();
+        }
+
+        @Override
+        public void onException(Throwable throwable) {
+        }
+
+        @Override
+        public void onCompletion(int numEvents) {
+            completedEvents = numEvents;
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.model.StreamType;
+
+public class FrameDecoderTest {
+
+    private static class RecordingCallback implements FrameDecoder.FrameCallback {
+
+        final List<String> frames = new ArrayList<String>();
+
+        final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+
+        @Override
+        public void onFrame(StreamType streamType, ByteBuffer payload) {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            frames.add(streamType + ":" + new String(bytes));
+            buffers.add(payload);
+        }
+    }
+
+    private static void frame(ByteArrayOutputStream out, int type, String payload) throws IOException {
+        byte[] bytes = payload.getBytes("UTF-8");
+        out.write(new byte[] { (byte) type, 0, 0, 0 });
+        out.write(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        out.write(bytes);
+    }
+
+    @Test
+    public void decodesMultiplexedFrames() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        frame(stream, 1, "hello ");
+        frame(stream, 2, "oops\n");
+        frame(stream, 1, "");
+        frame(stream, 1, "world\n");
+
+        FrameDecoder decoder = new FrameDecoder(new ByteArrayInputStream(stream.toByteArray()));
+        RecordingCallback callback = new RecordingCallback();
+        decoder.decode(callback);
+
+        assertThat(decoder.isMultiplexed(), equalTo(true));
+        assertThat(callback.frames.toString(), equalTo("[STDOUT:hello , STDERR:oops\n, STDOUT:world\n]"));
+        // all payloads are views of the same buffer
+        assertThat(callback.buffers.get(0) == callback.buffers.get(2), equalTo(true));
+    }
+
+    @Test
+    public void splitsFramesLargerThanBuffer() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        frame(stream, 1, "0123456789abcdef");
+        frame(stream, 2, "xyz");
+
+        RecordingCallback callback = new RecordingCallback();
+        new FrameDecoder(new ByteArrayInputStream(stream.toByteArray()), 10).decode(callback);
+
+        StringBuilder stdout = new StringBuilder();
+        StringBuilder stderr = new StringBuilder();
+        for (String frame : callback.frames) {
+            if (frame.startsWith("STDOUT:")) {
+                stdout.append(frame.substring(7));
+            } else {
+                stderr.append(frame.substring(7));
+            }
+        }
+        assertThat(callback.frames.size() > 2, equalTo(true));
+        assertThat(stdout.toString(), equalTo("0123456789abcdef"));
+        assertThat(stderr.toString(), equalTo("xyz"));
+    }
+
+    @Test
+    public void passesTtyOutputThrough() throws Exception {
+        FrameDecoder decoder = new FrameDecoder(new ByteArrayInputStream("$ ".getBytes("UTF-8")));
+        RecordingCallback callback = new RecordingCallback();
+        decoder.decode(callback);
+
+        assertThat(decoder.isMultiplexed(), equalTo(false));
+        assertThat(callback.frames.toString(), equalTo("[RAW:$ ]"));
+    }
+
+    @Test
+    public void copiesToStreams() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        frame(stream, 1, "out");
+        frame(stream, 2, "err");
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        new FrameDecoder(new ByteArrayInputStream(stream.toByteArray())).decode(FrameDecoder.copyTo(stdout, stderr));
+
+        assertThat(stdout.toString("UTF-8"), equalTo("out"));
+        assertThat(stderr.toString("UTF-8"), equalTo("err"));
+    }
+
+    @Test(expectedExceptions = EOFException.class)
+    public void rejectsTruncatedFrame() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        frame(stream, 1, "truncated");
+        byte[] bytes = stream.toByteArray();
+
+        new FrameDecoder(new ByteArrayInputStream(bytes, 0, bytes.length - 3)).decode(new RecordingCallback());
+    }
+}
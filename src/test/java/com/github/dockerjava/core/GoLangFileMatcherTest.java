@@ -0,0 +1,81 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class GoLangFileMatcherTest {
+
+    private static final String[] NAMES = { "", "a", "ab", "abc", "abd", "a/b", "a/c/b", "abc/b", "a*b", "a☺b", "α",
+            "A", "x", "xxx", "-", "]", "z", "axbxcxdxe/f", "axbxcxdxexxx/f", "axbxcxdxe/xxx/f", "axbxcxdxexxx/fff",
+            "abxbbxdbxebxczzx", "abxbbxdbxebxczzy", "node_modules", "node_modules/x.js", ".git", "src/.git" };
+
+    @DataProvider
+    public Object[][] getPatterns() {
+        String[] patterns = { "abc", "*", "*c", "a*", "a*/b", "a*b*c*d*e*/f", "a*b?c*x", "ab[c]", "ab[b-d]", "ab[e-g]",
+                "ab[^c]", "ab[^b-d]", "ab[^e-g]", "a\\*b", "a?b", "a[^a]b", "a???b", "a[^a][^a][^a]b", "[a-ζ]*",
+                "*[a-ζ]", "a*b", "[\\]a]", "[\\-]", "[x\\-]", "[\\-x]", "*x", "a**", "**", "", "node_modules",
+                "*/.git", "[*]" };
+        Object[][] data = new Object[patterns.length][];
+        for (int i = 0; i < patterns.length; i++) {
+            data[i] = new Object[] { patterns[i] };
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "getPatterns")
+    public void matchesLikeGoLangFileMatch(String pattern) {
+        GoLangFileMatcher matcher = GoLangFileMatcher.compile(pattern);
+        for (String name : NAMES) {
+            assertThat(pattern + " on " + name, matcher.matches(name), equalTo(GoLangFileMatch.match(pattern, name)));
+        }
+    }
+
+    @Test
+    public void matchesAnyPattern() {
+        List<String> patterns = Arrays.asList("abc", "ab[d]", "a/*", "*.js", "x?x");
+        GoLangFileMatcher matcher = GoLangFileMatcher.compile(patterns);
+        for (String name : NAMES) {
+            assertThat(name, matcher.matches(name), equalTo(GoLangFileMatch.match(patterns, name)));
+        }
+        assertThat(GoLangFileMatcher.compile(new ArrayList<String>()).matches("abc"), equalTo(false));
+    }
+
+    @Test(expectedExceptions = GoLangFileMatchException.class)
+    public void rejectsMalformedPatternUpFront() {
+        // GoLangFileMatch.match("a[", "a") is false, it never gets to the bracket
+        GoLangFileMatcher.compile(Arrays.asList("abc", "a["));
+    }
+
+    @Test
+    public void prunesExcludedDirectories() throws Exception {
+        File base = new File(FileUtils.getTempDirectory(), "docker-java-" + System.nanoTime());
+        try {
+            FileUtils.writeStringToFile(new File(base, "app.js"), "");
+            FileUtils.writeStringToFile(new File(base, "node_modules/lib/index.js"), "");
+            FileUtils.writeStringToFile(new File(base, "src/main.js"), "");
+            FileUtils.writeStringToFile(new File(base, "src/main.js.orig"), "");
+
+            GoLangMatchFileFilter filter = new GoLangMatchFileFilter(base, Arrays.asList("node_modules", "*/*.orig"));
+            Collection<File> files = FileUtils.listFiles(base, filter, filter);
+
+            List<String> names = new ArrayList<String>();
+            for (File file : files) {
+                names.add(CompressArchiveUtil.relativize(base, file));
+            }
+            assertThat(names, containsInAnyOrder("app.js", "src/main.js"));
+        } finally {
+            FileUtils.deleteDirectory(base);
+        }
+    }
+}
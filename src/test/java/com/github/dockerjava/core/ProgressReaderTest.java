@@ -0,0 +1,85 @@
+package com.github.dockerjava.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerException;
+import com.github.dockerjava.api.model.ProgressMessage;
+
+public class ProgressReaderTest {
+
+    private static final String PULL = "{\"status\":\"Pulling repository busybox\"}\r\n"
+            + "{\"status\":\"Downloading\",\"progressDetail\":{\"current\":512,\"total\":1024,\"start\":1420000000},"
+            + "\"progress\":\"[=>  ] 512 B/1 kB\",\"id\":\"4986bf8c1536\"}\r\n"
+            + "{\"status\":\"Download complete\",\"progressDetail\":{},\"id\":\"4986bf8c1536\"}\r\n";
+
+    private static final String FAILED_PUSH = "{\"status\":\"The push refers to a repository [foo/bar]\"}"
+            + "{\"errorDetail\":{\"code\":404,\"message\":\"Repository does not exist: foo/bar\"},"
+            + "\"error\":\"Repository does not exist: foo/bar\"}";
+
+    private static InputStream stream(String content) throws Exception {
+        return new ByteArrayInputStream(content.getBytes("UTF-8"));
+    }
+
+    @Test
+    public void readsTypedMessages() throws Exception {
+        ProgressReader reader = new ProgressReader(stream(PULL));
+
+        assertThat(reader.next().getStatus(), equalTo("Pulling repository busybox"));
+        ProgressMessage downloading = reader.next();
+        assertThat(downloading.getId(), equalTo("4986bf8c1536"));
+        assertThat(downloading.getCurrent(), equalTo(512L));
+        assertThat(downloading.getTotal(), equalTo(1024L));
+        ProgressMessage complete = reader.next();
+        assertThat(complete.getStatus(), equalTo("Download complete"));
+        assertThat(complete.getTotal(), equalTo(0L));
+        assertThat(reader.next(), nullValue());
+        reader.close();
+    }
+
+    @Test
+    public void readsBuildOutput() throws Exception {
+        ProgressReader reader = new ProgressReader(stream("{\"stream\":\"Step 0 : FROM busybox\\n\"}"));
+        assertThat(reader.next().getStream(), equalTo("Step 0 : FROM busybox\n"));
+        reader.close();
+    }
+
+    @Test
+    public void completesWithoutError() throws Exception {
+        new ProgressReader(stream(PULL)).awaitCompletion();
+        new ProgressReader(stream("")).awaitCompletion();
+    }
+
+    @Test
+    public void mapsEmbeddedErrors() throws Exception {
+        try {
+            new ProgressReader(stream(FAILED_PUSH)).awaitCompletion();
+            fail("expected DockerException");
+        } catch (DockerException e) {
+            assertThat(e.getMessage(), equalTo("Repository does not exist: foo/bar"));
+            assertThat(e.getHttpStatus(), equalTo(404));
+        }
+
+        ProgressReader reader = new ProgressReader(stream(FAILED_PUSH));
+        reader.next();
+        try {
+            reader.next();
+            fail("expected DockerException");
+        } catch (DockerException e) {
+            assertThat(e.getMessage(), equalTo("Repository does not exist: foo/bar"));
+        }
+    }
+
+    @Test(expectedExceptions = DockerException.class)
+    public void mapsPlainErrors() throws Exception {
+        new ProgressReader(stream("{\"status\":\"Step 1\"}{\"error\":\"The command returned a non-zero code: 1\"}"))
+                .awaitCompletion();
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.dockerjava.core.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.google.common.base.Ticker;
+
+public class CachingDockerCmdExecFactoryTest {
+
+    private FakeDockerDaemon daemon;
+
+    private CachingDockerCmdExecFactory caching;
+
+    private DockerClient cachedClient;
+
+    /**
+     * Changes the daemon behind the back of the cache, which only learns about it from the events.
+     */
+    private DockerClient otherClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+        caching = new CachingDockerCmdExecFactory(new DockerCmdExecFactoryImpl()).withTtl(1, TimeUnit.MINUTES)
+                .withTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                });
+        cachedClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).withDockerCmdExecFactory(caching)
+                .build();
+        otherClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).build();
+        // the event stream may still be on its way
+        Thread.sleep(200);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        cachedClient.close();
+        otherClient.close();
+        daemon.close();
+    }
+
+    @Test
+    public void answersRepeatedInspectsFromCache() throws Exception {
+        String id = otherClient.createContainerCmd("busybox").withName("web").exec().getId();
+        long requests = daemon.getRequestCount();
+
+        InspectContainerResponse first = cachedClient.inspectContainerCmd("web").exec();
+        assertThat(cachedClient.inspectContainerCmd("web").exec(), sameInstance(first));
+        assertThat(cachedClient.inspectContainerCmd("web").execAsync().get(), sameInstance(first));
+        assertThat(cachedClient.inspectContainerCmd(id).exec().getId(), equalTo(id));
+        cachedClient.inspectImageCmd("busybox").exec();
+        cachedClient.inspectImageCmd("busybox").exec();
+
+        assertThat(daemon.getRequestCount() - requests, equalTo(3L));
+        assertThat(caching.getContainerStats().hitCount(), equalTo(2L));
+        assertThat(caching.getContainerStats().missCount(), equalTo(2L));
+        assertThat(caching.getImageStats().hitCount(), equalTo(1L));
+    }
+
+    @Test
+    public void invalidatesOnEvents() throws Exception {
+        String id = otherClient.createContainerCmd("busybox").withName("web").exec().getId();
+        assertThat(cachedClient.inspectContainerCmd("web").exec().getState().isRunning(), equalTo(false));
+        cachedClient.inspectContainerCmd(id).exec();
+
+        otherClient.startContainerCmd(id).exec();
+        awaitRunning("web", true);
+        awaitRunning(id, true);
+
+        otherClient.removeContainerCmd(id).withForce().exec();
+        awaitNotFound("web");
+    }
+
+    @Test
+    public void cachesNotFoundUntilCreated() throws Exception {
+        assertNotFound("web");
+        long requests = daemon.getRequestCount();
+        assertNotFound("web");
+        assertThat(daemon.getRequestCount(), equalTo(requests));
+
+        otherClient.createContainerCmd("busybox").withName("web").exec();
+        awaitRunning("web", false);
+    }
+
+    @Test
+    public void readsOwnWrites() throws Exception {
+        String id = cachedClient.createContainerCmd("busybox").withName("web").exec().getId();
+        assertThat(cachedClient.inspectContainerCmd(id).exec().getState().isRunning(), equalTo(false));
+        assertThat(cachedClient.inspectContainerCmd("web").exec().getState().isRunning(), equalTo(false));
+
+        cachedClient.startContainerCmd("web").exec();
+        assertThat(cachedClient.inspectContainerCmd(id).exec().getState().isRunning(), equalTo(true));
+        assertThat(cachedClient.inspectContainerCmd("web").exec().getState().isRunning(), equalTo(true));
+
+        cachedClient.removeContainerCmd(id).withForce().exec();
+        assertNotFound("web");
+    }
+
+    @Test
+    public void expiresEntries() throws Exception {
+        otherClient.createContainerCmd("busybox").withName("web").exec();
+        InspectContainerResponse first = cachedClient.inspectContainerCmd("web").exec();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertThat(cachedClient.inspectContainerCmd("web").exec(), sameInstance(first));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cachedClient.inspectContainerCmd("web").exec().getId(), equalTo(first.getId()));
+        assertThat(caching.getContainerStats().missCount(), equalTo(2L));
+
+        assertNotFound("db");
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(CachingDockerCmdExecFactory.DEFAULT_NOT_FOUND_TTL_MILLIS));
+        otherClient.createContainerCmd("busybox").withName("db").exec();
+        cachedClient.inspectContainerCmd("db").exec();
+    }
+
+    @Test
+    public void invalidatesImagesOnEvents() throws Exception {
+        String id = cachedClient.inspectImageCmd("busybox").exec().getId();
+        otherClient.removeImageCmd(id).exec();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                cachedClient.inspectImageCmd("busybox").exec();
+            } catch (NotFoundException e) {
+                break;
+            }
+            assertThat("image still cached", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        daemon.addImage("busybox:latest");
+        otherClient.tagImageCmd("busybox", "busybox", "1.0").exec();
+        long requests = daemon.getRequestCount();
+        cachedClient.inspectImageCmd("busybox:1.0").exec();
+        assertThat(daemon.getRequestCount() - requests, equalTo(1L));
+    }
+
+    private void assertNotFound(String container) {
+        try {
+            cachedClient.inspectContainerCmd(container).exec();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // expected
+        }
+    }
+
+    private void awaitNotFound(String container) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                cachedClient.inspectContainerCmd(container).exec();
+            } catch (NotFoundException e) {
+                return;
+            }
+            assertThat(container + " still cached", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitRunning(String container, boolean running) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                if (cachedClient.inspectContainerCmd(container).exec().getState().isRunning() == running) {
+                    return;
+                }
+            } catch (NotFoundException e) {
+                // not created as far as the cache knows
+            }
+            assertThat(container + " still cached", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
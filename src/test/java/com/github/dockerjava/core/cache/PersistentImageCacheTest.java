@@ -0,0 +1,226 @@
+package com.github.dockerjava.core.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.core.internal.BinaryJsonCodec;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+
+public class PersistentImageCacheTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = File.createTempFile("docker-java", ".images");
+        file.delete();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static InspectImageResponse image(String id, String parent) throws Exception {
+        ObjectNode json = MAPPER.createObjectNode();
+        json.put("Id", id);
+        json.put("Parent", parent);
+        json.put("Created", "2014-10-01T20:46:08.914288461Z");
+        json.put("Size", 2433303L);
+        json.put("Architecture", "amd64");
+        ObjectNode config = json.putObject("Config");
+        config.putArray("Cmd").add("/bin/sh").add("-c");
+        config.put("Image", parent);
+        config.put("Memory", 0);
+        config.put("Tty", true);
+        return MAPPER.treeToValue(json, InspectImageResponse.class);
+    }
+
+    private static String id(int n) {
+        return String.format("%064x", n);
+    }
+
+    private static JsonNode tree(InspectImageResponse response) {
+        return MAPPER.valueToTree(response);
+    }
+
+    @Test
+    public void survivesReopening() throws Exception {
+        InspectImageResponse image = image(id(1), id(2));
+        PersistentImageCache cache = PersistentImageCache.open(file);
+        assertThat(cache.put(image), equalTo(true));
+        assertThat(tree(cache.get(id(1))), equalTo(tree(image)));
+        assertThat(cache.get(id(2)), nullValue());
+        cache.close();
+
+        cache = PersistentImageCache.open(file);
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.get(id(1)).getConfig().getCmd(), equalTo(new String[] { "/bin/sh", "-c" }));
+        assertThat(tree(cache.get(id(1))), equalTo(tree(image)));
+        cache.close();
+    }
+
+    @Test
+    public void encodesCompactly() throws Exception {
+        InspectImageResponse image = image(id(1), id(2));
+        byte[] json = MAPPER.writeValueAsBytes(image);
+        byte[] encoded = BinaryJsonCodec.encode(tree(image));
+        assertThat(encoded.length, lessThan(json.length / 2));
+    }
+
+    @Test
+    public void rejectsWhatIsNotAFullId() throws Exception {
+        PersistentImageCache cache = PersistentImageCache.open(file);
+        assertThat(cache.put(image("busybox", id(2))), equalTo(false));
+        assertThat(cache.size(), equalTo(0));
+        cache.close();
+    }
+
+    @Test
+    public void removesAndCompacts() throws Exception {
+        PersistentImageCache cache = PersistentImageCache.open(file, 4096);
+        int stored = 0;
+        while (cache.put(image(id(stored), id(1000)))) {
+            stored++;
+        }
+        assertThat(stored > 5, equalTo(true));
+        assertThat(cache.remove(id(0)), equalTo(true));
+        assertThat(cache.remove(id(0)), equalTo(false));
+        cache.remove(id(1));
+        cache.close();
+
+        cache = PersistentImageCache.open(file, 4096);
+        assertThat(cache.size(), equalTo(stored - 2));
+        assertThat(cache.get(id(0)), nullValue());
+        // reopening reclaimed the space of the removed images
+        assertThat(cache.put(image(id(stored), id(1000))), equalTo(true));
+        assertThat(cache.put(image(id(stored + 1), id(1000))), equalTo(true));
+        assertThat(cache.put(image(id(stored + 2), id(1000))), equalTo(false));
+        cache.remove(id(2));
+        // reclaimed right away once full
+        assertThat(cache.put(image(id(stored + 2), id(1000))), equalTo(true));
+        assertThat(cache.get(id(stored + 2)).getId(), equalTo(id(stored + 2)));
+        assertThat(cache.get(id(3)).getId(), equalTo(id(3)));
+        cache.close();
+    }
+
+    @Test
+    public void recordsRemovalsWhenFull() throws Exception {
+        PersistentImageCache cache = PersistentImageCache.open(file);
+        cache.put(image(id(0), id(1000)));
+        long record = cache.getUsedBytes() - 16;
+        cache.close();
+        file.delete();
+
+        // ten records and less than the header of another fit
+        cache = PersistentImageCache.open(file, 16 + 10 * record + 20);
+        int stored = 0;
+        while (cache.put(image(id(stored), id(1000)))) {
+            stored++;
+        }
+        assertThat(cache.remove(id(0)), equalTo(true));
+        assertThat(cache.remove(id(1)), equalTo(true));
+        cache.close();
+
+        cache = PersistentImageCache.open(file, 16 + 10 * record + 20);
+        assertThat(cache.size(), equalTo(stored - 2));
+        assertThat(cache.get(id(0)), nullValue());
+        assertThat(cache.get(id(1)), nullValue());
+        cache.close();
+    }
+
+    @Test
+    public void dropsTornRecords() throws Exception {
+        PersistentImageCache cache = PersistentImageCache.open(file);
+        cache.put(image(id(1), id(0)));
+        cache.put(image(id(2), id(0)));
+        long end = cache.getUsedBytes();
+        cache.close();
+
+        RandomAccessFile damaged = new RandomAccessFile(file, "rw");
+        damaged.seek(end - 3);
+        damaged.write(new byte[] { 1, 2, 3 });
+        damaged.close();
+
+        cache = PersistentImageCache.open(file);
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.get(id(1)).getId(), equalTo(id(1)));
+        assertThat(cache.put(image(id(2), id(0))), equalTo(true));
+        cache.close();
+    }
+
+    @Test
+    public void dropsRecordsWithDamagedLengths() throws Exception {
+        PersistentImageCache cache = PersistentImageCache.open(file);
+        cache.put(image(id(1), id(0)));
+        long second = cache.getUsedBytes();
+        cache.put(image(id(2), id(0)));
+        cache.close();
+
+        RandomAccessFile damaged = new RandomAccessFile(file, "rw");
+        // the length after the id of the second record
+        damaged.seek(second + 32);
+        damaged.writeInt(Integer.MAX_VALUE - 8);
+        damaged.close();
+
+        cache = PersistentImageCache.open(file);
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.get(id(1)).getId(), equalTo(id(1)));
+        cache.close();
+    }
+
+    @Test
+    public void answersInspectsAfterRestart() throws Exception {
+        FakeDockerDaemon daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+        try {
+            PersistentImageCache cache = PersistentImageCache.open(file);
+            DockerClient dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                    .withDockerCmdExecFactory(new CachingDockerCmdExecFactory(new DockerCmdExecFactoryImpl())
+                            .withPersistentImageCache(cache)).build();
+            String id = dockerClient.inspectImageCmd("busybox").exec().getId();
+            dockerClient.close();
+            cache.close();
+
+            cache = PersistentImageCache.open(file);
+            CachingDockerCmdExecFactory caching = new CachingDockerCmdExecFactory(new DockerCmdExecFactoryImpl())
+                    .withPersistentImageCache(cache);
+            dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                    .withDockerCmdExecFactory(caching).build();
+            // the event stream may still be on its way
+            Thread.sleep(200);
+            long requests = daemon.getRequestCount();
+            assertThat(dockerClient.inspectImageCmd(id).exec().getId(), equalTo(id));
+            assertThat(daemon.getRequestCount(), equalTo(requests));
+
+            dockerClient.removeImageCmd(id).exec();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.contains(id) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(cache.contains(id), equalTo(false));
+            dockerClient.close();
+            cache.close();
+        } finally {
+            daemon.close();
+        }
+    }
+}
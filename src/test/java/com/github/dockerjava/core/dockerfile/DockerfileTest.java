@@ -0,0 +1,89 @@
+package com.github.dockerjava.core.dockerfile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClientException;
+
+public class DockerfileTest {
+
+    private static List<String> sources(DockerfileInstruction instruction) {
+        List<String> sources = new ArrayList<String>();
+        for (VariableTemplate argument : instruction.getArguments()) {
+            sources.add(argument.getSource());
+        }
+        return sources;
+    }
+
+    @Test
+    public void joinsContinuationLines() {
+        Dockerfile dockerfile = Dockerfile.parse("FROM busybox\n\n# comment\nRUN echo a && \\\n"
+                + "# comment within\n    echo b\nadd a.txt \\\n  /tmp/\n");
+
+        List<DockerfileInstruction> instructions = dockerfile.getInstructions();
+        assertThat(instructions.size(), equalTo(3));
+        assertThat(instructions.get(1).getKeyword(), equalTo("RUN"));
+        assertThat(instructions.get(1).getRawArguments(), equalTo("echo a &&  echo b"));
+        assertThat(instructions.get(1).getLineNumber(), equalTo(4));
+        assertThat(instructions.get(2).getKeyword(), equalTo("ADD"));
+        assertThat(sources(instructions.get(2)), equalTo(Arrays.asList("a.txt", "/tmp/")));
+        assertThat(instructions.get(2).getLineNumber(), equalTo(7));
+    }
+
+    @Test
+    public void parsesJsonArguments() {
+        DockerfileInstruction instruction = Dockerfile.parse("COPY [\"a b.txt\", \"c.txt\", \"/tmp/\"]")
+                .getInstructions().get(0);
+        assertThat(sources(instruction), equalTo(Arrays.asList("a b.txt", "c.txt", "/tmp/")));
+
+        instruction = Dockerfile.parse("COPY [not json] /tmp/").getInstructions().get(0);
+        assertThat(sources(instruction), equalTo(Arrays.asList("[not", "json]", "/tmp/")));
+    }
+
+    @Test
+    public void parsesEnvironmentVariables() {
+        Map<String, VariableTemplate> variables = Dockerfile.parse("ENV NAME some value").getInstructions().get(0)
+                .getEnvironmentVariables();
+        assertThat(variables.size(), equalTo(1));
+        assertThat(variables.get("NAME").getSource(), equalTo("some value"));
+
+        variables = Dockerfile.parse("ENV A=1 B=\"two words\" C=${A}").getInstructions().get(0)
+                .getEnvironmentVariables();
+        assertThat(new ArrayList<String>(variables.keySet()), equalTo(Arrays.asList("A", "B", "C")));
+        assertThat(variables.get("B").getSource(), equalTo("two words"));
+        assertThat(variables.get("C").getSource(), equalTo("${A}"));
+    }
+
+    @Test(expectedExceptions = DockerClientException.class)
+    public void rejectsEnvironmentVariableWithoutValue() {
+        Dockerfile.parse("FROM busybox\nENV NAME").getInstructions().get(1).getEnvironmentVariables();
+    }
+
+    @Test
+    public void expandsVariables() {
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put("FOO", "foo");
+        environment.put("FOOBAR", "foobar");
+
+        assertThat(VariableTemplate.compile("$FOO/$FOOBAR/${FOO}BAR").expand(environment),
+                equalTo("foo/foobar/fooBAR"));
+        assertThat(VariableTemplate.compile("\\$FOO/$UNKNOWN/${FOO").expand(environment),
+                equalTo("$FOO/$UNKNOWN/${FOO"));
+        assertThat(VariableTemplate.compile("plain").hasVariables(), equalTo(false));
+    }
+
+    @Test
+    public void cachesParsedContent() {
+        String content = "FROM busybox\nADD a.txt /tmp/\n";
+        assertThat(Dockerfile.parse(content), sameInstance(Dockerfile.parse(new String(content))));
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.dockerjava.core.fake;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * How a {@link FakeDockerDaemon} behaves: the latency of every response, the throughput of response bodies, the share
+ * of requests failed on purpose and the output of containers. The defaults answer as fast as possible and never fail.
+ *
+ * <pre>
+ * new FakeDaemonProfile().withLatency(2, TimeUnit.MILLISECONDS).withJitter(3, TimeUnit.MILLISECONDS)
+ *         .withThroughput(10 * 1024 * 1024).withErrors(0.01, 500);
+ * </pre>
+ */
+public class FakeDaemonProfile {
+
+    private final Random random = new Random();
+
+    private long latencyNanos;
+
+    private long jitterNanos;
+
+    private long bytesPerSecond;
+
+    private double errorRate;
+
+    private int errorStatus = 500;
+
+    private int logLines = 10;
+
+    /**
+     * Roughly a daemon on the same host: a fraction of a millisecond per request.
+     */
+    public static FakeDaemonProfile local() {
+        return new FakeDaemonProfile().withLatency(200, TimeUnit.MICROSECONDS).withJitter(300, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Roughly a daemon across a data center network, with a busy disk behind it.
+     */
+    public static FakeDaemonProfile remote() {
+        return new FakeDaemonProfile().withLatency(5, TimeUnit.MILLISECONDS).withJitter(10, TimeUnit.MILLISECONDS)
+                .withThroughput(10 * 1024 * 1024);
+    }
+
+    /**
+     * Delays every response by <code>latency</code> before the daemon handles the request.
+     */
+    public FakeDaemonProfile withLatency(long latency, TimeUnit unit) {
+        Preconditions.checkArgument(latency >= 0, "latency is negative");
+        this.latencyNanos = unit.toNanos(latency);
+        return this;
+    }
+
+    /**
+     * Adds a uniformly distributed delay of up to <code>jitter</code> to the latency.
+     */
+    public FakeDaemonProfile withJitter(long jitter, TimeUnit unit) {
+        Preconditions.checkArgument(jitter >= 0, "jitter is negative");
+        this.jitterNanos = unit.toNanos(jitter);
+        return this;
+    }
+
+    /**
+     * Limits the rate at which each response body is written.
+     *
+     * @param bytesPerSecond
+     *            0 for no limit
+     */
+    public FakeDaemonProfile withThroughput(long bytesPerSecond) {
+        Preconditions.checkArgument(bytesPerSecond >= 0, "bytesPerSecond is negative");
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Fails a share of the requests with <code>status</code> instead of handling them.
+     *
+     * @param rate
+     *            between 0 and 1
+     */
+    public FakeDaemonProfile withErrors(double rate, int status) {
+        Preconditions.checkArgument(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+        Preconditions.checkArgument(status >= 400, "status %s is not an error", status);
+        this.errorRate = rate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Sets the number of lines the logs of each container have.
+     */
+    public FakeDaemonProfile withLogLines(int logLines) {
+        Preconditions.checkArgument(logLines >= 0, "logLines is negative");
+        this.logLines = logLines;
+        return this;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public long getJitterNanos() {
+        return jitterNanos;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public int getLogLines() {
+        return logLines;
+    }
+
+    void delay() throws IOException {
+        long nanos = latencyNanos;
+        if (jitterNanos > 0) {
+            nanos += (long) (random.nextDouble() * jitterNanos);
+        }
+        sleep(nanos);
+    }
+
+    boolean injectError() {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    /**
+     * Waits as long as writing <code>bytes</code> takes at the configured throughput.
+     */
+    void throttle(int bytes) throws IOException {
+        if (bytesPerSecond > 0) {
+            sleep(bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+        }
+    }
+
+    private static void sleep(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("daemon closed");
+        }
+    }
+}
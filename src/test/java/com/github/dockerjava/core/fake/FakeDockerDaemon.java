@@ -0,0 +1,1106 @@
+package com.github.dockerjava.core.fake;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.dockerfile.Dockerfile;
+import com.github.dockerjava.core.dockerfile.DockerfileInstruction;
+import com.github.dockerjava.jaxrs.connector.TcpHttpServer;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer.Request;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer.Response;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+/**
+ * An in-process stand-in for the Docker daemon, for load and latency tests of the client on machines without Docker.
+ *
+ * It implements the endpoints behind every command of the client on in-memory containers and images: containers go
+ * through their lifecycle and report it on <code>/events</code>, logs are multiplexed, builds and pulls stream their
+ * progress. Nothing is ever run. A {@link FakeDaemonProfile} adds latency, limits throughput and injects errors.
+ *
+ * <pre>
+ * FakeDockerDaemon daemon = FakeDockerDaemon.onLocalhost(FakeDaemonProfile.local());
+ * DockerClient dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).build();
+ * ...
+ * daemon.close();
+ * </pre>
+ *
+ * The image <code>busybox:latest</code> exists from the start, others are pulled, built or added with
+ * {@link #addImage(String)}.
+ */
+public class FakeDockerDaemon implements Closeable {
+
+    public static final String API_VERSION = "1.15";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String JSON = "application/json";
+
+    private static final String RAW_STREAM = "application/vnd.docker.raw-stream";
+
+    private static final int EVENT_HISTORY = 10000;
+
+    private final Random random = new Random();
+
+    private final ConcurrentMap<String, FakeContainer> containers = new ConcurrentHashMap<String, FakeContainer>();
+
+    private final ConcurrentMap<String, FakeImage> images = new ConcurrentHashMap<String, FakeImage>();
+
+    private final LinkedList<ObjectNode> eventHistory = new LinkedList<ObjectNode>();
+
+    private final Set<BlockingQueue<ObjectNode>> eventListeners = new CopyOnWriteArraySet<BlockingQueue<ObjectNode>>();
+
+    private final AtomicInteger containerNames = new AtomicInteger();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final Closeable server;
+
+    private final String uri;
+
+    private volatile FakeDaemonProfile profile;
+
+    private volatile boolean closed;
+
+    private final UnixSocketHttpServer.Handler handler = new UnixSocketHttpServer.Handler() {
+        @Override
+        public void handle(Request request, Response response) throws IOException {
+            FakeDockerDaemon.this.handle(request, response);
+        }
+    };
+
+    private FakeDockerDaemon(FakeDaemonProfile profile, File socketFile) throws IOException {
+        Preconditions.checkNotNull(profile, "profile is null");
+        this.profile = profile;
+        addImage("busybox:latest");
+        if (socketFile != null) {
+            server = new UnixSocketHttpServer(socketFile, handler);
+            uri = "unix://" + socketFile.getAbsolutePath();
+        } else {
+            TcpHttpServer tcpServer = new TcpHttpServer(0, handler);
+            server = tcpServer;
+            uri = "http://127.0.0.1:" + tcpServer.getPort();
+        }
+    }
+
+    /**
+     * Listens on a free port of the loopback interface.
+     */
+    public static FakeDockerDaemon onLocalhost(FakeDaemonProfile profile) throws IOException {
+        return new FakeDockerDaemon(profile, null);
+    }
+
+    /**
+     * Listens on the unix domain socket <code>socketFile</code>, replacing the file if it exists.
+     */
+    public static FakeDockerDaemon onUnixSocket(File socketFile, FakeDaemonProfile profile) throws IOException {
+        Preconditions.checkNotNull(socketFile, "socketFile is null");
+        return new FakeDockerDaemon(profile, socketFile);
+    }
+
+    /**
+     * @return the URI to configure the client with, <code>unix://</code> or <code>http://</code>
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    public DockerClientConfig getClientConfig() {
+        return getClientConfigBuilder().build();
+    }
+
+    /**
+     * @return a builder with the settings of {@link #getClientConfig()}, to add pool settings for example
+     */
+    public DockerClientConfig.DockerClientConfigBuilder getClientConfigBuilder() {
+        return new DockerClientConfig.DockerClientConfigBuilder().withUri(uri).withVersion(API_VERSION)
+                .withLoggingFilter(false);
+    }
+
+    public FakeDaemonProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Applies <code>profile</code> to the requests received from now on.
+     */
+    public void setProfile(FakeDaemonProfile profile) {
+        Preconditions.checkNotNull(profile, "profile is null");
+        this.profile = profile;
+    }
+
+    /**
+     * @return the number of requests received so far, failed ones included
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getContainerCount() {
+        return containers.size();
+    }
+
+    /**
+     * Adds an image under <code>repoTag</code>, or returns the one tagged so already.
+     *
+     * @return the id of the image
+     */
+    public String addImage(String repoTag) {
+        FakeImage image = findImage(repoTag);
+        if (image == null) {
+            image = new FakeImage(randomId(), System.currentTimeMillis());
+            image.repoTags.add(normalize(repoTag));
+            images.put(image.id, image);
+        }
+        return image.id;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+    }
+
+    private void handle(Request request, Response response) throws IOException {
+        requestCount.incrementAndGet();
+        FakeDaemonProfile profile = this.profile;
+        profile.delay();
+        if (profile.injectError()) {
+            response.status(profile.getErrorStatus()).body("text/plain", "injected failure");
+            return;
+        }
+
+        String target = request.getPath();
+        int query = target.indexOf('?');
+        // image names may come with an encoded slash
+        String path = URLDecoder.decode((query < 0 ? target : target.substring(0, query)).replace("+", "%2B"),
+                "UTF-8");
+        Map<String, String> params = query < 0 ? new HashMap<String, String>() : parseQuery(target
+                .substring(query + 1));
+        if (path.matches("/v[0-9.]+/.*")) {
+            path = path.substring(path.indexOf('/', 1));
+        }
+        String[] segments = path.substring(1).split("/");
+        String method = request.getMethod();
+
+        if ("GET".equals(method)) {
+            if (path.equals("/_ping")) {
+                response.body("text/plain", "OK");
+            } else if (path.equals("/version")) {
+                version(response, profile);
+            } else if (path.equals("/info")) {
+                info(response, profile);
+            } else if (path.equals("/events")) {
+                events(params, response, profile);
+            } else if (path.equals("/containers/json")) {
+                listContainers(params, response, profile);
+            } else if (path.equals("/images/json")) {
+                listImages(response, profile);
+            } else if (path.equals("/images/search")) {
+                searchImages(params, response, profile);
+            } else if (segments.length == 3 && segments[0].equals("containers")) {
+                FakeContainer container = container(segments[1], response);
+                if (container == null) {
+                    return;
+                } else if (segments[2].equals("json")) {
+                    json(response, 200, inspect(container), profile);
+                } else if (segments[2].equals("logs")) {
+                    logs(container, params, response, profile);
+                } else if (segments[2].equals("top")) {
+                    top(container, response, profile);
+                } else if (segments[2].equals("changes")) {
+                    changes(response, profile);
+                } else {
+                    notFound(response);
+                }
+            } else if (segments[0].equals("images") && path.endsWith("/json")) {
+                FakeImage image = image(path.substring("/images/".length(), path.length() - "/json".length()),
+                        response);
+                if (image != null) {
+                    json(response, 200, inspect(image), profile);
+                }
+            } else {
+                notFound(response);
+            }
+        } else if ("POST".equals(method)) {
+            if (path.equals("/containers/create")) {
+                createContainer(params, request.getBody(), response, profile);
+            } else if (path.equals("/build")) {
+                build(params, request.getBody(), response, profile);
+            } else if (path.equals("/images/create")) {
+                createImage(params, response, profile);
+            } else if (path.equals("/commit")) {
+                commit(params, response, profile);
+            } else if (path.equals("/auth")) {
+                json(response, 200, MAPPER.createObjectNode().put("Status", "Login Succeeded"), profile);
+            } else if (segments.length == 3 && segments[0].equals("containers")) {
+                FakeContainer container = container(segments[1], response);
+                if (container != null) {
+                    containerAction(container, segments[2], request.getBody(), params, response, profile);
+                }
+            } else if (segments[0].equals("images") && (path.endsWith("/tag") || path.endsWith("/push"))) {
+                String action = segments[segments.length - 1];
+                String name = path.substring("/images/".length(), path.length() - action.length() - 1);
+                if (action.equals("push") && params.containsKey("tag") && !params.get("tag").isEmpty()) {
+                    name += ":" + params.get("tag");
+                }
+                FakeImage image = image(name, response);
+                if (image == null) {
+                    return;
+                } else if (action.equals("tag")) {
+                    String tag = params.get("tag");
+                    String repoTag = normalize(params.get("repo") + (tag != null ? ":" + tag : ""));
+                    image.repoTags.addIfAbsent(repoTag);
+                    event("tag", repoTag, null);
+                    response.status(201);
+                } else {
+                    push(image, response, profile);
+                }
+            } else {
+                notFound(response);
+            }
+        } else if ("DELETE".equals(method)) {
+            if (segments.length == 2 && segments[0].equals("containers")) {
+                FakeContainer container = container(segments[1], response);
+                if (container != null) {
+                    removeContainer(container, params, response);
+                }
+            } else if (segments[0].equals("images") && segments.length > 1) {
+                FakeImage image = image(path.substring("/images/".length()), response);
+                if (image != null) {
+                    removeImage(image, params, response, profile);
+                }
+            } else {
+                notFound(response);
+            }
+        } else {
+            notFound(response);
+        }
+    }
+
+    private void version(Response response, FakeDaemonProfile profile) throws IOException {
+        ObjectNode version = MAPPER.createObjectNode();
+        version.put("ApiVersion", API_VERSION);
+        version.put("Arch", "amd64");
+        version.put("GitCommit", "fake");
+        version.put("GoVersion", "go1.3.3");
+        version.put("KernelVersion", "3.16.0");
+        version.put("Os", "linux");
+        version.put("Version", "1.3.2");
+        json(response, 200, version, profile);
+    }
+
+    private void info(Response response, FakeDaemonProfile profile) throws IOException {
+        ObjectNode info = MAPPER.createObjectNode();
+        info.put("Containers", containers.size());
+        info.put("Debug", false);
+        info.put("Driver", "aufs");
+        info.put("ExecutionDriver", "native-0.2");
+        info.put("IPv4Forwarding", "1");
+        info.put("Images", images.size());
+        info.put("IndexServerAddress", "https://index.docker.io/v1/");
+        info.put("InitPath", "/usr/bin/docker");
+        info.put("InitSha1", "");
+        info.put("KernelVersion", "3.16.0");
+        info.put("MemoryLimit", true);
+        info.put("NEventsListener", eventListeners.size());
+        info.put("NFd", 10);
+        info.put("NGoroutines", 10 + eventListeners.size());
+        info.putArray("Sockets").add(uri);
+        info.put("SwapLimit", 0);
+        json(response, 200, info, profile);
+    }
+
+    private void events(Map<String, String> params, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        long since = params.containsKey("since") ? Long.parseLong(params.get("since")) : Long.MAX_VALUE;
+        long until = params.containsKey("until") ? Long.parseLong(params.get("until")) : Long.MAX_VALUE;
+        BlockingQueue<ObjectNode> queue = new LinkedBlockingQueue<ObjectNode>();
+        if (until == Long.MAX_VALUE) {
+            eventListeners.add(queue);
+        }
+        try {
+            response.startChunks(JSON);
+            List<ObjectNode> history;
+            synchronized (eventHistory) {
+                history = new ArrayList<ObjectNode>(eventHistory);
+            }
+            for (ObjectNode event : history) {
+                long time = event.get("time").asLong();
+                if (time >= since && time <= until) {
+                    chunk(response, JSON, MAPPER.writeValueAsBytes(event), profile);
+                }
+            }
+            while (until == Long.MAX_VALUE && !closed) {
+                ObjectNode event = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    chunk(response, JSON, MAPPER.writeValueAsBytes(event), profile);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            eventListeners.remove(queue);
+        }
+    }
+
+    private void event(String status, String id, String from) {
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("status", status);
+        event.put("id", id);
+        if (from != null) {
+            event.put("from", from);
+        }
+        event.put("time", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        synchronized (eventHistory) {
+            eventHistory.add(event);
+            if (eventHistory.size() > EVENT_HISTORY) {
+                eventHistory.removeFirst();
+            }
+        }
+        for (BlockingQueue<ObjectNode> listener : eventListeners) {
+            listener.offer(event);
+        }
+    }
+
+    private void listContainers(Map<String, String> params, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        boolean all = isTrue(params.get("all"));
+        int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : -1;
+        List<FakeContainer> listed = new ArrayList<FakeContainer>();
+        for (FakeContainer container : containers.values()) {
+            if (all || limit > 0 || container.running) {
+                listed.add(container);
+            }
+        }
+        Collections.sort(listed, new Comparator<FakeContainer>() {
+            @Override
+            public int compare(FakeContainer a, FakeContainer b) {
+                return a.created < b.created ? 1 : a.created > b.created ? -1 : 0;
+            }
+        });
+        ArrayNode list = MAPPER.createArrayNode();
+        for (FakeContainer container : listed.subList(0, limit > 0 ? Math.min(limit, listed.size()) : listed
+                .size())) {
+            synchronized (container) {
+                ObjectNode node = list.addObject();
+                node.put("Command", container.command());
+                node.put("Created", TimeUnit.MILLISECONDS.toSeconds(container.created));
+                node.put("Id", container.id);
+                node.put("Image", container.image);
+                node.putArray("Names").add(container.name);
+                node.putArray("Ports");
+                node.put("Status", status(container));
+            }
+        }
+        json(response, 200, list, profile);
+    }
+
+    private static String status(FakeContainer container) {
+        if (container.running) {
+            return "Up " + ago(container.startedAt) + (container.paused ? " (Paused)" : "");
+        } else if (container.startedAt == 0) {
+            return "";
+        }
+        return "Exited (" + container.exitCode + ") " + ago(container.finishedAt) + " ago";
+    }
+
+    private ObjectNode inspect(FakeContainer container) {
+        synchronized (container) {
+            ObjectNode node = MAPPER.createObjectNode();
+            node.put("Id", container.id);
+            node.put("Created", timestamp(container.created));
+            JsonNode cmd = container.config.get("Cmd");
+            node.put("Path", cmd != null && cmd.size() > 0 ? cmd.get(0).asText() : "");
+            ArrayNode args = node.putArray("Args");
+            for (int i = 1; cmd != null && i < cmd.size(); i++) {
+                args.add(cmd.get(i));
+            }
+            node.put("Config", container.config);
+            ObjectNode state = node.putObject("State");
+            state.put("Running", container.running);
+            state.put("Paused", container.paused);
+            state.put("Pid", container.running ? container.pid : 0);
+            state.put("ExitCode", container.exitCode);
+            state.put("StartedAt", timestamp(container.startedAt));
+            state.put("FinishedAt", timestamp(container.finishedAt));
+            node.put("Image", container.imageId);
+            ObjectNode network = node.putObject("NetworkSettings");
+            network.put("IPAddress", container.running ? container.ipAddress : "");
+            network.put("IPPrefixLen", container.running ? 16 : 0);
+            network.put("Gateway", container.running ? "172.17.42.1" : "");
+            network.put("Bridge", container.running ? "docker0" : "");
+            node.put("ResolvConfPath", "/var/lib/docker/containers/" + container.id + "/resolv.conf");
+            node.put("HostnamePath", "/var/lib/docker/containers/" + container.id + "/hostname");
+            node.put("HostsPath", "/var/lib/docker/containers/" + container.id + "/hosts");
+            node.put("Name", container.name);
+            node.put("Driver", "aufs");
+            node.put("ExecDriver", "native-0.2");
+            node.put("MountLabel", "");
+            node.put("ProcessLabel", "");
+            node.putObject("Volumes");
+            node.putObject("VolumesRW");
+            node.put("HostConfig", container.hostConfig);
+            return node;
+        }
+    }
+
+    private void createContainer(Map<String, String> params, byte[] body, Response response,
+            FakeDaemonProfile profile) throws IOException {
+        ObjectNode config = (ObjectNode) MAPPER.readTree(body);
+        String imageName = config.path("Image").asText();
+        FakeImage image = findImage(imageName);
+        if (image == null) {
+            response.status(404).body("text/plain", "No such image: " + imageName);
+            return;
+        }
+        String name = "/" + (params.containsKey("name") ? params.get("name") : "fake_" + containerNames
+                .incrementAndGet());
+        JsonNode hostConfig = config.remove("HostConfig");
+        FakeContainer container = new FakeContainer(randomId(), name, imageName, image.id, config,
+                hostConfig != null ? hostConfig : MAPPER.createObjectNode());
+        synchronized (containers) {
+            for (FakeContainer existing : containers.values()) {
+                if (existing.name.equals(name)) {
+                    response.status(409).body("text/plain", "Conflict, The name " + name.substring(1)
+                            + " is already assigned to " + existing.id.substring(0, 12) + ".");
+                    return;
+                }
+            }
+            containers.put(container.id, container);
+        }
+        event("create", container.id, imageName);
+
+        ObjectNode created = MAPPER.createObjectNode();
+        created.put("Id", container.id);
+        created.putNull("Warnings");
+        json(response, 201, created, profile);
+    }
+
+    private void containerAction(FakeContainer container, String action, byte[] body, Map<String, String> params,
+            Response response, FakeDaemonProfile profile) throws IOException {
+        if (action.equals("logs") || action.equals("attach")) {
+            logs(container, params, response, profile);
+            return;
+        } else if (action.equals("copy")) {
+            copy(container, body, response, profile);
+            return;
+        }
+
+        List<String> events = new ArrayList<String>();
+        int status = 204;
+        String error = null;
+        synchronized (container) {
+            if (action.equals("start")) {
+                if (container.running) {
+                    status = 304;
+                } else {
+                    if (body.length > 0) {
+                        container.hostConfig = MAPPER.readTree(body);
+                    }
+                    container.start();
+                    events.add("start");
+                }
+            } else if (action.equals("stop")) {
+                if (!container.running) {
+                    status = 304;
+                } else {
+                    container.stop(0);
+                    events.add("die");
+                    events.add("stop");
+                }
+            } else if (action.equals("kill")) {
+                if (!container.running) {
+                    status = 500;
+                    error = "Cannot kill container " + container.id + ": container is not running";
+                } else {
+                    container.stop(137);
+                    events.add("kill");
+                    events.add("die");
+                }
+            } else if (action.equals("restart")) {
+                if (container.running) {
+                    container.stop(0);
+                    events.add("die");
+                }
+                container.start();
+                events.add("start");
+                events.add("restart");
+            } else if (action.equals("pause") || action.equals("unpause")) {
+                if (!container.running) {
+                    status = 500;
+                    error = "Container " + container.id + " is not running";
+                } else {
+                    container.paused = action.equals("pause");
+                    events.add(action);
+                }
+            } else if (action.equals("wait")) {
+                // containers exit as soon as they are waited for
+                if (container.running) {
+                    container.stop(0);
+                    events.add("die");
+                }
+                status = 200;
+            } else {
+                status = 404;
+                error = "page not found";
+            }
+        }
+        for (String event : events) {
+            event(event, container.id, container.image);
+        }
+
+        if (error != null) {
+            response.status(status).body("text/plain", error);
+        } else if (action.equals("wait")) {
+            json(response, 200, MAPPER.createObjectNode().put("StatusCode", container.exitCode), profile);
+        } else {
+            response.status(status);
+        }
+    }
+
+    private void removeContainer(FakeContainer container, Map<String, String> params, Response response)
+            throws IOException {
+        boolean died;
+        synchronized (container) {
+            if (container.running && !isTrue(params.get("force"))) {
+                response.status(409).body(
+                        "text/plain",
+                        "Conflict, You cannot remove a running container. Stop the container before attempting "
+                                + "removal or use -f");
+                return;
+            }
+            died = container.running;
+            if (died) {
+                container.stop(137);
+            }
+        }
+        containers.remove(container.id);
+        if (died) {
+            event("die", container.id, container.image);
+        }
+        event("destroy", container.id, container.image);
+        response.status(204);
+    }
+
+    private void logs(FakeContainer container, Map<String, String> params, Response response,
+            FakeDaemonProfile profile) throws IOException {
+        boolean stdout = isTrue(params.get("stdout")) || isTrue(params.get("stream"));
+        boolean stderr = isTrue(params.get("stderr"));
+        boolean timestamps = isTrue(params.get("timestamps"));
+        boolean tty = container.config.path("Tty").asBoolean();
+        int lines = profile.getLogLines();
+        int first = 0;
+        if (params.containsKey("tail") && !"all".equals(params.get("tail"))) {
+            first = Math.max(0, lines - Integer.parseInt(params.get("tail")));
+        }
+
+        response.startChunks(RAW_STREAM);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(8192);
+        for (int i = first; i < lines; i++) {
+            // every tenth line goes to stderr
+            boolean error = i % 10 == 9;
+            if (error ? !stderr : !stdout) {
+                continue;
+            }
+            String line = (timestamps ? timestamp(container.created + i) + " " : "") + container.name.substring(1)
+                    + (error ? " warning " : " line ") + (i + 1) + "\n";
+            byte[] bytes = line.getBytes(Charsets.UTF_8);
+            if (!tty) {
+                chunk.write(error ? 2 : 1);
+                chunk.write(0);
+                chunk.write(0);
+                chunk.write(0);
+                chunk.write(bytes.length >>> 24);
+                chunk.write(bytes.length >>> 16);
+                chunk.write(bytes.length >>> 8);
+                chunk.write(bytes.length);
+            }
+            chunk.write(bytes, 0, bytes.length);
+            if (chunk.size() >= 8192) {
+                chunk(response, RAW_STREAM, chunk.toByteArray(), profile);
+                chunk.reset();
+            }
+        }
+        if (chunk.size() > 0) {
+            chunk(response, RAW_STREAM, chunk.toByteArray(), profile);
+        }
+    }
+
+    private void copy(FakeContainer container, byte[] body, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        String resource = MAPPER.readTree(body).path("Resource").asText();
+        byte[] content = ("content of " + resource + " in " + container.name + "\n").getBytes(Charsets.UTF_8);
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        TarArchiveOutputStream out = new TarArchiveOutputStream(tar);
+        TarArchiveEntry entry = new TarArchiveEntry(FilenameUtils.getName(resource));
+        entry.setSize(content.length);
+        out.putArchiveEntry(entry);
+        out.write(content);
+        out.closeArchiveEntry();
+        out.close();
+        body(response, "application/x-tar", tar.toByteArray(), profile);
+    }
+
+    private void top(FakeContainer container, Response response, FakeDaemonProfile profile) throws IOException {
+        synchronized (container) {
+            if (!container.running) {
+                response.status(500).body("text/plain", "Container " + container.id + " is not running");
+                return;
+            }
+        }
+        ObjectNode top = MAPPER.createObjectNode();
+        ArrayNode titles = top.putArray("Titles");
+        for (String title : new String[] { "UID", "PID", "PPID", "C", "STIME", "TTY", "TIME", "CMD" }) {
+            titles.add(title);
+        }
+        ArrayNode process = top.putArray("Processes").addArray();
+        for (String column : new String[] { "root", String.valueOf(container.pid), "1", "0", "12:00", "?",
+                "00:00:00", container.command() }) {
+            process.add(column);
+        }
+        json(response, 200, top, profile);
+    }
+
+    private void changes(Response response, FakeDaemonProfile profile) throws IOException {
+        ArrayNode changes = MAPPER.createArrayNode();
+        changes.addObject().put("Path", "/tmp").put("Kind", 0);
+        changes.addObject().put("Path", "/tmp/fake").put("Kind", 1);
+        json(response, 200, changes, profile);
+    }
+
+    private void commit(Map<String, String> params, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        FakeContainer container = container(params.get("container"), response);
+        if (container == null) {
+            return;
+        }
+        FakeImage image = new FakeImage(randomId(), System.currentTimeMillis());
+        if (params.containsKey("repo")) {
+            String tag = params.get("tag");
+            image.repoTags.add(normalize(params.get("repo") + (tag != null ? ":" + tag : "")));
+        }
+        images.put(image.id, image);
+        json(response, 201, MAPPER.createObjectNode().put("Id", image.id), profile);
+    }
+
+    private void build(Map<String, String> params, byte[] body, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        String dockerfileName = params.containsKey("dockerfile") ? params.get("dockerfile") : "Dockerfile";
+        String dockerfile = null;
+        TarArchiveInputStream tar = new TarArchiveInputStream(new ByteArrayInputStream(body));
+        TarArchiveEntry entry;
+        while ((entry = tar.getNextTarEntry()) != null) {
+            if (FilenameUtils.normalize(entry.getName()).equals(dockerfileName)) {
+                dockerfile = IOUtils.toString(tar, "UTF-8");
+            }
+        }
+
+        response.startChunks(JSON);
+        if (dockerfile == null) {
+            String message = "Cannot locate specified Dockerfile: " + dockerfileName;
+            ObjectNode error = MAPPER.createObjectNode().put("error", message);
+            error.putObject("errorDetail").put("message", message);
+            chunk(response, JSON, MAPPER.writeValueAsBytes(error), profile);
+            return;
+        }
+        List<DockerfileInstruction> instructions = Dockerfile.parse(dockerfile).getInstructions();
+        String imageId = randomId();
+        for (int i = 0; i < instructions.size(); i++) {
+            DockerfileInstruction instruction = instructions.get(i);
+            stream(response, "Step " + i + " : " + instruction.getKeyword() + " " + instruction.getRawArguments()
+                    + "\n", profile);
+            stream(response, " ---> " + (i == instructions.size() - 1 ? imageId : randomId()).substring(0, 12)
+                    + "\n", profile);
+        }
+        FakeImage image = new FakeImage(imageId, System.currentTimeMillis());
+        if (params.containsKey("t")) {
+            image.repoTags.add(normalize(params.get("t")));
+        }
+        images.put(image.id, image);
+        stream(response, "Successfully built " + imageId.substring(0, 12) + "\n", profile);
+    }
+
+    private void stream(Response response, String text, FakeDaemonProfile profile) throws IOException {
+        chunk(response, JSON, MAPPER.writeValueAsBytes(MAPPER.createObjectNode().put("stream", text)), profile);
+    }
+
+    private void createImage(Map<String, String> params, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        response.startChunks(JSON);
+        if (params.containsKey("fromSrc")) {
+            // an import, the body is the root file system
+            FakeImage image = new FakeImage(randomId(), System.currentTimeMillis());
+            if (params.containsKey("repo")) {
+                String tag = params.get("tag");
+                image.repoTags.add(normalize(params.get("repo") + (tag != null ? ":" + tag : "")));
+            }
+            images.put(image.id, image);
+            progress(response, null, image.id, -1, -1, profile);
+            return;
+        }
+
+        String repository = params.get("fromImage");
+        String tag = params.containsKey("tag") && !params.get("tag").isEmpty() ? params.get("tag") : "latest";
+        progress(response, null, "Pulling repository " + repository, -1, -1, profile);
+        transferLayers(response, "Download", profile);
+        String imageId = addImage(repository + ":" + tag);
+        event("pull", repository + ":" + tag, null);
+        progress(response, imageId.substring(0, 12), "Download complete", -1, -1, profile);
+        progress(response, null, "Status: Downloaded newer image for " + repository + ":" + tag, -1, -1, profile);
+    }
+
+    private void push(FakeImage image, Response response, FakeDaemonProfile profile) throws IOException {
+        response.startChunks(JSON);
+        String repoTag = image.repoTags.isEmpty() ? image.id : image.repoTags.get(0);
+        progress(response, null, "The push refers to a repository [" + repoTag + "]", -1, -1, profile);
+        transferLayers(response, "Push", profile);
+        progress(response, null, "Pushing tag for rev [" + image.id.substring(0, 12) + "] on {" + repoTag + "}", -1,
+                -1, profile);
+    }
+
+    /**
+     * Reports the transfer of three layers of 16 MB in ten steps each.
+     */
+    private void transferLayers(Response response, String verb, FakeDaemonProfile profile) throws IOException {
+        long total = 16 * 1024 * 1024;
+        for (int layer = 0; layer < 3; layer++) {
+            String layerId = randomId().substring(0, 12);
+            for (int step = 1; step <= 10; step++) {
+                progress(response, layerId, verb + "ing", total * step / 10, total, profile);
+            }
+            progress(response, layerId, verb + " complete", -1, -1, profile);
+        }
+    }
+
+    private void progress(Response response, String id, String status, long current, long total,
+            FakeDaemonProfile profile) throws IOException {
+        ObjectNode message = MAPPER.createObjectNode();
+        message.put("status", status);
+        if (current >= 0) {
+            message.putObject("progressDetail").put("current", current).put("total", total);
+            int done = (int) (50 * current / total);
+            StringBuilder bar = new StringBuilder("[");
+            for (int i = 0; i < 50; i++) {
+                bar.append(i < done ? '=' : i == done ? '>' : ' ');
+            }
+            message.put("progress", bar.append("] ").append(current / 1024 / 1024).append(" MB/")
+                    .append(total / 1024 / 1024).append(" MB").toString());
+        }
+        if (id != null) {
+            message.put("id", id);
+        }
+        chunk(response, JSON, (MAPPER.writeValueAsString(message) + "\r\n").getBytes(Charsets.UTF_8), profile);
+    }
+
+    private void listImages(Response response, FakeDaemonProfile profile) throws IOException {
+        ArrayNode list = MAPPER.createArrayNode();
+        for (FakeImage image : images.values()) {
+            ObjectNode node = list.addObject();
+            node.put("Created", TimeUnit.MILLISECONDS.toSeconds(image.created));
+            node.put("Id", image.id);
+            node.put("ParentId", "");
+            ArrayNode repoTags = node.putArray("RepoTags");
+            for (String repoTag : image.repoTags) {
+                repoTags.add(repoTag);
+            }
+            if (image.repoTags.isEmpty()) {
+                repoTags.add("<none>:<none>");
+            }
+            node.put("Size", 0);
+            node.put("VirtualSize", 2433303);
+        }
+        json(response, 200, list, profile);
+    }
+
+    private ObjectNode inspect(FakeImage image) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("Architecture", "amd64");
+        node.put("Author", "");
+        node.put("Comment", "");
+        node.put("Container", "");
+        node.put("Created", timestamp(image.created));
+        node.put("DockerVersion", "1.3.2");
+        node.put("Id", image.id);
+        node.put("Os", "linux");
+        node.put("Parent", "");
+        node.put("Size", 0);
+        return node;
+    }
+
+    private void searchImages(Map<String, String> params, Response response, FakeDaemonProfile profile)
+            throws IOException {
+        String term = params.containsKey("term") ? params.get("term") : "";
+        ArrayNode results = MAPPER.createArrayNode();
+        ObjectNode official = results.addObject();
+        official.put("star_count", 100);
+        official.put("is_official", true);
+        official.put("is_trusted", false);
+        official.put("name", term);
+        official.put("description", "The official " + term + " image");
+        ObjectNode trusted = results.addObject();
+        trusted.put("star_count", 3);
+        trusted.put("is_official", false);
+        trusted.put("is_trusted", true);
+        trusted.put("name", "someone/" + term);
+        trusted.put("description", "");
+        json(response, 200, results, profile);
+    }
+
+    private void removeImage(FakeImage image, Map<String, String> params, Response response,
+            FakeDaemonProfile profile) throws IOException {
+        if (!isTrue(params.get("force"))) {
+            for (FakeContainer container : containers.values()) {
+                if (container.imageId.equals(image.id)) {
+                    response.status(409).body(
+                            "text/plain",
+                            "Conflict, cannot delete " + image.id.substring(0, 12) + " because the container "
+                                    + container.id.substring(0, 12) + " is using it");
+                    return;
+                }
+            }
+        }
+        images.remove(image.id);
+        ArrayNode removed = MAPPER.createArrayNode();
+        for (String repoTag : image.repoTags) {
+            removed.addObject().put("Untagged", repoTag);
+            event("untag", image.id, null);
+        }
+        removed.addObject().put("Deleted", image.id);
+        event("delete", image.id, null);
+        json(response, 200, removed, profile);
+    }
+
+    private FakeContainer container(String idOrName, Response response) throws IOException {
+        FakeContainer container = idOrName != null ? findContainer(idOrName) : null;
+        if (container == null) {
+            response.status(404).body("text/plain", "No such container: " + idOrName);
+        }
+        return container;
+    }
+
+    private FakeContainer findContainer(String idOrName) {
+        FakeContainer container = containers.get(idOrName);
+        if (container != null) {
+            return container;
+        }
+        for (FakeContainer candidate : containers.values()) {
+            if (candidate.name.equals("/" + idOrName) || candidate.id.startsWith(idOrName)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private FakeImage image(String name, Response response) throws IOException {
+        FakeImage image = findImage(name);
+        if (image == null) {
+            response.status(404).body("text/plain", "No such image: " + name);
+        }
+        return image;
+    }
+
+    private FakeImage findImage(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        FakeImage image = images.get(name);
+        if (image != null) {
+            return image;
+        }
+        String repoTag = normalize(name);
+        for (FakeImage candidate : images.values()) {
+            if (candidate.repoTags.contains(repoTag) || candidate.id.startsWith(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the <code>latest</code> tag to references without one.
+     */
+    private static String normalize(String repoTag) {
+        int slash = repoTag.lastIndexOf('/');
+        return repoTag.indexOf(':', slash + 1) < 0 ? repoTag + ":latest" : repoTag;
+    }
+
+    private String randomId() {
+        StringBuilder id = new StringBuilder(64);
+        for (int i = 0; i < 64; i++) {
+            id.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return id.toString();
+    }
+
+    private static void notFound(Response response) throws IOException {
+        response.status(404).body("text/plain", "page not found");
+    }
+
+    private static void json(Response response, int status, JsonNode json, FakeDaemonProfile profile)
+            throws IOException {
+        response.status(status);
+        body(response, JSON, MAPPER.writeValueAsBytes(json), profile);
+    }
+
+    private static void body(Response response, String contentType, byte[] body, FakeDaemonProfile profile)
+            throws IOException {
+        response.body(contentType, body);
+        profile.throttle(body.length);
+    }
+
+    private static void chunk(Response response, String contentType, byte[] chunk, FakeDaemonProfile profile)
+            throws IOException {
+        response.chunk(contentType, chunk);
+        profile.throttle(chunk.length);
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<String, String>();
+        for (String param : query.split("&")) {
+            int equals = param.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(param.substring(0, equals), "UTF-8"), URLDecoder.decode(param
+                        .substring(equals + 1), "UTF-8"));
+            } else if (!param.isEmpty()) {
+                params.put(URLDecoder.decode(param, "UTF-8"), "");
+            }
+        }
+        return params;
+    }
+
+    private static boolean isTrue(String param) {
+        return "1".equals(param) || "true".equalsIgnoreCase(param);
+    }
+
+    private static String timestamp(long millis) {
+        if (millis == 0) {
+            return "0001-01-01T00:00:00Z";
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'000000Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    private static String ago(long millis) {
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - millis);
+        return seconds < 60 ? seconds + " seconds" : seconds / 60 + " minutes";
+    }
+
+    private static class FakeImage {
+
+        final String id;
+
+        final long created;
+
+        final CopyOnWriteArrayList<String> repoTags = new CopyOnWriteArrayList<String>();
+
+        FakeImage(String id, long created) {
+            this.id = id;
+            this.created = created;
+        }
+    }
+
+    /**
+     * A container, guarded by its own monitor.
+     */
+    private class FakeContainer {
+
+        final String id;
+
+        final String name;
+
+        final String image;
+
+        final String imageId;
+
+        final ObjectNode config;
+
+        final long created = System.currentTimeMillis();
+
+        final String ipAddress = "172.17.0." + (2 + random.nextInt(250));
+
+        JsonNode hostConfig;
+
+        boolean running;
+
+        boolean paused;
+
+        int pid;
+
+        int exitCode;
+
+        long startedAt;
+
+        long finishedAt;
+
+        FakeContainer(String id, String name, String image, String imageId, ObjectNode config, JsonNode hostConfig) {
+            this.id = id;
+            this.name = name;
+            this.image = image;
+            this.imageId = imageId;
+            this.config = config;
+            this.hostConfig = hostConfig;
+        }
+
+        void start() {
+            running = true;
+            paused = false;
+            pid = 1000 + random.nextInt(30000);
+            startedAt = System.currentTimeMillis();
+        }
+
+        void stop(int exitCode) {
+            running = false;
+            paused = false;
+            this.exitCode = exitCode;
+            finishedAt = System.currentTimeMillis();
+        }
+
+        String command() {
+            StringBuilder command = new StringBuilder();
+            for (JsonNode part : config.path("Cmd")) {
+                command.append(command.length() > 0 ? " " : "").append(part.asText());
+            }
+            return command.toString();
+        }
+    }
+}
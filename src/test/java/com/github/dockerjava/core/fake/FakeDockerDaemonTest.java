@@ -0,0 +1,169 @@
+package com.github.dockerjava.core.fake;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.InternalServerErrorException;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.FrameDecoder;
+import com.github.dockerjava.core.ProgressReader;
+import com.google.common.io.Files;
+
+public class FakeDockerDaemonTest {
+
+    private FakeDockerDaemon daemon;
+
+    private DockerClient dockerClient;
+
+    private void start(FakeDockerDaemon daemon) {
+        this.daemon = daemon;
+        dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        daemon.close();
+    }
+
+    @Test
+    public void runsContainerLifecycle() throws Exception {
+        start(FakeDockerDaemon.onLocalhost(new FakeDaemonProfile()));
+
+        CreateContainerResponse created = dockerClient.createContainerCmd("busybox").withName("web")
+                .withCmd("sleep", "9999").exec();
+        dockerClient.startContainerCmd(created.getId()).exec();
+
+        InspectContainerResponse inspected = dockerClient.inspectContainerCmd("web").exec();
+        assertThat(inspected.getId(), equalTo(created.getId()));
+        assertThat(inspected.getName(), equalTo("/web"));
+        assertThat(inspected.getState().isRunning(), equalTo(true));
+        assertThat(inspected.getConfig().getCmd(), equalTo(new String[] { "sleep", "9999" }));
+
+        List<Container> running = dockerClient.listContainersCmd().exec();
+        assertThat(running, hasSize(1));
+        assertThat(running.get(0).getNames(), equalTo(new String[] { "/web" }));
+
+        assertThat(dockerClient.waitContainerCmd(created.getId()).exec(), equalTo(0));
+        assertThat(dockerClient.listContainersCmd().exec(), hasSize(0));
+        assertThat(dockerClient.listContainersCmd().withShowAll(true).exec(), hasSize(1));
+
+        dockerClient.removeContainerCmd(created.getId()).exec();
+        assertThat(daemon.getContainerCount(), equalTo(0));
+        try {
+            dockerClient.inspectContainerCmd(created.getId()).exec();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // removed
+        }
+    }
+
+    @Test
+    public void streamsMultiplexedLogs() throws Exception {
+        start(FakeDockerDaemon.onUnixSocket(File.createTempFile("docker-java", ".sock"),
+                new FakeDaemonProfile().withLogLines(20)));
+        String id = dockerClient.createContainerCmd("busybox").withName("app").exec().getId();
+
+        InputStream logs = dockerClient.logContainerCmd(id).withStdOut().withStdErr().exec();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        FrameDecoder decoder = new FrameDecoder(logs);
+        decoder.decode(FrameDecoder.copyTo(stdout, stderr));
+        decoder.close();
+
+        assertThat(stdout.toString("UTF-8"), containsString("app line 1\n"));
+        assertThat(stderr.toString("UTF-8"), equalTo("app warning 10\napp warning 20\n"));
+    }
+
+    @Test
+    public void reportsEvents() throws Exception {
+        start(FakeDockerDaemon.onLocalhost(new FakeDaemonProfile()));
+        final List<String> statuses = new CopyOnWriteArrayList<String>();
+        final CountDownLatch destroyed = new CountDownLatch(1);
+        ExecutorService events = dockerClient.eventsCmd(new EventCallback() {
+            @Override
+            public void onEvent(Event event) {
+                statuses.add(event.getStatus());
+                if (event.getStatus().equals("destroy")) {
+                    destroyed.countDown();
+                }
+            }
+
+            @Override
+            public void onException(Throwable throwable) {
+            }
+
+            @Override
+            public void onCompletion(int numEvents) {
+            }
+        }).exec();
+        // the events request may still be on its way
+        Thread.sleep(200);
+
+        String id = dockerClient.createContainerCmd("busybox").exec().getId();
+        dockerClient.startContainerCmd(id).exec();
+        dockerClient.removeContainerCmd(id).withForce().exec();
+
+        assertThat(destroyed.await(5, TimeUnit.SECONDS), equalTo(true));
+        events.shutdown();
+        assertThat(statuses, contains("create", "start", "die", "destroy"));
+    }
+
+    @Test
+    public void buildsAndPullsImages() throws Exception {
+        start(FakeDockerDaemon.onLocalhost(new FakeDaemonProfile()));
+
+        File dockerFolder = Files.createTempDir();
+        FileUtils.write(new File(dockerFolder, "Dockerfile"), "FROM busybox\nRUN echo hello\n");
+        InputStream build = dockerClient.buildImageCmd(dockerFolder).withTag("fake/built").exec();
+        String output = new String(com.google.common.io.ByteStreams.toByteArray(build), "UTF-8");
+        FileUtils.deleteDirectory(dockerFolder);
+        assertThat(output, containsString("Step 1 : RUN echo hello"));
+        assertThat(output, containsString("Successfully built"));
+        assertThat(dockerClient.inspectImageCmd("fake/built").exec().getId().length(), equalTo(64));
+
+        new ProgressReader(dockerClient.pullImageCmd("nginx").withTag("1.7.7").exec()).awaitCompletion();
+        dockerClient.createContainerCmd("nginx:1.7.7").exec();
+    }
+
+    @Test
+    public void appliesProfile() throws Exception {
+        start(FakeDockerDaemon.onLocalhost(new FakeDaemonProfile().withLatency(50, TimeUnit.MILLISECONDS)));
+        long started = System.nanoTime();
+        dockerClient.pingCmd().exec();
+        assertThat(System.nanoTime() - started, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50)));
+
+        daemon.setProfile(new FakeDaemonProfile().withErrors(1, 500));
+        try {
+            dockerClient.versionCmd().exec();
+            throw new AssertionError("expected an InternalServerErrorException");
+        } catch (InternalServerErrorException e) {
+            // injected
+        }
+        assertThat(daemon.getRequestCount(), equalTo(2L));
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.dockerjava.core.inventory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+
+public class ContainerIndexTest {
+
+    private FakeDockerDaemon daemon;
+
+    private DockerClient dockerClient;
+
+    private ContainerInventory inventory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+        dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        inventory.close();
+        dockerClient.close();
+        daemon.close();
+    }
+
+    @Test
+    public void followsInventory() throws Exception {
+        String exited = dockerClient.createContainerCmd("busybox").withName("exited").exec().getId();
+        dockerClient.startContainerCmd(exited).exec();
+        dockerClient.waitContainerCmd(exited).exec();
+        inventory = new ContainerInventory(dockerClient);
+        inventory.start();
+
+        // added after the start, told about the containers listed so far
+        ContainerIndex index = new ContainerIndex(inventory);
+        assertThat(index.getByName("exited").getId(), equalTo(exited));
+        assertThat(index.getByName("/exited").getId(), equalTo(exited));
+        assertThat(ids(index.getByImage("busybox:latest")), contains(exited));
+        Collection<Container> running = index.getByImage("busybox", ContainerStatus.RUNNING);
+        assertThat(running, empty());
+
+        String web = dockerClient.createContainerCmd("busybox").withName("web").withCmd("httpd", "-f").exec()
+                .getId();
+        dockerClient.startContainerCmd(web).exec();
+        awaitStatus(web, ContainerStatus.RUNNING);
+
+        // the view follows the change
+        assertThat(ids(running), contains(web));
+        assertThat(ids(index.getByStatus(ContainerStatus.EXITED)), contains(exited));
+        assertThat(index.getStatusCounts().get(ContainerStatus.RUNNING), equalTo(1));
+
+        dockerClient.killContainerCmd(web).exec();
+        awaitStatus(web, ContainerStatus.EXITED);
+        assertThat(running, empty());
+        assertThat(ids(index.getByStatus(ContainerStatus.EXITED)).size(), equalTo(2));
+
+        dockerClient.removeContainerCmd(web).exec();
+        awaitStatus(web, null);
+        assertThat(index.getByName("web"), nullValue());
+        assertThat(ids(index.getByImage("busybox")), contains(exited));
+    }
+
+    @Test
+    public void ordersByCreation() throws Exception {
+        inventory = new ContainerInventory(dockerClient);
+        ContainerIndex index = new ContainerIndex(inventory);
+        index.onChange(null, container("a", 100, "Exited (0) 2 minutes ago"));
+        index.onChange(null, container("b", 200, "Exited (0) 1 minutes ago"));
+        index.onChange(null, container("c", 150, "Up 3 minutes"));
+
+        assertThat(ids(index.getCreatedBefore(Long.MAX_VALUE)), contains("a", "c", "b"));
+        assertThat(ids(index.getCreatedBefore(200)), contains("a", "c"));
+        assertThat(ids(index.getByStatus(ContainerStatus.EXITED, 200)), contains("a"));
+        assertThat(ids(index.getByStatus(ContainerStatus.EXITED, 201)), contains("a", "b"));
+        assertThat(ids(index.getByStatus(ContainerStatus.RUNNING, 100)), empty());
+    }
+
+    @Test
+    public void forgetsImagesWithoutContainers() throws Exception {
+        inventory = new ContainerInventory(dockerClient);
+        ContainerIndex index = new ContainerIndex(inventory);
+        assertThat(index.getByImage("busybox"), empty());
+
+        Container running = container("a", 100, "Up 3 minutes");
+        index.onChange(null, running);
+        assertThat(ids(index.getByImage("busybox", ContainerStatus.RUNNING)), contains("a"));
+        assertThat(index.getStatusCounts().get(ContainerStatus.RUNNING), equalTo(1));
+
+        Container exited = container("a", 100, "Exited (0) 1 minutes ago");
+        index.onChange(running, exited);
+        assertThat(index.getStatusCounts().get(ContainerStatus.RUNNING), equalTo(0));
+        assertThat(index.getStatusCounts().get(ContainerStatus.EXITED), equalTo(1));
+
+        index.onChange(exited, null);
+        assertThat(index.getByImage("busybox"), empty());
+        assertThat(index.getStatusCounts().get(ContainerStatus.EXITED), equalTo(0));
+    }
+
+    private static Container container(String id, long created, String status) throws Exception {
+        return new ObjectMapper().readValue("{\"Id\":\"" + id + "\",\"Names\":[\"/" + id
+                + "\"],\"Image\":\"busybox\",\"Created\":" + created + ",\"Status\":\"" + status + "\"}",
+                Container.class);
+    }
+
+    private static List<String> ids(Collection<Container> containers) {
+        List<String> ids = new ArrayList<String>();
+        for (Container container : containers) {
+            ids.add(container.getId());
+        }
+        return ids;
+    }
+
+    private void awaitStatus(String id, ContainerStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            Container container = inventory.get(id);
+            if (status == null ? container == null : container != null && ContainerStatus.of(container) == status) {
+                return;
+            }
+            assertThat(id + " did not become " + status, System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.dockerjava.core.inventory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.core.metrics.MetricsRegistry;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+
+public class ContainerInventoryTest {
+
+    private FakeDockerDaemon daemon;
+
+    private DockerClient dockerClient;
+
+    private ContainerInventory inventory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+        dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig()).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (inventory != null) {
+            inventory.close();
+        }
+        dockerClient.close();
+        daemon.close();
+    }
+
+    @Test
+    public void listsAndFollowsEvents() throws Exception {
+        String exited = dockerClient.createContainerCmd("busybox").withName("exited").exec().getId();
+        dockerClient.startContainerCmd(exited).exec();
+        dockerClient.waitContainerCmd(exited).exec();
+        String created = dockerClient.createContainerCmd("busybox").withName("created").exec().getId();
+
+        inventory = new ContainerInventory(dockerClient);
+        final List<String> changes = new CopyOnWriteArrayList<String>();
+        inventory.addListener(new ContainerInventory.Listener() {
+            @Override
+            public void onChange(Container previous, Container current) {
+                changes.add((previous == null ? "added " : current == null ? "removed " : "changed ")
+                        + (current != null ? current : previous).getNames()[0]);
+            }
+        });
+        inventory.start();
+
+        ContainerInventory.Snapshot snapshot = inventory.getSnapshot();
+        assertThat(snapshot.size(), equalTo(2));
+        assertThat(ContainerStatus.of(snapshot.get(exited)), equalTo(ContainerStatus.EXITED));
+        assertThat(ContainerStatus.of(snapshot.get(created)), equalTo(ContainerStatus.CREATED));
+        assertThat(inventory.getSnapshot(), sameInstance(snapshot));
+
+        String web = dockerClient.createContainerCmd("busybox").withName("web").withCmd("httpd", "-f").exec()
+                .getId();
+        dockerClient.startContainerCmd(web).exec();
+        awaitStatus(web, ContainerStatus.RUNNING);
+        Container running = inventory.get(web);
+        assertThat(running.getNames(), equalTo(new String[] { "/web" }));
+        assertThat(running.getCommand(), equalTo("httpd -f"));
+        assertThat(running.getCreated(), greaterThan(0L));
+
+        dockerClient.pauseContainerCmd(web).exec();
+        awaitStatus(web, ContainerStatus.PAUSED);
+        dockerClient.unpauseContainerCmd(web).exec();
+        awaitStatus(web, ContainerStatus.RUNNING);
+
+        dockerClient.removeContainerCmd(created).exec();
+        awaitStatus(created, null);
+
+        ContainerInventory.Snapshot later = inventory.getSnapshot();
+        assertThat(later.getVersion(), greaterThan(snapshot.getVersion()));
+        assertThat(later.size(), equalTo(2));
+        assertThat(snapshot.size(), equalTo(2));
+        assertThat(snapshot.get(web), nullValue());
+        assertThat(changes.get(0).startsWith("added "), equalTo(true));
+        assertThat(changes.contains("added /web"), equalTo(true));
+        assertThat(changes.get(changes.size() - 1), equalTo("removed /created"));
+    }
+
+    @Test
+    public void resyncIgnoresPassingTime() throws Exception {
+        String web = dockerClient.createContainerCmd("busybox").withName("web").exec().getId();
+        dockerClient.startContainerCmd(web).exec();
+        inventory = new ContainerInventory(dockerClient);
+        inventory.start();
+        long version = inventory.getVersion();
+
+        Thread.sleep(1100);
+        inventory.resync();
+        assertThat(inventory.getVersion(), equalTo(version));
+    }
+
+    @Test
+    public void resyncCorrectsMissedChanges() throws Exception {
+        inventory = new ContainerInventory(dockerClient).withResyncInterval(200, TimeUnit.MILLISECONDS);
+        inventory.start();
+        String web = dockerClient.createContainerCmd("busybox").withName("web").exec().getId();
+        // the inspect that follows the event most likely fails, as if the event had been missed
+        daemon.setProfile(new FakeDaemonProfile().withErrors(1, 500));
+        Thread.sleep(300);
+        daemon.setProfile(new FakeDaemonProfile());
+        awaitStatus(web, ContainerStatus.CREATED);
+    }
+
+    @Test
+    public void restartsFromSnapshot() throws Exception {
+        File file = File.createTempFile("inventory", ".snapshot");
+        file.delete();
+        file.deleteOnExit();
+        inventory = new ContainerInventory(dockerClient).withSnapshot(file);
+        inventory.start();
+        String web = dockerClient.createContainerCmd("busybox").withName("web").withCmd("httpd", "-f").exec()
+                .getId();
+        dockerClient.startContainerCmd(web).exec();
+        String db = dockerClient.createContainerCmd("busybox").withName("db").exec().getId();
+        awaitStatus(web, ContainerStatus.RUNNING);
+        awaitStatus(db, ContainerStatus.CREATED);
+        inventory.close();
+        assertThat(file.exists(), equalTo(true));
+
+        // changes while no inventory runs
+        dockerClient.killContainerCmd(web).exec();
+        dockerClient.removeContainerCmd(db).exec();
+        String cache = dockerClient.createContainerCmd("busybox").withName("cache").exec().getId();
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        DockerClient restarted = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withMetrics(metrics)).build();
+        try {
+            inventory = new ContainerInventory(restarted).withSnapshot(file);
+            inventory.start();
+            awaitStatus(web, ContainerStatus.EXITED);
+            awaitStatus(db, null);
+            awaitStatus(cache, ContainerStatus.CREATED);
+            assertThat(inventory.get(web).getNames(), equalTo(new String[] { "/web" }));
+            assertThat(metrics.getCommandStats().containsKey("ListContainersCmd"), equalTo(false));
+            inventory.close();
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    public void listsWithoutUsableSnapshot() throws Exception {
+        String web = dockerClient.createContainerCmd("busybox").withName("web").exec().getId();
+        File file = File.createTempFile("inventory", ".snapshot");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("not a snapshot".getBytes("UTF-8"));
+        out.close();
+
+        inventory = new ContainerInventory(dockerClient).withSnapshot(file);
+        inventory.start();
+        assertThat(inventory.getSnapshot().size(), equalTo(1));
+        inventory.close();
+
+        // too old
+        inventory = new ContainerInventory(dockerClient).withSnapshot(file, 0, TimeUnit.SECONDS);
+        dockerClient.removeContainerCmd(web).exec();
+        Thread.sleep(1100);
+        inventory.start();
+        assertThat(inventory.getSnapshot().size(), equalTo(0));
+    }
+
+    private void awaitStatus(String id, ContainerStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            Container container = inventory.get(id);
+            if (status == null ? container == null : container != null && ContainerStatus.of(container) == status) {
+                return;
+            }
+            assertThat(id + " did not become " + status, System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.dockerjava.core.journal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.EventCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.EventHubImpl;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+
+public class EventJournalTest {
+
+    private static final String ID_A = "3a4b5c6d7e8f90112233445566778899aabbccddeeff00112233445566778899";
+
+    private static final String ID_B = "fedcba9876543210fedcba9876543210fedcba9876543210fedcba9876543210";
+
+    private File directory;
+
+    private EventJournal journal;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = File.createTempFile("journal", "");
+        directory.delete();
+        journal = EventJournal.open(directory);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        journal.close();
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void appendsAndReplays() throws Exception {
+        assertThat(journal.append(new Event("create", ID_A, "busybox:latest", 1000)), equalTo(0L));
+        assertThat(journal.append(new Event("start", ID_A, "busybox:latest", 1000)), equalTo(1L));
+        // resent after a reconnect, or older
+        assertThat(journal.append(new Event("create", ID_A, "busybox:latest", 1000)), equalTo(-1L));
+        assertThat(journal.append(new Event("create", ID_B, "busybox:latest", 999)), equalTo(-1L));
+        assertThat(journal.append(new Event("untag", "busybox", null, 1001)), equalTo(2L));
+        assertThat(journal.append(new Event("something new", ID_B, "nginx:1.7", 1005)), equalTo(3L));
+        assertThat(journal.append(new Event(null, null, null, 1005)), equalTo(4L));
+
+        List<String> events = replay(0);
+        assertThat(events.get(0), equalTo("0 create " + ID_A + " busybox:latest 1000"));
+        assertThat(events.get(2), equalTo("2 untag busybox null 1001"));
+        assertThat(events.get(3), equalTo("3 something new " + ID_B + " nginx:1.7 1005"));
+        assertThat(events.get(4), equalTo("4 null null null 1005"));
+        assertThat(replay(3).size(), equalTo(2));
+        assertThat(journal.getNextOffset(), equalTo(5L));
+
+        // the cursor sees what is appended later
+        EventJournal.Cursor cursor = journal.replay(4);
+        cursor.next();
+        assertThat(cursor.hasNext(), equalTo(false));
+        journal.append(new Event("die", ID_A, "busybox:latest", 1010));
+        assertThat(cursor.hasNext(), equalTo(true));
+        assertThat(cursor.next().getEvent().getStatus(), equalTo("die"));
+        assertThat(cursor.getOffset(), equalTo(6L));
+        cursor.close();
+    }
+
+    @Test
+    public void encodesCompactly() throws Exception {
+        journal.append(new Event("create", ID_A, "busybox:latest", 1417000000));
+        File segment = directory.listFiles()[0];
+        long first = segment.length();
+        for (int i = 1; i <= 100; i++) {
+            journal.append(new Event(i % 2 == 0 ? "start" : "die", ID_A, "busybox:latest", 1417000000 + i));
+        }
+        long perEvent = (segment.length() - first) / 100;
+        assertThat(perEvent, lessThan(45L));
+    }
+
+    @Test
+    public void rollsSegmentsAndCompacts() throws Exception {
+        journal.close();
+        journal = EventJournal.open(directory, 300);
+        String[] ids = { ID_A, ID_B, "not-hex" };
+        for (int i = 0; i < 60; i++) {
+            journal.append(new Event("start", ids[i % 3], "busybox:latest", 1000 + i));
+        }
+        journal.append(new Event("untag", null, null, 2000));
+        int segments = journal.getSegmentCount();
+        assertThat(segments, greaterThan(3));
+        List<String> before = replay(0);
+
+        long removed = journal.compact();
+        assertThat(removed, greaterThan(0L));
+        List<String> after = replay(0);
+        assertThat(after.size(), equalTo(before.size() - (int) removed));
+        // the latest of each id survives, with its offset
+        for (String event : before.subList(before.size() - 4, before.size())) {
+            assertThat(after.contains(event), equalTo(true));
+        }
+        assertThat(journal.getSegmentCount(), lessThan(segments));
+        assertThat(journal.compact(), equalTo(0L));
+
+        // replay from a removed offset starts at the next one there is
+        assertThat(replay(1).get(0), equalTo(after.get(0)));
+        assertThat(journal.append(new Event("die", ID_A, null, 2001)), equalTo(61L));
+    }
+
+    @Test
+    public void finishesInterruptedCompaction() throws Exception {
+        journal.append(new Event("create", ID_A, "busybox:latest", 1000));
+        journal.append(new Event("start", ID_A, "busybox:latest", 1001));
+        journal.close();
+        File segment = directory.listFiles()[0];
+        // deleted, and the compacted copy not yet renamed into its place
+        assertThat(segment.renameTo(new File(segment.getPath() + ".compact")), equalTo(true));
+
+        journal = EventJournal.open(directory);
+        assertThat(replay(0).size(), equalTo(2));
+        journal.close();
+        // a compaction that did not get as far as deleting the segment
+        FileUtils.writeStringToFile(new File(segment.getPath() + ".compact"), "partial");
+
+        journal = EventJournal.open(directory);
+        assertThat(replay(0).size(), equalTo(2));
+        assertThat(directory.list().length, equalTo(1));
+    }
+
+    @Test
+    public void dropsTornTail() throws Exception {
+        journal.append(new Event("create", ID_A, "busybox:latest", 1000));
+        journal.append(new Event("start", ID_A, "busybox:latest", 1001));
+        journal.close();
+        FileOutputStream out = new FileOutputStream(directory.listFiles()[0], true);
+        out.write(new byte[] { 40, 1, 2, 3 });
+        out.close();
+
+        journal = EventJournal.open(directory);
+        assertThat(journal.getNextOffset(), equalTo(2L));
+        assertThat(journal.append(new Event("start", ID_A, "busybox:latest", 1001)), equalTo(-1L));
+        assertThat(journal.append(new Event("die", ID_A, "busybox:latest", 1002)), equalTo(2L));
+        assertThat(replay(0).size(), equalTo(3));
+    }
+
+    @Test
+    public void journalsEventStream() throws Exception {
+        FakeDockerDaemon daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+        DockerClient dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withEventJournal(journal)).build();
+        try {
+            String id = dockerClient.createContainerCmd("busybox").exec().getId();
+            // replays the daemon's past events, the create happened before the stream was opened
+            EventHubImpl eventHub = new EventHubImpl(dockerClient).withSince(1);
+            eventHub.subscribe(new EventCallback() {
+                @Override
+                public void onEvent(Event event) {
+                }
+
+                @Override
+                public void onException(Throwable throwable) {
+                }
+
+                @Override
+                public void onCompletion(int numEvents) {
+                }
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journal.getNextOffset() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            EventJournal.Entry entry = journal.replay(0).next();
+            assertThat(entry.getEvent().getStatus(), equalTo("create"));
+            assertThat(entry.getEvent().getId(), equalTo(id));
+            eventHub.close();
+        } finally {
+            dockerClient.close();
+            daemon.close();
+        }
+    }
+
+    private List<String> replay(long offset) {
+        List<String> events = new ArrayList<String>();
+        EventJournal.Cursor cursor = journal.replay(offset);
+        while (cursor.hasNext()) {
+            EventJournal.Entry entry = cursor.next();
+            Event event = entry.getEvent();
+            events.add(entry.getOffset() + " " + event.getStatus() + " " + event.getId() + " " + event.getFrom() + " "
+                    + event.getTime());
+        }
+        cursor.close();
+        return events;
+    }
+}
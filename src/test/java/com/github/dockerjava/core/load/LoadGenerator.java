@@ -0,0 +1,337 @@
+package com.github.dockerjava.core.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.DockerClientConfig.DockerClientConfigBuilder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.core.metrics.DockerCmdMetrics;
+import com.github.dockerjava.core.metrics.MetricsRegistry;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.google.common.base.Preconditions;
+
+/**
+ * Drives a mix of operations through one {@link DockerClient} from a number of concurrent callers and reports the
+ * throughput of every operation and the latency percentiles of every command.
+ *
+ * <pre>
+ * LoadReport report = new LoadGenerator(config).withConcurrency(64).withMix(&quot;cycle=1,inspect=4&quot;)
+ *         .withDuration(10, TimeUnit.SECONDS).run();
+ * report.print(System.out);
+ * </pre>
+ *
+ * Operations are picked at random, weighted by the mix. The built-in ones are
+ * <ul>
+ * <li><code>cycle</code>: create, start, inspect and remove a <code>busybox</code> container</li>
+ * <li><code>create</code>: create and remove a container</li>
+ * <li><code>inspect</code>, <code>logs</code>: inspect or read the logs of a container created for the run</li>
+ * <li><code>list</code>, <code>ping</code>, <code>version</code>, <code>info</code></li>
+ * </ul>
+ * Against a real daemon the image <code>busybox</code> has to be pulled beforehand.
+ *
+ * {@link #main(String[])} runs the generator at several levels of concurrency, see there.
+ */
+public class LoadGenerator {
+
+    public static final String IMAGE = "busybox";
+
+    /**
+     * One unit of work of the mix. Must be thread safe.
+     */
+    public interface Operation {
+        void run(DockerClient dockerClient, String containerId) throws Exception;
+    }
+
+    private static final Map<String, Operation> BUILT_IN = new LinkedHashMap<String, Operation>();
+
+    static {
+        BUILT_IN.put("cycle", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                String id = dockerClient.createContainerCmd(IMAGE).withCmd("true").exec().getId();
+                dockerClient.startContainerCmd(id).exec();
+                dockerClient.inspectContainerCmd(id).exec();
+                dockerClient.removeContainerCmd(id).withForce().exec();
+            }
+        });
+        BUILT_IN.put("create", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                String id = dockerClient.createContainerCmd(IMAGE).withCmd("true").exec().getId();
+                dockerClient.removeContainerCmd(id).exec();
+            }
+        });
+        BUILT_IN.put("inspect", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                dockerClient.inspectContainerCmd(containerId).exec();
+            }
+        });
+        BUILT_IN.put("logs", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) throws IOException {
+                InputStream logs = dockerClient.logContainerCmd(containerId).withStdOut().withStdErr().exec();
+                try {
+                    IOUtils.copy(logs, NullOutputStream.NULL_OUTPUT_STREAM);
+                } finally {
+                    logs.close();
+                }
+            }
+        });
+        BUILT_IN.put("list", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                dockerClient.listContainersCmd().withShowAll(true).exec();
+            }
+        });
+        BUILT_IN.put("ping", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                dockerClient.pingCmd().exec();
+            }
+        });
+        BUILT_IN.put("version", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                dockerClient.versionCmd().exec();
+            }
+        });
+        BUILT_IN.put("info", new Operation() {
+            @Override
+            public void run(DockerClient dockerClient, String containerId) {
+                dockerClient.infoCmd().exec();
+            }
+        });
+    }
+
+    private final DockerClientConfig config;
+
+    private final Map<String, Operation> operations = new LinkedHashMap<String, Operation>();
+
+    private final Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+
+    private int concurrency = 1;
+
+    private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+
+    private long warmupNanos = TimeUnit.SECONDS.toNanos(2);
+
+    public LoadGenerator(DockerClientConfig config) {
+        Preconditions.checkNotNull(config, "config is null");
+        this.config = config;
+        withMix("cycle=1");
+    }
+
+    public LoadGenerator withConcurrency(int concurrency) {
+        Preconditions.checkArgument(concurrency > 0, "concurrency must be positive");
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Sets how long operations are measured, after the warmup.
+     */
+    public LoadGenerator withDuration(long duration, TimeUnit unit) {
+        Preconditions.checkArgument(duration > 0, "duration must be positive");
+        this.durationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Sets how long operations run before they are measured.
+     */
+    public LoadGenerator withWarmup(long warmup, TimeUnit unit) {
+        Preconditions.checkArgument(warmup >= 0, "warmup is negative");
+        this.warmupNanos = unit.toNanos(warmup);
+        return this;
+    }
+
+    /**
+     * Replaces the mix with built-in operations and their weights, e.g. <code>cycle=1,inspect=4,list=1</code>.
+     */
+    public LoadGenerator withMix(String mix) {
+        Preconditions.checkNotNull(mix, "mix is null");
+        operations.clear();
+        weights.clear();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Operation operation = BUILT_IN.get(parts[0]);
+            Preconditions.checkArgument(operation != null, "unknown operation %s, known are %s", parts[0],
+                    BUILT_IN.keySet());
+            withOperation(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1, operation);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an operation to the mix.
+     */
+    public LoadGenerator withOperation(String name, int weight, Operation operation) {
+        Preconditions.checkNotNull(name, "name is null");
+        Preconditions.checkNotNull(operation, "operation is null");
+        Preconditions.checkArgument(weight > 0, "weight of %s must be positive", name);
+        operations.put(name, operation);
+        weights.put(name, weight);
+        return this;
+    }
+
+    /**
+     * Runs the mix on a new client. The container the operations share is created before and removed after the run.
+     */
+    public LoadReport run() throws Exception {
+        // commands are recorded in a fresh registry once the warmup is over
+        final AtomicReference<MetricsRegistry> metrics = new AtomicReference<MetricsRegistry>(new MetricsRegistry());
+        DockerCmdMetrics currentMetrics = new DockerCmdMetrics() {
+            @Override
+            public void commandStarted(String command) {
+                metrics.get().commandStarted(command);
+            }
+
+            @Override
+            public void commandCompleted(String command, long durationNanos, Throwable error) {
+                metrics.get().commandCompleted(command, durationNanos, error);
+            }
+
+            @Override
+            public void requestBytes(String command, long bytes) {
+                metrics.get().requestBytes(command, bytes);
+            }
+
+            @Override
+            public void responseBytes(String command, long bytes) {
+                metrics.get().responseBytes(command, bytes);
+            }
+        };
+        final DockerClient dockerClient = DockerClientBuilder.getInstance(config)
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withMetrics(currentMetrics)).build();
+
+        final String containerId = dockerClient.createContainerCmd(IMAGE).withCmd("true").exec().getId();
+        try {
+            final List<String> names = new ArrayList<String>();
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                for (int i = 0; i < weight.getValue(); i++) {
+                    names.add(weight.getKey());
+                }
+            }
+            final LoadReport report = new LoadReport(concurrency, operations.keySet());
+            final long start = System.nanoTime();
+            final long measureFrom = start + warmupNanos;
+            final long end = measureFrom + durationNanos;
+            final CountDownLatch done = new CountDownLatch(concurrency);
+
+            List<Thread> callers = new ArrayList<Thread>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                final Random random = new Random(i);
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            long now;
+                            while ((now = System.nanoTime()) < end) {
+                                String name = names.get(random.nextInt(names.size()));
+                                Throwable error = null;
+                                try {
+                                    operations.get(name).run(dockerClient, containerId);
+                                } catch (Throwable t) {
+                                    error = t;
+                                }
+                                long completed = System.nanoTime();
+                                if (now >= measureFrom && completed <= end) {
+                                    report.record(name, completed - now, error);
+                                }
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }, "docker-java-load-" + i);
+                caller.setDaemon(true);
+                callers.add(caller);
+            }
+            for (Thread caller : callers) {
+                caller.start();
+            }
+            if (warmupNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+            }
+            metrics.set(new MetricsRegistry());
+            done.await();
+            report.complete(durationNanos, metrics.get());
+            return report;
+        } finally {
+            dockerClient.removeContainerCmd(containerId).withForce().exec();
+            dockerClient.close();
+        }
+    }
+
+    /**
+     * Runs the generator at every level of concurrency and prints a report for each and a summary of how the
+     * throughput scaled. Configured with system properties:
+     * <ul>
+     * <li><code>load.daemon</code>: <code>fake</code> for an in-process {@link FakeDockerDaemon} (default), or
+     * <code>docker</code> for the daemon configured by the <code>docker.io.*</code> properties</li>
+     * <li><code>load.profile</code>: the {@link FakeDaemonProfile} of the fake daemon, <code>none</code>,
+     * <code>local</code> (default) or <code>remote</code></li>
+     * <li><code>load.concurrency</code>: the levels of concurrency, default <code>1,8,64,512</code></li>
+     * <li><code>load.duration</code>, <code>load.warmup</code>: per level in seconds, default 10 and 2</li>
+     * <li><code>load.mix</code>: see {@link #withMix(String)}, default <code>cycle=1</code></li>
+     * <li><code>load.maxConnections</code>: the size of the connection pool, default that of the configuration</li>
+     * </ul>
+     */
+    public static void main(String[] args) throws Exception {
+        List<LoadReport> reports = runLevels();
+        for (LoadReport report : reports) {
+            report.print(System.out);
+            System.out.println();
+        }
+        LoadReport.printScaling(reports, System.out);
+    }
+
+    static List<LoadReport> runLevels() throws Exception {
+        FakeDockerDaemon daemon = null;
+        DockerClientConfigBuilder configBuilder;
+        if ("docker".equals(System.getProperty("load.daemon", "fake"))) {
+            configBuilder = DockerClientConfig.createDefaultConfigBuilder();
+        } else {
+            String profile = System.getProperty("load.profile", "local");
+            daemon = FakeDockerDaemon.onLocalhost("remote".equals(profile) ? FakeDaemonProfile.remote() : "none"
+                    .equals(profile) ? new FakeDaemonProfile() : FakeDaemonProfile.local());
+            configBuilder = daemon.getClientConfigBuilder();
+        }
+        if (System.getProperty("load.maxConnections") != null) {
+            Integer maxConnections = Integer.valueOf(System.getProperty("load.maxConnections"));
+            configBuilder.withMaxTotalConnections(maxConnections).withMaxPerRouteConnections(maxConnections);
+        }
+        DockerClientConfig config = configBuilder.build();
+
+        try {
+            List<LoadReport> reports = new ArrayList<LoadReport>();
+            for (String level : System.getProperty("load.concurrency", "1,8,64,512").split(",")) {
+                reports.add(new LoadGenerator(config).withConcurrency(Integer.parseInt(level.trim()))
+                        .withMix(System.getProperty("load.mix", "cycle=1"))
+                        .withDuration(Long.getLong("load.duration", 10), TimeUnit.SECONDS)
+                        .withWarmup(Long.getLong("load.warmup", 2), TimeUnit.SECONDS).run());
+            }
+            return reports;
+        } finally {
+            if (daemon != null) {
+                daemon.close();
+            }
+        }
+    }
+}
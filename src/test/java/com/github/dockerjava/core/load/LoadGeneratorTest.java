@@ -0,0 +1,86 @@
+package com.github.dockerjava.core.load;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+
+public class LoadGeneratorTest {
+
+    private FakeDockerDaemon daemon;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        daemon.close();
+    }
+
+    @Test
+    public void reportsOperationsAndCommands() throws Exception {
+        LoadReport report = new LoadGenerator(daemon.getClientConfig()).withConcurrency(4)
+                .withMix("cycle=1,inspect=2,list=1").withWarmup(100, TimeUnit.MILLISECONDS)
+                .withDuration(500, TimeUnit.MILLISECONDS).run();
+
+        assertThat(report.getThroughput(), greaterThan(0.0));
+        LoadReport.OperationStats cycle = report.getOperations().get("cycle");
+        assertThat(cycle.getCompleted(), greaterThan(0L));
+        assertThat(cycle.getFailures(), equalTo(0L));
+        assertThat(report.getCommands().keySet(), hasItems("CreateContainerCmd", "StartContainerCmd",
+                "InspectContainerCmd", "RemoveContainerCmd", "ListContainersCmd"));
+        assertThat(report.getCommands().get("CreateContainerCmd").getLatency().getValueAtPercentile(99),
+                greaterThan(0L));
+        // the shared container is gone, and so are those of the cycles
+        assertThat(daemon.getContainerCount(), equalTo(0));
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        report.print(new PrintStream(printed, true, "UTF-8"));
+        assertThat(printed.toString("UTF-8"), not(equalTo("")));
+    }
+
+    @Test
+    public void countsFailures() throws Exception {
+        LoadReport report = new LoadGenerator(daemon.getClientConfig()).withMix("version=1")
+                .withOperation("failing", 1, new LoadGenerator.Operation() {
+                    @Override
+                    public void run(DockerClient dockerClient, String containerId) {
+                        throw new IllegalStateException("failed");
+                    }
+                }).withWarmup(0, TimeUnit.MILLISECONDS).withDuration(300, TimeUnit.MILLISECONDS).run();
+
+        assertThat(report.getOperations().get("failing").getFailures(), greaterThan(0L));
+        assertThat(report.getOperations().get("failing").getLastFailure(), notNullValue());
+        assertThat(report.getOperations().get("version").getFailures(), equalTo(0L));
+    }
+
+    /**
+     * Runs with <code>mvn -Pload test</code>, configured as described in {@link LoadGenerator#main(String[])}.
+     */
+    @Test(groups = "load")
+    public void scales() throws Exception {
+        List<LoadReport> reports = LoadGenerator.runLevels();
+        for (LoadReport report : reports) {
+            report.print(System.out);
+            System.out.println();
+        }
+        LoadReport.printScaling(reports, System.out);
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.dockerjava.core.load;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.dockerjava.core.metrics.LatencyHistogram;
+import com.github.dockerjava.core.metrics.MetricsRegistry;
+import com.github.dockerjava.core.metrics.MetricsRegistry.CommandStats;
+
+/**
+ * The outcome of one {@link LoadGenerator} run: per operation of the mix the completed and failed executions and
+ * their latency, per command the latency recorded by the client's {@link MetricsRegistry}.
+ */
+public class LoadReport {
+
+    /**
+     * Throughput that grows less than this from one level of concurrency to the next counts as saturated.
+     */
+    static final double SCALING_THRESHOLD = 1.1;
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final int concurrency;
+
+    private final Map<String, OperationStats> operations = new LinkedHashMap<String, OperationStats>();
+
+    private long durationNanos;
+
+    private MetricsRegistry commands;
+
+    LoadReport(int concurrency, Collection<String> operationNames) {
+        this.concurrency = concurrency;
+        for (String name : operationNames) {
+            operations.put(name, new OperationStats());
+        }
+    }
+
+    void record(String operation, long nanos, Throwable error) {
+        OperationStats stats = operations.get(operation);
+        if (error == null) {
+            stats.latency.record(nanos);
+        } else {
+            stats.failures.incrementAndGet();
+            stats.lastFailure = error;
+        }
+    }
+
+    void complete(long durationNanos, MetricsRegistry commands) {
+        this.durationNanos = durationNanos;
+        this.commands = commands;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public Map<String, OperationStats> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return the statistics of the commands executed in the measured period, sorted by command name
+     */
+    public SortedMap<String, CommandStats> getCommands() {
+        return commands.getCommandStats();
+    }
+
+    /**
+     * @return the operations completed per second, all of the mix together
+     */
+    public double getThroughput() {
+        long completed = 0;
+        for (OperationStats stats : operations.values()) {
+            completed += stats.getCompleted();
+        }
+        return perSecond(completed);
+    }
+
+    private double perSecond(long count) {
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("concurrency %d, %.1f s, %.1f operations/s%n", concurrency, durationNanos / 1e9, getThroughput());
+        out.printf("%-24s %10s %10s %10s", "operation", "ops/s", "completed", "failed");
+        printPercentileHeaders(out);
+        for (Map.Entry<String, OperationStats> operation : operations.entrySet()) {
+            OperationStats stats = operation.getValue();
+            out.printf("%-24s %10.1f %10d %10d", operation.getKey(), perSecond(stats.getCompleted()),
+                    stats.getCompleted(), stats.getFailures());
+            printPercentiles(out, stats.getLatency());
+        }
+        out.printf("%-24s %10s %10s %10s", "command", "cmds/s", "completed", "failed");
+        printPercentileHeaders(out);
+        for (Map.Entry<String, CommandStats> command : getCommands().entrySet()) {
+            LatencyHistogram latency = command.getValue().getLatency();
+            long failed = 0;
+            for (long count : command.getValue().getErrorCounts().values()) {
+                failed += count;
+            }
+            out.printf("%-24s %10.1f %10d %10d", command.getKey(), perSecond(latency.getCount()), latency.getCount()
+                    - failed, failed);
+            printPercentiles(out, latency);
+        }
+        for (Map.Entry<String, OperationStats> operation : operations.entrySet()) {
+            Throwable failure = operation.getValue().getLastFailure();
+            if (failure != null) {
+                out.printf("last failure of %s: %s%n", operation.getKey(), failure);
+            }
+        }
+    }
+
+    private static void printPercentileHeaders(PrintStream out) {
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10s", "p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : percentile) + " ms");
+        }
+        out.printf(" %10s%n", "max ms");
+    }
+
+    private static void printPercentiles(PrintStream out, LatencyHistogram latency) {
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10.3f", latency.getValueAtPercentile(percentile) / 1e6);
+        }
+        out.printf(" %10.3f%n", latency.getValueAtPercentile(100) / 1e6);
+    }
+
+    /**
+     * Prints the throughput of each run relative to the first, and the first level of concurrency at which the
+     * throughput grew by less than {@value #SCALING_THRESHOLD} times over the previous level.
+     */
+    public static void printScaling(List<LoadReport> reports, PrintStream out) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        double base = reports.get(0).getThroughput();
+        out.printf("%-12s %12s %10s %12s%n", "concurrency", "ops/s", "speedup", "efficiency");
+        for (LoadReport report : reports) {
+            double speedup = base > 0 ? report.getThroughput() / base : 0;
+            double ideal = (double) report.getConcurrency() / reports.get(0).getConcurrency();
+            out.printf("%-12d %12.1f %10.2f %11.0f%%%n", report.getConcurrency(), report.getThroughput(), speedup,
+                    100 * speedup / ideal);
+        }
+        LoadReport saturated = getSaturation(reports);
+        if (saturated != null) {
+            out.printf("stops scaling at concurrency %d%n", saturated.getConcurrency());
+        } else {
+            out.println("scales up to the highest concurrency");
+        }
+    }
+
+    /**
+     * @return the first run that was less than {@value #SCALING_THRESHOLD} times as fast as the one before,
+     *         <code>null</code> if there is none
+     */
+    public static LoadReport getSaturation(List<LoadReport> reports) {
+        for (int i = 1; i < reports.size(); i++) {
+            if (reports.get(i).getThroughput() < SCALING_THRESHOLD * reports.get(i - 1).getThroughput()) {
+                return reports.get(i);
+            }
+        }
+        return null;
+    }
+
+    public static class OperationStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private volatile Throwable lastFailure;
+
+        /**
+         * @return the latency of the completed executions
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getCompleted() {
+            return latency.getCount();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public Throwable getLastFailure() {
+            return lastFailure;
+        }
+    }
+}
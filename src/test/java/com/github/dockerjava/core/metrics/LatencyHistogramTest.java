@@ -0,0 +1,47 @@
+package com.github.dockerjava.core.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestValueAt(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueAt(index - 1), lessThanOrEqualTo(value - 1));
+            }
+        }
+        assertThat(LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(Long.MAX_VALUE)), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void computesPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1000000);
+        }
+
+        assertThat(histogram.getCount(), equalTo(100L));
+        assertThat(histogram.getTotalNanos(), equalTo(5050L * 1000000));
+        assertWithinResolution(histogram.getValueAtPercentile(50), 50000000);
+        assertWithinResolution(histogram.getValueAtPercentile(99), 99000000);
+        assertWithinResolution(histogram.getValueAtPercentile(100), 100000000);
+        assertThat(histogram.getCountAtOrBelow(10000000 - 1000000 / 2), equalTo(9L));
+    }
+
+    private static void assertWithinResolution(long value, long expected) {
+        assertThat(value, greaterThanOrEqualTo(expected));
+        assertThat(value, lessThanOrEqualTo(expected + expected / LatencyHistogram.SUB_BUCKETS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.dockerjava.core.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.metrics.MetricsRegistry.CommandStats;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer;
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsRegistryTest {
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    private MetricsRegistry metrics;
+
+    private DockerClient dockerClient;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                if (request.getPath().startsWith("/version")) {
+                    response.body("application/json", "{\"ApiVersion\":\"1.15\"}");
+                } else if (request.getPath().startsWith("/containers/abc/logs")) {
+                    response.chunk("text/plain", "0123456789".getBytes("UTF-8"));
+                } else {
+                    response.status(404).body("text/plain", "no such container");
+                }
+            }
+        });
+
+        metrics = new MetricsRegistry();
+        DockerClientConfig config = new DockerClientConfig.DockerClientConfigBuilder()
+                .withUri("unix://" + socketFile.getAbsolutePath()).withLoggingFilter(false).build();
+        dockerClient = DockerClientBuilder.getInstance(config)
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withMetrics(metrics)).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        server.close();
+    }
+
+    @Test
+    public void recordsCommands() throws Exception {
+        dockerClient.versionCmd().exec();
+        dockerClient.versionCmd().exec();
+        try {
+            dockerClient.inspectContainerCmd("missing").exec();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // counted
+        }
+        InputStream logs = dockerClient.logContainerCmd("abc").withStdOut().exec();
+        assertThat(IOUtils.toString(logs, "UTF-8"), equalTo("0123456789"));
+        logs.close();
+
+        CommandStats version = metrics.getCommandStats("VersionCmd");
+        assertThat(version.getLatency().getCount(), equalTo(2L));
+        assertThat(version.getInFlight(), equalTo(0L));
+        assertThat(version.getErrorCounts().isEmpty(), equalTo(true));
+
+        CommandStats inspect = metrics.getCommandStats("InspectContainerCmd");
+        assertThat(inspect.getErrorCounts(), equalTo(Collections.singletonMap("NotFoundException", 1L)));
+
+        assertThat(metrics.getCommandStats("LogContainerCmd").getResponseBytes(), equalTo(10L));
+    }
+
+    @Test
+    public void exportsPrometheusText() throws Exception {
+        dockerClient.versionCmd().exec();
+        try {
+            dockerClient.inspectContainerCmd("missing").exec();
+        } catch (NotFoundException e) {
+            // counted
+        }
+
+        String text = new PrometheusExporter(metrics).scrape();
+        assertThat(text, containsString("# TYPE docker_command_duration_seconds histogram\n"));
+        assertThat(text, containsString("docker_command_duration_seconds_bucket{command=\"VersionCmd\",le=\"+Inf\"} 1\n"));
+        assertThat(text, containsString("docker_command_duration_seconds_count{command=\"VersionCmd\"} 1\n"));
+        assertThat(text, containsString("docker_commands_in_flight{command=\"VersionCmd\"} 0\n"));
+        assertThat(text, containsString(
+                "docker_command_errors_total{command=\"InspectContainerCmd\",exception=\"NotFoundException\"} 1\n"));
+    }
+
+    @Test
+    public void servesMetrics() throws Exception {
+        dockerClient.versionCmd().exec();
+        HttpServer httpServer = new PrometheusExporter(metrics).serve(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URL url = new URL("http://127.0.0.1:" + httpServer.getAddress().getPort() + PrometheusExporter.PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertThat(connection.getResponseCode(), equalTo(200));
+            assertThat(connection.getContentType(), equalTo(PrometheusExporter.CONTENT_TYPE));
+            assertThat(IOUtils.toString(connection.getInputStream(), "UTF-8"),
+                    containsString("docker_command_duration_seconds_count{command=\"VersionCmd\"} 1\n"));
+        } finally {
+            httpServer.stop(0);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.dockerjava.core.trace;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer;
+
+public class DockerCmdTracerTest {
+
+    private static class RecordingTracer implements DockerCmdTracer {
+
+        final List<CommandEvent> commands = new CopyOnWriteArrayList<CommandEvent>();
+
+        final List<String> streamEvents = new CopyOnWriteArrayList<String>();
+
+        volatile StreamEvent closedStream;
+
+        @Override
+        public void commandCompleted(CommandEvent event) {
+            commands.add(event);
+        }
+
+        @Override
+        public void streamOpened(StreamEvent event) {
+            streamEvents.add("opened");
+        }
+
+        @Override
+        public void streamStalled(StreamEvent event, long stalledNanos) {
+            streamEvents.add("stalled");
+        }
+
+        @Override
+        public void streamClosed(StreamEvent event) {
+            streamEvents.add("closed");
+            closedStream = event;
+        }
+
+        @Override
+        public long getStallThresholdNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(100);
+        }
+    }
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    private RecordingTracer tracer;
+
+    private DockerClient dockerClient;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                if (request.getPath().startsWith("/version")) {
+                    response.body("application/json", "{\"ApiVersion\":\"1.15\"}");
+                } else if (request.getPath().startsWith("/containers/abc/logs")) {
+                    response.chunk("text/plain", "first\n".getBytes("UTF-8"));
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    response.chunk("text/plain", "second\n".getBytes("UTF-8"));
+                } else {
+                    response.status(404).body("text/plain", "no such container");
+                }
+            }
+        });
+
+        tracer = new RecordingTracer();
+        DockerClientConfig config = new DockerClientConfig.DockerClientConfigBuilder()
+                .withUri("unix://" + socketFile.getAbsolutePath()).withLoggingFilter(false).build();
+        dockerClient = DockerClientBuilder.getInstance(config)
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withTracer(tracer)).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        server.close();
+    }
+
+    @Test
+    public void tracesCommands() throws Exception {
+        dockerClient.versionCmd().exec();
+        try {
+            dockerClient.inspectContainerCmd("missing").exec();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // traced
+        }
+
+        assertThat(tracer.commands.size(), equalTo(2));
+        CommandEvent version = tracer.commands.get(0);
+        assertThat(version.getCommand(), equalTo("VersionCmd"));
+        assertThat(version.getTarget(), nullValue());
+        assertThat(version.getStatus(), equalTo(200));
+        assertThat(version.getError(), nullValue());
+
+        CommandEvent inspect = tracer.commands.get(1);
+        assertThat(inspect.getCommand(), equalTo("InspectContainerCmd"));
+        assertThat(inspect.getTarget(), equalTo("missing"));
+        assertThat(inspect.getStatus(), equalTo(404));
+        assertThat(inspect.getError(), instanceOf(NotFoundException.class));
+    }
+
+    @Test
+    public void tracesStreams() throws Exception {
+        InputStream logs = dockerClient.logContainerCmd("abc").withStdOut().exec();
+        assertThat(tracer.commands.get(0).getTarget(), equalTo("abc"));
+        assertThat(IOUtils.toString(logs, "UTF-8"), equalTo("first\nsecond\n"));
+        logs.close();
+
+        assertThat(tracer.streamEvents.get(0), equalTo("opened"));
+        assertThat(tracer.streamEvents.contains("stalled"), equalTo(true));
+        assertThat(tracer.streamEvents.get(tracer.streamEvents.size() - 1), equalTo("closed"));
+        assertThat(tracer.closedStream.getBytes(), equalTo(13L));
+        assertThat(tracer.closedStream.getDurationNanos(), greaterThanOrEqualTo(tracer.getStallThresholdNanos()));
+    }
+}
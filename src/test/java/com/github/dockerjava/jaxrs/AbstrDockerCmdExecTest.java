@@ -0,0 +1,121 @@
+package com.github.dockerjava.jaxrs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.command.PingCmd;
+import com.github.dockerjava.api.model.Version;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.command.PingCmdImpl;
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class AbstrDockerCmdExecTest {
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    private ExecutorService executorService;
+
+    private DockerClient dockerClient;
+
+    private final AtomicInteger executedTasks = new AtomicInteger();
+
+    private volatile String handlingThread;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                if (request.getPath().startsWith("/version")) {
+                    response.body("application/json", "{\"ApiVersion\":\"1.15\"}");
+                } else {
+                    response.status(404).body("text/plain", "no such container");
+                }
+            }
+        });
+
+        executedTasks.set(0);
+        executorService = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                executedTasks.incrementAndGet();
+            }
+        };
+        DockerClientConfig config = new DockerClientConfig.DockerClientConfigBuilder()
+                .withUri("unix://" + socketFile.getAbsolutePath()).withLoggingFilter(false).build();
+        dockerClient = DockerClientBuilder.getInstance(config)
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl().withExecutorService(executorService))
+                .build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        executorService.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    public void execAsyncRunsOnExecutor() throws Exception {
+        ListenableFuture<Version> future = dockerClient.versionCmd().execAsync();
+
+        assertThat(future.get(5, TimeUnit.SECONDS).getApiVersion(), equalTo("1.15"));
+        assertThat(executedTasks.get(), equalTo(1));
+    }
+
+    @Test
+    public void execAsyncFailsWithDockerException() throws Exception {
+        try {
+            dockerClient.inspectContainerCmd("missing").execAsync().get(5, TimeUnit.SECONDS);
+            throw new AssertionError("expected a NotFoundException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(NotFoundException.class));
+        }
+    }
+
+    @Test
+    public void execAsyncWithoutAsyncExecRunsOnCallingThread() throws Exception {
+        final String callingThread = Thread.currentThread().getName();
+        ListenableFuture<Void> future = new PingCmdImpl(new PingCmd.Exec() {
+            @Override
+            public Void exec(PingCmd command) {
+                handlingThread = Thread.currentThread().getName();
+                throw new NotFoundException("gone");
+            }
+        }).execAsync();
+
+        assertThat(future.isDone(), equalTo(true));
+        assertThat(handlingThread, equalTo(callingThread));
+        try {
+            future.get();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(NotFoundException.class));
+            assertThat(e.getCause().getMessage(), startsWith("gone"));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.ws.rs.ProcessingException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.DockerClientConfig.DockerClientConfigBuilder;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+
+public class ConnectionPoolTest {
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                String path = request.getPath();
+                if (path.startsWith("/_ping")) {
+                    response.body("text/plain", "OK");
+                } else if (path.startsWith("/version")) {
+                    // answers, then hangs up without telling the client
+                    response.body("application/json", "{\"ApiVersion\":\"1.15\"}");
+                    response.closeConnection();
+                } else if (path.startsWith("/info")) {
+                    sleep(2000);
+                    response.body("application/json", "{}");
+                } else if (path.startsWith("/containers/abc/logs")) {
+                    response.chunk("text/plain", "line\n".getBytes("UTF-8"));
+                    sleep(5000);
+                }
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void sharedAcrossClients() throws Exception {
+        DockerClientConfig config = configBuilder().build();
+        ConnectionPool pool = ConnectionPool.create(config);
+        try {
+            DockerClient first = newClient(config, pool);
+            DockerClient second = newClient(config, pool);
+
+            first.pingCmd().exec();
+            second.pingCmd().exec();
+            first.pingCmd().exec();
+            assertThat(server.getConnectionCount(), equalTo(1));
+
+            // closing a client leaves a pool it was given alone
+            first.close();
+            second.pingCmd().exec();
+            assertThat(server.getConnectionCount(), equalTo(1));
+            second.close();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsPoolOfOtherDaemon() throws Exception {
+        ConnectionPool pool = ConnectionPool.create(configBuilder().build());
+        try {
+            newClient(configBuilder().withUri("unix:///var/run/other.sock").build(), pool);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void limitsConnections() throws Exception {
+        DockerClientConfig config = configBuilder().withMaxTotalConnections(1).build();
+        final DockerClient dockerClient = DockerClientBuilder.getInstance(config).build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            InputStream logs = dockerClient.logContainerCmd("abc").withStdOut().withFollowStream().exec();
+            assertThat(logs.read(), equalTo((int) 'l'));
+
+            Future<Void> ping = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    dockerClient.pingCmd().exec();
+                    return null;
+                }
+            });
+            try {
+                ping.get(200, TimeUnit.MILLISECONDS);
+                throw new AssertionError("ping should wait for the only connection");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            logs.close();
+            ping.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            dockerClient.close();
+        }
+    }
+
+    @Test
+    public void evictsIdleConnections() throws Exception {
+        DockerClientConfig config = configBuilder().withIdleConnectionTimeout(100).build();
+        ConnectionPool pool = ConnectionPool.create(config);
+        try {
+            newClient(config, pool).pingCmd().exec();
+            assertThat(pool.getAvailableConnections(), equalTo(1));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (pool.getAvailableConnections() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(pool.getAvailableConnections(), equalTo(0));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void validatesConnectionsOnBorrow() throws Exception {
+        DockerClientConfig config = configBuilder().withConnectionValidation(true).build();
+        DockerClient dockerClient = DockerClientBuilder.getInstance(config).build();
+        try {
+            dockerClient.versionCmd().exec();
+            // give the server a moment to hang up
+            Thread.sleep(100);
+            dockerClient.pingCmd().exec();
+
+            assertThat(server.getConnectionCount(), equalTo(2));
+        } finally {
+            dockerClient.close();
+        }
+    }
+
+    @Test(expectedExceptions = ProcessingException.class)
+    public void readTimeout() throws Exception {
+        DockerClientConfig config = configBuilder().withReadTimeout(200).build();
+        DockerClient dockerClient = DockerClientBuilder.getInstance(config).build();
+        try {
+            dockerClient.infoCmd().exec();
+        } finally {
+            dockerClient.close();
+        }
+    }
+
+    private DockerClientConfigBuilder configBuilder() {
+        return new DockerClientConfigBuilder().withUri("unix://" + socketFile.getAbsolutePath()).withLoggingFilter(
+                false);
+    }
+
+    private static DockerClient newClient(DockerClientConfig config, ConnectionPool pool) {
+        return DockerClientBuilder.getInstance(config).withDockerCmdExecFactory(new DockerCmdExecFactoryImpl(pool))
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
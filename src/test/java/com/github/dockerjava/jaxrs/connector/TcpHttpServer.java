@@ -0,0 +1,112 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.dockerjava.jaxrs.connector.UnixSocketHttpServer.Handler;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The TCP counterpart of {@link UnixSocketHttpServer}, bound to the loopback interface.
+ */
+public class TcpHttpServer implements Closeable {
+
+    private final Handler handler;
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setDaemon(true).setNameFormat("tcp-http-server-%d").build());
+
+    private final Set<Socket> sockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * @param port
+     *            0 for any free port
+     */
+    public TcpHttpServer(int port, Handler handler) throws IOException {
+        this.handler = handler;
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port), 512);
+        executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of connections accepted so far
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        executorService.shutdownNow();
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connectionCount.incrementAndGet();
+            sockets.add(socket);
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    serve(socket);
+                }
+            });
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            UnixSocketHttpServer.serve(new BufferedInputStream(socket.getInputStream()), new BufferedOutputStream(
+                    socket.getOutputStream()), handler);
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            sockets.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
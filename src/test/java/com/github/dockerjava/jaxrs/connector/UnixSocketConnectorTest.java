@@ -0,0 +1,152 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.api.model.Version;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+
+public class UnixSocketConnectorTest {
+
+    private File socketFile;
+
+    private UnixSocketHttpServer server;
+
+    private DockerClient dockerClient;
+
+    private volatile byte[] uploadedBody;
+
+    private final CountDownLatch endlessStreamClosed = new CountDownLatch(1);
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        socketFile = File.createTempFile("docker-java", ".sock");
+        server = new UnixSocketHttpServer(socketFile, new UnixSocketHttpServer.Handler() {
+            @Override
+            public void handle(UnixSocketHttpServer.Request request, UnixSocketHttpServer.Response response)
+                    throws IOException {
+                String path = request.getPath();
+                if (path.startsWith("/v1.15/_ping")) {
+                    response.body("text/plain", "OK");
+                } else if (path.startsWith("/v1.15/version")) {
+                    response.body("application/json", "{\"ApiVersion\":\"1.15\",\"Version\":\"1.3.0\",\"Os\":\"linux\"}");
+                } else if (path.startsWith("/v1.15/containers/abc/logs")) {
+                    for (int i = 0; i < 3; i++) {
+                        response.chunk("text/plain", ("line " + i + "\n").getBytes("UTF-8"));
+                    }
+                } else if (path.startsWith("/v1.15/containers/endless/logs")) {
+                    try {
+                        while (true) {
+                            response.chunk("text/plain", "tick\n".getBytes("UTF-8"));
+                            Thread.sleep(10);
+                        }
+                    } catch (IOException e) {
+                        endlessStreamClosed.countDown();
+                        throw e;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (path.startsWith("/v1.15/build")) {
+                    uploadedBody = request.getBody();
+                    response.chunk("text/plain", "{\"stream\":\"Successfully built 0123456789ab\\n\"}".getBytes("UTF-8"));
+                } else {
+                    response.status(404).body("text/plain", "no such container");
+                }
+            }
+        });
+
+        DockerClientConfig config = new DockerClientConfig.DockerClientConfigBuilder()
+                .withUri("unix://" + socketFile.getAbsolutePath()).withVersion("1.15").withLoggingFilter(false)
+                .build();
+        dockerClient = DockerClientBuilder.getInstance(config).build();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dockerClient.close();
+        server.close();
+    }
+
+    @Test
+    public void parsesJsonResponse() {
+        Version version = dockerClient.versionCmd().exec();
+
+        assertThat(version.getApiVersion(), equalTo("1.15"));
+        assertThat(version.getVersion(), equalTo("1.3.0"));
+        assertThat(version.getOperatingSystem(), equalTo("linux"));
+    }
+
+    @Test
+    public void reusesConnection() {
+        dockerClient.pingCmd().exec();
+        dockerClient.versionCmd().exec();
+        dockerClient.pingCmd().exec();
+
+        assertThat(server.getConnectionCount(), equalTo(1));
+    }
+
+    @Test
+    public void readsChunkedResponse() throws IOException {
+        InputStream logs = dockerClient.logContainerCmd("abc").withStdOut().exec();
+        try {
+            assertThat(IOUtils.toString(logs, "UTF-8"), equalTo("line 0\nline 1\nline 2\n"));
+        } finally {
+            logs.close();
+        }
+
+        dockerClient.pingCmd().exec();
+        assertThat(server.getConnectionCount(), equalTo(1));
+    }
+
+    @Test
+    public void streamsRequestBody() throws IOException {
+        byte[] tar = new byte[256 * 1024];
+        new Random(42).nextBytes(tar);
+
+        InputStream response = dockerClient.buildImageCmd(new ByteArrayInputStream(tar)).exec();
+        try {
+            assertThat(IOUtils.toString(response, "UTF-8"), equalTo(
+                    "{\"stream\":\"Successfully built 0123456789ab\\n\"}"));
+        } finally {
+            response.close();
+        }
+
+        assertThat(Arrays.equals(uploadedBody, tar), equalTo(true));
+    }
+
+    @Test
+    public void closingEndlessStreamReturnsPromptly() throws Exception {
+        InputStream logs = dockerClient.logContainerCmd("endless").withStdOut().withFollowStream().exec();
+        assertThat(logs.read(new byte[5]), equalTo(5));
+
+        long start = System.nanoTime();
+        logs.close();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+        assertThat(endlessStreamClosed.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        dockerClient.pingCmd().exec();
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void mapsErrorResponses() {
+        dockerClient.inspectContainerCmd("missing").exec();
+    }
+}
@@ -0,0 +1,359 @@
+package com.github.dockerjava.jaxrs.connector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jnr.unixsocket.UnixServerSocketChannel;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+/**
+ * Minimal HTTP/1.1 server listening on a unix domain socket, standing in for the Docker daemon in tests.
+ *
+ * Connections are kept alive until the client closes them. Request bodies may be sent with a content length or chunked,
+ * responses are written by a {@link Handler}.
+ */
+public class UnixSocketHttpServer implements Closeable {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    public interface Handler {
+        void handle(Request request, Response response) throws IOException;
+    }
+
+    private final File socketFile;
+
+    private final Handler handler;
+
+    private final UnixServerSocketChannel serverChannel;
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    public UnixSocketHttpServer(File socketFile, Handler handler) throws IOException {
+        this.socketFile = socketFile;
+        this.handler = handler;
+        socketFile.delete();
+        serverChannel = UnixServerSocketChannel.open();
+        serverChannel.socket().bind(new UnixSocketAddress(socketFile));
+        executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    /**
+     * @return the number of connections accepted so far
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        executorService.shutdownNow();
+        serverChannel.close();
+        socketFile.delete();
+    }
+
+    private void accept() {
+        while (!closed) {
+            final UnixSocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connectionCount.incrementAndGet();
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    serve(channel);
+                }
+            });
+        }
+    }
+
+    private void serve(UnixSocketChannel channel) {
+        try {
+            serve(new BufferedInputStream(new ChannelInputStream(channel)), new BufferedOutputStream(
+                    new ChannelOutputStream(channel)), handler);
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Handles the requests of one connection until either side closes it.
+     */
+    static void serve(InputStream in, OutputStream out, Handler handler) throws IOException {
+        Request request;
+        while ((request = Request.read(in)) != null) {
+            Response response = new Response(out);
+            handler.handle(request, response);
+            response.finish();
+            if (response.closeConnection) {
+                break;
+            }
+        }
+    }
+
+    public static class Request {
+
+        private String method;
+
+        private String path;
+
+        private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+        private byte[] body;
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the request target including the query string
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.ENGLISH));
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        static Request read(InputStream in) throws IOException {
+            String requestLine = readLine(in);
+            if (requestLine == null) {
+                return null;
+            }
+            Request request = new Request();
+            String[] parts = requestLine.split(" ");
+            request.method = parts[0];
+            request.path = parts[1];
+
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                request.headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH), line.substring(
+                        colon + 1).trim());
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ("chunked".equalsIgnoreCase(request.getHeader("Transfer-Encoding"))) {
+                int size;
+                while ((size = Integer.parseInt(readLine(in).trim(), 16)) > 0) {
+                    copy(in, body, size);
+                    readLine(in);
+                }
+                readLine(in);
+            } else if (request.getHeader("Content-Length") != null) {
+                copy(in, body, Integer.parseInt(request.getHeader("Content-Length")));
+            }
+            request.body = body.toByteArray();
+            return request;
+        }
+
+        private static void copy(InputStream in, OutputStream out, int length) throws IOException {
+            byte[] buffer = new byte[4096];
+            while (length > 0) {
+                int n = in.read(buffer, 0, Math.min(buffer.length, length));
+                if (n < 0) {
+                    throw new IOException("Unexpected end of request body");
+                }
+                out.write(buffer, 0, n);
+                length -= n;
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    int length = line.length();
+                    return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line
+                            .toString();
+                }
+                line.append((char) c);
+            }
+            return line.length() == 0 ? null : line.toString();
+        }
+    }
+
+    public static class Response {
+
+        private final OutputStream out;
+
+        private boolean headersSent;
+
+        private boolean chunked;
+
+        private boolean closeConnection;
+
+        private int status = 200;
+
+        private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+        Response(OutputStream out) {
+            this.out = out;
+        }
+
+        public Response status(int status) {
+            this.status = status;
+            return this;
+        }
+
+        public Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * Sends the complete body with a content length.
+         */
+        public void body(String contentType, String body) throws IOException {
+            body(contentType, body.getBytes("UTF-8"));
+        }
+
+        /**
+         * Sends the complete body with a content length.
+         */
+        public void body(String contentType, byte[] bytes) throws IOException {
+            header("Content-Type", contentType);
+            header("Content-Length", String.valueOf(bytes.length));
+            sendHeaders();
+            out.write(bytes);
+            out.flush();
+        }
+
+        /**
+         * Sends the headers of a chunked body, for streams that may take a while until their first chunk.
+         */
+        public void startChunks(String contentType) throws IOException {
+            chunked = true;
+            header("Content-Type", contentType);
+            header("Transfer-Encoding", "chunked");
+            sendHeaders();
+            out.flush();
+        }
+
+        /**
+         * Sends a part of a chunked body. The headers are sent with the first chunk.
+         */
+        public void chunk(String contentType, byte[] bytes) throws IOException {
+            if (!headersSent) {
+                startChunks(contentType);
+            }
+            out.write((Integer.toHexString(bytes.length) + "\r\n").getBytes(ASCII));
+            out.write(bytes);
+            out.write("\r\n".getBytes(ASCII));
+            out.flush();
+        }
+
+        /**
+         * Closes the connection once the handler returns, even if the body was complete.
+         */
+        public void closeConnection() {
+            closeConnection = true;
+        }
+
+        void finish() throws IOException {
+            if (!headersSent) {
+                header("Content-Length", "0");
+                sendHeaders();
+            } else if (chunked) {
+                out.write("0\r\n\r\n".getBytes(ASCII));
+            }
+            out.flush();
+        }
+
+        private void sendHeaders() throws IOException {
+            StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(" X\r\n");
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+            }
+            head.append("\r\n");
+            out.write(head.toString().getBytes(ASCII));
+            headersSent = true;
+        }
+    }
+
+    private static class ChannelInputStream extends InputStream {
+
+        private final UnixSocketChannel channel;
+
+        ChannelInputStream(UnixSocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) <= 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = channel.read(ByteBuffer.wrap(b, off, len));
+            return n <= 0 ? -1 : n;
+        }
+    }
+
+    private static class ChannelOutputStream extends OutputStream {
+
+        private final UnixSocketChannel channel;
+
+        ChannelOutputStream(UnixSocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.dockerjava.jaxrs.recording;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ProcessingException;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.FrameDecoder;
+import com.github.dockerjava.core.fake.FakeDaemonProfile;
+import com.github.dockerjava.core.fake.FakeDockerDaemon;
+import com.github.dockerjava.jaxrs.DockerCmdExecFactoryImpl;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+public class RecordReplayTest {
+
+    private static final long LATENCY_MILLIS = 100;
+
+    private File recording;
+
+    private File dockerFolder;
+
+    /**
+     * The daemon is gone, as far as replay is concerned.
+     */
+    private DockerClientConfig offlineConfig;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        recording = File.createTempFile("docker-java", ".recording");
+        dockerFolder = Files.createTempDir();
+        FileUtils.write(new File(dockerFolder, "Dockerfile"), "FROM busybox\nRUN echo hello\n");
+
+        FakeDockerDaemon daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile().withLatency(LATENCY_MILLIS,
+                TimeUnit.MILLISECONDS).withLogLines(10));
+        offlineConfig = daemon.getClientConfigBuilder().withUri("http://127.0.0.1:1").build();
+        DockerClient dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                .withDockerCmdExecFactory(new RecordingDockerCmdExecFactory(recording)).build();
+        try {
+            runWorkload(dockerClient);
+        } finally {
+            dockerClient.close();
+            daemon.close();
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        recording.delete();
+        FileUtils.deleteDirectory(dockerFolder);
+    }
+
+    private Workload runWorkload(DockerClient dockerClient) throws Exception {
+        Workload workload = new Workload();
+        workload.id = dockerClient.createContainerCmd("busybox").withName("app").withCmd("true").exec().getId();
+        workload.name = dockerClient.inspectContainerCmd("app").exec().getName();
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        FrameDecoder decoder = new FrameDecoder(dockerClient.logContainerCmd(workload.id).withStdOut().withStdErr()
+                .exec());
+        decoder.decode(FrameDecoder.copyTo(stdout, stderr));
+        decoder.close();
+        workload.stdout = stdout.toString("UTF-8");
+
+        InputStream build = dockerClient.buildImageCmd(dockerFolder).withTag("replay/built").exec();
+        workload.build = new String(ByteStreams.toByteArray(build), "UTF-8");
+        build.close();
+
+        dockerClient.removeContainerCmd(workload.id).exec();
+        try {
+            dockerClient.inspectContainerCmd(workload.id).exec();
+            throw new AssertionError("expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // removed
+        }
+        return workload;
+    }
+
+    private DockerClient replay(ReplayDockerCmdExecFactory.Timing timing) throws Exception {
+        return DockerClientBuilder.getInstance(offlineConfig)
+                .withDockerCmdExecFactory(new ReplayDockerCmdExecFactory(recording, timing)).build();
+    }
+
+    @Test
+    public void recordsExchanges() throws Exception {
+        List<RecordedExchange> exchanges = RecordingFile.read(recording);
+
+        assertThat(exchanges.size(), equalTo(6));
+        RecordedExchange create = exchanges.get(0);
+        assertThat(create.getMethod(), equalTo("POST"));
+        assertThat(create.getPath(), equalTo("/v" + offlineConfig.getVersion() + "/containers/create?name=app"));
+        assertThat(new String(create.getRequestBody(), "UTF-8"), containsString("\"Image\":\"busybox\""));
+        assertThat(create.getStatus(), equalTo(201));
+        assertThat(create.getResponseNanos(), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS)));
+
+        RecordedExchange build = exchanges.get(3);
+        assertThat(build.getPath(), containsString("/build?t=replay/built"));
+        assertThat(build.getRequestBodyLength(), greaterThan(0L));
+        assertThat(exchanges.get(5).getStatus(), equalTo(404));
+        for (int i = 1; i < exchanges.size(); i++) {
+            assertThat(exchanges.get(i).getStartNanos(), greaterThan(exchanges.get(i - 1).getStartNanos()));
+        }
+    }
+
+    @Test
+    public void replaysWithoutDaemon() throws Exception {
+        DockerClient dockerClient = replay(ReplayDockerCmdExecFactory.Timing.AS_FAST_AS_POSSIBLE);
+        try {
+            long started = System.nanoTime();
+            Workload workload = runWorkload(dockerClient);
+            long elapsed = System.nanoTime() - started;
+
+            assertThat(workload.id.length(), equalTo(64));
+            assertThat(workload.name, equalTo("/app"));
+            assertThat(workload.stdout, containsString("app line 1\n"));
+            assertThat(workload.build, containsString("Successfully built"));
+            // six requests at the recorded latency would take at least this long
+            assertThat(elapsed, lessThan(TimeUnit.MILLISECONDS.toNanos(6 * LATENCY_MILLIS)));
+
+            // used up responses are repeated
+            assertThat(dockerClient.createContainerCmd("busybox").withName("app").withCmd("true").exec().getId(),
+                    equalTo(workload.id));
+        } finally {
+            dockerClient.close();
+        }
+    }
+
+    @Test
+    public void replaysAtOriginalTiming() throws Exception {
+        DockerClient dockerClient = replay(ReplayDockerCmdExecFactory.Timing.ORIGINAL);
+        try {
+            long started = System.nanoTime();
+            runWorkload(dockerClient);
+            assertThat(System.nanoTime() - started,
+                    greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(6 * LATENCY_MILLIS)));
+        } finally {
+            dockerClient.close();
+        }
+    }
+
+    @Test(expectedExceptions = ProcessingException.class)
+    public void failsOnUnrecordedRequest() throws Exception {
+        DockerClient dockerClient = replay(ReplayDockerCmdExecFactory.Timing.AS_FAST_AS_POSSIBLE);
+        try {
+            dockerClient.versionCmd().exec();
+        } finally {
+            dockerClient.close();
+        }
+    }
+
+    @Test
+    public void replayMatchesLiveDaemon() throws Exception {
+        // a recording does not change what the client sees
+        FakeDockerDaemon daemon = FakeDockerDaemon.onLocalhost(new FakeDaemonProfile().withLogLines(10));
+        DockerClient dockerClient = DockerClientBuilder.getInstance(daemon.getClientConfig())
+                .withDockerCmdExecFactory(new DockerCmdExecFactoryImpl()).build();
+        DockerClient replayed = replay(ReplayDockerCmdExecFactory.Timing.AS_FAST_AS_POSSIBLE);
+        try {
+            Workload direct = runWorkload(dockerClient);
+            Workload replay = runWorkload(replayed);
+            assertThat(replay.stdout, equalTo(direct.stdout));
+            assertThat(replay.name, equalTo(direct.name));
+        } finally {
+            replayed.close();
+            dockerClient.close();
+            daemon.close();
+        }
+    }
+
+    private static class Workload {
+
+        String id;
+
+        String name;
+
+        String stdout;
+
+        String build;
+    }
+}